@@ -54,6 +54,10 @@ public class CacheConfig {
 
     // Report caches
     public static final String MONTHLY_REPORT_CACHE = "monthlyReport";
+    public static final String REPORT_RESULTS_CACHE = "reportResults";
+
+    // Service analytics caches
+    public static final String SERVICE_KPIS_CACHE = "serviceKpis";
 
     @Bean
     public CacheManager cacheManager() {
@@ -82,7 +86,9 @@ public class CacheConfig {
                 TEAM_LEAVES_CACHE,
                 LEAVE_POLICY_CACHE,
                 HOLIDAYS_CACHE,
-                MONTHLY_REPORT_CACHE
+                MONTHLY_REPORT_CACHE,
+                REPORT_RESULTS_CACHE,
+                SERVICE_KPIS_CACHE
         );
 
         cacheManager.setCaffeine(Caffeine.newBuilder()
@@ -97,8 +103,15 @@ public class CacheConfig {
                         log.debug("Cache eviction: key={}, cause={}", key, cause))
         );
 
-        log.info("Cache manager initialized with {} caches: dashboardStats, growthTrends, unreadNotifications, permissions, recordAccess, subordinates, allSubordinates, systemPermissions, fieldPermissions, modulePermissions, pathPermissions, dataVisibility, userDataVisibility, dailyAttendance, userAttendanceSummary, shifts, officeLocations, leaveBalance, userLeaves, teamLeaves, leavePolicy, holidays, monthlyReport",
-                23);
+        // Report results are not invalidated by writes, so they are only reused for a minute
+        cacheManager.registerCustomCache(REPORT_RESULTS_CACHE, Caffeine.newBuilder()
+                .expireAfterWrite(60, TimeUnit.SECONDS)
+                .maximumSize(1000)
+                .recordStats()
+                .build());
+
+        log.info("Cache manager initialized with {} caches: dashboardStats, growthTrends, unreadNotifications, permissions, recordAccess, subordinates, allSubordinates, systemPermissions, fieldPermissions, modulePermissions, pathPermissions, dataVisibility, userDataVisibility, dailyAttendance, userAttendanceSummary, shifts, officeLocations, leaveBalance, userLeaves, teamLeaves, leavePolicy, holidays, monthlyReport, reportResults, serviceKpis",
+                25);
 
         return cacheManager;
     }
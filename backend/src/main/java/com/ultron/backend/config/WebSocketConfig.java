@@ -1,6 +1,8 @@
 package com.ultron.backend.config;
 
 import com.ultron.backend.multitenancy.TenantContext;
+import com.ultron.backend.service.ChatAuthorizationService;
+import com.ultron.backend.service.ChatService;
 import com.ultron.backend.service.JwtService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +12,7 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.messaging.simp.stomp.StompCommand;
@@ -18,9 +21,11 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 import java.util.Collections;
 import java.util.List;
@@ -32,7 +37,39 @@ import java.util.List;
 @Order(Ordered.HIGHEST_PRECEDENCE + 99)
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final AntPathMatcher DESTINATION_MATCHER = new AntPathMatcher(".");
+
     private final JwtService jwtService;
+    private final ChatAuthorizationService chatAuthorizationService;
+
+    @Value("${app.websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${app.websocket.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${app.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    // A session that cannot drain this much buffered output within the time limit is closed,
+    // so one slow client cannot hold outbound threads
+    @Value("${app.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
@@ -51,8 +88,27 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -97,6 +153,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         TenantContext.setUserId(userId);
                     }
                 }
+
+                // Group chat is published once per group topic, so only members may subscribe to it
+                if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+                    authorizeGroupSubscription(accessor);
+                }
                 
                 return message;
             }
@@ -107,4 +168,38 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
             }
         });
     }
+
+    /**
+     * Reject SUBSCRIBE to /topic/group.{groupId}.{channel} unless the session user is a member of the group.
+     * Pattern destinations are rejected outright: the simple broker matches them against every topic,
+     * so /topic/** would receive all groups of all tenants. Members removed later lose their
+     * subscriptions through ChatService.revokeGroupSubscriptions and on the next group publish.
+     */
+    private void authorizeGroupSubscription(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination != null && DESTINATION_MATCHER.isPattern(destination)) {
+            log.warn("Rejected pattern subscription to {}", destination);
+            TenantContext.clear();
+            throw new MessageDeliveryException("Pattern subscriptions are not allowed: " + destination);
+        }
+        if (destination == null || !destination.startsWith(ChatService.GROUP_TOPIC_PREFIX)) {
+            return;
+        }
+
+        String rest = destination.substring(ChatService.GROUP_TOPIC_PREFIX.length());
+        int separator = rest.lastIndexOf('.');
+        String groupId = separator > 0 ? rest.substring(0, separator) : rest;
+
+        String tenantId = accessor.getSessionAttributes() != null
+                ? (String) accessor.getSessionAttributes().get("tenantId") : null;
+        String userId = accessor.getSessionAttributes() != null
+                ? (String) accessor.getSessionAttributes().get("userId") : null;
+
+        if (tenantId == null || userId == null || !chatAuthorizationService.isGroupMember(userId, groupId, tenantId)) {
+            log.warn("Rejected subscription of user {} to {}", userId, destination);
+            // postSend is skipped when preSend throws
+            TenantContext.clear();
+            throw new MessageDeliveryException("Not authorized to subscribe to " + destination);
+        }
+    }
 }
@@ -5,6 +5,8 @@ import com.ultron.backend.dto.request.UpdateAccountRequest;
 import com.ultron.backend.dto.response.AccountResponse;
 import com.ultron.backend.dto.response.ApiResponse;
 import com.ultron.backend.service.AccountService;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -23,6 +26,7 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final TabularExportService tabularExportService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<AccountResponse>> createAccount(
@@ -55,6 +59,12 @@ public class AccountController {
                         .build());
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAccounts(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return tabularExportService.toResponse("accounts", exportFormat, accountService.exportAccounts(exportFormat));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<AccountResponse>> getAccountById(@PathVariable String id) {
         log.info("Fetching account with id: {}", id);
@@ -1,6 +1,10 @@
 package com.ultron.backend.controller;
 
+import com.ultron.backend.domain.enums.RollupDimension;
+import com.ultron.backend.domain.enums.RollupEntity;
 import com.ultron.backend.dto.response.ApiResponse;
+import com.ultron.backend.multitenancy.TenantContext;
+import com.ultron.backend.service.AnalyticsRollupService;
 import com.ultron.backend.service.TenantAnalyticsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -8,8 +12,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Controller for tenant analytics and reporting
  * Provides dashboard metrics, growth trends, and performance insights
@@ -23,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 public class AnalyticsController {
 
     private final TenantAnalyticsService analyticsService;
+    private final AnalyticsRollupService analyticsRollupService;
 
     /**
      * Get comprehensive dashboard statistics
@@ -64,4 +72,44 @@ public class AnalyticsController {
                 .data(trends)
                 .build());
     }
+
+    /**
+     * Get breakdown of an entity by status, owner or source
+     */
+    @GetMapping("/breakdown")
+    @Operation(
+            summary = "Get dimension breakdown",
+            description = "Current count, records created and net change per status, owner or source over a period"
+    )
+    public ResponseEntity<ApiResponse<List<TenantAnalyticsService.DimensionBreakdown>>> getBreakdown(
+            @RequestParam RollupEntity entity,
+            @RequestParam RollupDimension dimension,
+            @RequestParam(defaultValue = "30") int days) {
+        log.info("Fetching {} breakdown by {} for {} days", entity, dimension, days);
+
+        return ResponseEntity.ok(ApiResponse.<List<TenantAnalyticsService.DimensionBreakdown>>builder()
+                .success(true)
+                .message("Breakdown retrieved successfully")
+                .data(analyticsService.getDimensionBreakdown(entity, dimension, days))
+                .build());
+    }
+
+    /**
+     * Rebuild analytics rollups of the current tenant from history
+     */
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Rebuild analytics rollups",
+            description = "Recompute the daily analytics rollups of the current tenant from the source data"
+    )
+    public ResponseEntity<ApiResponse<Long>> rebuildRollups() {
+        long rows = analyticsRollupService.rebuild(TenantContext.getTenantId());
+
+        return ResponseEntity.ok(ApiResponse.<Long>builder()
+                .success(true)
+                .message("Analytics rollups rebuilt")
+                .data(rows)
+                .build());
+    }
 }
@@ -12,6 +12,7 @@ import com.ultron.backend.dto.attendance.MonthlyAttendanceReportResponse;
 import com.ultron.backend.dto.attendance.TeamAttendanceResponse;
 import com.ultron.backend.service.AttendanceReportService;
 import com.ultron.backend.service.AttendanceService;
+import com.ultron.backend.util.GpsSpoofingDetector;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/attendance")
@@ -304,6 +306,28 @@ public class AttendanceController {
                         .build());
     }
 
+    /**
+     * Admin: Re-run GPS spoofing analysis over a day's check-ins
+     * POST /api/v1/attendance/admin/spoofing/rescore?date=2026-03-07
+     */
+    @PostMapping("/admin/spoofing/rescore")
+    @PreAuthorize("hasPermission('ATTENDANCE', 'MODIFYALL')")
+    public ResponseEntity<ApiResponse<Map<String, GpsSpoofingDetector.SpoofingDetectionResult>>> rescoreSpoofing(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        LocalDate targetDate = date != null ? date : LocalDate.now();
+        log.info("Rescoring GPS spoofing for date: {}", targetDate);
+
+        Map<String, GpsSpoofingDetector.SpoofingDetectionResult> response = attendanceService.rescoreSpoofing(targetDate);
+
+        return ResponseEntity.ok(
+                ApiResponse.<Map<String, GpsSpoofingDetector.SpoofingDetectionResult>>builder()
+                        .success(true)
+                        .message("GPS spoofing rescored successfully")
+                        .data(response)
+                        .build());
+    }
+
     /**
      * Get current user ID from security context
      */
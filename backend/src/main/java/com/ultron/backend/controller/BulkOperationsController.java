@@ -2,6 +2,7 @@ package com.ultron.backend.controller;
 
 import com.ultron.backend.dto.response.ApiResponse;
 import com.ultron.backend.dto.shift.BulkAssignmentResult;
+import com.ultron.backend.dto.shift.BulkShiftAssignmentJobResponse;
 import com.ultron.backend.dto.shift.BulkShiftAssignmentRequest;
 import com.ultron.backend.service.BulkShiftAssignmentService;
 import jakarta.validation.Valid;
@@ -46,4 +47,38 @@ public class BulkOperationsController {
                         .data(result)
                         .build());
     }
+
+    /**
+     * Run a bulk shift assignment in the background (for large user lists)
+     */
+    @PostMapping("/assign-shift/jobs")
+    @PreAuthorize("hasPermission('SHIFT', 'ASSIGN')")
+    public ResponseEntity<ApiResponse<BulkShiftAssignmentJobResponse>> startBulkAssignShift(
+            @Valid @RequestBody BulkShiftAssignmentRequest request,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        log.info("User {} queuing bulk shift assignment for {} users", userId, request.getUserIds().size());
+
+        BulkShiftAssignmentJobResponse job = bulkShiftAssignmentService.startBulkAssignShift(request, userId);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.<BulkShiftAssignmentJobResponse>builder()
+                        .success(true)
+                        .message("Bulk assignment queued")
+                        .data(job)
+                        .build());
+    }
+
+    /**
+     * Progress of a background bulk shift assignment; data.result holds the per-user detail once completed
+     */
+    @GetMapping("/assign-shift/jobs/{jobId}")
+    @PreAuthorize("hasPermission('SHIFT', 'ASSIGN')")
+    public ResponseEntity<ApiResponse<BulkShiftAssignmentJobResponse>> getBulkAssignShiftJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(ApiResponse.<BulkShiftAssignmentJobResponse>builder()
+                .success(true)
+                .message("Bulk assignment status retrieved successfully")
+                .data(bulkShiftAssignmentService.getJob(jobId))
+                .build());
+    }
 }
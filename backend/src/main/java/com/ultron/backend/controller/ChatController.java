@@ -1,21 +1,20 @@
 package com.ultron.backend.controller;
 
-import com.ultron.backend.dto.response.ChatMessageDTO;
+import com.ultron.backend.dto.response.ChatHistoryResponse;
 import com.ultron.backend.service.ChatService;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -39,23 +38,51 @@ public class ChatController {
     }
 
     /**
-     * REST endpoint to fetch chat history.
+     * REST endpoint to fetch chat history, newest first.
+     * Pass the previous response's nextCursor as "before" to load older messages.
      */
     @GetMapping("/history/{recipientType}/{recipientId}")
-    public ResponseEntity<Page<ChatMessageDTO>> getChatHistory(
+    public ResponseEntity<ChatHistoryResponse> getChatHistory(
             @PathVariable String recipientType,
             @PathVariable String recipientId,
+            @RequestParam(required = false) String before,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
             Authentication authentication) {
 
         String senderId = authentication.getName();
-        Pageable pageable = PageRequest.of(page, size);
-        Page<ChatMessageDTO> history = chatService.getChatHistory(senderId, recipientId, recipientType, pageable);
+        ChatHistoryResponse history = chatService.getChatHistory(senderId, recipientId, recipientType, before, page, size);
 
         return ResponseEntity.ok(history);
     }
 
+    /**
+     * Mark a conversation read up to a point in time (default: now)
+     */
+    @PostMapping("/read/{recipientType}/{recipientId}")
+    public ResponseEntity<Void> markConversationRead(
+            @PathVariable String recipientType,
+            @PathVariable String recipientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime upTo,
+            Authentication authentication) {
+
+        chatService.markConversationRead(authentication.getName(), recipientId, recipientType, upTo);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Number of messages from others after the user's read watermark
+     */
+    @GetMapping("/unread/{recipientType}/{recipientId}")
+    public ResponseEntity<Map<String, Long>> getUnreadMessageCount(
+            @PathVariable String recipientType,
+            @PathVariable String recipientId,
+            Authentication authentication) {
+
+        long unread = chatService.getUnreadMessageCount(authentication.getName(), recipientId, recipientType);
+        return ResponseEntity.ok(Map.of("unread", unread));
+    }
+
     /**
      * Handle typing indicator events via WebSocket.
      * Maps to /app/chat.typing
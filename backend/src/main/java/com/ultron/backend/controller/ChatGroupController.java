@@ -40,4 +40,15 @@ public class ChatGroupController {
         List<ChatGroupDTO> groups = chatGroupService.getUserGroups(userId);
         return ResponseEntity.ok(ApiResponse.success("User groups fetched successfully", groups));
     }
+
+    @DeleteMapping("/{groupId}/members/{memberId}")
+    public ResponseEntity<ApiResponse<ChatGroupDTO>> removeMember(
+            @PathVariable String groupId,
+            @PathVariable String memberId,
+            Authentication authentication) {
+
+        String userId = authentication.getName();
+        ChatGroupDTO group = chatGroupService.removeMember(userId, groupId, memberId);
+        return ResponseEntity.ok(ApiResponse.success("Member removed successfully", group));
+    }
 }
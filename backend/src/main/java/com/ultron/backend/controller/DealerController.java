@@ -112,6 +112,15 @@ public class DealerController {
                 dealerPerformanceService.getAllForMonth(month, year)));
     }
 
+    @PostMapping("/performance/monthly/recompute")
+    @PreAuthorize("hasPermission('DEALERS', 'EDIT')")
+    public ResponseEntity<ApiResponse<List<DealerPerformance>>> recomputeMonthlyPerformance(
+            @RequestParam int month,
+            @RequestParam int year) {
+        return ResponseEntity.ok(ApiResponse.success("Monthly dealer performance recomputed",
+                dealerPerformanceService.recomputeMonth(month, year)));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasPermission('DEALERS', 'DELETE')")
     public ResponseEntity<ApiResponse<Void>> delete(@PathVariable String id) {
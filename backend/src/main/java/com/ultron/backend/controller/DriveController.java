@@ -3,17 +3,22 @@ package com.ultron.backend.controller;
 import com.ultron.backend.domain.entity.DriveFile;
 import com.ultron.backend.domain.entity.DriveFileVersion;
 import com.ultron.backend.domain.entity.DriveFolder;
+import com.ultron.backend.domain.entity.DriveUpload;
 import com.ultron.backend.dto.response.ApiResponse;
 import com.ultron.backend.service.DriveService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 
 @RestController @RequestMapping("/drive") @RequiredArgsConstructor
@@ -55,6 +60,43 @@ public class DriveController {
         return ResponseEntity.ok(ApiResponse.<String>builder().success(true).data(driveService.getDownloadUrl(id)).build());
     }
 
+    @GetMapping("/files/{id}/content")
+    @PreAuthorize("hasPermission('DRIVE', 'VIEW')")
+    public ResponseEntity<StreamingResponseBody> content(@PathVariable String id,
+                                                         @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        return driveService.streamContent(id, range);
+    }
+
+    @PostMapping("/uploads")
+    @PreAuthorize("hasPermission('DRIVE', 'CREATE')")
+    public ResponseEntity<ApiResponse<DriveUpload>> startUpload(@RequestBody StartUploadRequest req) {
+        DriveUpload upload = driveService.startUpload(req.getFileName(), req.getMimeType(), req.getSizeBytes(),
+                req.getChunkSize(), req.getSha256(), req.getFolderId(), currentUserId());
+        return ResponseEntity.ok(ApiResponse.<DriveUpload>builder().success(true).data(upload).build());
+    }
+
+    @PutMapping("/uploads/{uploadId}/chunks/{index}")
+    @PreAuthorize("hasPermission('DRIVE', 'CREATE')")
+    public ResponseEntity<ApiResponse<DriveUpload>> putChunk(@PathVariable String uploadId, @PathVariable int index,
+                                                             @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+                                                             HttpServletRequest request) throws IOException {
+        DriveUpload upload = driveService.putChunk(uploadId, index, request.getInputStream(),
+                request.getContentLengthLong(), sha256);
+        return ResponseEntity.ok(ApiResponse.<DriveUpload>builder().success(true).data(upload).build());
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasPermission('DRIVE', 'CREATE')")
+    public ResponseEntity<ApiResponse<DriveUpload>> getUpload(@PathVariable String uploadId) {
+        return ResponseEntity.ok(ApiResponse.<DriveUpload>builder().success(true).data(driveService.getUpload(uploadId)).build());
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    @PreAuthorize("hasPermission('DRIVE', 'CREATE')")
+    public ResponseEntity<ApiResponse<DriveFile>> completeUpload(@PathVariable String uploadId) {
+        return ResponseEntity.ok(ApiResponse.<DriveFile>builder().success(true).data(driveService.completeUpload(uploadId, currentUserId())).build());
+    }
+
     @DeleteMapping("/files/{id}")
     @PreAuthorize("hasPermission('DRIVE', 'DELETE')")
     public ResponseEntity<ApiResponse<Void>> deleteFile(@PathVariable String id) {
@@ -73,4 +115,14 @@ public class DriveController {
         private String name;
         private String parentFolderId;
     }
+
+    @Data
+    public static class StartUploadRequest {
+        private String fileName;
+        private String mimeType;
+        private long sizeBytes;
+        private Integer chunkSize;
+        private String sha256;
+        private String folderId;
+    }
 }
@@ -5,9 +5,14 @@ import com.ultron.backend.dto.request.AssignLeadRequest;
 import com.ultron.backend.dto.request.CreateLeadRequest;
 import com.ultron.backend.dto.request.UpdateLeadRequest;
 import com.ultron.backend.dto.response.ApiResponse;
+import com.ultron.backend.dto.response.LeadImportJobResponse;
 import com.ultron.backend.dto.response.LeadResponse;
 import com.ultron.backend.service.LeadAssignmentService;
+import com.ultron.backend.service.LeadRescoringService;
 import com.ultron.backend.service.LeadService;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
+import com.ultron.backend.service.leadimport.LeadImportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +22,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -28,6 +35,9 @@ public class LeadController {
 
     private final LeadService leadService;
     private final LeadAssignmentService leadAssignmentService;
+    private final TabularExportService tabularExportService;
+    private final LeadImportService leadImportService;
+    private final LeadRescoringService leadRescoringService;
 
     /**
      * Create a new lead
@@ -52,6 +62,53 @@ public class LeadController {
                         .build());
     }
 
+    /**
+     * Import leads from a CSV or XLSX file in the background
+     * POST /api/v1/leads/import
+     * Progress is pushed to /user/queue/progress; poll GET /api/v1/leads/import/{jobId} otherwise
+     */
+    @PostMapping("/import")
+    @PreAuthorize("hasPermission('LEAD', 'CREATE')")
+    public ResponseEntity<ApiResponse<LeadImportJobResponse>> importLeads(@RequestParam("file") MultipartFile file) {
+        String currentUserId = getCurrentUserId();
+        log.info("User {} importing leads from: {}", currentUserId, file.getOriginalFilename());
+
+        LeadImportJobResponse job = leadImportService.startImport(file, currentUserId);
+
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.<LeadImportJobResponse>builder()
+                        .success(true)
+                        .message("Lead import started")
+                        .data(job)
+                        .build());
+    }
+
+    /**
+     * Get the progress of a lead import
+     * GET /api/v1/leads/import/{jobId}
+     */
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasPermission('LEAD', 'CREATE')")
+    public ResponseEntity<ApiResponse<LeadImportJobResponse>> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(
+                ApiResponse.<LeadImportJobResponse>builder()
+                        .success(true)
+                        .message("Lead import status retrieved successfully")
+                        .data(leadImportService.getJob(jobId))
+                        .build());
+    }
+
+    /**
+     * Recompute the stored scores of all leads of the current tenant
+     * POST /api/v1/leads/rescore
+     */
+    @PostMapping("/rescore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> rescoreLeads() {
+        return ResponseEntity.ok(ApiResponse.success("Leads rescored", leadRescoringService.rescoreCurrentTenant()));
+    }
+
     /**
      * Get leads based on user's data visibility level
      * - Admin (ALL): Returns all leads in tenant
@@ -75,6 +132,18 @@ public class LeadController {
                         .build());
     }
 
+    /**
+     * Export leads visible to the current user as CSV or XLSX
+     * GET /api/v1/leads/export?format=xlsx
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasPermission('LEAD', 'READ')")
+    public ResponseEntity<StreamingResponseBody> exportLeads(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return tabularExportService.toResponse("leads", exportFormat,
+                leadService.exportLeads(getCurrentUserId(), exportFormat));
+    }
+
     /**
      * Get lead by ID
      * GET /api/v1/leads/{id}
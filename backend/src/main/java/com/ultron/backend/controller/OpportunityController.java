@@ -7,6 +7,8 @@ import com.ultron.backend.dto.response.ApiResponse;
 import com.ultron.backend.dto.response.OpportunityResponse;
 import com.ultron.backend.dto.response.OpportunityStatistics;
 import com.ultron.backend.service.OpportunityService;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +18,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,6 +29,7 @@ import java.util.List;
 public class OpportunityController {
 
     private final OpportunityService opportunityService;
+    private final TabularExportService tabularExportService;
 
     @PostMapping
     @PreAuthorize("hasPermission('OPPORTUNITY', 'CREATE')")
@@ -68,6 +72,17 @@ public class OpportunityController {
                         .build());
     }
 
+    /**
+     * Export opportunities visible to the current user as CSV or XLSX
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasPermission('OPPORTUNITY', 'READ')")
+    public ResponseEntity<StreamingResponseBody> exportOpportunities(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return tabularExportService.toResponse("opportunities", exportFormat,
+                opportunityService.exportOpportunities(getCurrentUserId(), exportFormat));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasPermission('OPPORTUNITY', 'READ')")
     public ResponseEntity<ApiResponse<OpportunityResponse>> getOpportunityById(@PathVariable String id) {
@@ -3,11 +3,15 @@ package com.ultron.backend.controller;
 import com.ultron.backend.domain.entity.SavedReport;
 import com.ultron.backend.dto.response.ApiResponse;
 import com.ultron.backend.service.ReportBuilderService;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -18,6 +22,7 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportBuilderService reportBuilderService;
+    private final TabularExportService tabularExportService;
 
     @GetMapping
     @PreAuthorize("hasPermission('REPORTS', 'VIEW')")
@@ -56,8 +61,20 @@ public class ReportController {
 
     @PostMapping("/{id}/run")
     @PreAuthorize("hasPermission('REPORTS', 'VIEW')")
-    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> run(@PathVariable String id) {
-        return ResponseEntity.ok(ApiResponse.<List<Map<String, Object>>>builder()
-                .success(true).data(reportBuilderService.runReport(id)).build());
+    public ResponseEntity<ApiResponse<Page<Map<String, Object>>>> run(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(ApiResponse.<Page<Map<String, Object>>>builder()
+                .success(true).data(reportBuilderService.runReport(id, page, size)).build());
+    }
+
+    @GetMapping("/{id}/export")
+    @PreAuthorize("hasPermission('REPORTS', 'VIEW')")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String id,
+                                                        @RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return tabularExportService.toResponse("report_" + id, exportFormat,
+                reportBuilderService.exportReport(id, exportFormat));
     }
 }
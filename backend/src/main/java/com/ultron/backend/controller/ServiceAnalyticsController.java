@@ -1,5 +1,6 @@
 package com.ultron.backend.controller;
 
+import com.ultron.backend.domain.entity.WorkOrderKpiStats;
 import com.ultron.backend.dto.response.ApiResponse;
 import com.ultron.backend.service.InventoryAnalyticsService;
 import com.ultron.backend.service.ServiceAnalyticsService;
@@ -35,6 +36,13 @@ public class ServiceAnalyticsController {
                 serviceAnalyticsService.getVolumeByTypeAndPriority()));
     }
 
+    @PostMapping("/kpis/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<WorkOrderKpiStats>> rebuildKpis() {
+        return ResponseEntity.ok(ApiResponse.success("Service KPIs rebuilt",
+                serviceAnalyticsService.rebuildKpis()));
+    }
+
     @GetMapping("/parts-availability")
     @PreAuthorize("hasPermission('SERVICE_ANALYTICS', 'VIEW')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getPartsAvailabilityRate() {
@@ -56,6 +64,13 @@ public class ServiceAnalyticsController {
                 inventoryAnalyticsService.getReorderRecommendations()));
     }
 
+    @PostMapping("/inventory/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> rebuildMovementIndex() {
+        return ResponseEntity.ok(ApiResponse.success("Stock movement summaries rebuilt",
+                inventoryAnalyticsService.rebuildMovementIndex()));
+    }
+
     @GetMapping("/inventory/top-consumed")
     @PreAuthorize("hasPermission('SERVICE_ANALYTICS', 'VIEW')")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getTopConsumedParts(
@@ -51,9 +51,11 @@ public class TimeEntryController {
     @GetMapping("/workload")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ApiResponse<List<WorkloadSummary>>> getWorkload(
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         LocalDate effectiveDate = date != null ? date : LocalDate.now();
-        List<WorkloadSummary> summary = timeEntryService.getWorkloadSummary(effectiveDate);
+        LocalDate effectiveTo = to != null ? to : effectiveDate.plusDays(7);
+        List<WorkloadSummary> summary = timeEntryService.getWorkloadSummary(effectiveDate, effectiveTo);
         return ResponseEntity.ok(ApiResponse.success("Workload summary retrieved", summary));
     }
 
@@ -0,0 +1,60 @@
+package com.ultron.backend.controller;
+
+import com.ultron.backend.domain.entity.WebhookEndpoint;
+import com.ultron.backend.dto.request.CreateWebhookEndpointRequest;
+import com.ultron.backend.dto.response.ApiResponse;
+import com.ultron.backend.service.webhook.WebhookEndpointService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for the tenant's webhook endpoints
+ */
+@RestController
+@RequestMapping("/webhooks/endpoints")
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookEndpointController {
+
+    private final WebhookEndpointService webhookEndpointService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<WebhookEndpoint>> createEndpoint(
+            @Valid @RequestBody CreateWebhookEndpointRequest request) {
+        WebhookEndpoint endpoint = webhookEndpointService.createEndpoint(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Webhook endpoint created successfully", endpoint));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<WebhookEndpoint>>> getEndpoints() {
+        return ResponseEntity.ok(ApiResponse.success("Webhook endpoints retrieved successfully",
+                webhookEndpointService.getEndpoints()));
+    }
+
+    @DeleteMapping("/{endpointId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> deleteEndpoint(@PathVariable String endpointId) {
+        webhookEndpointService.deleteEndpoint(endpointId);
+        return ResponseEntity.ok(ApiResponse.success("Webhook endpoint deleted successfully", null));
+    }
+
+    /**
+     * Requeue the endpoint's dead-lettered events
+     */
+    @PostMapping("/{endpointId}/redeliver")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> redeliverDeadLetters(@PathVariable String endpointId) {
+        long requeued = webhookEndpointService.redeliverDeadLetters(endpointId);
+        return ResponseEntity.ok(ApiResponse.success("Dead-lettered events requeued", requeued));
+    }
+}
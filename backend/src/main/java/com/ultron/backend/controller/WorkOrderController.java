@@ -6,6 +6,8 @@ import com.ultron.backend.dto.request.UpdateWorkOrderRequest;
 import com.ultron.backend.dto.response.ApiResponse;
 import com.ultron.backend.dto.response.WorkOrderResponse;
 import com.ultron.backend.service.WorkOrderService;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +17,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -26,6 +29,7 @@ import java.util.Map;
 public class WorkOrderController {
 
     private final WorkOrderService workOrderService;
+    private final TabularExportService tabularExportService;
 
     @PostMapping
     @PreAuthorize("hasPermission('WORK_ORDERS', 'CREATE')")
@@ -58,6 +62,13 @@ public class WorkOrderController {
         return ResponseEntity.ok(ApiResponse.success("Work orders retrieved", result));
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasPermission('WORK_ORDERS', 'READ')")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return tabularExportService.toResponse("work_orders", exportFormat, workOrderService.exportAll(exportFormat));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasPermission('WORK_ORDERS', 'READ')")
     public ResponseEntity<ApiResponse<WorkOrderResponse>> getById(@PathVariable String id) {
@@ -0,0 +1,47 @@
+package com.ultron.backend.domain.entity;
+
+import com.ultron.backend.domain.enums.RollupDimension;
+import com.ultron.backend.domain.enums.RollupEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-tenant daily counters for an (entity, dimension, value).
+ *
+ * - created: records created that day with this value
+ * - added / removed: records that gained / lost this value that day (create, update, soft delete)
+ *
+ * The live count of a value on a day is the sum of (added - removed) up to that day.
+ * Days are IST calendar days formatted as yyyy-MM-dd so they sort and compare as strings.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "analytics_daily_rollups")
+@CompoundIndex(name = "tenantId_entity_dimension_day_value", unique = true,
+        def = "{'tenantId': 1, 'entity': 1, 'dimension': 1, 'day': 1, 'value': 1}")
+public class AnalyticsDailyRollup {
+
+    @Id
+    private String id;
+
+    private String tenantId;
+    private RollupEntity entity;
+    private RollupDimension dimension;
+    private String value;
+    private String day;
+
+    private long created;
+    private long added;
+    private long removed;
+
+    private LocalDateTime rebuiltAt;    // set on rows written by the last rebuild
+}
@@ -0,0 +1,28 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Backfill state of a tenant's analytics rollups; id is the tenantId.
+ * Totals are read from rollups only once history has been backfilled.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "analytics_rollup_status")
+public class AnalyticsRollupStatus {
+
+    @Id
+    private String id;
+
+    private LocalDateTime backfilledAt;
+    private long rowCount;
+}
@@ -30,6 +30,8 @@ import java.util.List;
     @CompoundIndex(name = "tenantId_date_status", def = "{'tenantId': 1, 'attendanceDate': 1, 'status': 1}"),
     @CompoundIndex(name = "tenantId_isDeleted", def = "{'tenantId': 1, 'isDeleted': 1}"),
     @CompoundIndex(name = "userId_date_tenantId", def = "{'userId': 1, 'attendanceDate': -1, 'tenantId': 1}")
+    // tenantId_userId_date_unique (one live record per user per day, which makes check-in an idempotent
+    // upsert) is created by AttendanceDuplicateMigration once existing duplicates are removed
 })
 public class Attendance {
 
@@ -0,0 +1,45 @@
+package com.ultron.backend.domain.entity;
+
+import com.ultron.backend.dto.shift.BulkAssignmentResult;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status and progress of a background bulk shift assignment, shared across instances so any node
+ * can report it. Written by the node running the job after every chunk; removed a day after it finished.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "bulk_shift_assignment_jobs")
+public class BulkShiftAssignmentJob {
+
+    @Id
+    private String id;
+
+    private String tenantId;
+    private String assignedBy;
+
+    private String shiftId;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private int totalRequested;
+    private int processed;
+    private int successCount;
+    private int failureCount;
+    private String error;
+    private BulkAssignmentResult result;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+
+    @Indexed(expireAfterSeconds = 86400)
+    private LocalDateTime completedAt;
+}
@@ -7,6 +7,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -18,6 +20,12 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "calendar_events")
+@CompoundIndexes({
+    // seriesEnd leads startTime: a window scan starts at the window's beginning instead of the oldest event
+    @CompoundIndex(name = "tenant_creator_window_idx", def = "{'tenantId': 1, 'createdBy': 1, 'seriesEnd': 1, 'startTime': 1}"),
+    @CompoundIndex(name = "tenant_attendee_window_idx", def = "{'tenantId': 1, 'attendeeIds': 1, 'seriesEnd': 1, 'startTime': 1}"),
+    @CompoundIndex(name = "tenant_window_idx", def = "{'tenantId': 1, 'seriesEnd': 1, 'startTime': 1}")
+})
 public class CalendarEvent {
 
     @Id
@@ -52,6 +60,11 @@ public class CalendarEvent {
     @Builder.Default
     private String recurrence = "NONE";
 
+    /**
+     * End of the last occurrence: endTime for one-off events, null for open-ended recurring series
+     */
+    private LocalDateTime seriesEnd;
+
     private String createdBy;
     private String updatedBy;
     private LocalDateTime createdAt;
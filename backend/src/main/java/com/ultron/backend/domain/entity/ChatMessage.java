@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -15,6 +16,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "chat_messages")
+@CompoundIndex(name = "idx_chat_conversation_keyset", def = "{'tenantId': 1, 'conversationId': 1, 'timestamp': -1, '_id': -1}")
 public class ChatMessage {
 
     @Id
@@ -32,6 +34,9 @@ public class ChatMessage {
     // e.g. "USER", "GROUP"
     private String recipientType;
 
+    // ChatService.conversationId: "all", "group:{groupId}" or "dm:{userA}:{userB}" (ids sorted)
+    private String conversationId;
+
     private String content;
 
     @CreatedDate
@@ -0,0 +1,31 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read watermark of one user in one conversation; id is tenantId:conversationId:userId.
+ * Messages of the conversation up to lastReadAt count as read for the user.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "chat_read_states")
+public class ChatReadState {
+
+    @Id
+    private String id;
+
+    private String tenantId;
+    private String conversationId;
+    private String userId;
+    private LocalDateTime lastReadAt;
+    private LocalDateTime updatedAt;
+}
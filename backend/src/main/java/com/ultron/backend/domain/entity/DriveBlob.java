@@ -0,0 +1,20 @@
+package com.ultron.backend.domain.entity;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+/**
+ * Stored content of a tenant's Drive files, addressed by SHA-256; id is tenantId:sha256.
+ * refCount counts the live files pointing at it; the content is deleted when it drops to 0.
+ */
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+@Document(collection = "drive_blobs")
+public class DriveBlob {
+    @Id private String id;
+    private String tenantId;
+    private String sha256;
+    private String storageKey;
+    private Long sizeBytes;
+    private long refCount;
+    private LocalDateTime createdAt;
+}
@@ -16,6 +16,7 @@ public class DriveFile {
     private String mimeType;
     private Long sizeBytes;
     private String storageKey;
+    private String contentHash;  // SHA-256 of the content; DriveBlob tenantId:contentHash
     private Integer currentVersionNumber;
     private List<String> sharedWith;
     private String linkedEntityType;
@@ -13,6 +13,7 @@ public class DriveFileVersion {
     private String fileId;
     private Integer versionNumber;
     private String storageKey;
+    private String contentHash;
     private String uploadedBy;
     private LocalDateTime uploadedAt;
     private Long sizeBytes;
@@ -0,0 +1,30 @@
+package com.ultron.backend.domain.entity;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.Set;
+/**
+ * A resumable chunked upload; chunks may arrive in any order and be retried until completed
+ */
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+@Document(collection = "drive_uploads")
+public class DriveUpload {
+    @Id private String id;
+    @Indexed(unique = true) private String uploadId;
+    @Indexed private String tenantId;
+    private String folderId;
+    private String fileName;
+    private String mimeType;
+    private Long sizeBytes;
+    private Integer chunkSize;
+    private Integer chunkCount;
+    private Set<Integer> receivedChunks;
+    private String sha256;  // optional whole-file hash declared by the client
+    private String status;  // IN_PROGRESS, COMPLETING, COMPLETED
+    private String fileId;  // DriveFile created on completion
+    private String createdBy;
+    private LocalDateTime createdAt;
+    @Indexed private LocalDateTime expiresAt;  // parts of uploads not completed by then are removed
+}
@@ -5,22 +5,28 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+/**
+ * Downsampled engineer GPS history.
+ *
+ * Stored in a MongoDB time-series collection (timeField=timestamp, metaField=engineerId) with
+ * collection-level expiry. The collection and its secondary index are created by
+ * EngineerLocationIngestionService on startup, so no index annotations are declared here
+ * (auto index creation would otherwise create a regular collection first).
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(collection = "engineer_locations")
+@Document(collection = "engineer_location_history")
 public class EngineerLocation {
 
     @Id
     private String id;
 
-    @Indexed
     private String tenantId;
 
     private String engineerId;
@@ -28,7 +34,6 @@ public class EngineerLocation {
     private Double lng;
     private Double accuracy;
 
-    @Indexed(expireAfterSeconds = 86400)
     private LocalDateTime timestamp;
 
     private String workOrderId;
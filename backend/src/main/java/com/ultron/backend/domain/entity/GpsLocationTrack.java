@@ -0,0 +1,37 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last known GPS fix of a user, shared across instances for spoofing detection.
+ * One document per (tenant, user); id is "tenantId:userId". Expires after an hour
+ * since speed-jump detection only compares fixes within the last hour.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "gps_location_tracks")
+public class GpsLocationTrack {
+
+    @Id
+    private String id;
+
+    private String tenantId;
+    private String userId;
+
+    private double latitude;
+    private double longitude;
+    private long timestamp; // epoch millis of the fix
+
+    @Indexed(expireAfterSeconds = 3600)
+    private LocalDateTime updatedAt;
+}
@@ -72,6 +72,7 @@ public class Lead {
     private LeadSource leadSource;
     private LeadStatus leadStatus;
     private String leadOwnerId;  // Reference to User ID
+    private String leadOwnerName;  // Denormalized
     private BigDecimal expectedRevenue;
     private LocalDate expectedCloseDate;
 
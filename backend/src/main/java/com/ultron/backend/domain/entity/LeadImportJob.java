@@ -0,0 +1,45 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Status and progress of a lead import, shared across instances so any node can report it.
+ * Written by the node running the import after every chunk; removed a day after it finished.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "lead_import_jobs")
+public class LeadImportJob {
+
+    @Id
+    private String id;
+
+    private String tenantId;
+    private String importedBy;
+
+    private String fileName;
+    private String status;
+    private long rowsRead;
+    private long imported;
+    private long duplicates;
+    private long invalid;
+    private long failed;
+    private List<String> errors;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+
+    @Indexed(expireAfterSeconds = 86400)
+    private LocalDateTime completedAt;
+}
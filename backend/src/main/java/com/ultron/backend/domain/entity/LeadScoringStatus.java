@@ -0,0 +1,30 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scoring state of a tenant's leads; id is the tenantId.
+ * Leads are rescored when rulesVersion differs from LeadScoringService.RULES_VERSION.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "lead_scoring_status")
+public class LeadScoringStatus {
+
+    @Id
+    private String id;
+
+    private int rulesVersion;
+    private LocalDateTime rescoredAt;
+    private long leadCount;
+    private long updatedCount;
+}
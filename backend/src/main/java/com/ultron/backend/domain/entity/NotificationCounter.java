@@ -0,0 +1,34 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Unread notification count of one user; id is tenantId:targetUserId.
+ * version grows with every change, so a seed can tell whether the count changed while it was taken.
+ * A counter first created by a new notification starts unseeded (seeded = false) and is set from a
+ * count of the unread notifications on the first read; null means seeded.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notification_counters")
+public class NotificationCounter {
+
+    @Id
+    private String id;
+
+    private String tenantId;
+    private String targetUserId;
+    private long unread;
+    private long version;
+    private Boolean seeded;
+    private LocalDateTime updatedAt;
+}
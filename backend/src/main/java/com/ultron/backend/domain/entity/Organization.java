@@ -121,6 +121,7 @@ public class Organization {
         private Long currentStorageMB;
         private Integer apiCallsToday;
         private LocalDateTime lastCalculated;
+        private LocalDateTime reconciledAt;  // Counters last recomputed from the documents
     }
 
     @Data
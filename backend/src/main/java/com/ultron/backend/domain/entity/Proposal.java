@@ -28,6 +28,7 @@ import java.util.List;
     @CompoundIndex(name = "tenant_account_idx", def = "{'tenantId': 1, 'accountId': 1, 'isDeleted': 1}"),
     @CompoundIndex(name = "tenant_status_deleted_idx", def = "{'tenantId': 1, 'status': 1, 'isDeleted': 1}"),
     @CompoundIndex(name = "tenant_owner_deleted_idx", def = "{'tenantId': 1, 'ownerId': 1, 'isDeleted': 1}"),
+    @CompoundIndex(name = "tenant_createdby_deleted_idx", def = "{'tenantId': 1, 'createdBy': 1, 'isDeleted': 1}"),
     @CompoundIndex(name = "tenant_status_source_idx", def = "{'tenantId': 1, 'status': 1, 'source': 1, 'sourceId': 1}"),
     @CompoundIndex(name = "tenant_product_lineitem_idx", def = "{'tenantId': 1, 'lineItems.productId': 1, 'isDeleted': 1}")
 })
@@ -10,7 +10,9 @@ import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Document(collection = "proposal_versions")
 @CompoundIndexes({
@@ -33,9 +35,17 @@ public class ProposalVersion {
 
     private Integer version; // Version number (1, 2, 3...)
 
-    // Snapshot of the entire proposal at this point in time
+    // Legacy: full snapshot of the proposal (versions written before delta encoding)
     private Proposal snapshot;
 
+    // Keyframe: the proposal document as stored; other versions carry a delta against baseVersion
+    private org.bson.Document state;
+    private List<org.bson.Document> delta;
+    private Integer baseVersion;
+    private Integer chainLength; // deltas since the last keyframe (0 for keyframes)
+
+    private BigDecimal totalAmount; // shown in the history list without rebuilding the version
+
     // Information about the change
     private String action; // CREATED, UPDATED, SENT, ACCEPTED, REJECTED
     private String comment; // Brief description of the change
@@ -31,6 +31,10 @@ public class SavedReport {
     private List<ReportFilter> filters;
     private List<String> columns;
     private String groupBy;
+    private List<ReportMeasure> measures;
+    private String sortBy;
+    private String sortDirection; // ASC or DESC
+    private Integer limit; // top-N rows, null for all
     private ReportChartType chartType;
     private boolean isScheduled;
     private String scheduleFrequency;
@@ -48,7 +52,17 @@ public class SavedReport {
     @AllArgsConstructor
     public static class ReportFilter {
         private String field;
-        private String operator;
+        private String operator; // eq, ne, contains, gt, gte, lt, lte, in
         private String value;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReportMeasure {
+        private String field;
+        private String function; // sum, avg, min, max
+        private String alias;
+    }
 }
@@ -0,0 +1,29 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Build state of a tenant's stock movement summaries; id is the tenantId.
+ * The summaries are built once rebuiltAt is set; rebuildingSince is set while a rebuild runs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "inventory_movement_index_status")
+public class StockMovementIndexStatus {
+
+    @Id
+    private String id;
+
+    private LocalDateTime rebuiltAt;
+    private long summaryCount;
+    private LocalDateTime rebuildingSince;
+}
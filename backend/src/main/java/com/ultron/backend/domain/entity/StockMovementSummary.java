@@ -0,0 +1,65 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Movement summary of one product in one warehouse, maintained from stock transactions.
+ *
+ * Consumption is PRODUCTION_OUT quantity. dailyConsumption holds the last 365 IST days
+ * keyed yyyy-MM-dd; the rolling totals are derived from it on every write and nightly.
+ * warehouseId is null for consumption recorded without a warehouse (work order parts).
+ */
+@Document(collection = "inventory_movement_summaries")
+@CompoundIndexes({
+    @CompoundIndex(
+        name = "tenant_product_warehouse_idx",
+        def = "{'tenantId': 1, 'productId': 1, 'warehouseId': 1}",
+        unique = true
+    ),
+    @CompoundIndex(
+        name = "tenant_last_movement_idx",
+        def = "{'tenantId': 1, 'lastMovementAt': 1}"
+    ),
+    @CompoundIndex(
+        name = "tenant_total_consumed_idx",
+        def = "{'tenantId': 1, 'totalConsumed': -1}"
+    )
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementSummary {
+
+    @Id
+    private String id;
+
+    private String tenantId;
+    private String productId;           // Product MongoDB _id, as on StockTransaction
+    private String warehouseId;
+
+    private LocalDateTime lastMovementAt;
+    private LocalDateTime lastConsumedAt;
+
+    private long totalConsumed;
+    private long consumed30Days;
+    private long consumed90Days;
+    private long consumed365Days;
+    private double avgDailyUsage;       // consumed90Days / 90
+
+    private LocalDateTime rebuiltAt;    // start of the rebuild that last wrote this summary
+
+    @Builder.Default
+    private Map<String, Long> dailyConsumption = new HashMap<>();
+}
@@ -0,0 +1,62 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answer tallies of one survey, maintained from its responses. The id is tenantId:surveyId.
+ *
+ * counts maps question id to answer value to number of answers; numeric holds running summaries of
+ * RATING and NPS answers. Keys are encoded by SurveyTallyService so they are valid field names.
+ * version changes on every write so a rebuild can tell whether responses arrived while it recounted;
+ * rebuildEpoch lets a submission tell whether a rebuild ran while it was being recorded.
+ */
+@Document(collection = "survey_tallies")
+@CompoundIndex(name = "stale_idx", def = "{'stale': 1, 'tenantId': 1}")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyTally {
+
+    @Id
+    private String id;
+
+    private String tenantId;
+    private String surveyId;
+
+    private long totalResponses;
+
+    @Builder.Default
+    private Map<String, Map<String, Long>> counts = new HashMap<>();
+
+    @Builder.Default
+    private Map<String, NumericSummary> numeric = new HashMap<>();
+
+    private long version;
+    private long rebuildEpoch;          // bumped when a rebuild starts and when it completes
+    private boolean stale;              // survey edited since the last recount; a rebuild is due
+    private LocalDateTime rebuiltAt;
+    private LocalDateTime updatedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NumericSummary {
+        private long count;
+        private double sum;
+        private double sumOfSquares;
+        private Double min;
+        private Double max;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ultron.backend.domain.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * A tenant's HTTP endpoint that receives webhook events
+ */
+@Document(collection = "webhook_endpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookEndpoint {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String tenantId;
+
+    private String url;
+
+    // HMAC-SHA256 key for the X-Webhook-Signature header; never returned by the API
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String secret;
+
+    private Set<WebhookEvent.EventType> eventTypes;  // empty = all events
+
+    private Integer maxConcurrency;  // in-flight requests to this endpoint, default app.webhooks.max-in-flight
+
+    private Integer batchSize;  // > 1 delivers up to this many events per request
+
+    private boolean active;
+
+    // Audit fields
+    private LocalDateTime createdAt;
+
+    private String createdBy;
+
+    private Boolean isDeleted;
+
+    public boolean accepts(WebhookEvent.EventType eventType) {
+        return eventTypes == null || eventTypes.isEmpty() || eventTypes.contains(eventType);
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -16,8 +17,9 @@ import java.util.Map;
  * Tracks tenant lifecycle events and system notifications
  */
 @Document(collection = "webhook_events")
+@CompoundIndex(name = "status_nextRetryAt", def = "{'status': 1, 'nextRetryAt': 1}")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class WebhookEvent {
@@ -26,7 +28,7 @@ public class WebhookEvent {
     private String id;
 
     @Indexed
-    private String eventId;  // EVT-YYYYMM-XXXXX
+    private String eventId;  // EVT-YYYYMM-<ObjectId>
 
     @Indexed
     private String tenantId;
@@ -46,6 +48,8 @@ public class WebhookEvent {
     private LocalDateTime occurredAt;
 
     // Webhook delivery tracking
+    private String endpointId;  // WebhookEndpoint this copy of the event is delivered to
+
     private String webhookUrl;
 
     private Integer deliveryAttempts;
@@ -56,6 +60,13 @@ public class WebhookEvent {
 
     private String deliveryError;
 
+    private LocalDateTime deliveredAt;
+
+    // Claimed by a delivery worker until leaseExpiresAt
+    private String leaseId;
+
+    private LocalDateTime leaseExpiresAt;
+
     // Audit fields
     private LocalDateTime createdAt;
 
@@ -112,6 +123,7 @@ public class WebhookEvent {
         PENDING,
         DELIVERED,
         FAILED,
+        DEAD_LETTER,  // gave up after app.webhooks.max-attempts
         CANCELLED
     }
 }
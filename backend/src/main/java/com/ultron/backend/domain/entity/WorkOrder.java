@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -18,6 +19,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "work_orders")
+@CompoundIndex(name = "tenantId_status", def = "{'tenantId': 1, 'status': 1}")
+@CompoundIndex(name = "tenantId_assetId_createdAt", def = "{'tenantId': 1, 'assetId': 1, 'createdAt': -1}")
 public class WorkOrder {
 
     @Id
@@ -0,0 +1,51 @@
+package com.ultron.backend.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running work order KPI counters of a tenant; id is the tenantId.
+ *
+ * Counters cover non-deleted work orders. "Completed" means COMPLETED or REOPENED, matching
+ * the service dashboard. Counters are only incremented once rebuiltAt is set by a rebuild.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "work_order_kpi_stats")
+public class WorkOrderKpiStats {
+
+    @Id
+    private String id;
+
+    private long completedCount;
+    private long firstTimeFixCount;
+    private long withinSlaCount;
+    private long repeatVisitCount;
+
+    // MTTR: sum of repair minutes over completed WOs with start and end times
+    private long repairMinutesTotal;
+    private long timedRepairCount;
+
+    @Builder.Default
+    private Map<String, Long> byStatus = new HashMap<>();
+    @Builder.Default
+    private Map<String, Long> byType = new HashMap<>();
+    @Builder.Default
+    private Map<String, Long> byPriority = new HashMap<>();
+
+    // Completed WOs per assigned engineer
+    @Builder.Default
+    private Map<String, Long> engineerCompleted = new HashMap<>();
+
+    private LocalDateTime rebuiltAt;
+}
@@ -0,0 +1,9 @@
+package com.ultron.backend.domain.enums;
+
+/**
+ * Dimensions of the daily analytics rollups. TOTAL has the single value "ALL";
+ * SOURCE is the lead source, or the activity type for activities.
+ */
+public enum RollupDimension {
+    TOTAL, STATUS, OWNER, SOURCE
+}
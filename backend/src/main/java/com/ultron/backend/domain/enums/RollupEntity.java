@@ -0,0 +1,46 @@
+package com.ultron.backend.domain.enums;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Entities tracked by the daily analytics rollups, with the source collection and the
+ * stored field behind each dimension (dimensions without a field are not tracked)
+ */
+public enum RollupEntity {
+    LEAD("leads", "leadStatus", "leadOwnerId", "leadSource"),
+    CONTACT("contacts", null, "ownerId", null),
+    OPPORTUNITY("opportunities", "stage", "ownerId", "leadSource"),
+    ACTIVITY("activities", "status", "assignedToId", "type");
+
+    private final String collectionName;
+    private final Map<RollupDimension, String> fields = new EnumMap<>(RollupDimension.class);
+
+    RollupEntity(String collectionName, String statusField, String ownerField, String sourceField) {
+        this.collectionName = collectionName;
+        fields.put(RollupDimension.TOTAL, null);
+        if (statusField != null) fields.put(RollupDimension.STATUS, statusField);
+        if (ownerField != null) fields.put(RollupDimension.OWNER, ownerField);
+        if (sourceField != null) fields.put(RollupDimension.SOURCE, sourceField);
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    /**
+     * Tracked dimensions mapped to their document field (null for TOTAL)
+     */
+    public Map<RollupDimension, String> getDimensionFields() {
+        return fields;
+    }
+
+    public static RollupEntity fromCollection(String collectionName) {
+        for (RollupEntity entity : values()) {
+            if (entity.collectionName.equals(collectionName)) {
+                return entity;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ultron.backend.dto.request;
+
+import com.ultron.backend.domain.entity.WebhookEvent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateWebhookEndpointRequest {
+
+    @NotBlank(message = "Webhook URL is required")
+    @Pattern(regexp = "^https?://.+", message = "Webhook URL must start with http:// or https://")
+    private String url;
+
+    private String secret;
+
+    private Set<WebhookEvent.EventType> eventTypes;
+
+    @Min(value = 1, message = "Max concurrency must be at least 1")
+    @Max(value = 32, message = "Max concurrency must be at most 32")
+    private Integer maxConcurrency;
+
+    @Min(value = 1, message = "Batch size must be at least 1")
+    @Max(value = 500, message = "Batch size must be at most 500")
+    private Integer batchSize;
+}
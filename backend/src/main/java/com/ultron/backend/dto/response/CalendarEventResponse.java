@@ -23,6 +23,9 @@ public class CalendarEventResponse {
     private String description;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
+    // Stored start/end of a recurring series; startTime/endTime are those of one occurrence
+    private LocalDateTime seriesStartTime;
+    private LocalDateTime seriesEndTime;
     private String location;
     private String clientId;
     private String clientName;
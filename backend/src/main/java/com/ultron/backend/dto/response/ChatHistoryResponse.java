@@ -0,0 +1,21 @@
+package com.ultron.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of chat history, newest first; pass nextCursor as "before" to load older messages
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatHistoryResponse {
+    private List<ChatMessageDTO> content;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,29 @@
+package com.ultron.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeadImportJobResponse {
+
+    private String jobId;
+    private String type;
+    private String fileName;
+    private String status;
+    private long rowsRead;
+    private long imported;
+    private long duplicates;
+    private long invalid;
+    private long failed;
+    private List<String> errors;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
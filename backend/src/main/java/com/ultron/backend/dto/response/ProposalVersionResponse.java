@@ -4,6 +4,7 @@ import com.ultron.backend.domain.entity.Proposal;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -14,7 +15,8 @@ public class ProposalVersionResponse {
     private Integer version;
     private String action;
     private String comment;
-    private Proposal snapshot;
+    private Proposal snapshot; // only set for a single version, not in the history list
+    private BigDecimal totalAmount;
     private LocalDateTime createdAt;
     private String createdBy;
     private String createdByName;
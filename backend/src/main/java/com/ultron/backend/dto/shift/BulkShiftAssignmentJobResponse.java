@@ -0,0 +1,31 @@
+package com.ultron.backend.dto.shift;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk shift assignment running in the background; result is set once COMPLETED
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkShiftAssignmentJobResponse {
+
+    private String jobId;
+    private String type;
+    private String shiftId;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private int totalRequested;
+    private int processed;
+    private int successCount;
+    private int failureCount;
+    private String error;
+    private BulkAssignmentResult result;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -22,6 +22,11 @@ public class LeadAssignmentEventListener {
     public void handleLeadCreated(LeadCreatedEvent event) {
         log.info("LeadCreatedEvent received for lead: {}", event.getLead().getId());
 
+        if (event.getLead().getAssignedUserId() != null) {
+            // Leads created through LeadService are assigned before they are written
+            return;
+        }
+
         try {
             leadAssignmentService.autoAssignLead(event.getLead());
         } catch (Exception e) {
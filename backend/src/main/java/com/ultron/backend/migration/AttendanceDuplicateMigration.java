@@ -0,0 +1,74 @@
+package com.ultron.backend.migration;
+
+import com.mongodb.client.MongoCollection;
+import com.ultron.backend.domain.entity.Attendance;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Soft-deletes duplicate live attendance records (same tenant, user and day), keeping the earliest
+ * check-in, and then creates the tenantId_userId_date_unique index that check-in relies on.
+ * The index is created here rather than through @CompoundIndex because auto index creation runs
+ * before any migration and would fail on a collection that still has duplicates.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceDuplicateMigration implements CommandLineRunner {
+
+    private static final String UNIQUE_INDEX = "tenantId_userId_date_unique";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            MongoCollection<Document> attendances = mongoTemplate.getCollection("attendances");
+
+            List<Object> duplicateIds = new ArrayList<>();
+            attendances.aggregate(List.of(
+                    new Document("$match", new Document("isDeleted", false)),
+                    new Document("$sort", new Document("checkInTime", 1).append("_id", 1)),
+                    new Document("$group", new Document("_id", new Document("tenantId", "$tenantId")
+                            .append("userId", "$userId")
+                            .append("attendanceDate", "$attendanceDate"))
+                            .append("ids", new Document("$push", "$_id"))
+                            .append("count", new Document("$sum", 1))),
+                    new Document("$match", new Document("count", new Document("$gt", 1)))))
+                    .allowDiskUse(true)
+                    .forEach(group -> {
+                        List<?> ids = group.getList("ids", Object.class);
+                        duplicateIds.addAll(ids.subList(1, ids.size()));
+                    });
+
+            if (!duplicateIds.isEmpty()) {
+                long updated = attendances.updateMany(new Document("_id", new Document("$in", duplicateIds)),
+                        new Document("$set", new Document("isDeleted", true)
+                                .append("deletedAt", new Date())
+                                .append("deletedBy", "system")
+                                .append("systemNotes", "Duplicate check-in for the same day removed by migration")))
+                        .getModifiedCount();
+                log.info("Attendance migration: soft-deleted {} duplicate attendance records", updated);
+            }
+
+            mongoTemplate.indexOps(Attendance.class).ensureIndex(
+                    new CompoundIndexDefinition(new Document("tenantId", 1).append("userId", 1).append("attendanceDate", 1))
+                            .named(UNIQUE_INDEX)
+                            .unique()
+                            .partial(PartialIndexFilter.of(Criteria.where("isDeleted").is(false))));
+        } catch (Exception e) {
+            log.error("Attendance duplicate migration failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ultron.backend.migration;
+
+import com.mongodb.client.MongoCollection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sets seriesEnd (see CalendarEventService.seriesEnd) on calendar events stored before it existed,
+ * so window queries skip past events through the index. Does nothing once every event has one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarEventSeriesEndMigration implements CommandLineRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            MongoCollection<Document> events = mongoTemplate.getCollection("calendar_events");
+            Document missing = new Document("seriesEnd", new Document("$exists", false));
+            if (events.countDocuments(missing) == 0) {
+                return;
+            }
+
+            Document recurring = new Document("$in", List.of(
+                    new Document("$toUpper", new Document("$ifNull", List.of("$recurrence", "NONE"))),
+                    List.of("DAILY", "WEEKLY", "MONTHLY")));
+            long updated = events.updateMany(missing, List.of(new Document("$set", new Document("seriesEnd",
+                    new Document("$cond", Arrays.asList(recurring, null, new Document("$ifNull", List.of("$endTime", "$startTime"))))))))
+                    .getModifiedCount();
+
+            log.info("Calendar event migration: set seriesEnd on {} events", updated);
+        } catch (Exception e) {
+            log.error("Calendar event migration failed: {}", e.getMessage());
+        }
+    }
+}
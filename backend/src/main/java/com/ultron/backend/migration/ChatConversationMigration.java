@@ -0,0 +1,80 @@
+package com.ultron.backend.migration;
+
+import com.mongodb.client.MongoCollection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Sets conversationId (see ChatService.conversationId) on chat messages stored before it existed,
+ * so keyset history paging finds them. Every step only touches messages still missing one, so it
+ * is safe to run repeatedly and on several nodes at once. Runs at startup and again on a schedule
+ * to pick up messages written by nodes still on the old version during a rolling deploy, until a
+ * run finds nothing left.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatConversationMigration implements CommandLineRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean complete;
+
+    @Override
+    public void run(String... args) {
+        migrate();
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.conversation-migration-ms:600000}",
+            initialDelayString = "${app.chat.conversation-migration-ms:600000}")
+    public void migrateRemaining() {
+        if (!complete) {
+            migrate();
+        }
+    }
+
+    private void migrate() {
+        try {
+            MongoCollection<Document> messages = mongoTemplate.getCollection("chat_messages");
+            Document missing = new Document("conversationId", new Document("$exists", false));
+            if (messages.countDocuments(missing) == 0) {
+                complete = true;
+                return;
+            }
+
+            long updated = 0;
+            updated += messages.updateMany(
+                    and(missing, new Document("recipientId", Pattern.compile("^all$", Pattern.CASE_INSENSITIVE))),
+                    List.of(set(new Document("conversationId", "all")))).getModifiedCount();
+            updated += messages.updateMany(
+                    and(missing, new Document("recipientType", Pattern.compile("^group$", Pattern.CASE_INSENSITIVE))),
+                    List.of(set(new Document("conversationId", new Document("$concat", List.of("group:", "$recipientId"))))))
+                    .getModifiedCount();
+            updated += messages.updateMany(missing, List.of(set(new Document("conversationId", new Document("$cond", List.of(
+                    new Document("$lte", List.of("$senderId", "$recipientId")),
+                    new Document("$concat", List.of("dm:", "$senderId", ":", "$recipientId")),
+                    new Document("$concat", List.of("dm:", "$recipientId", ":", "$senderId")))))))).getModifiedCount();
+
+            log.info("Chat conversation migration: set conversationId on {} messages", updated);
+        } catch (Exception e) {
+            log.error("Chat conversation migration failed: {}", e.getMessage());
+        }
+    }
+
+    private static Bson and(Document first, Document second) {
+        return new Document("$and", List.of(first, second));
+    }
+
+    private static Bson set(Document fields) {
+        return new Document("$set", fields);
+    }
+}
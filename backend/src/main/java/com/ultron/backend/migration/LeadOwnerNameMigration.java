@@ -0,0 +1,79 @@
+package com.ultron.backend.migration;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.WriteModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sets leadOwnerName on leads stored before it was kept in step with the owner's name, so listing
+ * leads no longer looks up each owner. Does nothing once every owned lead has one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LeadOwnerNameMigration implements CommandLineRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            MongoCollection<Document> leads = mongoTemplate.getCollection("leads");
+            Document missing = new Document("leadOwnerName", null)
+                    .append("leadOwnerId", new Document("$ne", null));
+            if (leads.countDocuments(missing) == 0) {
+                return;
+            }
+
+            List<Object> ownerIds = new ArrayList<>();
+            for (String ownerId : leads.distinct("leadOwnerId", missing, String.class)) {
+                ownerIds.add(ownerId);
+                if (ObjectId.isValid(ownerId)) {
+                    ownerIds.add(new ObjectId(ownerId));
+                }
+            }
+
+            // Leads reference their owner by either the user's _id or its userId code
+            Document owners = new Document("$or", List.of(
+                    new Document("_id", new Document("$in", ownerIds)),
+                    new Document("userId", new Document("$in", ownerIds))));
+            List<WriteModel<Document>> updates = new ArrayList<>();
+            for (Document user : mongoTemplate.getCollection("users").find(owners)
+                    .projection(new Document("fullName", 1).append("userId", 1).append("tenantId", 1))) {
+                String fullName = user.getString("fullName");
+                if (fullName == null) {
+                    continue;
+                }
+                List<Object> keys = new ArrayList<>();
+                keys.add(user.get("_id").toString());
+                if (user.getString("userId") != null) {
+                    keys.add(user.getString("userId"));
+                }
+                updates.add(new UpdateManyModel<>(
+                        new Document("tenantId", user.getString("tenantId"))
+                                .append("leadOwnerId", new Document("$in", keys))
+                                .append("leadOwnerName", null),
+                        new Document("$set", new Document("leadOwnerName", fullName))));
+            }
+            if (updates.isEmpty()) {
+                return;
+            }
+
+            long updated = leads.bulkWrite(updates, new BulkWriteOptions().ordered(false)).getModifiedCount();
+            log.info("Lead owner migration: set leadOwnerName on {} leads", updated);
+        } catch (Exception e) {
+            log.error("Lead owner migration failed: {}", e.getMessage());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,4 +23,12 @@ public interface EngineerLocationRepository extends MongoRepository<EngineerLoca
         "{ $replaceRoot: { newRoot: '$doc' } }"
     })
     List<EngineerLocation> findLatestPerEngineerByTenantId(String tenantId);
+
+    @Aggregation(pipeline = {
+        "{ $match: { tenantId: ?0, timestamp: { $gte: ?1 } } }",
+        "{ $sort: { timestamp: -1 } }",
+        "{ $group: { _id: '$engineerId', doc: { $first: '$$ROOT' } } }",
+        "{ $replaceRoot: { newRoot: '$doc' } }"
+    })
+    List<EngineerLocation> findLatestPerEngineerByTenantIdSince(String tenantId, LocalDateTime since);
 }
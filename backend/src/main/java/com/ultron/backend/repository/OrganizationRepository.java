@@ -31,4 +31,7 @@ public interface OrganizationRepository extends MongoRepository<Organization, St
 
     @Query("{ 'status': ?0, 'isDeleted': false }")
     java.util.List<Organization> findByStatus(Organization.OrganizationStatus status);
+
+    @Query(value = "{ 'usage.reconciledAt': null }", fields = "{ '_id': 1 }")
+    java.util.List<Organization> findUnreconciled();
 }
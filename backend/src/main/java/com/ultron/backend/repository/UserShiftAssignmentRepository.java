@@ -2,6 +2,7 @@ package com.ultron.backend.repository;
 
 import com.ultron.backend.domain.entity.UserShiftAssignment;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -47,4 +48,11 @@ public interface UserShiftAssignmentRepository extends MongoRepository<UserShift
      * Find all active assignments
      */
     List<UserShiftAssignment> findByTenantIdAndIsDeletedFalse(String tenantId);
+
+    /**
+     * Find assignments in effect on a date (started on or before it, not ended before it)
+     */
+    @Query("{ 'tenantId': ?0, 'isDeleted': false, 'effectiveDate': { $lte: ?1 }, " +
+           "'$or': [ { 'endDate': null }, { 'endDate': { $gte: ?1 } } ] }")
+    List<UserShiftAssignment> findEffectiveOn(String tenantId, LocalDate date);
 }
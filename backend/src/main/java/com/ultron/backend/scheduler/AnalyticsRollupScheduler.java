@@ -0,0 +1,37 @@
+package com.ultron.backend.scheduler;
+
+import com.ultron.backend.repository.OrganizationRepository;
+import com.ultron.backend.service.AnalyticsRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills analytics rollups from history for tenants that have not been backfilled yet.
+ * Backfilled tenants are kept current incrementally and are not rebuilt, since a rebuild
+ * only knows each record's current status, owner and source.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupScheduler {
+
+    private final AnalyticsRollupService analyticsRollupService;
+    private final OrganizationRepository organizationRepository;
+
+    @Scheduled(cron = "0 0 3 * * *")   // daily at 3 AM
+    public void backfillRollups() {
+        organizationRepository.findAll().forEach(org -> {
+            String tenantId = org.getId();
+            try {
+                if (!analyticsRollupService.isBackfilled(tenantId)) {
+                    log.info("Backfilling analytics rollups for tenant {}", tenantId);
+                    analyticsRollupService.rebuild(tenantId);
+                }
+            } catch (Exception e) {
+                log.error("Analytics rollup backfill failed for tenant {}: {}", tenantId, e.getMessage());
+            }
+        });
+    }
+}
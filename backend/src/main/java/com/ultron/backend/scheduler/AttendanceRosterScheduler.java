@@ -0,0 +1,35 @@
+package com.ultron.backend.scheduler;
+
+import com.ultron.backend.repository.OrganizationRepository;
+import com.ultron.backend.service.AttendanceRosterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pre-builds the daily attendance roster of every tenant before the morning check-in window,
+ * so the first check-ins of the day do not pay for building it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceRosterScheduler {
+
+    private final AttendanceRosterService attendanceRosterService;
+    private final OrganizationRepository organizationRepository;
+
+    @Scheduled(cron = "0 30 5 * * *")   // daily at 5:30 AM
+    public void buildDailyRosters() {
+        log.info("Building daily attendance rosters");
+
+        organizationRepository.findAll().forEach(org -> {
+            String tenantId = org.getId();
+            try {
+                attendanceRosterService.rebuild(tenantId);
+            } catch (Exception e) {
+                log.error("Attendance roster build failed for tenant {}: {}", tenantId, e.getMessage());
+            }
+        });
+    }
+}
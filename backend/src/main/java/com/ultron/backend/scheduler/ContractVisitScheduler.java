@@ -9,6 +9,7 @@ import com.ultron.backend.domain.enums.WorkOrderType;
 import com.ultron.backend.repository.ContractVisitRepository;
 import com.ultron.backend.repository.WorkOrderRepository;
 import com.ultron.backend.service.WorkOrderIdGeneratorService;
+import com.ultron.backend.service.WorkOrderKpiService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -28,6 +29,7 @@ public class ContractVisitScheduler {
     private final ContractVisitRepository visitRepository;
     private final WorkOrderRepository workOrderRepository;
     private final WorkOrderIdGeneratorService woIdGenerator;
+    private final WorkOrderKpiService workOrderKpiService;
 
     // Runs daily at 6 AM — creates WOs for visits due today or overdue with no WO
     @Scheduled(cron = "0 0 6 * * *")
@@ -71,6 +73,7 @@ public class ContractVisitScheduler {
                 .build();
 
         WorkOrder saved = workOrderRepository.save(wo);
+        workOrderKpiService.recordChange(WorkOrderKpiService.State.NONE, saved);
 
         visit.setWorkOrderId(saved.getId());
         visitRepository.save(visit);
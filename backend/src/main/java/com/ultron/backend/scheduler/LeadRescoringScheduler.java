@@ -0,0 +1,35 @@
+package com.ultron.backend.scheduler;
+
+import com.ultron.backend.repository.OrganizationRepository;
+import com.ultron.backend.service.LeadRescoringService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rescores the leads of tenants whose stored scores predate the current scoring rules
+ * (LeadScoringService.RULES_VERSION). Activity-driven rescoring runs in LeadRescoringService.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LeadRescoringScheduler {
+
+    private final LeadRescoringService leadRescoringService;
+    private final OrganizationRepository organizationRepository;
+
+    @Scheduled(cron = "0 45 1 * * *")   // daily at 01:45
+    public void rescoreOutdatedTenants() {
+        organizationRepository.findAll().forEach(org -> {
+            String tenantId = org.getId();
+            try {
+                if (!leadRescoringService.isCurrent(tenantId)) {
+                    leadRescoringService.rescoreTenant(tenantId);
+                }
+            } catch (Exception e) {
+                log.error("Lead rescoring failed for tenant {}: {}", tenantId, e.getMessage());
+            }
+        });
+    }
+}
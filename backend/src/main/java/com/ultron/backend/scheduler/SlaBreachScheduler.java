@@ -4,6 +4,7 @@ import com.ultron.backend.domain.entity.WorkOrder;
 import com.ultron.backend.domain.enums.WorkOrderStatus;
 import com.ultron.backend.repository.WorkOrderRepository;
 import com.ultron.backend.repository.OrganizationRepository;
+import com.ultron.backend.service.WorkOrderKpiService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -23,6 +24,7 @@ public class SlaBreachScheduler {
 
     private final WorkOrderRepository workOrderRepository;
     private final OrganizationRepository organizationRepository;
+    private final WorkOrderKpiService workOrderKpiService;
 
     @Scheduled(fixedDelay = 5 * 60 * 1000)   // every 5 minutes
     public void detectSlaBreaches() {
@@ -44,7 +46,7 @@ public class SlaBreachScheduler {
                         .forEach(wo -> {
                             wo.setSlaBreached(true);
                             wo.setUpdatedAt(LocalDateTime.now());
-                            workOrderRepository.save(wo);
+                            workOrderKpiService.save(wo);
                             log.warn("SLA breached — WO: {}, tenant: {}, deadline was: {}",
                                     wo.getWoNumber(), tenantId, wo.getSlaDeadline());
                         });
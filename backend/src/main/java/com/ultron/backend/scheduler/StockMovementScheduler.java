@@ -0,0 +1,53 @@
+package com.ultron.backend.scheduler;
+
+import com.ultron.backend.repository.OrganizationRepository;
+import com.ultron.backend.service.inventory.StockMovementIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps stock movement summaries current: builds them from the transaction log for tenants
+ * that have none yet, and rolls the 30/90/365-day consumption windows forward for the rest.
+ * Reports never build summaries themselves, so missing ones are also built every few minutes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockMovementScheduler {
+
+    private final StockMovementIndexService stockMovementIndexService;
+    private final OrganizationRepository organizationRepository;
+
+    @Scheduled(cron = "0 15 0 * * *")   // daily at 00:15, after the day rolls over
+    public void refreshMovementSummaries() {
+        organizationRepository.findAll().forEach(org -> {
+            String tenantId = org.getId();
+            try {
+                if (!stockMovementIndexService.isBuilt(tenantId)) {
+                    stockMovementIndexService.rebuild(tenantId);
+                } else {
+                    int refreshed = stockMovementIndexService.refreshWindows(tenantId);
+                    log.debug("Refreshed consumption windows of {} stock summaries for tenant {}", refreshed, tenantId);
+                }
+            } catch (Exception e) {
+                log.error("Stock movement summary refresh failed for tenant {}: {}", tenantId, e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.movement-index-build-ms:300000}", initialDelayString = "${app.inventory.movement-index-build-ms:300000}")
+    public void buildMissingSummaries() {
+        organizationRepository.findAll().forEach(org -> {
+            String tenantId = org.getId();
+            try {
+                if (!stockMovementIndexService.isBuilt(tenantId)) {
+                    stockMovementIndexService.rebuild(tenantId);
+                }
+            } catch (Exception e) {
+                log.error("Stock movement summary build failed for tenant {}: {}", tenantId, e.getMessage());
+            }
+        });
+    }
+}
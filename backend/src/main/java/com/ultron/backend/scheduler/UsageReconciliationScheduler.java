@@ -0,0 +1,48 @@
+package com.ultron.backend.scheduler;
+
+import com.ultron.backend.domain.entity.Organization;
+import com.ultron.backend.repository.OrganizationRepository;
+import com.ultron.backend.service.OrganizationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes every tenant's usage counters from the actual documents, correcting drift in the
+ * counters maintained by OrganizationService.reserveUsage / incrementUsage / decrementUsage.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UsageReconciliationScheduler {
+
+    private final OrganizationService organizationService;
+    private final OrganizationRepository organizationRepository;
+
+    @Scheduled(cron = "0 15 3 * * *")   // daily at 03:15
+    public void reconcileUsage() {
+        organizationRepository.findAll().forEach(this::reconcile);
+    }
+
+    /**
+     * Counts tenants whose counters were never recomputed, e.g. ones created before usage was
+     * counted. Limit checks reconcile such a tenant themselves if they reach it first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileUnreconciled() {
+        organizationRepository.findUnreconciled().forEach(this::reconcile);
+    }
+
+    private void reconcile(Organization org) {
+        String tenantId = org.getId();
+        try {
+            Organization.UsageMetrics usage = organizationService.reconcileUsage(tenantId);
+            log.debug("Reconciled usage for tenant {}: {}", tenantId, usage);
+        } catch (Exception e) {
+            log.error("Usage reconciliation failed for tenant {}: {}", tenantId, e.getMessage());
+        }
+    }
+}
@@ -11,11 +11,19 @@ import com.ultron.backend.exception.UserAlreadyExistsException;
 import com.ultron.backend.repository.AccountRepository;
 import com.ultron.backend.repository.ContactRepository;
 import com.ultron.backend.repository.OpportunityRepository;
+import com.ultron.backend.service.denormalization.DenormalizationService;
+import com.ultron.backend.service.denormalization.DenormalizedSource;
+import com.ultron.backend.service.export.ExportColumn;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 
@@ -30,11 +38,28 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AccountService extends BaseTenantService {
 
+    private static final List<ExportColumn> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("accountId", "Account ID"),
+            ExportColumn.of("accountName", "Account Name"),
+            ExportColumn.of("accountType", "Type"),
+            ExportColumn.of("industry", "Industry"),
+            ExportColumn.of("companySize", "Company Size"),
+            ExportColumn.of("annualRevenue", "Annual Revenue"),
+            ExportColumn.of("phone", "Phone"),
+            ExportColumn.of("email", "Email"),
+            ExportColumn.of("website", "Website"),
+            ExportColumn.of("billingCity", "City"),
+            ExportColumn.of("billingCountry", "Country"),
+            ExportColumn.of("createdAt", "Created At"));
+
     private final AccountRepository accountRepository;
     private final AccountIdGeneratorService accountIdGenerator;
     private final UserService userService;
     private final ContactRepository contactRepository;
     private final OpportunityRepository opportunityRepository;
+    private final TabularExportService tabularExportService;
+    private final DenormalizationService denormalizationService;
+    private final OrganizationService organizationService;
 
     /**
      * Create a new account
@@ -50,13 +75,32 @@ public class AccountService extends BaseTenantService {
 
         log.info("[Tenant: {}] Creating account: {}", tenantId, request.getAccountName());
 
+        Account account = newAccount(request, createdByUserId, userService.getUserFullName(createdByUserId));
+
+        organizationService.reserveUsage(tenantId, "ACCOUNTS");
+        Account saved;
+        try {
+            saved = accountRepository.save(account);
+        } catch (RuntimeException e) {
+            organizationService.decrementUsage(tenantId, "ACCOUNTS");
+            throw e;
+        }
+        log.info("Account created successfully with ID: {}", saved.getAccountId());
+
+        return mapToResponse(saved);
+    }
+
+    /**
+     * Validate and build a new account of the current tenant without saving it
+     */
+    Account newAccount(CreateAccountRequest request, String createdByUserId, String createdByName) {
+        String tenantId = getCurrentTenantId();
+
         // Check if account name already exists within this tenant
         if (accountRepository.existsByAccountNameAndTenantIdAndIsDeletedFalse(request.getAccountName(), tenantId)) {
             throw new UserAlreadyExistsException("Account with name " + request.getAccountName() + " already exists in your organization");
         }
 
-        String createdByName = userService.getUserFullName(createdByUserId);
-
         String parentId = request.getParentAccountId();
         String parentName = request.getAccountName(); // Default to its own name
 
@@ -69,7 +113,7 @@ public class AccountService extends BaseTenantService {
         }
 
         // Build account entity
-        Account account = Account.builder()
+        return Account.builder()
                 .accountId(accountIdGenerator.generateAccountId())
                 .tenantId(tenantId)  // CRITICAL: Set tenant ID for data isolation
                 .accountName(request.getAccountName())
@@ -123,11 +167,16 @@ public class AccountService extends BaseTenantService {
                 .lastModifiedByName(createdByName)
                 .isDeleted(false)
                 .build();
+    }
 
-        Account saved = accountRepository.save(account);
-        log.info("Account created successfully with ID: {}", saved.getAccountId());
-
-        return mapToResponse(saved);
+    /**
+     * Stream all accounts of the current tenant
+     */
+    public StreamingResponseBody exportAccounts(ExportFormat format) {
+        String tenantId = getCurrentTenantId();
+        log.info("[Tenant: {}] Exporting accounts as {}", tenantId, format);
+        Query query = new Query(Criteria.where("tenantId").is(tenantId).and("isDeleted").is(false));
+        return tabularExportService.stream("accounts", query, EXPORT_COLUMNS, format);
     }
 
     /**
@@ -203,6 +252,7 @@ public class AccountService extends BaseTenantService {
         }
 
         // Update fields
+        boolean nameChanged = request.getAccountName() != null && !request.getAccountName().equals(account.getAccountName());
         if (request.getAccountName() != null) {
             account.setAccountName(request.getAccountName());
             // If it is its own parent (parentAccountId is null), update the parentAccountName too
@@ -281,6 +331,11 @@ public class AccountService extends BaseTenantService {
         Account updated = accountRepository.save(account);
         log.info("Account {} updated successfully", id);
 
+        if (nameChanged) {
+            denormalizationService.propagate(DenormalizedSource.ACCOUNT_NAME, updated.getTenantId(),
+                    List.of(updated.getId()), updated.getAccountName());
+        }
+
         return mapToResponse(updated);
     }
 
@@ -298,12 +353,16 @@ public class AccountService extends BaseTenantService {
 
         // Validate tenant ownership
         validateResourceTenantOwnership(account.getTenantId());
+        boolean wasActive = !Boolean.TRUE.equals(account.getIsDeleted());
 
         account.setIsDeleted(true);
         account.setDeletedAt(LocalDateTime.now());
         account.setDeletedBy(deletedByUserId);
 
         accountRepository.save(account);
+        if (wasActive) {
+            organizationService.decrementUsage(account.getTenantId(), "ACCOUNTS");
+        }
         log.info("Account {} soft deleted by user {}", id, deletedByUserId);
     }
 
@@ -8,6 +8,7 @@ import com.ultron.backend.domain.entity.Opportunity;
 import com.ultron.backend.domain.enums.ActivityType;
 import com.ultron.backend.domain.enums.ActivityStatus;
 import com.ultron.backend.domain.enums.ActivityPriority;
+import com.ultron.backend.domain.enums.RollupEntity;
 import com.ultron.backend.dto.request.CreateActivityRequest;
 import com.ultron.backend.dto.request.UpdateActivityRequest;
 import com.ultron.backend.dto.response.ActivityResponse;
@@ -20,6 +21,7 @@ import com.ultron.backend.repository.AccountRepository;
 import com.ultron.backend.repository.OpportunityRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
@@ -45,6 +47,8 @@ public class ActivityService extends BaseTenantService {
     private final OpportunityRepository opportunityRepository;
     private final UserService userService;
     private final NotificationService notificationService;
+    private final LeadRescoringService leadRescoringService;
+    private final AnalyticsRollupService analyticsRollupService;
 
     @Transactional
     @Caching(evict = {
@@ -143,7 +147,9 @@ public class ActivityService extends BaseTenantService {
         }
 
         Activity savedActivity = activityRepository.save(activity);
+        analyticsRollupService.recordSaved(RollupEntity.ACTIVITY, null, savedActivity);
         log.info("Activity created successfully with ID: {}", savedActivity.getActivityId());
+        leadRescoringService.activityChanged(savedActivity.getTenantId(), savedActivity.getLeadId());
 
         // P0 #1: Notify assigned user about new activity
         if (savedActivity.getAssignedToId() != null && !savedActivity.getAssignedToId().equals(currentUserId)) {
@@ -295,6 +301,9 @@ public class ActivityService extends BaseTenantService {
             throw new ResourceNotFoundException("Activity not found");
         }
 
+        String previousLeadId = activity.getLeadId();
+        Document rollupBefore = analyticsRollupService.snapshot(activity);
+
         String currentUserName = userService.getUserFullName(currentUserId);
 
         // Update fields if provided
@@ -425,7 +434,10 @@ public class ActivityService extends BaseTenantService {
         activity.setLastModifiedByName(currentUserName);
 
         Activity updatedActivity = activityRepository.save(activity);
+        analyticsRollupService.recordSaved(RollupEntity.ACTIVITY, rollupBefore, updatedActivity);
         log.info("Activity {} updated successfully", id);
+        leadRescoringService.activityChanged(updatedActivity.getTenantId(), previousLeadId);
+        leadRescoringService.activityChanged(updatedActivity.getTenantId(), updatedActivity.getLeadId());
         return mapToResponse(updatedActivity);
     }
 
@@ -445,12 +457,15 @@ public class ActivityService extends BaseTenantService {
             throw new ResourceNotFoundException("Activity not found");
         }
 
+        Document rollupBefore = analyticsRollupService.snapshot(activity);
         activity.setIsDeleted(true);
         activity.setDeletedBy(currentUserId);
         activity.setDeletedAt(LocalDateTime.now());
 
-        activityRepository.save(activity);
+        Activity deleted = activityRepository.save(activity);
+        analyticsRollupService.recordSaved(RollupEntity.ACTIVITY, rollupBefore, deleted);
         log.info("Activity {} soft deleted by user {}", id, currentUserId);
+        leadRescoringService.activityChanged(activity.getTenantId(), activity.getLeadId());
     }
 
     public long getActivityCount() {
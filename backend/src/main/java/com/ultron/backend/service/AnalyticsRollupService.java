@@ -0,0 +1,278 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.AnalyticsDailyRollup;
+import com.ultron.backend.domain.entity.AnalyticsRollupStatus;
+import com.ultron.backend.domain.enums.RollupDimension;
+import com.ultron.backend.domain.enums.RollupEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains the per-tenant daily analytics rollups (analytics_daily_rollups).
+ *
+ * Rollups are updated incrementally by the services that save leads, contacts, opportunities and
+ * activities (snapshot before the change, recordSaved after the save succeeds) and can be rebuilt
+ * from the source collections for a tenant's past days. A rebuild reconstructs status, owner and
+ * source from the records' current values, since earlier values are not stored. Saves that cannot
+ * change a tracked field (status, owner, source or isDeleted) need no recordSaved call.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupService {
+
+    private static final String ALL = "ALL";
+    private static final String NONE = "NONE";
+    private static final String TIMEZONE = "Asia/Kolkata";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Document form of an entity as it was loaded, to pass to recordSaved once it is changed and saved
+     */
+    public Document snapshot(Object entity) {
+        if (entity == null) {
+            return null;
+        }
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entity, document);
+        return document;
+    }
+
+    /**
+     * Apply the change between an entity's state before a successful save (null on create) and the
+     * saved entity. Failures are logged and never fail the save; an admin rebuild corrects drift.
+     */
+    public void recordSaved(RollupEntity entity, Document before, Object saved) {
+        try {
+            recordChange(entity, before, snapshot(saved));
+        } catch (Exception e) {
+            log.warn("Failed to update {} analytics rollup: {}", entity, e.getMessage());
+        }
+    }
+
+    /**
+     * Apply the change between the stored state (null on create) and the saved document
+     */
+    public void recordChange(RollupEntity entity, Document before, Document after) {
+        String tenantId = after.getString("tenantId");
+        if (tenantId == null) {
+            return;
+        }
+        Map<String, long[]> increments = new LinkedHashMap<>();
+        collectIncrements(entity, before, after, increments);
+        applyIncrements(tenantId, entity, increments);
+    }
+
+    /**
+     * Apply the creation of many documents of one tenant with a single bulk write
+     */
+    public void recordCreated(RollupEntity entity, String tenantId, List<Document> created) {
+        Map<String, long[]> increments = new LinkedHashMap<>();
+        created.forEach(document -> collectIncrements(entity, null, document, increments));
+        applyIncrements(tenantId, entity, increments);
+    }
+
+    private void collectIncrements(RollupEntity entity, Document before, Document after, Map<String, long[]> increments) {
+        boolean wasActive = before != null && !Boolean.TRUE.equals(before.get("isDeleted"));
+        boolean isActive = !Boolean.TRUE.equals(after.get("isDeleted"));
+        if (!wasActive && !isActive) {
+            return;
+        }
+
+        for (Map.Entry<RollupDimension, String> dimension : entity.getDimensionFields().entrySet()) {
+            String oldValue = wasActive ? valueOf(before, dimension.getValue()) : null;
+            String newValue = isActive ? valueOf(after, dimension.getValue()) : null;
+            if (Objects.equals(oldValue, newValue)) {
+                continue;
+            }
+            if (oldValue != null) {
+                increment(increments, dimension.getKey(), oldValue)[2]++;
+            }
+            if (newValue != null) {
+                long[] counters = increment(increments, dimension.getKey(), newValue);
+                counters[1]++;
+                if (before == null) {
+                    counters[0]++;
+                }
+            }
+        }
+    }
+
+    private void applyIncrements(String tenantId, RollupEntity entity, Map<String, long[]> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        String day = LocalDate.now().toString();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsDailyRollup.class);
+        increments.forEach((key, counters) -> {
+            String[] parts = key.split("\u0000", 2);
+            ops.upsert(rowQuery(tenantId, entity, RollupDimension.valueOf(parts[0]), day, parts[1]),
+                    new Update().inc("created", counters[0]).inc("added", counters[1]).inc("removed", counters[2]));
+        });
+        ops.execute();
+    }
+
+    /**
+     * Rebuild the rollups of a tenant's past days from the source collections. Rows are overwritten
+     * per key, so readers keep seeing the previous rows until each is replaced; rows of past days the
+     * rebuild no longer produces are removed afterwards. Today's rows are left to the increments,
+     * which only ever write today, so nothing recorded while the rebuild runs is lost.
+     */
+    public long rebuild(String tenantId) {
+        long started = System.currentTimeMillis();
+        LocalDateTime rebuiltAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        String today = LocalDate.now().toString();
+
+        long rows = 0;
+        for (RollupEntity entity : RollupEntity.values()) {
+            Map<String, AnalyticsDailyRollup> byKey = new LinkedHashMap<>();
+            Document facets = mongoTemplate.getCollection(entity.getCollectionName())
+                    .aggregate(backfillPipeline(tenantId, entity, today))
+                    .allowDiskUse(true)
+                    .first();
+            if (facets == null) {
+                continue;
+            }
+            for (Map.Entry<RollupDimension, String> dimension : entity.getDimensionFields().entrySet()) {
+                for (Document bucket : facets.getList(dimension.getKey().name(), Document.class, List.of())) {
+                    Document key = bucket.get("_id", Document.class);
+                    String value = dimension.getValue() == null ? ALL : stringValue(key.get("value"));
+                    AnalyticsDailyRollup row = byKey.computeIfAbsent(
+                            dimension.getKey() + "\u0000" + key.getString("day") + "\u0000" + value,
+                            k -> AnalyticsDailyRollup.builder()
+                                    .tenantId(tenantId)
+                                    .entity(entity)
+                                    .dimension(dimension.getKey())
+                                    .day(key.getString("day"))
+                                    .value(value)
+                                    .build());
+                    long count = ((Number) bucket.get("count")).longValue();
+                    if ("removed".equals(key.getString("kind"))) {
+                        row.setRemoved(row.getRemoved() + count);
+                    } else {
+                        row.setCreated(row.getCreated() + count);
+                        row.setAdded(row.getAdded() + count);
+                    }
+                }
+            }
+            if (!byKey.isEmpty()) {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsDailyRollup.class);
+                byKey.values().forEach(row -> ops.upsert(
+                        rowQuery(tenantId, entity, row.getDimension(), row.getDay(), row.getValue()),
+                        new Update().set("created", row.getCreated())
+                                .set("added", row.getAdded())
+                                .set("removed", row.getRemoved())
+                                .set("rebuiltAt", rebuiltAt)));
+                ops.execute();
+                rows += byKey.size();
+            }
+        }
+
+        mongoTemplate.remove(new Query(Criteria.where("tenantId").is(tenantId)
+                .and("day").lt(today)
+                .orOperator(Criteria.where("rebuiltAt").is(null), Criteria.where("rebuiltAt").lt(rebuiltAt))),
+                AnalyticsDailyRollup.class);
+
+        mongoTemplate.save(AnalyticsRollupStatus.builder()
+                .id(tenantId)
+                .backfilledAt(LocalDateTime.now())
+                .rowCount(rows)
+                .build());
+        log.info("[Tenant: {}] Rebuilt {} analytics rollup rows in {} ms", tenantId, rows, System.currentTimeMillis() - started);
+        return rows;
+    }
+
+    public boolean isBackfilled(String tenantId) {
+        return mongoTemplate.exists(new Query(Criteria.where("_id").is(tenantId)), AnalyticsRollupStatus.class);
+    }
+
+    /**
+     * Rollup rows of one dimension from a day (inclusive) onwards; null fromDay for all history
+     */
+    public List<AnalyticsDailyRollup> findRows(String tenantId, RollupEntity entity, RollupDimension dimension, LocalDate fromDay) {
+        Criteria criteria = Criteria.where("tenantId").is(tenantId).and("dimension").is(dimension);
+        if (entity != null) {
+            criteria.and("entity").is(entity);
+        }
+        if (fromDay != null) {
+            criteria.and("day").gte(fromDay.toString());
+        }
+        return mongoTemplate.find(new Query(criteria), AnalyticsDailyRollup.class);
+    }
+
+    private Query rowQuery(String tenantId, RollupEntity entity, RollupDimension dimension, String day, String value) {
+        return new Query(Criteria.where("tenantId").is(tenantId)
+                .and("entity").is(entity)
+                .and("dimension").is(dimension)
+                .and("day").is(day)
+                .and("value").is(value));
+    }
+
+    private long[] increment(Map<String, long[]> increments, RollupDimension dimension, String value) {
+        return increments.computeIfAbsent(dimension.name() + "\u0000" + value, k -> new long[3]);
+    }
+
+    private String valueOf(Document document, String field) {
+        return field == null ? ALL : stringValue(document.get(field));
+    }
+
+    private String stringValue(Object value) {
+        return value == null ? NONE : value.toString();
+    }
+
+    /**
+     * One scan per entity: every record is counted as added (and created) on its creation day,
+     * and soft-deleted records also as removed on their deletion day, per dimension; only days
+     * before beforeDay are counted
+     */
+    private List<Document> backfillPipeline(String tenantId, RollupEntity entity, String beforeDay) {
+        Document added = new Document("day", dayOf("$createdAt")).append("kind", "added");
+        Document removed = new Document("day", dayOf(new Document("$ifNull", List.of("$deletedAt", "$updatedAt"))))
+                .append("kind", "removed");
+        Document events = new Document("$cond", List.of(
+                new Document("$eq", List.of("$isDeleted", true)), List.of(added, removed), List.of(added)));
+
+        Document facets = new Document();
+        for (Map.Entry<RollupDimension, String> dimension : entity.getDimensionFields().entrySet()) {
+            Object value = dimension.getValue() == null ? new Document("$literal", ALL) : "$" + dimension.getValue();
+            facets.append(dimension.getKey().name(), List.of(
+                    new Document("$project", new Document("value", value).append("events", events)),
+                    new Document("$unwind", "$events"),
+                    new Document("$match", new Document("events.day", new Document("$lt", beforeDay))),
+                    new Document("$group", new Document("_id", new Document()
+                            .append("day", "$events.day")
+                            .append("value", "$value")
+                            .append("kind", "$events.kind"))
+                            .append("count", new Document("$sum", 1)))));
+        }
+
+        return List.of(
+                new Document("$match", new Document("tenantId", tenantId)),
+                new Document("$facet", facets));
+    }
+
+    private Document dayOf(Object date) {
+        return new Document("$dateToString", new Document()
+                .append("format", "%Y-%m-%d")
+                .append("date", date)
+                .append("timezone", TIMEZONE)
+                .append("onNull", "1970-01-01"));
+    }
+}
@@ -10,9 +10,19 @@ import com.ultron.backend.exception.BusinessException;
 import com.ultron.backend.repository.AttendanceRepository;
 import com.ultron.backend.repository.LeaveRepository;
 import com.ultron.backend.repository.UserRepository;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
@@ -34,6 +44,7 @@ public class AttendanceReportService extends BaseTenantService {
     private final UserRepository userRepository;
     private final LeaveRepository leaveRepository;
     private final HolidayService holidayService;
+    private final MongoTemplate mongoTemplate;
 
     /**
      * Get daily attendance dashboard (real-time)
@@ -306,113 +317,9 @@ public class AttendanceReportService extends BaseTenantService {
             throw new BusinessException("No team members found");
         }
 
-        List<TeamAttendanceResponse.TeamMemberAttendanceDto> teamMemberStats = new ArrayList<>();
-        int teamPresentCount = 0;
-        int teamAbsentCount = 0;
-        int teamOnLeaveCount = 0;
-
-        for (User member : teamMembers) {
-            String memberName = member.getFullName() != null ? member.getFullName() :
-                    (member.getProfile() != null && member.getProfile().getFullName() != null) ?
-                            member.getProfile().getFullName() : member.getUsername();
-
-            List<Attendance> attendances = attendanceRepository
-                    .findByUserIdAndTenantIdAndAttendanceDateBetweenAndIsDeletedFalse(
-                            member.getId(), tenantId, startDate, endDate);
-
-            int totalDays = calculateWorkingDays(startDate, endDate);
-            long presentDays = attendances.stream()
-                    .filter(a -> a.getStatus() == AttendanceStatus.PRESENT || a.getStatus() == AttendanceStatus.LATE)
-                    .count();
-            long lateDays = attendances.stream()
-                    .filter(a -> a.getStatus() == AttendanceStatus.LATE)
-                    .count();
-            long absentDays = attendances.stream()
-                    .filter(a -> a.getStatus() == AttendanceStatus.ABSENT)
-                    .count();
-            long leaveDays = attendances.stream()
-                    .filter(a -> a.getStatus() == AttendanceStatus.ON_LEAVE)
-                    .count();
-
-            double attendancePercentage = totalDays > 0 ? (presentDays * 100.0 / totalDays) : 0.0;
-
-            double averageWorkHours = attendances.stream()
-                    .filter(a -> a.getTotalWorkMinutes() != null && a.getTotalWorkMinutes() > 0)
-                    .mapToDouble(a -> a.getTotalWorkMinutes() / 60.0)
-                    .average()
-                    .orElse(0.0);
-
-            int totalLateMinutes = attendances.stream()
-                    .filter(a -> a.getLateMinutes() != null)
-                    .mapToInt(Attendance::getLateMinutes)
-                    .sum();
-
-            int totalOvertimeMinutes = attendances.stream()
-                    .filter(a -> a.getOvertimeMinutes() != null)
-                    .mapToInt(Attendance::getOvertimeMinutes)
-                    .sum();
-
-            // Today's status if date range includes today
-            String todayStatus = null;
-            String todayCheckInTime = null;
-            String todayCheckOutTime = null;
-            boolean isTodayCheckedIn = false;
-
-            if (!startDate.isAfter(LocalDate.now()) && !endDate.isBefore(LocalDate.now())) {
-                Optional<Attendance> todayAtt = attendances.stream()
-                        .filter(a -> a.getAttendanceDate().equals(LocalDate.now()))
-                        .findFirst();
-                if (todayAtt.isPresent()) {
-                    todayStatus = todayAtt.get().getStatus().toString();
-                    todayCheckInTime = todayAtt.get().getCheckInTime() != null
-                            ? formatTime(todayAtt.get().getCheckInTime()) : null;
-                    todayCheckOutTime = todayAtt.get().getCheckOutTime() != null
-                            ? formatTime(todayAtt.get().getCheckOutTime()) : null;
-                    isTodayCheckedIn = todayAtt.get().getCheckInTime() != null
-                            && todayAtt.get().getCheckOutTime() == null;
-                }
-            }
-
-            teamMemberStats.add(TeamAttendanceResponse.TeamMemberAttendanceDto.builder()
-                    .userId(member.getId())
-                    .userName(memberName)
-                    .userEmail(member.getEmail())
-                    .totalDays(totalDays)
-                    .presentDays((int) presentDays)
-                    .lateDays((int) lateDays)
-                    .absentDays((int) absentDays)
-                    .leaveDays((int) leaveDays)
-                    .attendancePercentage(Math.round(attendancePercentage * 100.0) / 100.0)
-                    .averageWorkHours(Math.round(averageWorkHours * 100.0) / 100.0)
-                    .totalLateMinutes(totalLateMinutes)
-                    .totalOvertimeMinutes(totalOvertimeMinutes)
-                    .todayStatus(todayStatus)
-                    .todayCheckInTime(todayCheckInTime)
-                    .todayCheckOutTime(todayCheckOutTime)
-                    .isTodayCheckedIn(isTodayCheckedIn)
-                    .build());
-
-            // Update team counts (for today)
-            if (todayStatus != null) {
-                if (todayStatus.equals("PRESENT") || todayStatus.equals("LATE")) teamPresentCount++;
-                else if (todayStatus.equals("ABSENT")) teamAbsentCount++;
-                else if (todayStatus.equals("ON_LEAVE")) teamOnLeaveCount++;
-            }
-        }
-
-        double teamAttendancePercentage = teamMembers.size() > 0
-                ? (teamPresentCount * 100.0 / teamMembers.size()) : 0.0;
-
-        return TeamAttendanceResponse.builder()
-                .startDate(startDate)
-                .endDate(endDate)
-                .totalTeamMembers(teamMembers.size())
-                .teamMembers(teamMemberStats)
-                .teamAttendancePercentage(Math.round(teamAttendancePercentage * 100.0) / 100.0)
-                .teamPresentCount(teamPresentCount)
-                .teamAbsentCount(teamAbsentCount)
-                .teamOnLeaveCount(teamOnLeaveCount)
-                .build();
+        List<String> memberIds = teamMembers.stream().map(User::getId).collect(Collectors.toList());
+        return buildTeamAttendance(teamMembers, aggregateMemberStats(tenantId, memberIds, startDate, endDate, false),
+                startDate, endDate, false);
     }
 
     /**
@@ -429,51 +336,33 @@ public class AttendanceReportService extends BaseTenantService {
             throw new BusinessException("No team members found");
         }
 
+        return buildTeamAttendance(teamMembers, aggregateMemberStats(tenantId, null, startDate, endDate, true),
+                startDate, endDate, true);
+    }
+
+    /**
+     * Join per-member attendance stats with the member list
+     */
+    private TeamAttendanceResponse buildTeamAttendance(List<User> teamMembers, Map<String, MemberAttendanceStats> statsByUser,
+                                                       LocalDate startDate, LocalDate endDate, boolean includeDailyRecords) {
         List<TeamAttendanceResponse.TeamMemberAttendanceDto> teamMemberStats = new ArrayList<>();
         int teamPresentCount = 0;
         int teamAbsentCount = 0;
         int teamOnLeaveCount = 0;
 
+        int totalDays = calculateWorkingDays(startDate, endDate);
+        boolean rangeIncludesToday = !startDate.isAfter(LocalDate.now()) && !endDate.isBefore(LocalDate.now());
+
         for (User member : teamMembers) {
             String memberName = member.getFullName() != null ? member.getFullName() :
                     (member.getProfile() != null && member.getProfile().getFullName() != null) ?
                             member.getProfile().getFullName() : member.getUsername();
 
-            List<Attendance> attendances = attendanceRepository
-                    .findByUserIdAndTenantIdAndAttendanceDateBetweenAndIsDeletedFalse(
-                            member.getId(), tenantId, startDate, endDate);
-
-            int totalDays = calculateWorkingDays(startDate, endDate);
-            long presentDays = attendances.stream()
-                    .filter(a -> a.getStatus() == AttendanceStatus.PRESENT || a.getStatus() == AttendanceStatus.LATE)
-                    .count();
-            long lateDays = attendances.stream()
-                    .filter(a -> a.getStatus() == AttendanceStatus.LATE)
-                    .count();
-            long absentDays = attendances.stream()
-                    .filter(a -> a.getStatus() == AttendanceStatus.ABSENT)
-                    .count();
-            long leaveDays = attendances.stream()
-                    .filter(a -> a.getStatus() == AttendanceStatus.ON_LEAVE)
-                    .count();
-
-            double attendancePercentage = totalDays > 0 ? (presentDays * 100.0 / totalDays) : 0.0;
-
-            double averageWorkHours = attendances.stream()
-                    .filter(a -> a.getTotalWorkMinutes() != null && a.getTotalWorkMinutes() > 0)
-                    .mapToDouble(a -> a.getTotalWorkMinutes() / 60.0)
-                    .average()
-                    .orElse(0.0);
-
-            int totalLateMinutes = attendances.stream()
-                    .filter(a -> a.getLateMinutes() != null)
-                    .mapToInt(Attendance::getLateMinutes)
-                    .sum();
-
-            int totalOvertimeMinutes = attendances.stream()
-                    .filter(a -> a.getOvertimeMinutes() != null)
-                    .mapToInt(Attendance::getOvertimeMinutes)
-                    .sum();
+            MemberAttendanceStats stats = statsByUser.getOrDefault(member.getId(), new MemberAttendanceStats());
+
+            double attendancePercentage = totalDays > 0 ? (stats.getPresentDays() * 100.0 / totalDays) : 0.0;
+            double averageWorkHours = stats.getWorkedDays() > 0
+                    ? stats.getTotalWorkMinutes() / 60.0 / stats.getWorkedDays() : 0.0;
 
             // Today's status if date range includes today
             String todayStatus = null;
@@ -481,44 +370,40 @@ public class AttendanceReportService extends BaseTenantService {
             String todayCheckOutTime = null;
             boolean isTodayCheckedIn = false;
 
-            if (!startDate.isAfter(LocalDate.now()) && !endDate.isBefore(LocalDate.now())) {
-                Optional<Attendance> todayAtt = attendances.stream()
-                        .filter(a -> a.getAttendanceDate().equals(LocalDate.now()))
-                        .findFirst();
-                if (todayAtt.isPresent()) {
-                    todayStatus = todayAtt.get().getStatus().toString();
-                    todayCheckInTime = todayAtt.get().getCheckInTime() != null
-                            ? formatTime(todayAtt.get().getCheckInTime()) : null;
-                    todayCheckOutTime = todayAtt.get().getCheckOutTime() != null
-                            ? formatTime(todayAtt.get().getCheckOutTime()) : null;
-                    isTodayCheckedIn = todayAtt.get().getCheckInTime() != null
-                            && todayAtt.get().getCheckOutTime() == null;
-                }
+            DailyRecord today = rangeIncludesToday ? stats.getToday() : null;
+            if (today != null) {
+                todayStatus = today.getStatus().toString();
+                todayCheckInTime = today.getCheckInTime() != null ? formatTime(today.getCheckInTime()) : null;
+                todayCheckOutTime = today.getCheckOutTime() != null ? formatTime(today.getCheckOutTime()) : null;
+                isTodayCheckedIn = today.getCheckInTime() != null && today.getCheckOutTime() == null;
             }
 
-            List<TeamAttendanceResponse.TeamMemberAttendanceDto.DailyRecordDto> dailyRecords = attendances.stream()
-                    .map(a -> TeamAttendanceResponse.TeamMemberAttendanceDto.DailyRecordDto.builder()
-                            .date(a.getAttendanceDate().toString())
-                            .status(a.getStatus().toString())
-                            .checkInTime(a.getCheckInTime() != null ? formatTime(a.getCheckInTime()) : null)
-                            .checkOutTime(a.getCheckOutTime() != null ? formatTime(a.getCheckOutTime()) : null)
-                            .workMinutes(a.getTotalWorkMinutes())
-                            .build())
-                    .collect(Collectors.toList());
+            List<TeamAttendanceResponse.TeamMemberAttendanceDto.DailyRecordDto> dailyRecords = null;
+            if (includeDailyRecords) {
+                dailyRecords = stats.getDailyRecords().stream()
+                        .map(r -> TeamAttendanceResponse.TeamMemberAttendanceDto.DailyRecordDto.builder()
+                                .date(r.getAttendanceDate().toString())
+                                .status(r.getStatus().toString())
+                                .checkInTime(r.getCheckInTime() != null ? formatTime(r.getCheckInTime()) : null)
+                                .checkOutTime(r.getCheckOutTime() != null ? formatTime(r.getCheckOutTime()) : null)
+                                .workMinutes(r.getTotalWorkMinutes())
+                                .build())
+                        .collect(Collectors.toList());
+            }
 
             teamMemberStats.add(TeamAttendanceResponse.TeamMemberAttendanceDto.builder()
                     .userId(member.getId())
                     .userName(memberName)
                     .userEmail(member.getEmail())
                     .totalDays(totalDays)
-                    .presentDays((int) presentDays)
-                    .lateDays((int) lateDays)
-                    .absentDays((int) absentDays)
-                    .leaveDays((int) leaveDays)
+                    .presentDays(stats.getPresentDays())
+                    .lateDays(stats.getLateDays())
+                    .absentDays(stats.getAbsentDays())
+                    .leaveDays(stats.getLeaveDays())
                     .attendancePercentage(Math.round(attendancePercentage * 100.0) / 100.0)
                     .averageWorkHours(Math.round(averageWorkHours * 100.0) / 100.0)
-                    .totalLateMinutes(totalLateMinutes)
-                    .totalOvertimeMinutes(totalOvertimeMinutes)
+                    .totalLateMinutes(stats.getTotalLateMinutes())
+                    .totalOvertimeMinutes(stats.getTotalOvertimeMinutes())
                     .todayStatus(todayStatus)
                     .todayCheckInTime(todayCheckInTime)
                     .todayCheckOutTime(todayCheckOutTime)
@@ -549,6 +434,99 @@ public class AttendanceReportService extends BaseTenantService {
                 .build();
     }
 
+    /**
+     * Compute per-member attendance metrics for a date range in a single $group-by-user aggregation.
+     *
+     * @param userIds restrict to these users, or null for every user in the tenant
+     * @param includeDailyRecords also collect each member's daily records (calendar view)
+     */
+    private Map<String, MemberAttendanceStats> aggregateMemberStats(String tenantId, Collection<String> userIds,
+                                                                    LocalDate startDate, LocalDate endDate,
+                                                                    boolean includeDailyRecords) {
+        // Same (exclusive) bounds as the derived AttendanceDateBetween repository queries
+        Criteria criteria = Criteria.where("tenantId").is(tenantId)
+                .and("isDeleted").is(false)
+                .and("attendanceDate").gt(startDate).lt(endDate);
+        if (userIds != null) {
+            criteria = criteria.and("userId").in(userIds);
+        }
+
+        Object today = mongoTemplate.getConverter().convertToMongoType(LocalDate.now());
+
+        Document group = new Document("_id", "$userId")
+                .append("presentDays", countWhen(new Document("$in", Arrays.asList("$status",
+                        Arrays.asList(AttendanceStatus.PRESENT.name(), AttendanceStatus.LATE.name())))))
+                .append("lateDays", countWhen(statusIs(AttendanceStatus.LATE)))
+                .append("absentDays", countWhen(statusIs(AttendanceStatus.ABSENT)))
+                .append("leaveDays", countWhen(statusIs(AttendanceStatus.ON_LEAVE)))
+                .append("workedDays", countWhen(new Document("$gt", Arrays.asList("$totalWorkMinutes", 0))))
+                .append("totalWorkMinutes", new Document("$sum", new Document("$cond", Arrays.asList(
+                        new Document("$gt", Arrays.asList("$totalWorkMinutes", 0)), "$totalWorkMinutes", 0))))
+                .append("totalLateMinutes", new Document("$sum", "$lateMinutes"))
+                .append("totalOvertimeMinutes", new Document("$sum", "$overtimeMinutes"))
+                .append("today", new Document("$max", new Document("$cond", Arrays.asList(
+                        new Document("$eq", Arrays.asList("$attendanceDate", today)), dailyRecordFields(), null))));
+        if (includeDailyRecords) {
+            group.append("dailyRecords", new Document("$push", dailyRecordFields()));
+        }
+
+        TypedAggregation<Attendance> aggregation = Aggregation.newAggregation(Attendance.class,
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.by("attendanceDate")),
+                context -> new Document("$group", group))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        return mongoTemplate.aggregate(aggregation, MemberAttendanceStats.class).getMappedResults().stream()
+                .filter(stats -> stats.getUserId() != null)
+                .collect(Collectors.toMap(MemberAttendanceStats::getUserId, stats -> stats));
+    }
+
+    private Document countWhen(Document condition) {
+        return new Document("$sum", new Document("$cond", Arrays.asList(condition, 1, 0)));
+    }
+
+    private Document statusIs(AttendanceStatus status) {
+        return new Document("$eq", Arrays.asList("$status", status.name()));
+    }
+
+    private Document dailyRecordFields() {
+        return new Document("attendanceDate", "$attendanceDate")
+                .append("status", "$status")
+                .append("checkInTime", "$checkInTime")
+                .append("checkOutTime", "$checkOutTime")
+                .append("totalWorkMinutes", "$totalWorkMinutes");
+    }
+
+    /**
+     * Per-member result row of the team attendance aggregation
+     */
+    @Data
+    @NoArgsConstructor
+    static class MemberAttendanceStats {
+        @Id
+        private String userId;
+        private int presentDays;
+        private int lateDays;
+        private int absentDays;
+        private int leaveDays;
+        private int workedDays;
+        private long totalWorkMinutes;
+        private int totalLateMinutes;
+        private int totalOvertimeMinutes;
+        private DailyRecord today;
+        private List<DailyRecord> dailyRecords = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class DailyRecord {
+        private LocalDate attendanceDate;
+        private AttendanceStatus status;
+        private LocalDateTime checkInTime;
+        private LocalDateTime checkOutTime;
+        private Integer totalWorkMinutes;
+    }
+
     // Helper methods
 
     private int calculateWorkingDays(LocalDate startDate, LocalDate endDate) {
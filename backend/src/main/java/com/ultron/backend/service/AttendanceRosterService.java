@@ -0,0 +1,198 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.OfficeLocation;
+import com.ultron.backend.domain.entity.Shift;
+import com.ultron.backend.domain.entity.User;
+import com.ultron.backend.domain.entity.UserShiftAssignment;
+import com.ultron.backend.repository.OfficeLocationRepository;
+import com.ultron.backend.repository.ShiftRepository;
+import com.ultron.backend.repository.UserRepository;
+import com.ultron.backend.repository.UserShiftAssignmentRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputed per-tenant daily attendance roster.
+ *
+ * Resolves every user's shift, assigned office location and geofence once per tenant per day,
+ * so check-in does not need to hit users, user_shift_assignments, shifts and office_locations
+ * for every request during the morning peak.
+ *
+ * The roster is built ahead of the shift window by AttendanceRosterScheduler (or lazily on the
+ * first check-in of the day) and dropped whenever shifts, assignments or office locations change.
+ * Rosters are kept per node and invalidate only reaches the local one, so a roster is also rebuilt
+ * once it is older than app.attendance.roster-ttl-ms; that bounds how long other nodes serve a
+ * roster from before a change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceRosterService {
+
+    private final UserRepository userRepository;
+    private final UserShiftAssignmentRepository userShiftAssignmentRepository;
+    private final ShiftRepository shiftRepository;
+    private final OfficeLocationRepository officeLocationRepository;
+
+    @Value("${app.attendance.roster-ttl-ms:60000}")
+    private long rosterTtlMs;
+
+    // tenantId -> roster for a single day
+    private final Map<String, DailyRoster> rosters = new ConcurrentHashMap<>();
+    // tenantId -> roster build in progress, joined by concurrent callers instead of building again
+    private final Map<String, CompletableFuture<DailyRoster>> builds = new ConcurrentHashMap<>();
+
+    /**
+     * Get the roster entry for a user today, building the tenant roster if needed.
+     * Returns null when the user is not on the roster (e.g. created after the roster was built),
+     * in which case callers should fall back to direct lookups.
+     */
+    public RosterEntry getEntry(String tenantId, String userId) {
+        return getRoster(tenantId).getEntries().get(userId);
+    }
+
+    /**
+     * Get an office location of the tenant from the roster snapshot
+     */
+    public OfficeLocation getOfficeLocation(String tenantId, String locationId) {
+        return getRoster(tenantId).getOfficeLocations().get(locationId);
+    }
+
+    /**
+     * Get today's roster for a tenant, rebuilding it if it is missing, from a previous day or expired.
+     * While an expired roster is rebuilt, other check-ins keep using it; without a roster for today
+     * they wait for the one build in progress.
+     */
+    public DailyRoster getRoster(String tenantId) {
+        LocalDate today = LocalDate.now();
+        DailyRoster existing = rosters.get(tenantId);
+        if (existing != null && today.equals(existing.getDate())) {
+            LocalDateTime expiredBefore = LocalDateTime.now().minus(Duration.ofMillis(rosterTtlMs));
+            if (existing.getBuiltAt().isAfter(expiredBefore) || builds.containsKey(tenantId)) {
+                return existing;
+            }
+        }
+        return build(tenantId, today);
+    }
+
+    /**
+     * Build (or rebuild) today's roster for a tenant ahead of the shift window
+     */
+    public void rebuild(String tenantId) {
+        build(tenantId, LocalDate.now());
+    }
+
+    /**
+     * Drop this node's roster of a tenant; it is rebuilt on the next check-in.
+     * Called on shift, shift assignment and office location writes. Other nodes pick the change up
+     * when their roster expires.
+     */
+    public void invalidate(String tenantId) {
+        if (tenantId != null && rosters.remove(tenantId) != null) {
+            log.debug("Attendance roster invalidated for tenant {}", tenantId);
+        }
+    }
+
+    /**
+     * Build a roster outside of the rosters map and swap it in; a build already running for the
+     * tenant is joined
+     */
+    private DailyRoster build(String tenantId, LocalDate date) {
+        CompletableFuture<DailyRoster> created = new CompletableFuture<>();
+        CompletableFuture<DailyRoster> running = builds.putIfAbsent(tenantId, created);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            DailyRoster roster = buildRoster(tenantId, date);
+            rosters.put(tenantId, roster);
+            created.complete(roster);
+            return roster;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            builds.remove(tenantId, created);
+        }
+    }
+
+    private DailyRoster buildRoster(String tenantId, LocalDate date) {
+        long start = System.currentTimeMillis();
+
+        List<User> users = userRepository.findByTenantIdAndIsDeletedFalse(tenantId);
+        Map<String, Shift> shiftsById = shiftRepository.findByTenantIdAndIsDeletedFalse(tenantId).stream()
+                .collect(Collectors.toMap(Shift::getShiftId, Function.identity(), (a, b) -> a));
+        Map<String, OfficeLocation> locationsById = officeLocationRepository.findByTenantIdAndIsDeletedFalse(tenantId).stream()
+                .collect(Collectors.toMap(OfficeLocation::getLocationId, Function.identity(), (a, b) -> a));
+        Shift defaultShift = shiftsById.values().stream()
+                .filter(shift -> Boolean.TRUE.equals(shift.getIsDefault()))
+                .findFirst()
+                .orElse(null);
+
+        // Most recent assignment active on the roster date, per user
+        Map<String, UserShiftAssignment> activeAssignments = userShiftAssignmentRepository
+                .findEffectiveOn(tenantId, date).stream()
+                .collect(Collectors.toMap(UserShiftAssignment::getUserId, Function.identity(),
+                        (a, b) -> b.getEffectiveDate().isAfter(a.getEffectiveDate()) ? b : a));
+
+        Map<String, RosterEntry> entries = new HashMap<>(users.size() * 2);
+        for (User user : users) {
+            UserShiftAssignment assignment = activeAssignments.get(user.getId());
+            Shift shift = defaultShift;
+            String officeLocationId = null;
+            if (assignment != null) {
+                // Assigned shift missing from the snapshot (e.g. soft-deleted) is left unresolved
+                // so the caller falls back to ShiftService
+                shift = shiftsById.get(assignment.getShiftId());
+                officeLocationId = assignment.getOfficeLocationId();
+            }
+            entries.put(user.getId(), new RosterEntry(user, shift, officeLocationId,
+                    officeLocationId != null ? locationsById.get(officeLocationId) : null));
+        }
+
+        log.info("Attendance roster built for tenant {} on {}: {} users in {} ms",
+                tenantId, date, entries.size(), System.currentTimeMillis() - start);
+
+        return new DailyRoster(date, LocalDateTime.now(),
+                Collections.unmodifiableMap(entries), Collections.unmodifiableMap(locationsById));
+    }
+
+    /**
+     * Snapshot of a tenant's roster for one day
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class DailyRoster {
+        private final LocalDate date;
+        private final LocalDateTime builtAt;
+        private final Map<String, RosterEntry> entries;
+        private final Map<String, OfficeLocation> officeLocations;
+    }
+
+    /**
+     * Resolved check-in context of a single user
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class RosterEntry {
+        private final User user;
+        private final Shift shift;
+        private final String officeLocationId;
+        private final OfficeLocation officeLocation;
+    }
+}
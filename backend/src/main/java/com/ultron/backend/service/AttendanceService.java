@@ -16,9 +16,18 @@ import com.ultron.backend.exception.ResourceNotFoundException;
 import com.ultron.backend.repository.AttendanceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
@@ -27,6 +36,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -46,6 +56,8 @@ public class AttendanceService extends BaseTenantService {
     private final OfficeLocationService officeLocationService;
     private final NotificationService notificationService;
     private final com.ultron.backend.util.GpsSpoofingDetector gpsSpoofingDetector;
+    private final AttendanceRosterService attendanceRosterService;
+    private final MongoTemplate mongoTemplate;
 
     /**
      * Check in user with GPS verification
@@ -62,16 +74,12 @@ public class AttendanceService extends BaseTenantService {
 
         log.info("Check-in request for user {} at location ({}, {})", userId, request.getLatitude(), request.getLongitude());
 
-        // 1. Validate: No existing check-in today
-        Optional<Attendance> existing = attendanceRepository
-            .findByUserIdAndAttendanceDateAndTenantIdAndIsDeletedFalse(userId, today, tenantId);
-
-        if (existing.isPresent()) {
-            throw new BusinessException("You have already checked in today at " + existing.get().getCheckInTime());
-        }
+        // 1. Resolve user, shift and office from the precomputed daily roster.
+        // Duplicate check-ins are rejected by the idempotent insert below, not by a lookup here.
+        AttendanceRosterService.RosterEntry rosterEntry = attendanceRosterService.getEntry(tenantId, userId);
 
         // 2. Get user details
-        User user = userRepository.findByIdAndTenantId(userId, tenantId)
+        User user = rosterEntry != null ? rosterEntry.getUser() : userRepository.findByIdAndTenantId(userId, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         String userName = user.getFullName() != null ? user.getFullName() :
@@ -79,7 +87,10 @@ public class AttendanceService extends BaseTenantService {
                         user.getProfile().getFullName() : user.getUsername();
 
         // 3. Get user shift
-        Shift shift = shiftService.getUserActiveShift(userId);
+        Shift shift = rosterEntry != null ? rosterEntry.getShift() : null;
+        if (shift == null) {
+            shift = shiftService.getUserActiveShift(userId);
+        }
         if (shift == null) {
             shift = shiftService.getDefaultShift();
             if (shift == null) {
@@ -93,10 +104,13 @@ public class AttendanceService extends BaseTenantService {
             String locationId = request.getOfficeLocationId();
             if (locationId == null) {
                 // Get default/assigned location
-                locationId = shiftService.getUserOfficeLocationId(userId);
+                locationId = rosterEntry != null ? rosterEntry.getOfficeLocationId() : shiftService.getUserOfficeLocationId(userId);
             }
             if (locationId != null) {
-                officeLocation = officeLocationService.getLocationById(locationId);
+                officeLocation = rosterEntry != null ? attendanceRosterService.getOfficeLocation(tenantId, locationId) : null;
+                if (officeLocation == null) {
+                    officeLocation = officeLocationService.getLocationById(locationId);
+                }
             } else {
                 throw new BusinessException("Office location not specified for OFFICE check-in");
             }
@@ -132,27 +146,12 @@ public class AttendanceService extends BaseTenantService {
         }
 
         // 5.5. GPS Spoofing Detection
-        var spoofingResult = gpsSpoofingDetector.detectSpoofing(userId, request);
+        var spoofingResult = gpsSpoofingDetector.detectSpoofing(tenantId, userId, request);
         if (spoofingResult.isSuspicious()) {
             log.warn("GPS spoofing detected for user {}: {}", userId, spoofingResult.getSummary());
 
             // Add to validation message
             validationMessage += " | Warning: " + spoofingResult.getSummary();
-
-            // If HIGH likelihood, send alert to admin/manager
-            if (spoofingResult.getLikelihood() == com.ultron.backend.util.GpsSpoofingDetector.SpoofingLikelihood.HIGH) {
-                if (user.getManagerId() != null) {
-                    notificationService.createAndSendNotification(
-                            user.getManagerId(),
-                            "GPS Spoofing Alert",
-                            String.format("%s's check-in shows signs of GPS spoofing. Score: %d. Indicators: %s",
-                                    userName, spoofingResult.getSuspicionScore(),
-                                    String.join(", ", spoofingResult.getIndicators())),
-                            "GPS_SPOOFING_ALERT",
-                            "/admin/attendance/daily"
-                    );
-                }
-            }
         }
 
         // 6. Calculate late arrival
@@ -199,13 +198,29 @@ public class AttendanceService extends BaseTenantService {
             .createdBy(userId)
             .isDeleted(false)
             .build();
+        attendance.getCheckInLocation().setIsGpsSpoofingDetected(spoofingResult.isSuspicious());
 
-        attendance = attendanceRepository.save(attendance);
+        attendance = insertCheckIn(attendance);
 
         log.info("✅ Check-in successful for user {} - Status: {}, Late: {} minutes",
                  userId, status, lateMinutes);
 
         // 8. Notifications
+        // If HIGH spoofing likelihood, send alert to admin/manager
+        if (spoofingResult.isSuspicious()
+                && spoofingResult.getLikelihood() == com.ultron.backend.util.GpsSpoofingDetector.SpoofingLikelihood.HIGH
+                && user.getManagerId() != null) {
+            notificationService.createAndSendNotification(
+                    user.getManagerId(),
+                    "GPS Spoofing Alert",
+                    String.format("%s's check-in shows signs of GPS spoofing. Score: %d. Indicators: %s",
+                            userName, spoofingResult.getSuspicionScore(),
+                            String.join(", ", spoofingResult.getIndicators())),
+                    "GPS_SPOOFING_ALERT",
+                    "/admin/attendance/daily"
+            );
+        }
+
         if (status == AttendanceStatus.LATE && user.getManagerId() != null) {
             notificationService.createAndSendNotification(
                 user.getManagerId(),
@@ -231,6 +246,48 @@ public class AttendanceService extends BaseTenantService {
         return mapToResponse(attendance);
     }
 
+    /**
+     * Insert today's check-in only if the user has no live record for the day.
+     * Single round trip: an upsert on (tenantId, userId, attendanceDate) backed by the
+     * tenantId_userId_date_unique index, so concurrent or retried check-ins cannot create duplicates.
+     */
+    private Attendance insertCheckIn(Attendance attendance) {
+        attendance.setId(new ObjectId().toHexString());
+
+        Document document = new Document();
+        mongoTemplate.getConverter().write(attendance, document);
+        Update update = new Update();
+        document.forEach(update::setOnInsert);
+        // Audit fields are set explicitly rather than relying on whatever the builder left in them
+        LocalDateTime createdAt = attendance.getCreatedAt() != null ? attendance.getCreatedAt() : LocalDateTime.now();
+        String createdBy = attendance.getCreatedBy() != null ? attendance.getCreatedBy() : attendance.getUserId();
+        attendance.setCreatedAt(createdAt);
+        attendance.setCreatedBy(createdBy);
+        update.setOnInsert("createdAt", createdAt);
+        update.setOnInsert("createdBy", createdBy);
+
+        Query query = new Query(Criteria.where("tenantId").is(attendance.getTenantId())
+                .and("userId").is(attendance.getUserId())
+                .and("attendanceDate").is(attendance.getAttendanceDate())
+                .and("isDeleted").is(false));
+
+        Attendance existing;
+        try {
+            existing = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), Attendance.class);
+        } catch (DuplicateKeyException e) {
+            // Lost a race against a concurrent check-in for the same user and day
+            existing = attendanceRepository.findByUserIdAndAttendanceDateAndTenantIdAndIsDeletedFalse(
+                    attendance.getUserId(), attendance.getAttendanceDate(), attendance.getTenantId())
+                    .orElseThrow(() -> e);
+        }
+
+        if (existing != null) {
+            throw new BusinessException("You have already checked in today at " + existing.getCheckInTime());
+        }
+        return attendance;
+    }
+
     /**
      * Check out user
      */
@@ -515,6 +572,44 @@ public class AttendanceService extends BaseTenantService {
             .build();
     }
 
+    /**
+     * Re-run GPS spoofing analysis over all check-ins of a day and update the spoofing flag
+     * on each check-in location. Returns the suspicious records keyed by attendanceId.
+     */
+    public Map<String, com.ultron.backend.util.GpsSpoofingDetector.SpoofingDetectionResult> rescoreSpoofing(LocalDate date) {
+        String tenantId = getCurrentTenantId();
+
+        List<Attendance> attendances = attendanceRepository
+            .findByTenantIdAndAttendanceDateAndIsDeletedFalse(tenantId, date);
+
+        Map<String, com.ultron.backend.util.GpsSpoofingDetector.SpoofingDetectionResult> results =
+            gpsSpoofingDetector.scoreDay(attendances);
+
+        // Only the flag is written, so concurrent check-outs and edits of the same records are kept
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+        int changed = 0;
+        for (Attendance attendance : attendances) {
+            var result = results.get(attendance.getAttendanceId());
+            if (result == null || attendance.getCheckInLocation() == null) {
+                continue;
+            }
+            if (!Boolean.valueOf(result.isSuspicious()).equals(attendance.getCheckInLocation().getIsGpsSpoofingDetected())) {
+                ops.updateOne(new Query(Criteria.where("_id").is(attendance.getId()).and("tenantId").is(tenantId)),
+                        new Update().set("checkInLocation.isGpsSpoofingDetected", result.isSuspicious()));
+                changed++;
+            }
+        }
+        if (changed > 0) {
+            ops.execute();
+        }
+
+        log.info("GPS spoofing rescored for {} check-ins on {}: {} flags changed", attendances.size(), date, changed);
+
+        return results.entrySet().stream()
+            .filter(entry -> entry.getValue().isSuspicious())
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
     /**
      * Calculate distance between two GPS coordinates using Haversine formula
      */
@@ -543,7 +638,7 @@ public class AttendanceService extends BaseTenantService {
             .longitude(request.getLongitude())
             .address(request.getAddress())
             .accuracy(request.getAccuracy())
-            .isGpsSpoofingDetected(false) // TODO: Implement spoofing detection
+            .isGpsSpoofingDetected(false)
             .build();
     }
 
@@ -1,128 +1,261 @@
 package com.ultron.backend.service;
 
+import com.mongodb.bulk.BulkWriteError;
+import com.ultron.backend.domain.entity.BulkShiftAssignmentJob;
 import com.ultron.backend.domain.entity.OfficeLocation;
 import com.ultron.backend.domain.entity.Shift;
 import com.ultron.backend.domain.entity.User;
 import com.ultron.backend.domain.entity.UserShiftAssignment;
 import com.ultron.backend.dto.shift.BulkAssignmentResult;
+import com.ultron.backend.dto.shift.BulkShiftAssignmentJobResponse;
 import com.ultron.backend.dto.shift.BulkShiftAssignmentRequest;
 import com.ultron.backend.dto.shift.ShiftAssignmentResponse;
+import com.ultron.backend.exception.ResourceNotFoundException;
+import com.ultron.backend.multitenancy.TenantContext;
 import com.ultron.backend.repository.OfficeLocationRepository;
 import com.ultron.backend.repository.ShiftRepository;
-import com.ultron.backend.repository.UserRepository;
 import com.ultron.backend.repository.UserShiftAssignmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.ultron.backend.config.CacheConfig.SHIFTS_CACHE;
 
 /**
- * Service for bulk shift assignment operations
+ * Service for bulk shift assignment operations.
+ *
+ * Users are processed in chunks (app.shifts.bulk-chunk-size): one $in query loads the chunk's
+ * users, one loads their current assignments, one bulk write inserts the new assignments and a
+ * second ends or replaces the current ones of the users whose insert succeeded. Large requests can
+ * run as a background job, whose progress is saved to bulk_shift_assignment_jobs after every chunk
+ * so any instance can report it. On shutdown a running job gets app.shifts.bulk-shutdown-grace-seconds
+ * to finish; it then stops between chunks and is marked failed.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BulkShiftAssignmentService extends BaseTenantService {
 
+    public static final String PROGRESS_TYPE = "BULK_SHIFT_ASSIGNMENT";
+
+    private static final String INTERRUPTED = "Assignment interrupted by a server shutdown";
+
     private final UserShiftAssignmentRepository assignmentRepository;
-    private final UserRepository userRepository;
     private final ShiftRepository shiftRepository;
     private final OfficeLocationRepository officeLocationRepository;
+    private final AttendanceRosterService attendanceRosterService;
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final NotificationService notificationService;
+
+    @Value("${app.shifts.bulk-chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.shifts.bulk-shutdown-grace-seconds:30}")
+    private long shutdownGraceSeconds;
+
+    // Jobs queued or running on this node, to mark the ones a shutdown cuts off
+    private final Map<String, ActiveJob> active = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startExecutor() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) {
+                log.warn("Stopping {} bulk shift assignments still running after {}s", active.size(), shutdownGraceSeconds);
+                executor.shutdownNow();
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // Jobs that never started, or did not stop in time, would otherwise stay QUEUED or RUNNING
+        active.values().forEach(stopped -> {
+            synchronized (stopped.job) {
+                if (stopped.job.getCompletedAt() == null) {
+                    stopped.job.setStatus("FAILED");
+                    stopped.job.setError(INTERRUPTED);
+                    stopped.job.setCompletedAt(LocalDateTime.now());
+                }
+            }
+            save(stopped.job, stopped.tenantId, stopped.assignedBy);
+        });
+    }
 
     /**
      * Bulk assign shift to multiple users
      */
-    @Transactional
     public BulkAssignmentResult bulkAssignShift(BulkShiftAssignmentRequest request, String assignedBy) {
         String tenantId = getCurrentTenantId();
         log.info("Bulk assigning shift {} to {} users", request.getShiftId(), request.getUserIds().size());
+        Shift shift = findShift(request, tenantId);
+        OfficeLocation officeLocation = findOfficeLocation(request, tenantId);
+        return assign(tenantId, shift, officeLocation, request, assignedBy, null);
+    }
 
-        // Validate shift exists
-        Shift shift = shiftRepository.findByShiftIdAndTenantId(request.getShiftId(), tenantId)
-                .orElseThrow(() -> new RuntimeException("Shift not found"));
+    /**
+     * Queue a bulk assignment; progress is pushed to the requesting user and available from getJob
+     */
+    public BulkShiftAssignmentJobResponse startBulkAssignShift(BulkShiftAssignmentRequest request, String assignedBy) {
+        String tenantId = getCurrentTenantId();
+        Shift shift = findShift(request, tenantId);
+        OfficeLocation officeLocation = findOfficeLocation(request, tenantId);
 
-        // Validate office location if provided
-        OfficeLocation officeLocation = null;
-        if (request.getOfficeLocationId() != null) {
-            officeLocation = officeLocationRepository
-                    .findByLocationIdAndTenantIdAndIsDeletedFalse(request.getOfficeLocationId(), tenantId)
-                    .orElseThrow(() -> new RuntimeException("Office location not found"));
+        BulkShiftAssignmentJobResponse job = BulkShiftAssignmentJobResponse.builder()
+                .jobId(new ObjectId().toHexString())
+                .type(PROGRESS_TYPE)
+                .shiftId(shift.getShiftId())
+                .status("QUEUED")
+                .totalRequested(request.getUserIds().size())
+                .startedAt(LocalDateTime.now())
+                .build();
+        save(job, tenantId, assignedBy);
+        active.put(job.getJobId(), new ActiveJob(job, tenantId, assignedBy));
+
+        log.info("[Tenant: {}] Queued bulk assignment {} of shift {} to {} users", tenantId, job.getJobId(),
+                shift.getShiftId(), request.getUserIds().size());
+        executor.submit(() -> runJob(job, tenantId, shift, officeLocation, request, assignedBy));
+        return snapshot(job);
+    }
+
+    public BulkShiftAssignmentJobResponse getJob(String jobId) {
+        BulkShiftAssignmentJob job = mongoTemplate.findOne(new Query(Criteria.where("_id").is(jobId)
+                .and("tenantId").is(getCurrentTenantId())), BulkShiftAssignmentJob.class);
+        if (job == null) {
+            throw new ResourceNotFoundException("Bulk shift assignment job not found: " + jobId);
         }
+        return toResponse(job);
+    }
 
+    private void runJob(BulkShiftAssignmentJobResponse job, String tenantId, Shift shift, OfficeLocation officeLocation,
+                        BulkShiftAssignmentRequest request, String assignedBy) {
+        TenantContext.setTenantId(tenantId);
+        TenantContext.setUserId(assignedBy);
+        try {
+            synchronized (job) {
+                job.setStatus("RUNNING");
+            }
+            save(job, tenantId, assignedBy);
+            publish(job, assignedBy);
+            BulkAssignmentResult result = assign(tenantId, shift, officeLocation, request, assignedBy, progress -> {
+                synchronized (job) {
+                    job.setProcessed(progress.processed());
+                    job.setSuccessCount(progress.successCount());
+                    job.setFailureCount(progress.failureCount());
+                }
+                save(job, tenantId, assignedBy);
+                publish(job, assignedBy);
+            });
+            synchronized (job) {
+                job.setResult(result);
+                if (Thread.currentThread().isInterrupted()) {
+                    job.setError(INTERRUPTED);
+                    job.setStatus("FAILED");
+                } else {
+                    job.setStatus("COMPLETED");
+                }
+            }
+        } catch (Exception e) {
+            log.error("[Tenant: {}] Bulk shift assignment {} failed", tenantId, job.getJobId(), e);
+            synchronized (job) {
+                job.setError(e.getMessage());
+                job.setStatus("FAILED");
+            }
+        } finally {
+            synchronized (job) {
+                job.setCompletedAt(LocalDateTime.now());
+            }
+            // A job whose final state was not saved stays active, so the shutdown hook saves it
+            if (save(job, tenantId, assignedBy)) {
+                active.remove(job.getJobId());
+            }
+            publish(job, assignedBy);
+            TenantContext.clear();
+        }
+    }
+
+    private BulkAssignmentResult assign(String tenantId, Shift shift, OfficeLocation officeLocation,
+                                        BulkShiftAssignmentRequest request, String assignedBy,
+                                        Consumer<Progress> onChunk) {
+        long started = System.currentTimeMillis();
         List<ShiftAssignmentResponse> successful = new ArrayList<>();
         List<BulkAssignmentResult.FailedAssignment> failed = new ArrayList<>();
 
+        // A user listed twice gets one assignment
+        Set<String> userIds = new LinkedHashSet<>();
         for (String userId : request.getUserIds()) {
-            try {
-                // Get user
-                Optional<User> userOpt = userRepository.findByIdAndTenantId(userId, tenantId);
-                if (userOpt.isEmpty()) {
-                    failed.add(BulkAssignmentResult.FailedAssignment.builder()
-                            .userId(userId)
-                            .userName("Unknown")
-                            .reason("User not found")
-                            .build());
-                    continue;
-                }
-
-                User user = userOpt.get();
-                String userName = user.getFullName() != null ? user.getFullName() :
-                    (user.getProfile() != null && user.getProfile().getFullName() != null) ?
-                    user.getProfile().getFullName() : user.getUsername();
-
-                // Create assignment
-                UserShiftAssignment assignment = UserShiftAssignment.builder()
-                        .tenantId(tenantId)
-                        .userId(userId)
-                        .userName(userName)
-                        .shiftId(shift.getShiftId())
-                        .shiftName(shift.getName())
-                        .officeLocationId(officeLocation != null ? officeLocation.getLocationId() : null)
-                        .officeLocationName(officeLocation != null ? officeLocation.getName() : null)
-                        .effectiveDate(request.getEffectiveDate())
-                        .endDate(request.getEndDate())
-                        .isTemporary(request.getIsTemporary() != null && request.getIsTemporary())
-                        .reason(request.getReason())
-                        .createdAt(LocalDateTime.now())
-                        .createdBy(assignedBy)
-                        .build();
-
-                assignmentRepository.save(assignment);
-
-                successful.add(ShiftAssignmentResponse.builder()
-                        .id(assignment.getId())
-                        .tenantId(assignment.getTenantId())
-                        .userId(assignment.getUserId())
-                        .userName(assignment.getUserName())
-                        .shiftId(assignment.getShiftId())
-                        .shiftName(assignment.getShiftName())
-                        .officeLocationId(assignment.getOfficeLocationId())
-                        .officeLocationName(assignment.getOfficeLocationName())
-                        .effectiveDate(assignment.getEffectiveDate())
-                        .endDate(assignment.getEndDate())
-                        .isTemporary(assignment.getIsTemporary())
-                        .reason(assignment.getReason())
-                        .build());
-
-                log.info("Assigned shift {} to user {}", shift.getName(), userName);
+            if (!userIds.add(userId)) {
+                failed.add(failure(userId, "Unknown", "Duplicate user ID in request"));
+            }
+        }
 
+        List<String> pending = new ArrayList<>(userIds);
+        int size = Math.max(1, chunkSize);
+        int processed = failed.size();
+        for (int from = 0; from < pending.size(); from += size) {
+            List<String> chunk = pending.subList(from, Math.min(pending.size(), from + size));
+            try {
+                assignChunk(tenantId, shift, officeLocation, request, assignedBy, chunk, successful, failed);
             } catch (Exception e) {
-                log.error("Failed to assign shift to user {}: {}", userId, e.getMessage());
-                failed.add(BulkAssignmentResult.FailedAssignment.builder()
-                        .userId(userId)
-                        .userName("Unknown")
-                        .reason(e.getMessage())
-                        .build());
+                log.error("Failed to assign shift to {} users: {}", chunk.size(), e.getMessage());
+                chunk.forEach(userId -> failed.add(failure(userId, "Unknown", e.getMessage())));
+            }
+            processed += chunk.size();
+            if (onChunk != null) {
+                onChunk.accept(new Progress(processed, successful.size(), failed.size()));
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // Shutting down: stop between chunks, keeping the assignments already written
+                break;
+            }
+        }
+
+        if (!successful.isEmpty()) {
+            Cache shifts = cacheManager.getCache(SHIFTS_CACHE);
+            if (shifts != null) {
+                shifts.clear();
             }
+            attendanceRosterService.invalidate(tenantId);
         }
 
-        log.info("Bulk assignment completed: {} successful, {} failed",
-                successful.size(), failed.size());
+        log.info("Bulk assignment completed in {} ms: {} successful, {} failed",
+                System.currentTimeMillis() - started, successful.size(), failed.size());
 
         return BulkAssignmentResult.builder()
                 .totalRequested(request.getUserIds().size())
@@ -133,6 +266,217 @@ public class BulkShiftAssignmentService extends BaseTenantService {
                 .build();
     }
 
+    /**
+     * Assign the shift to one chunk of users with two reads and two bulk writes: the new assignments
+     * are inserted first, and only users whose insert succeeded have their current assignments
+     * superseded. If superseding fails for a user, the new assignment is removed again.
+     */
+    private void assignChunk(String tenantId, Shift shift, OfficeLocation officeLocation, BulkShiftAssignmentRequest request,
+                             String assignedBy, List<String> userIds,
+                             List<ShiftAssignmentResponse> successful, List<BulkAssignmentResult.FailedAssignment> failed) {
+        Query userQuery = new Query(Criteria.where("_id").in(userIds).and("tenantId").is(tenantId));
+        userQuery.fields().include("username", "fullName", "profile.fullName");
+        Map<String, User> users = mongoTemplate.find(userQuery, User.class).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        LocalDate effectiveDate = request.getEffectiveDate();
+        boolean temporary = request.getIsTemporary() != null && request.getIsTemporary();
+        LocalDateTime now = LocalDateTime.now();
+
+        // A permanent assignment supersedes the user's current ones: those that started earlier end
+        // the day before, one starting the same day is replaced. Temporary assignments overlay them.
+        List<UserShiftAssignment> current = temporary || users.isEmpty() ? List.of() : mongoTemplate.find(
+                new Query(Criteria.where("tenantId").is(tenantId)
+                        .and("userId").in(users.keySet())
+                        .and("isDeleted").ne(true)
+                        .and("effectiveDate").lte(effectiveDate)
+                        .orOperator(Criteria.where("endDate").is(null), Criteria.where("endDate").gte(effectiveDate))),
+                UserShiftAssignment.class);
+
+        List<UserShiftAssignment> assignments = new ArrayList<>();
+        for (String userId : userIds) {
+            User user = users.get(userId);
+            if (user == null) {
+                failed.add(failure(userId, "Unknown", "User not found"));
+                continue;
+            }
+            assignments.add(UserShiftAssignment.builder()
+                    .id(new ObjectId().toHexString())
+                    .tenantId(tenantId)
+                    .userId(userId)
+                    .userName(displayName(user))
+                    .shiftId(shift.getShiftId())
+                    .shiftName(shift.getName())
+                    .officeLocationId(officeLocation != null ? officeLocation.getLocationId() : null)
+                    .officeLocationName(officeLocation != null ? officeLocation.getName() : null)
+                    .effectiveDate(effectiveDate)
+                    .endDate(request.getEndDate())
+                    .isTemporary(temporary)
+                    .reason(request.getReason())
+                    .createdAt(now)
+                    .createdBy(assignedBy)
+                    .build());
+        }
+        if (assignments.isEmpty()) {
+            return;
+        }
+
+        BulkOperations inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserShiftAssignment.class);
+        assignments.forEach(inserts::insert);
+        Set<Integer> failedInserts = failedOperations(inserts, assignments.size());
+
+        // Users whose new assignment was written, by user id
+        Map<String, UserShiftAssignment> inserted = new HashMap<>();
+        for (int i = 0; i < assignments.size(); i++) {
+            if (!failedInserts.contains(i)) {
+                inserted.put(assignments.get(i).getUserId(), assignments.get(i));
+            }
+        }
+
+        List<UserShiftAssignment> superseded = current.stream()
+                .filter(assignment -> inserted.containsKey(assignment.getUserId()))
+                .toList();
+        Set<String> notSuperseded = new HashSet<>();
+        if (!superseded.isEmpty()) {
+            BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserShiftAssignment.class);
+            for (UserShiftAssignment assignment : superseded) {
+                Update update = effectiveDate.equals(assignment.getEffectiveDate())
+                        ? new Update().set("isDeleted", true).set("deletedAt", now).set("deletedBy", assignedBy)
+                        : new Update().set("endDate", effectiveDate.minusDays(1));
+                updates.updateOne(new Query(Criteria.where("_id").is(assignment.getId()).and("tenantId").is(tenantId)),
+                        update.set("lastModifiedAt", now).set("lastModifiedBy", assignedBy));
+            }
+            failedOperations(updates, superseded.size()).forEach(index -> notSuperseded.add(superseded.get(index).getUserId()));
+        }
+        if (!notSuperseded.isEmpty()) {
+            // Undo the new assignment rather than leave it overlapping the one it should have replaced
+            mongoTemplate.remove(new Query(Criteria.where("_id")
+                    .in(notSuperseded.stream().map(userId -> inserted.get(userId).getId()).toList())
+                    .and("tenantId").is(tenantId)), UserShiftAssignment.class);
+        }
+
+        for (int i = 0; i < assignments.size(); i++) {
+            UserShiftAssignment assignment = assignments.get(i);
+            if (failedInserts.contains(i)) {
+                failed.add(failure(assignment.getUserId(), assignment.getUserName(), "Failed to save assignment"));
+            } else if (notSuperseded.contains(assignment.getUserId())) {
+                failed.add(failure(assignment.getUserId(), assignment.getUserName(), "Failed to update current assignment"));
+            } else {
+                successful.add(mapToResponse(assignment));
+            }
+        }
+    }
+
+    /**
+     * Execute a bulk write and return the indexes of the operations that failed
+     */
+    private Set<Integer> failedOperations(BulkOperations ops, int opCount) {
+        Set<Integer> failedOps = new HashSet<>();
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            String error = null;
+            for (BulkWriteError writeError : e.getErrors()) {
+                failedOps.add(writeError.getIndex());
+                error = writeError.getMessage();
+            }
+            log.warn("Bulk shift assignment wrote {} of {} operations: {}", opCount - failedOps.size(), opCount, error);
+        }
+        return failedOps;
+    }
+
+    private Shift findShift(BulkShiftAssignmentRequest request, String tenantId) {
+        return shiftRepository.findByShiftIdAndTenantId(request.getShiftId(), tenantId)
+                .orElseThrow(() -> new RuntimeException("Shift not found"));
+    }
+
+    private OfficeLocation findOfficeLocation(BulkShiftAssignmentRequest request, String tenantId) {
+        if (request.getOfficeLocationId() == null) {
+            return null;
+        }
+        return officeLocationRepository
+                .findByLocationIdAndTenantIdAndIsDeletedFalse(request.getOfficeLocationId(), tenantId)
+                .orElseThrow(() -> new RuntimeException("Office location not found"));
+    }
+
+    private static String displayName(User user) {
+        return user.getFullName() != null ? user.getFullName() :
+                (user.getProfile() != null && user.getProfile().getFullName() != null) ?
+                user.getProfile().getFullName() : user.getUsername();
+    }
+
+    private static BulkAssignmentResult.FailedAssignment failure(String userId, String userName, String reason) {
+        return BulkAssignmentResult.FailedAssignment.builder()
+                .userId(userId)
+                .userName(userName)
+                .reason(reason)
+                .build();
+    }
+
+    private void publish(BulkShiftAssignmentJobResponse job, String userId) {
+        try {
+            notificationService.sendProgress(userId, snapshot(job));
+        } catch (Exception e) {
+            log.debug("Failed to send bulk shift assignment progress: {}", e.getMessage());
+        }
+    }
+
+    private boolean save(BulkShiftAssignmentJobResponse job, String tenantId, String assignedBy) {
+        BulkShiftAssignmentJobResponse current = snapshot(job);
+        try {
+            mongoTemplate.save(BulkShiftAssignmentJob.builder()
+                    .id(current.getJobId())
+                    .tenantId(tenantId)
+                    .assignedBy(assignedBy)
+                    .shiftId(current.getShiftId())
+                    .status(current.getStatus())
+                    .totalRequested(current.getTotalRequested())
+                    .processed(current.getProcessed())
+                    .successCount(current.getSuccessCount())
+                    .failureCount(current.getFailureCount())
+                    .error(current.getError())
+                    .result(current.getResult())
+                    .startedAt(current.getStartedAt())
+                    .updatedAt(LocalDateTime.now())
+                    .completedAt(current.getCompletedAt())
+                    .build());
+            return true;
+        } catch (Exception e) {
+            // Progress is saved again after the next chunk
+            log.warn("Failed to save bulk shift assignment {}: {}", current.getJobId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private BulkShiftAssignmentJobResponse toResponse(BulkShiftAssignmentJob job) {
+        return BulkShiftAssignmentJobResponse.builder()
+                .jobId(job.getId())
+                .type(PROGRESS_TYPE)
+                .shiftId(job.getShiftId())
+                .status(job.getStatus())
+                .totalRequested(job.getTotalRequested())
+                .processed(job.getProcessed())
+                .successCount(job.getSuccessCount())
+                .failureCount(job.getFailureCount())
+                .error(job.getError())
+                .result(job.getResult())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private BulkShiftAssignmentJobResponse snapshot(BulkShiftAssignmentJobResponse job) {
+        synchronized (job) {
+            return job.toBuilder().build();
+        }
+    }
+
+    private record Progress(int processed, int successCount, int failureCount) {
+    }
+
+    private record ActiveJob(BulkShiftAssignmentJobResponse job, String tenantId, String assignedBy) {
+    }
+
     /**
      * Get user's active shift assignment
      */
@@ -148,6 +492,7 @@ public class BulkShiftAssignmentService extends BaseTenantService {
 
         // Get the most recent active assignment
         UserShiftAssignment active = assignments.stream()
+                .filter(a -> !Boolean.TRUE.equals(a.getIsDeleted()))
                 .filter(a -> !a.getEffectiveDate().isAfter(java.time.LocalDate.now()))
                 .filter(a -> a.getEndDate() == null || !a.getEndDate().isBefore(java.time.LocalDate.now()))
                 .findFirst()
@@ -169,7 +514,10 @@ public class BulkShiftAssignmentService extends BaseTenantService {
         List<UserShiftAssignment> assignments = assignmentRepository
                 .findByTenantIdAndUserIdOrderByEffectiveDateDesc(tenantId, userId);
 
-        return assignments.stream().map(this::mapToResponse).toList();
+        return assignments.stream()
+                .filter(a -> !Boolean.TRUE.equals(a.getIsDeleted()))
+                .map(this::mapToResponse)
+                .toList();
     }
 
     private ShiftAssignmentResponse mapToResponse(UserShiftAssignment assignment) {
@@ -8,13 +8,20 @@ import com.ultron.backend.dto.response.CalendarEventResponse;
 import com.ultron.backend.repository.CalendarEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +29,7 @@ import java.util.stream.Collectors;
 public class CalendarEventService extends BaseTenantService {
 
     private final CalendarEventRepository calendarEventRepository;
+    private final MongoTemplate mongoTemplate;
 
     public CalendarEventResponse createEvent(CreateCalendarEventRequest req) {
         String tenantId = getCurrentTenantId();
@@ -52,6 +60,7 @@ public class CalendarEventService extends BaseTenantService {
                 .updatedAt(LocalDateTime.now())
                 .isDeleted(false)
                 .build();
+        event.setSeriesEnd(seriesEnd(event));
 
         CalendarEvent saved = calendarEventRepository.save(event);
         logTenantOperation("CREATE", "CalendarEvent", saved.getEventId());
@@ -85,6 +94,7 @@ public class CalendarEventService extends BaseTenantService {
         event.setColor(req.getColor());
         event.setAllDay(req.isAllDay());
         if (req.getRecurrence() != null) event.setRecurrence(req.getRecurrence());
+        event.setSeriesEnd(seriesEnd(event));
         event.setUpdatedBy(userId);
         event.setUpdatedAt(LocalDateTime.now());
 
@@ -114,31 +124,11 @@ public class CalendarEventService extends BaseTenantService {
     }
 
     public List<CalendarEventResponse> getMyEvents(LocalDateTime from, LocalDateTime to) {
-        String tenantId = getCurrentTenantId();
-        String userId = getCurrentUserId();
-
-        List<CalendarEvent> createdByMe = calendarEventRepository
-                .findByTenantIdAndCreatedByAndStartTimeBetweenAndIsDeletedFalse(tenantId, userId, from, to);
-
-        List<CalendarEvent> attendingAs = calendarEventRepository
-                .findByTenantIdAndAttendeeIdsContainingAndStartTimeBetweenAndIsDeletedFalse(tenantId, userId, from, to);
-
-        // Merge deduplicating by id
-        List<CalendarEvent> merged = new ArrayList<>(createdByMe);
-        for (CalendarEvent e : attendingAs) {
-            if (merged.stream().noneMatch(m -> m.getId().equals(e.getId()))) {
-                merged.add(e);
-            }
-        }
-
-        return merged.stream().map(this::toResponse).collect(Collectors.toList());
+        return findInWindow(getCurrentTenantId(), getCurrentUserId(), from, to);
     }
 
     public List<CalendarEventResponse> getAllEvents(LocalDateTime from, LocalDateTime to) {
-        String tenantId = getCurrentTenantId();
-        return calendarEventRepository
-                .findByTenantIdAndStartTimeBetweenAndIsDeletedFalse(tenantId, from, to)
-                .stream().map(this::toResponse).collect(Collectors.toList());
+        return findInWindow(getCurrentTenantId(), null, from, to);
     }
 
     public CalendarEventResponse getEventById(String eventId) {
@@ -149,19 +139,92 @@ public class CalendarEventService extends BaseTenantService {
     }
 
     public List<CalendarEventResponse> getUserEvents(String userId, LocalDateTime from, LocalDateTime to) {
-        String tenantId = getCurrentTenantId();
-        List<CalendarEvent> createdByUser = calendarEventRepository
-                .findByTenantIdAndCreatedByAndStartTimeBetweenAndIsDeletedFalse(tenantId, userId, from, to);
-        List<CalendarEvent> attendingAs = calendarEventRepository
-                .findByTenantIdAndAttendeeIdsContainingAndStartTimeBetweenAndIsDeletedFalse(tenantId, userId, from, to);
-
-        List<CalendarEvent> merged = new ArrayList<>(createdByUser);
-        for (CalendarEvent e : attendingAs) {
-            if (merged.stream().noneMatch(m -> m.getId().equals(e.getId()))) {
-                merged.add(e);
+        return findInWindow(getCurrentTenantId(), userId, from, to);
+    }
+
+    /**
+     * Events overlapping [from, to) that the participant created or attends (any participant when null),
+     * read with one range query; recurring series are expanded to their occurrences inside the window.
+     */
+    private List<CalendarEventResponse> findInWindow(String tenantId, String participantId,
+                                                     LocalDateTime from, LocalDateTime to) {
+        List<Criteria> branches = new ArrayList<>();
+        for (String field : participantId != null ? List.of("createdBy", "attendeeIds") : Collections.<String>singletonList(null)) {
+            for (boolean openEnded : new boolean[]{false, true}) {
+                Criteria branch = openEnded
+                        ? Criteria.where("seriesEnd").is(null)
+                        : Criteria.where("seriesEnd").gte(from);
+                branches.add(field != null ? branch.and(field).is(participantId) : branch);
+            }
+        }
+        Query query = new Query(Criteria.where("tenantId").is(tenantId)
+                .and("isDeleted").is(false)
+                .and("startTime").lt(to)
+                .orOperator(branches))
+                .with(Sort.by(Sort.Direction.ASC, "startTime"));
+
+        List<CalendarEventResponse> events = new ArrayList<>();
+        for (CalendarEvent event : mongoTemplate.find(query, CalendarEvent.class)) {
+            addOccurrences(event, from, to, events);
+        }
+        events.sort(Comparator.comparing(CalendarEventResponse::getStartTime));
+        return events;
+    }
+
+    private void addOccurrences(CalendarEvent event, LocalDateTime from, LocalDateTime to,
+                                List<CalendarEventResponse> events) {
+        LocalDateTime start = event.getStartTime();
+        LocalDateTime end = event.getEndTime() != null ? event.getEndTime() : start;
+        ChronoUnit unit = recurrenceUnit(event.getRecurrence());
+        if (unit == null) {
+            if (overlaps(start, end, from, to)) {
+                events.add(toResponse(event));
+            }
+            return;
+        }
+
+        // Jump to the occurrences just before the window instead of walking the series from its start
+        Duration length = Duration.between(start, end);
+        for (long n = Math.max(0, unit.between(end, from) - 1); ; n++) {
+            LocalDateTime occurrenceStart = start.plus(n, unit);
+            if (!occurrenceStart.isBefore(to)) {
+                break;
             }
+            LocalDateTime occurrenceEnd = occurrenceStart.plus(length);
+            if (overlaps(occurrenceStart, occurrenceEnd, from, to)) {
+                // Same id as the series; seriesStartTime/seriesEndTime keep the stored anchor for edits
+                CalendarEventResponse occurrence = toResponse(event);
+                occurrence.setStartTime(occurrenceStart);
+                occurrence.setEndTime(occurrenceEnd);
+                events.add(occurrence);
+            }
+        }
+    }
+
+    private static boolean overlaps(LocalDateTime start, LocalDateTime end, LocalDateTime from, LocalDateTime to) {
+        return start.isBefore(to) && (end.isAfter(from) || !start.isBefore(from));
+    }
+
+    private static ChronoUnit recurrenceUnit(String recurrence) {
+        if (recurrence == null) {
+            return null;
+        }
+        return switch (recurrence.toUpperCase()) {
+            case "DAILY" -> ChronoUnit.DAYS;
+            case "WEEKLY" -> ChronoUnit.WEEKS;
+            case "MONTHLY" -> ChronoUnit.MONTHS;
+            default -> null;
+        };
+    }
+
+    /**
+     * Recurring series have no end date, so only one-off events get a seriesEnd
+     */
+    private static LocalDateTime seriesEnd(CalendarEvent event) {
+        if (recurrenceUnit(event.getRecurrence()) != null) {
+            return null;
         }
-        return merged.stream().map(this::toResponse).collect(Collectors.toList());
+        return event.getEndTime() != null ? event.getEndTime() : event.getStartTime();
     }
 
     private CalendarEventResponse toResponse(CalendarEvent e) {
@@ -173,6 +236,8 @@ public class CalendarEventService extends BaseTenantService {
                 .description(e.getDescription())
                 .startTime(e.getStartTime())
                 .endTime(e.getEndTime())
+                .seriesStartTime(recurrenceUnit(e.getRecurrence()) != null ? e.getStartTime() : null)
+                .seriesEndTime(recurrenceUnit(e.getRecurrence()) != null ? e.getEndTime() : null)
                 .location(e.getLocation())
                 .clientId(e.getClientId())
                 .clientName(e.getClientName())
@@ -6,11 +6,17 @@ import com.ultron.backend.dto.request.CreateChatGroupRequest;
 import com.ultron.backend.dto.response.ChatGroupDTO;
 import com.ultron.backend.dto.response.UserResponse;
 import com.ultron.backend.exception.ResourceNotFoundException;
+import com.ultron.backend.exception.UnauthorizedException;
 import com.ultron.backend.multitenancy.TenantContext;
 import com.ultron.backend.repository.ChatGroupRepository;
 import com.ultron.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -28,6 +34,9 @@ public class ChatGroupService {
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final UserService userService;
+    private final ChatAuthorizationService authorizationService;
+    private final ChatService chatService;
+    private final MongoTemplate mongoTemplate;
 
     public ChatGroupDTO createGroup(String creatorId, CreateChatGroupRequest request) {
         String tenantId = TenantContext.getTenantId();
@@ -89,6 +98,28 @@ public class ChatGroupService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Remove a member from a group; allowed for the group's creator and for members leaving.
+     * The member's open subscriptions to the group's topics are dropped right away.
+     */
+    public ChatGroupDTO removeMember(String requesterId, String groupId, String memberId) {
+        String tenantId = TenantContext.getTenantId();
+        if (!requesterId.equals(memberId) && !authorizationService.canManageGroup(requesterId, groupId)) {
+            throw new UnauthorizedException("Not authorized to remove members from this group");
+        }
+
+        ChatGroup group = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(groupId).and("tenantId").is(tenantId)),
+                new Update().pull("memberIds", memberId),
+                FindAndModifyOptions.options().returnNew(true), ChatGroup.class);
+        if (group == null) {
+            throw new ResourceNotFoundException("ChatGroup ID not found: " + groupId);
+        }
+        chatService.revokeGroupSubscriptions(groupId, memberId);
+        log.info("Removed member {} from chat group {}", memberId, groupId);
+        return mapToDTO(group);
+    }
+
     public ChatGroupDTO getGroupById(String groupId) {
         ChatGroup group = chatGroupRepository.findById(groupId)
                 .orElseThrow(() -> new ResourceNotFoundException("ChatGroup ID not found: " + groupId));
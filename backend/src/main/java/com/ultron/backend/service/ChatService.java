@@ -1,21 +1,38 @@
 package com.ultron.backend.service;
 
+import com.ultron.backend.domain.entity.ChatGroup;
 import com.ultron.backend.domain.entity.ChatMessage;
+import com.ultron.backend.domain.entity.ChatReadState;
 import com.ultron.backend.domain.entity.User;
+import com.ultron.backend.dto.response.ChatHistoryResponse;
 import com.ultron.backend.dto.response.ChatMessageDTO;
+import com.ultron.backend.exception.BusinessException;
 import com.ultron.backend.exception.UnauthorizedException;
 import com.ultron.backend.multitenancy.TenantContext;
 import com.ultron.backend.repository.ChatMessageRepository;
 import com.ultron.backend.repository.UserRepository;
-import com.ultron.backend.repository.ChatGroupRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,10 +45,78 @@ import java.util.stream.Collectors;
 public class ChatService {
 
     private final ChatMessageRepository chatMessageRepository;
-    private final ChatGroupRepository chatGroupRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final ChatAuthorizationService authorizationService;
+    private final MongoTemplate mongoTemplate;
+    private final SimpUserRegistry userRegistry;
+
+    private static final int MAX_HISTORY_PAGE = 200;
+
+    /** Prefix of per-group broker destinations: /topic/group.{groupId}.{chat|typing} */
+    public static final String GROUP_TOPIC_PREFIX = "/topic/group.";
+
+    public static String groupDestination(String groupId, String channel) {
+        return GROUP_TOPIC_PREFIX + groupId + "." + channel;
+    }
+
+    /**
+     * Drop a user's subscriptions to a group's topics, on every session of the user connected to this
+     * instance. Membership is only checked at SUBSCRIBE, so a member removed from a group would
+     * otherwise keep receiving its messages until they reconnect. Sessions on other instances are
+     * dropped by publishToGroup the next time that instance publishes to the group.
+     */
+    public void revokeGroupSubscriptions(String groupId, String userId) {
+        SimpUser user = userRegistry.getUser(userId);
+        if (user == null) {
+            return;
+        }
+        String prefix = GROUP_TOPIC_PREFIX + groupId + ".";
+        int revoked = 0;
+        for (SimpSession session : user.getSessions()) {
+            for (SimpSubscription subscription : session.getSubscriptions()) {
+                if (subscription.getDestination() == null || !subscription.getDestination().startsWith(prefix)) {
+                    continue;
+                }
+                unsubscribe(subscription);
+                revoked++;
+            }
+        }
+        if (revoked > 0) {
+            log.info("Revoked {} subscription(s) of user {} to group {}", revoked, userId, groupId);
+        }
+    }
+
+    /**
+     * Publish to a group topic. The simple broker only delivers to sessions of this instance, so
+     * its local subscribers are checked against the current members first and non-members are
+     * unsubscribed; a member removed through another instance stops receiving here as well.
+     */
+    private void publishToGroup(String groupId, String channel, Object payload) {
+        Query query = new Query(Criteria.where("_id").is(groupId));
+        query.fields().include("memberIds");
+        ChatGroup group = mongoTemplate.findOne(query, ChatGroup.class);
+        Set<String> memberIds = group != null && group.getMemberIds() != null ? Set.copyOf(group.getMemberIds()) : Set.of();
+
+        String prefix = GROUP_TOPIC_PREFIX + groupId + ".";
+        for (SimpSubscription subscription : userRegistry.findSubscriptions(
+                s -> s.getDestination() != null && s.getDestination().startsWith(prefix))) {
+            if (!memberIds.contains(subscription.getSession().getUser().getName())) {
+                log.info("Revoked subscription of user {} to {}", subscription.getSession().getUser().getName(),
+                        subscription.getDestination());
+                unsubscribe(subscription);
+            }
+        }
+        messagingTemplate.convertAndSend(groupDestination(groupId, channel), payload);
+    }
+
+    private void unsubscribe(SimpSubscription subscription) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+        headers.setSessionId(subscription.getSession().getId());
+        headers.setSubscriptionId(subscription.getId());
+        headers.setLeaveMutable(true);
+        messagingTemplate.getMessageChannel().send(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+    }
 
     public ChatMessageDTO saveAndSendMessage(String senderId, String recipientId, String recipientType, String content) {
         String tenantId = TenantContext.getTenantId();
@@ -47,6 +132,7 @@ public class ChatService {
                 .senderId(senderId)
                 .recipientId(recipientId)
                 .recipientType(recipientType)
+                .conversationId(conversationId(senderId, recipientId, recipientType))
                 .content(content)
                 .timestamp(LocalDateTime.now())
                 .build();
@@ -71,12 +157,8 @@ public class ChatService {
             // Broadcast to the whole tenant
             messagingTemplate.convertAndSend("/topic/tenant." + tenantId + ".chat", messageDTO);
         } else if ("GROUP".equalsIgnoreCase(recipientType)) {
-            // Broadcast to all members of the group
-            chatGroupRepository.findById(recipientId).ifPresent(group -> {
-                group.getMemberIds().forEach(memberId -> {
-                    messagingTemplate.convertAndSendToUser(memberId, "/queue/chat", messageDTO);
-                });
-            });
+            // Publish once to the group topic; members subscribe to it (membership checked on SUBSCRIBE)
+            publishToGroup(recipientId, "chat", messageDTO);
         } else {
             // Send to exact recipient
             messagingTemplate.convertAndSendToUser(recipientId, "/queue/chat", messageDTO);
@@ -89,7 +171,29 @@ public class ChatService {
         return messageDTO;
     }
     
-    public Page<ChatMessageDTO> getChatHistory(String senderId, String recipientId, String recipientType, Pageable pageable) {
+    /**
+     * Key shared by all messages of a conversation: "all" for the tenant broadcast, "group:{groupId}"
+     * for a group, "dm:{userA}:{userB}" (ids sorted) for a direct conversation
+     */
+    public static String conversationId(String userId, String recipientId, String recipientType) {
+        if ("ALL".equalsIgnoreCase(recipientId)) {
+            return "all";
+        }
+        if ("GROUP".equalsIgnoreCase(recipientType)) {
+            return "group:" + recipientId;
+        }
+        return userId.compareTo(recipientId) <= 0
+                ? "dm:" + userId + ":" + recipientId
+                : "dm:" + recipientId + ":" + userId;
+    }
+
+    /**
+     * Chat history newest first, using a (conversation, timestamp, id) keyset: before is the
+     * nextCursor of the previous page, so every page is an index range scan however deep it is.
+     * page is only honoured without a cursor, for clients still paging by offset.
+     */
+    public ChatHistoryResponse getChatHistory(String senderId, String recipientId, String recipientType,
+                                              String before, int page, int size) {
         String tenantId = TenantContext.getTenantId();
 
         // Security check: Verify user has permission to read this chat
@@ -98,21 +202,29 @@ public class ChatService {
             throw new UnauthorizedException("Not authorized to read this chat");
         }
 
-        Page<ChatMessage> messages;
-        if ("ALL".equalsIgnoreCase(recipientId)) {
-            messages = chatMessageRepository.findByTenantIdAndRecipientId(tenantId, "ALL", pageable);
-        } else if ("GROUP".equalsIgnoreCase(recipientType)) {
-            messages = chatMessageRepository.findByTenantIdAndRecipientIdAndRecipientTypeOrderByTimestampDesc(tenantId, recipientId, "GROUP", pageable);
-        } else {
-            // Get messages between sender and recipient
-            messages = chatMessageRepository.findByTenantIdAndSenderIdAndRecipientIdOrTenantIdAndSenderIdAndRecipientIdOrderByTimestampDesc(
-                    tenantId, senderId, recipientId,
-                    tenantId, recipientId, senderId,
-                    pageable);
+        int limit = Math.max(1, Math.min(size, MAX_HISTORY_PAGE));
+        Criteria criteria = Criteria.where("tenantId").is(tenantId)
+                .and("conversationId").is(conversationId(senderId, recipientId, recipientType));
+        HistoryCursor cursor = HistoryCursor.decode(before);
+        if (cursor != null) {
+            criteria.orOperator(
+                    Criteria.where("timestamp").lt(cursor.timestamp()),
+                    Criteria.where("timestamp").is(cursor.timestamp()).and("_id").lt(cursor.id()));
         }
-        
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "timestamp").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit + 1);
+        if (cursor == null && page > 0) {
+            query.skip((long) page * limit);
+        }
+
+        List<ChatMessage> messageList = new ArrayList<>(mongoTemplate.find(query, ChatMessage.class));
+        boolean hasMore = messageList.size() > limit;
+        if (hasMore) {
+            messageList.remove(messageList.size() - 1);
+        }
+
         // Fix N+1 query: Batch load all unique senders
-        List<ChatMessage> messageList = messages.getContent();
         Set<String> senderIds = messageList.stream()
                 .map(ChatMessage::getSenderId)
                 .collect(Collectors.toSet());
@@ -122,7 +234,7 @@ public class ChatService {
                 .collect(Collectors.toMap(User::getId, user -> user));
 
         // Map messages to DTOs using the cached user map
-        return messages.map(msg -> {
+        List<ChatMessageDTO> content = messageList.stream().map(msg -> {
             User sender = usersMap.get(msg.getSenderId());
             return ChatMessageDTO.builder()
                     .id(msg.getId())
@@ -133,7 +245,94 @@ public class ChatService {
                     .content(msg.getContent())
                     .timestamp(msg.getTimestamp())
                     .build();
-        });
+        }).toList();
+
+        ChatMessage last = messageList.isEmpty() ? null : messageList.get(messageList.size() - 1);
+        return ChatHistoryResponse.builder()
+                .content(content)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? HistoryCursor.encode(last) : null)
+                .build();
+    }
+
+    /**
+     * Move the user's read watermark in a conversation forward to upTo (now when null); it never
+     * moves back. Group members are told once on the group's read topic, a direct peer on /queue/read.
+     */
+    public void markConversationRead(String userId, String recipientId, String recipientType, LocalDateTime upTo) {
+        String tenantId = TenantContext.getTenantId();
+
+        if (!authorizationService.canReadChat(userId, recipientId, recipientType)) {
+            throw new UnauthorizedException("Not authorized to read this chat");
+        }
+
+        String conversationId = conversationId(userId, recipientId, recipientType);
+        // A client clock ahead of the server must not mark messages that arrive later as read
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime readAt = upTo != null && upTo.isBefore(now) ? upTo : now;
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(tenantId + ":" + conversationId + ":" + userId)),
+                new Update()
+                        .setOnInsert("tenantId", tenantId)
+                        .setOnInsert("conversationId", conversationId)
+                        .setOnInsert("userId", userId)
+                        .max("lastReadAt", readAt)
+                        .set("updatedAt", now),
+                ChatReadState.class);
+
+        Map<String, Object> readEvent = new HashMap<>();
+        readEvent.put("userId", userId);
+        readEvent.put("recipientId", recipientId);
+        readEvent.put("recipientType", recipientType);
+        readEvent.put("lastReadAt", readAt);
+        if ("GROUP".equalsIgnoreCase(recipientType)) {
+            publishToGroup(recipientId, "read", readEvent);
+        } else if (!"ALL".equalsIgnoreCase(recipientId) && !userId.equals(recipientId)) {
+            messagingTemplate.convertAndSendToUser(recipientId, "/queue/read", readEvent);
+        }
+    }
+
+    /**
+     * Messages from others in a conversation after the user's read watermark
+     */
+    public long getUnreadMessageCount(String userId, String recipientId, String recipientType) {
+        String tenantId = TenantContext.getTenantId();
+
+        if (!authorizationService.canReadChat(userId, recipientId, recipientType)) {
+            throw new UnauthorizedException("Not authorized to read this chat");
+        }
+
+        String conversationId = conversationId(userId, recipientId, recipientType);
+        ChatReadState state = mongoTemplate.findById(tenantId + ":" + conversationId + ":" + userId, ChatReadState.class);
+        Criteria criteria = Criteria.where("tenantId").is(tenantId)
+                .and("conversationId").is(conversationId)
+                .and("senderId").ne(userId);
+        if (state != null && state.getLastReadAt() != null) {
+            criteria.and("timestamp").gt(state.getLastReadAt());
+        }
+        return mongoTemplate.count(new Query(criteria), ChatMessage.class);
+    }
+
+    /**
+     * Position of the last message of a history page: its timestamp and id, Base64 (URL safe)
+     */
+    private record HistoryCursor(LocalDateTime timestamp, ObjectId id) {
+
+        static String encode(ChatMessage message) {
+            String raw = message.getTimestamp() + "|" + message.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                return new HistoryCursor(LocalDateTime.parse(parts[0]), new ObjectId(parts[1]));
+            } catch (RuntimeException e) {
+                throw new BusinessException("Invalid chat history cursor");
+            }
+        }
     }
 
     /**
@@ -158,14 +357,8 @@ public class ChatService {
 
         // Send to appropriate channel
         if ("GROUP".equalsIgnoreCase(recipientType)) {
-            // Send to group members
-            chatGroupRepository.findById(recipientId).ifPresent(group -> {
-                group.getMemberIds().forEach(memberId -> {
-                    if (!memberId.equals(userId)) { // Don't send back to typer
-                        messagingTemplate.convertAndSendToUser(memberId, "/queue/typing", typingEvent);
-                    }
-                });
-            });
+            // Send to the group topic; clients ignore their own typing events
+            publishToGroup(recipientId, "typing", typingEvent);
         } else {
             // Send to direct recipient
             messagingTemplate.convertAndSendToUser(recipientId, "/queue/typing", typingEvent);
@@ -2,6 +2,7 @@ package com.ultron.backend.service;
 
 import com.ultron.backend.domain.entity.Account;
 import com.ultron.backend.domain.entity.Contact;
+import com.ultron.backend.domain.enums.RollupEntity;
 import com.ultron.backend.dto.request.CreateContactRequest;
 import com.ultron.backend.dto.request.UpdateContactRequest;
 import com.ultron.backend.dto.response.ContactResponse;
@@ -10,11 +11,18 @@ import com.ultron.backend.repository.AccountRepository;
 import com.ultron.backend.repository.ContactRepository;
 import com.ultron.backend.repository.LeadRepository;
 import com.ultron.backend.domain.entity.Lead;
+import com.ultron.backend.service.export.ExportColumn;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 
@@ -29,11 +37,29 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ContactService extends BaseTenantService {
 
+    private static final List<ExportColumn> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("contactId", "Contact ID"),
+            ExportColumn.of("firstName", "First Name"),
+            ExportColumn.of("lastName", "Last Name"),
+            ExportColumn.of("email", "Email"),
+            ExportColumn.of("phone", "Phone"),
+            ExportColumn.of("mobilePhone", "Mobile"),
+            ExportColumn.of("jobTitle", "Job Title"),
+            ExportColumn.of("department", "Department"),
+            ExportColumn.of("accountName", "Account"),
+            ExportColumn.of("ownerName", "Owner"),
+            ExportColumn.of("mailingCity", "City"),
+            ExportColumn.of("mailingCountry", "Country"),
+            ExportColumn.of("createdAt", "Created At"));
+
     private final ContactRepository contactRepository;
     private final AccountRepository accountRepository;
     private final LeadRepository leadRepository;
     private final ContactIdGeneratorService contactIdGenerator;
     private final UserService userService;
+    private final TabularExportService tabularExportService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final OrganizationService organizationService;
 
     /**
      * Create a new contact
@@ -50,9 +76,7 @@ public class ContactService extends BaseTenantService {
         log.info("[Tenant: {}] Creating contact for email: {}", tenantId, request.getEmail());
 
         // Check if email already exists within this tenant
-        if (contactRepository.existsByEmailAndTenantIdAndIsDeletedFalse(request.getEmail(), tenantId)) {
-            throw new UserAlreadyExistsException("Contact with email " + request.getEmail() + " already exists in your organization");
-        }
+        ensureEmailAvailable(request.getEmail());
 
         // Get user info
         String createdByName = userService.getUserFullName(createdByUserId);
@@ -64,8 +88,40 @@ public class ContactService extends BaseTenantService {
             accountName = account.map(Account::getAccountName).orElse(null);
         }
 
+        Contact contact = newContact(request, createdByUserId, createdByName, accountName);
+
+        organizationService.reserveUsage(tenantId, "CONTACTS");
+        Contact saved;
+        try {
+            saved = contactRepository.save(contact);
+        } catch (RuntimeException e) {
+            organizationService.decrementUsage(tenantId, "CONTACTS");
+            throw e;
+        }
+        analyticsRollupService.recordSaved(RollupEntity.CONTACT, null, saved);
+        log.info("Contact created successfully with ID: {}", saved.getContactId());
+
+        return mapToResponse(saved);
+    }
+
+    /**
+     * Reject an email already used by a contact of the current tenant
+     */
+    void ensureEmailAvailable(String email) {
+        if (contactRepository.existsByEmailAndTenantIdAndIsDeletedFalse(email, getCurrentTenantId())) {
+            throw new UserAlreadyExistsException("Contact with email " + email + " already exists in your organization");
+        }
+    }
+
+    /**
+     * Build a new contact of the current tenant without saving it; callers check the email with
+     * ensureEmailAvailable first
+     */
+    Contact newContact(CreateContactRequest request, String createdByUserId, String createdByName, String accountName) {
+        String tenantId = getCurrentTenantId();
+
         // Build contact entity
-        Contact contact = Contact.builder()
+        return Contact.builder()
                 .contactId(contactIdGenerator.generateContactId())
                 .tenantId(tenantId)  // CRITICAL: Set tenant ID for data isolation
                 .firstName(request.getFirstName())
@@ -118,11 +174,16 @@ public class ContactService extends BaseTenantService {
                 .lastModifiedByName(createdByName)
                 .isDeleted(false)
                 .build();
+    }
 
-        Contact saved = contactRepository.save(contact);
-        log.info("Contact created successfully with ID: {}", saved.getContactId());
-
-        return mapToResponse(saved);
+    /**
+     * Stream all contacts of the current tenant
+     */
+    public StreamingResponseBody exportContacts(ExportFormat format) {
+        String tenantId = getCurrentTenantId();
+        log.info("[Tenant: {}] Exporting contacts as {}", tenantId, format);
+        Query query = new Query(Criteria.where("tenantId").is(tenantId).and("isDeleted").is(false));
+        return tabularExportService.stream("contacts", query, EXPORT_COLUMNS, format);
     }
 
     /**
@@ -201,6 +262,7 @@ public class ContactService extends BaseTenantService {
 
         // Validate tenant ownership
         validateResourceTenantOwnership(contact.getTenantId());
+        Document rollupBefore = analyticsRollupService.snapshot(contact);
 
         // Check email uniqueness if changed within tenant
         if (request.getEmail() != null && !request.getEmail().equals(contact.getEmail())) {
@@ -296,6 +358,7 @@ public class ContactService extends BaseTenantService {
         // --- END SYNC ---
 
         Contact updated = contactRepository.save(contact);
+        analyticsRollupService.recordSaved(RollupEntity.CONTACT, rollupBefore, updated);
         log.info("Contact {} updated successfully", id);
 
         return mapToResponse(updated);
@@ -316,11 +379,17 @@ public class ContactService extends BaseTenantService {
         // Validate tenant ownership
         validateResourceTenantOwnership(contact.getTenantId());
 
+        Document rollupBefore = analyticsRollupService.snapshot(contact);
+        boolean wasActive = !Boolean.TRUE.equals(contact.getIsDeleted());
         contact.setIsDeleted(true);
         contact.setDeletedAt(LocalDateTime.now());
         contact.setDeletedBy(deletedByUserId);
 
-        contactRepository.save(contact);
+        Contact deleted = contactRepository.save(contact);
+        analyticsRollupService.recordSaved(RollupEntity.CONTACT, rollupBefore, deleted);
+        if (wasActive) {
+            organizationService.decrementUsage(deleted.getTenantId(), "CONTACTS");
+        }
         log.info("Contact {} soft deleted by user {}", id, deletedByUserId);
     }
 
@@ -1,33 +1,56 @@
 package com.ultron.backend.service;
 
-import com.ultron.backend.domain.entity.DealerOrder;
 import com.ultron.backend.domain.entity.DealerPerformance;
-import com.ultron.backend.repository.DealerOrderRepository;
+import com.ultron.backend.exception.BusinessException;
 import com.ultron.backend.repository.DealerPerformanceRepository;
+import com.ultron.backend.repository.OrganizationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DealerPerformanceService extends BaseTenantService {
 
-    private final DealerOrderRepository dealerOrderRepository;
+    private static final List<String> SALES_STATUSES = List.of("Delivered", "Confirmed");
+    private static final List<String> OPEN_STATUSES = List.of("Pending", "Confirmed");
+
     private final DealerPerformanceRepository dealerPerformanceRepository;
+    private final OrganizationRepository organizationRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.dealer-performance.parallelism:4}")
+    private int parallelism;
 
     public DealerPerformance getPerformance(String dealerId, int month, int year) {
         String tenantId = getCurrentTenantId();
         return dealerPerformanceRepository
                 .findByTenantIdAndDealerIdAndMonthAndYear(tenantId, dealerId, month, year)
-                .orElseGet(() -> aggregateAndSave(tenantId, dealerId, month, year));
+                .orElseGet(() -> {
+                    aggregateMonth(tenantId, dealerId, month, year);
+                    return dealerPerformanceRepository
+                            .findByTenantIdAndDealerIdAndMonthAndYear(tenantId, dealerId, month, year)
+                            .orElse(null);
+                });
     }
 
     public List<DealerPerformance> getAllForMonth(int month, int year) {
@@ -35,74 +58,142 @@ public class DealerPerformanceService extends BaseTenantService {
         return dealerPerformanceRepository.findByTenantIdAndMonthAndYear(tenantId, month, year);
     }
 
+    /**
+     * Re-run the aggregation of any month for the current tenant
+     */
+    public List<DealerPerformance> recomputeMonth(int month, int year) {
+        String tenantId = getCurrentTenantId();
+        aggregateMonth(tenantId, null, month, year);
+        return dealerPerformanceRepository.findByTenantIdAndMonthAndYear(tenantId, month, year);
+    }
+
     // Runs on the 1st of each month at 1 AM to aggregate previous month
     @Scheduled(cron = "0 0 1 1 * *")
     public void aggregatePreviousMonth() {
-        log.info("Running monthly dealer performance aggregation");
-        LocalDateTime now = LocalDateTime.now();
-        int month = now.getMonthValue() == 1 ? 12 : now.getMonthValue() - 1;
-        int year = now.getMonthValue() == 1 ? now.getYear() - 1 : now.getYear();
+        YearMonth previous = YearMonth.now().minusMonths(1);
+        aggregateAllTenants(previous.getMonthValue(), previous.getYear());
+    }
+
+    /**
+     * Aggregate a month for every tenant, up to app.dealer-performance.parallelism tenants at a time
+     */
+    public void aggregateAllTenants(int month, int year) {
+        log.info("Running dealer performance aggregation for {}/{}", month, year);
+        long started = System.currentTimeMillis();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            organizationRepository.findAll().forEach(org -> tasks.add(executor.submit(() -> {
+                try {
+                    aggregateMonth(org.getId(), null, month, year);
+                } catch (Exception e) {
+                    log.error("Dealer performance aggregation failed for tenant {}: {}", org.getId(), e.getMessage());
+                }
+            })));
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Dealer performance aggregation interrupted for {}/{}", month, year);
+        } catch (Exception e) {
+            log.error("Dealer performance aggregation failed for {}/{}: {}", month, year, e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+
+        log.info("Dealer performance aggregation complete for {}/{} in {} ms", month, year, System.currentTimeMillis() - started);
+    }
 
-        List<DealerOrder> allOrders = dealerOrderRepository.findByIsDeletedFalse();
+    /**
+     * One pass over a tenant's orders placed in the month, grouped by dealer; results are upserted
+     * in one bulk write. Dealers that no longer have orders in the month are reset to zero.
+     * dealerId limits the run to one dealer; null aggregates all dealers of the tenant.
+     */
+    private int aggregateMonth(String tenantId, String dealerId, int month, int year) {
+        if (month < 1 || month > 12) {
+            throw new BusinessException("Invalid month: " + month);
+        }
+        YearMonth period = YearMonth.of(year, month);
+        Document match = new Document("tenantId", tenantId)
+                .append("isDeleted", false)
+                .append("placedAt", new Document()
+                        .append("$gte", toMongo(period.atDay(1).atStartOfDay()))
+                        .append("$lt", toMongo(period.plusMonths(1).atDay(1).atStartOfDay())));
+        if (dealerId != null) {
+            match.append("dealerId", dealerId);
+        }
 
-        Map<String, List<DealerOrder>> byDealer = allOrders.stream()
-                .filter(o -> !o.isDeleted() && o.getPlacedAt() != null
-                        && o.getPlacedAt().getMonthValue() == month
-                        && o.getPlacedAt().getYear() == year)
-                .collect(Collectors.groupingBy(o -> o.getTenantId() + "|" + o.getDealerId()));
+        List<Document> rows = mongoTemplate.getCollection("dealer_orders").aggregate(List.of(
+                new Document("$match", match),
+                new Document("$group", new Document("_id", "$dealerId")
+                        .append("actualSales", new Document("$sum", new Document("$cond", List.of(
+                                new Document("$in", List.of("$status", SALES_STATUSES)),
+                                new Document("$toDecimal", new Document("$ifNull", List.of("$totalValue", 0))),
+                                0))))
+                        .append("openOrders", new Document("$sum", new Document("$cond", List.of(
+                                new Document("$in", List.of("$status", OPEN_STATUSES)), 1, 0))))))).into(new ArrayList<>());
 
-        byDealer.forEach((key, orders) -> {
-            String[] parts = key.split("\\|");
-            String tenantId = parts[0];
-            String dealerId = parts[1];
-            aggregateAndSave(tenantId, dealerId, month, year);
-        });
+        LocalDateTime now = LocalDateTime.now();
+        List<String> dealerIds = new ArrayList<>();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DealerPerformance.class);
+        for (Document row : rows) {
+            String rowDealerId = row.getString("_id");
+            if (rowDealerId == null) {
+                continue;
+            }
+            dealerIds.add(rowDealerId);
+            ops.upsert(dealerQuery(tenantId, rowDealerId, month, year),
+                    results(toBigDecimal(row.get("actualSales")), ((Number) row.get("openOrders")).intValue(), now));
+        }
 
-        log.info("Dealer performance aggregation complete for {}/{}", month, year);
-    }
+        if (dealerId != null) {
+            if (dealerIds.isEmpty()) {
+                // No orders in the month: record (or reset to) zero
+                ops.upsert(dealerQuery(tenantId, dealerId, month, year), results(BigDecimal.ZERO, 0, now));
+            }
+        } else {
+            // Re-runs: zero out dealers whose orders for the month were deleted or moved
+            ops.updateMulti(new Query(Criteria.where("tenantId").is(tenantId)
+                            .and("month").is(month)
+                            .and("year").is(year)
+                            .and("dealerId").nin(dealerIds)),
+                    new Update().set("actualSales", BigDecimal.ZERO).set("openOrders", 0).set("updatedAt", now));
+        }
+        ops.execute();
 
-    private DealerPerformance aggregateAndSave(String tenantId, String dealerId, int month, int year) {
-        List<DealerOrder> orders = dealerOrderRepository
-                .findByTenantIdAndDealerIdAndIsDeletedFalse(tenantId, dealerId).stream()
-                .filter(o -> o.getPlacedAt() != null
-                        && o.getPlacedAt().getMonthValue() == month
-                        && o.getPlacedAt().getYear() == year)
-                .toList();
+        log.debug("[Tenant: {}] Aggregated dealer performance of {} dealers for {}/{}", tenantId, dealerIds.size(), month, year);
+        return dealerIds.size();
+    }
 
-        BigDecimal actualSales = orders.stream()
-                .filter(o -> "Delivered".equals(o.getStatus()) || "Confirmed".equals(o.getStatus()))
-                .map(o -> o.getTotalValue() != null ? o.getTotalValue() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private Update results(BigDecimal actualSales, int openOrders, LocalDateTime now) {
+        return new Update()
+                .set("actualSales", actualSales)
+                .set("openOrders", openOrders)
+                .set("updatedAt", now)
+                .setOnInsert("target", BigDecimal.ZERO)
+                .setOnInsert("incentivesEarned", BigDecimal.ZERO)
+                .setOnInsert("pendingPayments", BigDecimal.ZERO)
+                .setOnInsert("createdAt", now)
+                .setOnInsert("createdBy", "SYSTEM");
+    }
 
-        long openOrders = orders.stream()
-                .filter(o -> "Pending".equals(o.getStatus()) || "Confirmed".equals(o.getStatus()))
-                .count();
+    private Query dealerQuery(String tenantId, String dealerId, int month, int year) {
+        return new Query(Criteria.where("tenantId").is(tenantId)
+                .and("dealerId").is(dealerId)
+                .and("month").is(month)
+                .and("year").is(year));
+    }
 
-        DealerPerformance existing = dealerPerformanceRepository
-                .findByTenantIdAndDealerIdAndMonthAndYear(tenantId, dealerId, month, year)
-                .orElse(null);
+    private Object toMongo(LocalDateTime value) {
+        return mongoTemplate.getConverter().convertToMongoType(value);
+    }
 
-        if (existing != null) {
-            existing.setActualSales(actualSales);
-            existing.setOpenOrders((int) openOrders);
-            existing.setUpdatedAt(LocalDateTime.now());
-            return dealerPerformanceRepository.save(existing);
+    private BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
         }
-
-        DealerPerformance perf = DealerPerformance.builder()
-                .tenantId(tenantId)
-                .dealerId(dealerId)
-                .month(month)
-                .year(year)
-                .actualSales(actualSales)
-                .openOrders((int) openOrders)
-                .target(BigDecimal.ZERO)
-                .incentivesEarned(BigDecimal.ZERO)
-                .pendingPayments(BigDecimal.ZERO)
-                .createdAt(LocalDateTime.now())
-                .createdBy("SYSTEM")
-                .build();
-
-        return dealerPerformanceRepository.save(perf);
+        return value instanceof Number number ? new BigDecimal(number.toString()) : BigDecimal.ZERO;
     }
 }
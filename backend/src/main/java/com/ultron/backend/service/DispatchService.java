@@ -30,6 +30,7 @@ public class DispatchService extends BaseTenantService {
     private final DispatchAssignmentRepository dispatchAssignmentRepository;
     private final WorkOrderRepository workOrderRepository;
     private final EngineerScheduleRepository scheduleRepository;
+    private final WorkOrderKpiService workOrderKpiService;
 
     public List<DispatchAssignmentResponse> dispatch(DispatchRequest request, String userId) {
         String tenantId = getCurrentTenantId();
@@ -69,7 +70,7 @@ public class DispatchService extends BaseTenantService {
         }
         wo.setUpdatedAt(LocalDateTime.now());
         wo.setUpdatedBy(userId);
-        workOrderRepository.save(wo);
+        workOrderKpiService.save(wo);
 
         log.info("Dispatched {} engineers to WO {} by {}", engineerIds.size(), request.getWorkOrderId(), userId);
         return assignments.stream().map(this::toResponse).collect(Collectors.toList());
@@ -1,28 +1,65 @@
 package com.ultron.backend.service;
 
+import com.ultron.backend.domain.entity.DriveBlob;
 import com.ultron.backend.domain.entity.DriveFile;
 import com.ultron.backend.domain.entity.DriveFileVersion;
 import com.ultron.backend.domain.entity.DriveFolder;
+import com.ultron.backend.domain.entity.DriveUpload;
+import com.ultron.backend.exception.BusinessException;
+import com.ultron.backend.exception.ResourceNotFoundException;
 import com.ultron.backend.repository.DriveFileRepository;
 import com.ultron.backend.repository.DriveFileVersionRepository;
 import com.ultron.backend.repository.DriveFolderRepository;
 import com.ultron.backend.service.storage.StorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Drive folders and files. File content is stored once per tenant per SHA-256 (DriveBlob, reference
+ * counted); large files are uploaded as resumable chunks and downloads support HTTP Range.
+ */
 @Service @RequiredArgsConstructor @Slf4j
 public class DriveService extends BaseTenantService {
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_CHUNKS = 10_000;
+
     private final DriveFolderRepository folderRepo;
     private final DriveFileRepository fileRepo;
     private final DriveFileVersionRepository versionRepo;
     private final StorageService storageService;
+    private final MongoTemplate mongoTemplate;
 
     public DriveFolder createFolder(String name, String parentFolderId, String userId) {
         String tenantId = getCurrentTenantId();
@@ -49,16 +86,305 @@ public class DriveService extends BaseTenantService {
         return fileRepo.findByTenantIdAndFolderIdAndIsDeletedFalse(tenantId, folderId);
     }
 
+    /**
+     * Single-request upload; stored through the same staging and dedupe path as chunked uploads
+     */
     public DriveFile uploadFile(MultipartFile file, String folderId, String userId) throws IOException {
         String tenantId = getCurrentTenantId();
-        String fileId = "FILE-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        String key = tenantId + "/" + fileId + "/" + file.getOriginalFilename();
-        storageService.uploadFile(key, file.getInputStream(), file.getSize());
+        String uploadId = newUploadId();
+        try (InputStream in = file.getInputStream()) {
+            storageService.writeChunk(uploadId, 0, in, file.getSize());
+        }
+        StorageService.ComposedUpload composed = storageService.composeChunks(uploadId, 1);
+        return storeComposed(tenantId, uploadId, composed, file.getOriginalFilename(), validMimeType(file.getContentType()),
+                folderId, userId);
+    }
+
+    /**
+     * Start a resumable upload. When the client declares a SHA-256 that the tenant already stores,
+     * the file is created right away and the upload is returned COMPLETED with no chunks to send.
+     */
+    public DriveUpload startUpload(String fileName, String mimeType, long sizeBytes, Integer chunkSize,
+                                   String sha256, String folderId, String userId) {
+        String tenantId = getCurrentTenantId();
+        if (fileName == null || fileName.isBlank()) throw new BusinessException("File name is required");
+        if (sizeBytes < 0) throw new BusinessException("File size must not be negative");
+        int size = chunkSize == null ? DEFAULT_CHUNK_SIZE : Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize));
+        int chunkCount = (int) Math.max(1, (sizeBytes + size - 1) / size);
+        if ((sizeBytes + size - 1) / size > MAX_CHUNKS) throw new BusinessException("File is too large");
+        String declaredHash = sha256 == null || sha256.isBlank() ? null : sha256.toLowerCase(Locale.ROOT);
+        mimeType = validMimeType(mimeType);
+
+        DriveUpload upload = DriveUpload.builder()
+                .uploadId(newUploadId()).tenantId(tenantId).folderId(folderId)
+                .fileName(fileName).mimeType(mimeType).sizeBytes(sizeBytes)
+                .chunkSize(size).chunkCount(chunkCount).receivedChunks(new HashSet<>())
+                .sha256(declaredHash).status("IN_PROGRESS").createdBy(userId)
+                .createdAt(LocalDateTime.now()).expiresAt(LocalDateTime.now().plusHours(24)).build();
+
+        if (declaredHash != null) {
+            DriveBlob blob = acquireExistingBlob(tenantId, declaredHash, sizeBytes);
+            if (blob != null) {
+                DriveFile file = createFile(tenantId, blob, fileName, mimeType, folderId, userId);
+                upload.setStatus("COMPLETED");
+                upload.setFileId(file.getFileId());
+                log.info("[Tenant: {}] Upload of {} deduplicated against blob {}", tenantId, fileName, blob.getSha256());
+            }
+        }
+        return mongoTemplate.insert(upload);
+    }
+
+    public DriveUpload putChunk(String uploadId, int chunkIndex, InputStream content, String expectedSha256) {
+        return putChunk(uploadId, chunkIndex, content, -1, expectedSha256);
+    }
+
+    /**
+     * Store one chunk of an upload. Chunks may arrive in any order and be resent; a chunk whose
+     * SHA-256 differs from expectedSha256 (when given) is rejected and must be sent again.
+     * A chunk may hold at most chunkSize bytes (the last one the remainder of the declared size);
+     * a larger contentLength is rejected before reading, larger content while reading.
+     */
+    public DriveUpload putChunk(String uploadId, int chunkIndex, InputStream content, long contentLength, String expectedSha256) {
+        DriveUpload upload = getUpload(uploadId);
+        if (!"IN_PROGRESS".equals(upload.getStatus())) throw new BusinessException("Upload is already completed");
+        if (chunkIndex < 0 || chunkIndex >= upload.getChunkCount()) throw new BusinessException("Chunk index out of range");
+        long maxBytes = maxChunkBytes(upload, chunkIndex);
+        if (contentLength > maxBytes) throw new BusinessException("Chunk is larger than " + maxBytes + " bytes");
+
+        String sha256 = storageService.writeChunk(uploadId, chunkIndex, content, maxBytes);
+        if (expectedSha256 != null && !expectedSha256.isBlank() && !expectedSha256.equalsIgnoreCase(sha256)) {
+            throw new BusinessException("Chunk checksum mismatch");
+        }
+        return mongoTemplate.findAndModify(
+                new Query(Criteria.where("uploadId").is(uploadId).and("tenantId").is(upload.getTenantId())),
+                new Update().addToSet("receivedChunks", chunkIndex),
+                FindAndModifyOptions.options().returnNew(true), DriveUpload.class);
+    }
+
+    /**
+     * Upload state, including the chunks received so far (to resume an interrupted upload)
+     */
+    public DriveUpload getUpload(String uploadId) {
+        DriveUpload upload = mongoTemplate.findOne(new Query(Criteria.where("uploadId").is(uploadId)
+                .and("tenantId").is(getCurrentTenantId())), DriveUpload.class);
+        if (upload == null) throw new ResourceNotFoundException("Upload not found: " + uploadId);
+        return upload;
+    }
+
+    /**
+     * Assemble the received chunks into the file once all of them are present
+     */
+    public DriveFile completeUpload(String uploadId, String userId) {
+        DriveUpload upload = getUpload(uploadId);
+        if ("COMPLETED".equals(upload.getStatus())) {
+            return fileRepo.findByFileIdAndTenantIdAndIsDeletedFalse(upload.getFileId(), upload.getTenantId())
+                    .orElseThrow(() -> new ResourceNotFoundException("File not found: " + upload.getFileId()));
+        }
+        int received = upload.getReceivedChunks() == null ? 0 : upload.getReceivedChunks().size();
+        if (received < upload.getChunkCount()) {
+            throw new BusinessException("Upload is missing " + (upload.getChunkCount() - received) + " chunk(s)");
+        }
+
+        // Claim the upload so a repeated complete request cannot assemble it twice
+        Query claim = new Query(Criteria.where("uploadId").is(uploadId).and("status").is("IN_PROGRESS"));
+        if (mongoTemplate.updateFirst(claim, new Update().set("status", "COMPLETING"), DriveUpload.class).getModifiedCount() == 0) {
+            throw new BusinessException("Upload is already being completed");
+        }
+
+        DriveFile file;
+        try {
+            StorageService.ComposedUpload composed = storageService.composeChunks(uploadId, upload.getChunkCount());
+            if (upload.getSizeBytes() != null && composed.size() != upload.getSizeBytes()) {
+                throw new BusinessException("Uploaded size " + composed.size() + " does not match declared size " + upload.getSizeBytes());
+            }
+            if (upload.getSha256() != null && !upload.getSha256().equals(composed.sha256())) {
+                throw new BusinessException("File checksum mismatch");
+            }
+            file = storeComposed(upload.getTenantId(), uploadId, composed, upload.getFileName(),
+                    upload.getMimeType(), upload.getFolderId(), userId);
+        } catch (RuntimeException e) {
+            Update reopen = new Update().set("status", "IN_PROGRESS");
+            if (e instanceof BusinessException) {
+                // The received content is wrong as a whole: drop it so every chunk is sent again
+                storageService.deleteUpload(uploadId);
+                reopen.set("receivedChunks", new HashSet<Integer>());
+            }
+            mongoTemplate.updateFirst(new Query(Criteria.where("uploadId").is(uploadId).and("status").is("COMPLETING")),
+                    reopen, DriveUpload.class);
+            throw e;
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("uploadId").is(uploadId)),
+                new Update().set("status", "COMPLETED").set("fileId", file.getFileId())
+                        .set("sha256", file.getContentHash()).unset("expiresAt"),
+                DriveUpload.class);
+        return file;
+    }
+
+    /**
+     * URL of the file content (served by streamContent)
+     */
+    public String getDownloadUrl(String fileId) {
+        DriveFile file = fileRepo.findByFileIdAndTenantIdAndIsDeletedFalse(fileId, getCurrentTenantId())
+                .orElseThrow(() -> new ResourceNotFoundException("File not found: " + fileId));
+        return "/api/v1/drive/files/" + file.getFileId() + "/content";
+    }
+
+    /**
+     * Stream the file content, honouring a single-range Range header (bytes=a-b, a- or -n).
+     * Multiple ranges are answered with the whole file; unsatisfiable ranges with 416.
+     */
+    public ResponseEntity<StreamingResponseBody> streamContent(String fileId, String rangeHeader) {
+        DriveFile file = fileRepo.findByFileIdAndTenantIdAndIsDeletedFalse(fileId, getCurrentTenantId())
+                .orElseThrow(() -> new ResourceNotFoundException("File not found: " + fileId));
+        String key = file.getStorageKey();
+        long size;
+        try (FileChannel channel = storageService.openChannel(key)) {
+            size = channel.size();
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File content not found: " + fileId);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file: " + fileId, e);
+        }
+
+        ByteRange range = ByteRange.parse(rangeHeader, size);
+        if (range == ByteRange.UNSATISFIABLE) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size).build();
+        }
+        long start = range == null ? 0 : range.start();
+        long length = range == null ? size : range.end() - range.start() + 1;
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(range == null ? HttpStatus.OK : HttpStatus.PARTIAL_CONTENT)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getName(), StandardCharsets.UTF_8).build().toString())
+                .contentType(mediaType(file.getMimeType()))
+                .contentLength(length);
+        if (range != null) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + size);
+        }
+        if (file.getContentHash() != null) {
+            response.eTag("\"" + file.getContentHash() + "\"");
+        }
+        StreamingResponseBody body = out -> {
+            // transferTo hands the copy to the OS when the target is a socket or file channel
+            try (FileChannel channel = storageService.openChannel(key)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = start;
+                long remaining = length;
+                while (remaining > 0) {
+                    long sent = channel.transferTo(position, remaining, target);
+                    if (sent <= 0) break;
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+        };
+        return response.body(body);
+    }
+
+    public void deleteFile(String fileId, String userId) {
+        DriveFile file = fileRepo.findByFileIdAndTenantIdAndIsDeletedFalse(fileId, getCurrentTenantId())
+                .orElseThrow(() -> new ResourceNotFoundException("File not found: " + fileId));
+        file.setDeleted(true); file.setUpdatedAt(LocalDateTime.now()); file.setUpdatedBy(userId);
+        fileRepo.save(file);
+        if (file.getContentHash() != null) releaseBlob(file.getTenantId(), file.getContentHash());
+    }
+
+    public List<DriveFileVersion> getVersions(String fileId) {
+        return versionRepo.findByFileIdOrderByVersionNumberDesc(fileId);
+    }
+
+    /**
+     * Remove the staged chunks of uploads that were not completed in time
+     */
+    @Scheduled(fixedDelayString = "${app.drive.upload-cleanup-ms:3600000}")
+    public void cleanupExpiredUploads() {
+        Query expired = new Query(Criteria.where("status").is("IN_PROGRESS").and("expiresAt").lt(LocalDateTime.now()));
+        expired.fields().include("uploadId");
+        int removed = 0;
+        try (Stream<DriveUpload> uploads = mongoTemplate.stream(expired, DriveUpload.class)) {
+            for (DriveUpload upload : (Iterable<DriveUpload>) uploads::iterator) {
+                try {
+                    storageService.deleteUpload(upload.getUploadId());
+                    mongoTemplate.remove(new Query(Criteria.where("_id").is(upload.getId())), DriveUpload.class);
+                    removed++;
+                } catch (Exception e) {
+                    log.error("Failed to clean up upload {}: {}", upload.getUploadId(), e.getMessage());
+                }
+            }
+        }
+        if (removed > 0) log.info("Removed {} expired Drive uploads", removed);
+    }
+
+    /**
+     * Reference the tenant's blob for the composed upload (storing the content if it is new) and create the file.
+     * Each blob record gets its own storage key, so a record created while releaseBlob is deleting the
+     * previous record's content promotes to a fresh key instead of finding that content about to vanish.
+     */
+    private DriveFile storeComposed(String tenantId, String uploadId, StorageService.ComposedUpload composed,
+                                    String fileName, String mimeType, String folderId, String userId) {
+        DriveBlob blob = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(tenantId + ":" + composed.sha256())),
+                new Update().inc("refCount", 1)
+                        .setOnInsert("tenantId", tenantId)
+                        .setOnInsert("sha256", composed.sha256())
+                        .setOnInsert("storageKey", tenantId + "/blobs/" + composed.sha256() + "-" + new ObjectId().toHexString())
+                        .setOnInsert("sizeBytes", composed.size())
+                        .setOnInsert("createdAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), DriveBlob.class);
+        try {
+            if (!storageService.exists(blob.getStorageKey())) {
+                storageService.promote(uploadId, blob.getStorageKey());
+            }
+        } catch (RuntimeException e) {
+            releaseBlob(tenantId, composed.sha256());
+            throw e;
+        } finally {
+            storageService.deleteUpload(uploadId);
+        }
+        return createFile(tenantId, blob, fileName, mimeType, folderId, userId);
+    }
+
+    /**
+     * Take a reference on an existing blob with this hash and size, or null when the tenant does not store it
+     */
+    private DriveBlob acquireExistingBlob(String tenantId, String sha256, long sizeBytes) {
+        DriveBlob blob = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(tenantId + ":" + sha256).and("sizeBytes").is(sizeBytes).and("refCount").gt(0)),
+                new Update().inc("refCount", 1),
+                FindAndModifyOptions.options().returnNew(true), DriveBlob.class);
+        if (blob != null && !storageService.exists(blob.getStorageKey())) {
+            releaseBlob(tenantId, sha256);
+            return null;
+        }
+        return blob;
+    }
+
+    /**
+     * Drop one reference; the last one removes the blob record and its stored content
+     */
+    private void releaseBlob(String tenantId, String sha256) {
+        String blobId = tenantId + ":" + sha256;
+        DriveBlob blob = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(blobId).and("refCount").gt(0)),
+                new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true), DriveBlob.class);
+        if (blob == null || blob.getRefCount() > 0) return;
+        // Only delete the content if no upload took a new reference in the meantime
+        if (mongoTemplate.remove(new Query(Criteria.where("_id").is(blobId).and("refCount").lte(0)), DriveBlob.class)
+                .getDeletedCount() > 0) {
+            storageService.deleteFile(blob.getStorageKey());
+        }
+    }
 
+    private DriveFile createFile(String tenantId, DriveBlob blob, String fileName, String mimeType, String folderId, String userId) {
+        String fileId = "FILE-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         DriveFile driveFile = DriveFile.builder()
                 .fileId(fileId).tenantId(tenantId).folderId(folderId)
-                .name(file.getOriginalFilename()).mimeType(file.getContentType())
-                .sizeBytes(file.getSize()).storageKey(key).currentVersionNumber(1)
+                .name(fileName).mimeType(mimeType)
+                .sizeBytes(blob.getSizeBytes()).storageKey(blob.getStorageKey()).contentHash(blob.getSha256())
+                .currentVersionNumber(1)
                 .isDeleted(false).createdAt(LocalDateTime.now()).createdBy(userId)
                 .updatedAt(LocalDateTime.now()).updatedBy(userId).build();
         driveFile = fileRepo.save(driveFile);
@@ -66,26 +392,67 @@ public class DriveService extends BaseTenantService {
         DriveFileVersion version = DriveFileVersion.builder()
                 .versionId("VER-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
                 .tenantId(tenantId).fileId(driveFile.getFileId()).versionNumber(1)
-                .storageKey(key).uploadedBy(userId).uploadedAt(LocalDateTime.now())
-                .sizeBytes(file.getSize()).build();
+                .storageKey(blob.getStorageKey()).contentHash(blob.getSha256())
+                .uploadedBy(userId).uploadedAt(LocalDateTime.now())
+                .sizeBytes(blob.getSizeBytes()).build();
         versionRepo.save(version);
         return driveFile;
     }
 
-    public String getDownloadUrl(String fileId) {
-        DriveFile file = fileRepo.findByFileIdAndTenantIdAndIsDeletedFalse(fileId, getCurrentTenantId())
-                .orElseThrow(() -> new RuntimeException("File not found"));
-        return storageService.getFileUrl(file.getStorageKey());
+    private static long maxChunkBytes(DriveUpload upload, int chunkIndex) {
+        long chunkSize = upload.getChunkSize();
+        if (chunkIndex < upload.getChunkCount() - 1 || upload.getSizeBytes() == null) return chunkSize;
+        return upload.getSizeBytes() - chunkSize * (upload.getChunkCount() - 1);
     }
 
-    public void deleteFile(String fileId, String userId) {
-        DriveFile file = fileRepo.findByFileIdAndTenantIdAndIsDeletedFalse(fileId, getCurrentTenantId())
-                .orElseThrow(() -> new RuntimeException("File not found"));
-        file.setDeleted(true); file.setUpdatedAt(LocalDateTime.now()); file.setUpdatedBy(userId);
-        fileRepo.save(file);
+    /**
+     * The MIME type as given when it parses, else null (served as application/octet-stream)
+     */
+    private static String validMimeType(String mimeType) {
+        if (mimeType == null || mimeType.isBlank()) return null;
+        try {
+            return MediaType.parseMediaType(mimeType).toString();
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
     }
 
-    public List<DriveFileVersion> getVersions(String fileId) {
-        return versionRepo.findByFileIdOrderByVersionNumberDesc(fileId);
+    private static MediaType mediaType(String mimeType) {
+        String valid = validMimeType(mimeType);
+        return valid != null ? MediaType.parseMediaType(valid) : MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    private static String newUploadId() {
+        return "UP-" + UUID.randomUUID().toString().toUpperCase();
+    }
+
+    /**
+     * Inclusive byte range of a Range header; parse returns null to serve the whole file
+     */
+    private record ByteRange(long start, long end) {
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        static ByteRange parse(String header, long size) {
+            if (header == null || !header.startsWith("bytes=") || header.contains(",")) return null;
+            String spec = header.substring("bytes=".length()).trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) return null;
+            try {
+                long start;
+                long end = size - 1;
+                if (dash == 0) {
+                    long suffix = Long.parseLong(spec.substring(1));
+                    if (suffix <= 0) return UNSATISFIABLE;
+                    start = Math.max(0, size - suffix);
+                } else {
+                    start = Long.parseLong(spec.substring(0, dash));
+                    if (dash < spec.length() - 1) end = Math.min(end, Long.parseLong(spec.substring(dash + 1)));
+                }
+                if (start < 0 || start >= size || start > end) return UNSATISFIABLE;
+                return new ByteRange(start, end);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
     }
 }
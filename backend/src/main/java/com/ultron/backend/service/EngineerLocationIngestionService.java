@@ -0,0 +1,249 @@
+package com.ultron.backend.service;
+
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import com.ultron.backend.domain.entity.EngineerLocation;
+import com.ultron.backend.repository.EngineerLocationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * High-rate ingestion pipeline for engineer GPS pings.
+ *
+ * - Latest position per engineer is kept in an in-memory table per tenant, so dispatch map
+ *   reads are O(1). The table is warmed from history on first use and, at most every
+ *   app.geo.latest-refresh-seconds, merges in the newer fixes other instances stored, so every
+ *   node's map trails the others by at most the downsampling interval plus the refresh period.
+ *   Positions older than the history retention are dropped on refresh.
+ * - History is downsampled: a ping is stored only if the engineer moved at least
+ *   app.geo.min-distance-meters or app.geo.min-interval-seconds passed since the last stored fix,
+ *   or the work order changed.
+ * - Stored pings are buffered and written in batches to a time-series collection that expires
+ *   documents after app.geo.retention-hours.
+ */
+@Service
+@Slf4j
+public class EngineerLocationIngestionService {
+
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final long REFRESH_OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final EngineerLocationRepository locationRepository;
+    private final double minDistanceMeters;
+    private final long minIntervalSeconds;
+    private final long retentionHours;
+    private final long refreshMillis;
+
+    // tenantId -> (engineerId -> latest position)
+    private final Map<String, Map<String, EngineerLocation>> latestByTenant = new ConcurrentHashMap<>();
+    // tenantId -> when its table last merged stored history (epoch millis)
+    private final Map<String, Long> refreshedAt = new ConcurrentHashMap<>();
+    // tenantId:engineerId -> last fix written to history
+    private final Map<String, EngineerLocation> lastStored = new ConcurrentHashMap<>();
+    private final Queue<EngineerLocation> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    public EngineerLocationIngestionService(MongoTemplate mongoTemplate,
+                                            EngineerLocationRepository locationRepository,
+                                            @Value("${app.geo.min-distance-meters:25}") double minDistanceMeters,
+                                            @Value("${app.geo.min-interval-seconds:60}") long minIntervalSeconds,
+                                            @Value("${app.geo.retention-hours:24}") long retentionHours,
+                                            @Value("${app.geo.latest-refresh-seconds:15}") long refreshSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.locationRepository = locationRepository;
+        this.minDistanceMeters = minDistanceMeters;
+        this.minIntervalSeconds = minIntervalSeconds;
+        this.retentionHours = retentionHours;
+        this.refreshMillis = TimeUnit.SECONDS.toMillis(refreshSeconds);
+    }
+
+    /**
+     * Create the history time-series collection and its index if missing
+     */
+    @PostConstruct
+    public void ensureHistoryCollection() {
+        String collectionName = mongoTemplate.getCollectionName(EngineerLocation.class);
+        try {
+            if (!mongoTemplate.collectionExists(collectionName)) {
+                mongoTemplate.getDb().createCollection(collectionName, new CreateCollectionOptions()
+                        .timeSeriesOptions(new TimeSeriesOptions("timestamp")
+                                .metaField("engineerId")
+                                .granularity(TimeSeriesGranularity.SECONDS))
+                        .expireAfter(retentionHours, TimeUnit.HOURS));
+                log.info("Created time-series collection {} with {}h retention", collectionName, retentionHours);
+            }
+            mongoTemplate.getCollection(collectionName).createIndex(
+                    Indexes.compoundIndex(Indexes.ascending("tenantId", "engineerId"), Indexes.descending("timestamp")),
+                    new IndexOptions().name("tenantId_engineerId_timestamp"));
+        } catch (Exception e) {
+            log.error("Failed to initialize {} collection: {}", collectionName, e.getMessage());
+        }
+    }
+
+    /**
+     * Ingest a ping: update the latest-position table and enqueue it for history if it passes downsampling
+     */
+    public void ingest(EngineerLocation location) {
+        // Through latestTable so the first ping after a restart does not hide engineers known only from history
+        latestTable(location.getTenantId()).merge(location.getEngineerId(), location, this::newer);
+
+        String key = location.getTenantId() + ":" + location.getEngineerId();
+        boolean[] store = {false};
+        lastStored.compute(key, (k, previous) -> {
+            if (previous == null || shouldStore(previous, location)) {
+                store[0] = true;
+                return location;
+            }
+            return previous;
+        });
+
+        if (store[0]) {
+            pending.add(location);
+            if (pendingCount.incrementAndGet() >= MAX_BATCH_SIZE) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Latest position of an engineer, or null if unknown
+     */
+    public EngineerLocation getLatest(String tenantId, String engineerId) {
+        return latestTable(tenantId).get(engineerId);
+    }
+
+    /**
+     * Latest positions of all engineers of a tenant
+     */
+    public Collection<EngineerLocation> getAllLatest(String tenantId) {
+        return latestTable(tenantId).values();
+    }
+
+    /**
+     * Write buffered pings to the history collection in batches
+     */
+    @Scheduled(fixedDelayString = "${app.geo.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<EngineerLocation> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        EngineerLocation next;
+        while ((next = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            batch.add(next);
+            if (batch.size() == MAX_BATCH_SIZE) {
+                insertBatch(batch);
+                batch = new ArrayList<>(MAX_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void insertBatch(List<EngineerLocation> batch) {
+        try {
+            mongoTemplate.insert(batch, EngineerLocation.class);
+            log.debug("Stored {} engineer location fixes", batch.size());
+        } catch (Exception e) {
+            // Location history is lossy by nature; the latest-position table is unaffected
+            log.error("Failed to store {} engineer location fixes: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private Map<String, EngineerLocation> latestTable(String tenantId) {
+        Map<String, EngineerLocation> table = latestByTenant.computeIfAbsent(tenantId, t -> new ConcurrentHashMap<>());
+        long now = System.currentTimeMillis();
+        Long refreshed = refreshedAt.get(tenantId);
+        if (refreshed == null) {
+            // Cold start for this tenant: warm from the whole stored history
+            refreshedAt.put(tenantId, now);
+            merge(table, locationRepository.findLatestPerEngineerByTenantId(tenantId));
+        } else if (now - refreshed >= refreshMillis && refreshedAt.replace(tenantId, refreshed, now)) {
+            // Only fixes stored since the last refresh; the margin covers fixes buffered by another
+            // node's flush when this one read
+            refresh(tenantId, table, refreshed - REFRESH_OVERLAP_MILLIS);
+        }
+        return table;
+    }
+
+    private void refresh(String tenantId, Map<String, EngineerLocation> table, long sinceMillis) {
+        try {
+            LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(sinceMillis), ZoneId.systemDefault());
+            merge(table, locationRepository.findLatestPerEngineerByTenantIdSince(tenantId, since));
+            LocalDateTime expired = LocalDateTime.now().minusHours(retentionHours);
+            table.values().removeIf(location -> location.getTimestamp() != null && location.getTimestamp().isBefore(expired));
+        } catch (Exception e) {
+            log.warn("Failed to refresh latest engineer locations for tenant {}: {}", tenantId, e.getMessage());
+        }
+    }
+
+    private void merge(Map<String, EngineerLocation> table, List<EngineerLocation> stored) {
+        // Keep pings that arrived while reading over older stored positions
+        stored.forEach(location -> table.merge(location.getEngineerId(), location, this::newer));
+    }
+
+    private EngineerLocation newer(EngineerLocation current, EngineerLocation candidate) {
+        if (current.getTimestamp() == null) {
+            return candidate;
+        }
+        if (candidate.getTimestamp() == null || !candidate.getTimestamp().isAfter(current.getTimestamp())) {
+            return current;
+        }
+        return candidate;
+    }
+
+    private boolean shouldStore(EngineerLocation previous, EngineerLocation current) {
+        if (!Objects.equals(previous.getWorkOrderId(), current.getWorkOrderId())) {
+            return true;
+        }
+        if (previous.getTimestamp() == null || current.getTimestamp() == null
+                || Duration.between(previous.getTimestamp(), current.getTimestamp()).getSeconds() >= minIntervalSeconds) {
+            return true;
+        }
+        if (previous.getLat() == null || previous.getLng() == null || current.getLat() == null || current.getLng() == null) {
+            return false;
+        }
+        return distanceMeters(previous.getLat(), previous.getLng(), current.getLat(), current.getLng()) >= minDistanceMeters;
+    }
+
+    /**
+     * Haversine distance in meters
+     */
+    private double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        final double R = 6371000;
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return R * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -27,6 +27,9 @@ public class GeoTrackingService extends BaseTenantService {
     private final WorkOrderGeoEventRepository geoEventRepository;
     private final WorkOrderRepository workOrderRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final EngineerLocationIngestionService ingestionService;
+    private final LocationUpdateCoalescer locationUpdateCoalescer;
+    private final WorkOrderKpiService workOrderKpiService;
 
     public EngineerLocationResponse updateLocation(String engineerId, LocationUpdateRequest request) {
         String tenantId = getCurrentTenantId();
@@ -42,24 +45,22 @@ public class GeoTrackingService extends BaseTenantService {
                 .batteryLevel(request.getBatteryLevel())
                 .build();
 
-        locationRepository.save(location);
+        ingestionService.ingest(location);
 
         EngineerLocationResponse response = toResponse(location);
-        messagingTemplate.convertAndSend("/topic/engineer-location/" + tenantId + "/" + engineerId, response);
+        locationUpdateCoalescer.publish(tenantId, response);
 
         log.debug("Location updated for engineer {} in tenant {}", engineerId, tenantId);
         return response;
     }
 
     public EngineerLocationResponse getLatestLocation(String engineerId) {
-        return locationRepository
-                .findTopByTenantIdAndEngineerIdOrderByTimestampDesc(getCurrentTenantId(), engineerId)
-                .map(this::toResponse)
-                .orElse(null);
+        EngineerLocation latest = ingestionService.getLatest(getCurrentTenantId(), engineerId);
+        return latest != null ? toResponse(latest) : null;
     }
 
     public List<EngineerLocationResponse> getAllLatestLocations() {
-        return locationRepository.findLatestPerEngineerByTenantId(getCurrentTenantId())
+        return ingestionService.getAllLatest(getCurrentTenantId())
                 .stream().map(this::toResponse).collect(Collectors.toList());
     }
 
@@ -95,7 +96,7 @@ public class GeoTrackingService extends BaseTenantService {
                         wo.setStatus(WorkOrderStatus.ON_SITE);
                         wo.setUpdatedAt(LocalDateTime.now());
                         wo.setUpdatedBy(userId);
-                        workOrderRepository.save(wo);
+                        workOrderKpiService.save(wo);
                         log.info("WO {} auto-updated to ON_SITE on engineer arrival", workOrderId);
                     });
         }
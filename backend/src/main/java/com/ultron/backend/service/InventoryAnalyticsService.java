@@ -1,13 +1,20 @@
 package com.ultron.backend.service;
 
+import com.ultron.backend.config.CacheConfig;
 import com.ultron.backend.domain.entity.Product;
-import com.ultron.backend.domain.entity.StockTransaction;
-import com.ultron.backend.repository.ProductRepository;
-import com.ultron.backend.repository.StockTransactionRepository;
+import com.ultron.backend.domain.entity.StockMovementSummary;
+import com.ultron.backend.service.inventory.StockMovementIndexService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -19,41 +26,37 @@ import java.util.stream.Collectors;
 @Slf4j
 public class InventoryAnalyticsService extends BaseTenantService {
 
-    private final ProductRepository productRepository;
-    private final StockTransactionRepository stockTransactionRepository;
+    private final StockMovementIndexService stockMovementIndexService;
+    private final MongoTemplate mongoTemplate;
 
-    @Cacheable(value = "serviceKpis", key = "#root.target.getCurrentTenantId() + '_deadstock'")
+    @Cacheable(value = CacheConfig.SERVICE_KPIS_CACHE, key = "#root.target.getCurrentTenantId() + '_deadstock'")
     public Map<String, Object> getDeadStockReport() {
         String tenantId = getCurrentTenantId();
         LocalDateTime now = LocalDateTime.now();
 
-        List<StockTransaction> allTxns = stockTransactionRepository
-                .findByTenantIdOrderByTimestampDesc(tenantId, PageRequest.of(0, 10000)).getContent();
-
-        // Last movement date per product
-        Map<String, LocalDateTime> lastMovement = allTxns.stream()
-                .collect(Collectors.toMap(
-                        StockTransaction::getProductId,
-                        StockTransaction::getTimestamp,
-                        (existing, replacement) -> existing.isAfter(replacement) ? existing : replacement
-                ));
+        // Last movement per product across warehouses, for products idle 90+ days
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("tenantId").is(tenantId).and("lastMovementAt").ne(null)),
+                Aggregation.group("productId").max("lastMovementAt").as("lastMovedAt"),
+                Aggregation.match(Criteria.where("lastMovedAt").lte(now.minusDays(90))),
+                Aggregation.sort(Sort.Direction.ASC, "lastMovedAt"));
+        List<ProductMovement> idle = mongoTemplate.aggregate(aggregation, StockMovementSummary.class, ProductMovement.class)
+                .getMappedResults();
 
         List<Map<String, Object>> dead90 = new ArrayList<>();
         List<Map<String, Object>> dead180 = new ArrayList<>();
         List<Map<String, Object>> dead360 = new ArrayList<>();
 
-        lastMovement.forEach((productId, lastMoved) -> {
-            long daysSinceMovement = java.time.Duration.between(lastMoved, now).toDays();
-            if (daysSinceMovement >= 90) {
-                Map<String, Object> entry = Map.of(
-                        "productId", productId,
-                        "daysSinceLastMovement", daysSinceMovement,
-                        "lastMovedAt", lastMoved
-                );
-                if (daysSinceMovement >= 360) dead360.add(entry);
-                else if (daysSinceMovement >= 180) dead180.add(entry);
-                else dead90.add(entry);
-            }
+        idle.forEach(movement -> {
+            long daysSinceMovement = java.time.Duration.between(movement.lastMovedAt(), now).toDays();
+            Map<String, Object> entry = Map.of(
+                    "productId", movement.id(),
+                    "daysSinceLastMovement", daysSinceMovement,
+                    "lastMovedAt", movement.lastMovedAt()
+            );
+            if (daysSinceMovement >= 360) dead360.add(entry);
+            else if (daysSinceMovement >= 180) dead180.add(entry);
+            else dead90.add(entry);
         });
 
         Map<String, Object> result = new LinkedHashMap<>();
@@ -64,16 +67,23 @@ public class InventoryAnalyticsService extends BaseTenantService {
         return result;
     }
 
-    @Cacheable(value = "serviceKpis", key = "#root.target.getCurrentTenantId() + '_reorder'")
+    @Cacheable(value = CacheConfig.SERVICE_KPIS_CACHE, key = "#root.target.getCurrentTenantId() + '_reorder'")
     public List<Map<String, Object>> getReorderRecommendations() {
         String tenantId = getCurrentTenantId();
 
-        return productRepository.findByTenantIdAndIsDeletedFalse(tenantId).stream()
-                .filter(p -> Boolean.TRUE.equals(p.getIsActive()))
-                .filter(p -> p.getReorderPoint() != null
-                        && p.getStockQuantity() != null
-                        && p.getStockQuantity() <= p.getReorderPoint())
+        Query query = new Query(Criteria.where("tenantId").is(tenantId)
+                .and("isDeleted").is(false)
+                .and("isActive").is(true)
+                .and("reorderPoint").ne(null)
+                .and("stockQuantity").ne(null)
+                .andOperator(Criteria.expr(ComparisonOperators.valueOf("stockQuantity").lessThanEqualTo("reorderPoint"))));
+        List<Product> products = mongoTemplate.find(query, Product.class);
+        Map<String, ProductUsage> usage = getUsage(tenantId, products.stream().map(Product::getId).toList());
+
+        return products.stream()
                 .map(p -> {
+                    ProductUsage productUsage = usage.get(p.getId());
+                    double avgDailyUsage = productUsage != null ? productUsage.avgDailyUsage() : 0;
                     Map<String, Object> rec = new LinkedHashMap<>();
                     rec.put("productId", p.getProductId());
                     rec.put("productName", p.getProductName());
@@ -83,33 +93,63 @@ public class InventoryAnalyticsService extends BaseTenantService {
                     rec.put("suggestedReorderQty", p.getReorderQty() != null ? p.getReorderQty() : p.getReorderPoint() * 2);
                     rec.put("partCategory", p.getPartCategory());
                     rec.put("vendorId", p.getVendorId());
+                    rec.put("consumed30Days", productUsage != null ? productUsage.consumed30Days() : 0);
+                    rec.put("avgDailyUsage", avgDailyUsage);
+                    if (avgDailyUsage > 0) {
+                        rec.put("daysOfCover", Math.round(p.getStockQuantity() / avgDailyUsage * 10.0) / 10.0);
+                    }
                     return rec;
                 })
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "serviceKpis", key = "#root.target.getCurrentTenantId() + '_consumption'")
+    @Cacheable(value = CacheConfig.SERVICE_KPIS_CACHE, key = "#root.target.getCurrentTenantId() + '_consumption'")
     public List<Map<String, Object>> getTopConsumedParts(int limit) {
         String tenantId = getCurrentTenantId();
 
-        List<StockTransaction> consumptionTxns = stockTransactionRepository
-                .findByTenantIdAndTransactionType(tenantId, StockTransaction.TransactionType.PRODUCTION_OUT);
-
-        Map<String, Long> consumptionByPart = consumptionTxns.stream()
-                .collect(Collectors.groupingBy(
-                        StockTransaction::getProductId,
-                        Collectors.summingLong(t -> t.getQuantity() != null ? t.getQuantity() : 0)
-                ));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("tenantId").is(tenantId).and("totalConsumed").gt(0)),
+                Aggregation.group("productId").sum("totalConsumed").as("totalConsumed"),
+                Aggregation.sort(Sort.Direction.DESC, "totalConsumed"),
+                Aggregation.limit(limit));
 
-        return consumptionByPart.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(limit)
-                .map(e -> {
+        return mongoTemplate.aggregate(aggregation, StockMovementSummary.class, Document.class).getMappedResults().stream()
+                .map(row -> {
                     Map<String, Object> item = new LinkedHashMap<>();
-                    item.put("productId", e.getKey());
-                    item.put("totalConsumed", e.getValue());
+                    item.put("productId", row.getString("_id"));
+                    item.put("totalConsumed", ((Number) row.get("totalConsumed")).longValue());
                     return item;
                 })
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Rebuild the current tenant's stock movement summaries from the transaction log
+     */
+    @CacheEvict(value = CacheConfig.SERVICE_KPIS_CACHE, allEntries = true)
+    public long rebuildMovementIndex() {
+        return stockMovementIndexService.rebuild(getCurrentTenantId());
+    }
+
+    /**
+     * Rolling consumption per product across warehouses
+     */
+    private Map<String, ProductUsage> getUsage(String tenantId, List<String> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("tenantId").is(tenantId).and("productId").in(productIds)),
+                Aggregation.group("productId")
+                        .sum("consumed30Days").as("consumed30Days")
+                        .sum("avgDailyUsage").as("avgDailyUsage"));
+        return mongoTemplate.aggregate(aggregation, StockMovementSummary.class, ProductUsage.class).getMappedResults().stream()
+                .collect(Collectors.toMap(ProductUsage::id, usage -> usage));
+    }
+
+    private record ProductMovement(String id, LocalDateTime lastMovedAt) {
+    }
+
+    private record ProductUsage(String id, long consumed30Days, double avgDailyUsage) {
+    }
 }
@@ -3,6 +3,7 @@ package com.ultron.backend.service;
 import com.ultron.backend.domain.entity.Lead;
 import com.ultron.backend.domain.entity.LeadAssignmentConfig;
 import com.ultron.backend.domain.entity.User;
+import com.ultron.backend.domain.enums.RollupEntity;
 import com.ultron.backend.domain.enums.UserStatus;
 import com.ultron.backend.dto.response.LeadResponse;
 import com.ultron.backend.exception.BusinessException;
@@ -15,6 +16,7 @@ import com.ultron.backend.repository.UserRepository;
 import com.ultron.backend.strategy.LeadAssignmentStrategy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +38,7 @@ public class LeadAssignmentService {
     private final RoleRepository roleRepository;
     private final Map<String, LeadAssignmentStrategy> assignmentStrategies;
     private final NotificationService notificationService;
+    private final AnalyticsRollupService analyticsRollupService;
 
     /**
      * Auto-assign a lead to an eligible user
@@ -46,6 +49,46 @@ public class LeadAssignmentService {
         String tenantId = TenantContext.getTenantId();
         log.info("[Tenant: {}] Auto-assigning lead: {}", tenantId, lead.getId());
 
+        AutoAssignees pending = selectPendingAutoAssignees(tenantId, 1);
+        if (pending.users().isEmpty()) {
+            return;
+        }
+        User selectedUser = pending.users().get(0);
+
+        applyAssignment(lead, selectedUser);
+        leadRepository.save(lead);
+        advanceRoundRobin(pending);
+
+        notifyAutoAssigned(lead, selectedUser);
+    }
+
+    /**
+     * Users picked for the next new leads of a tenant, and the config whose round-robin position
+     * moves to nextIndex once they are assigned (null when the strategy keeps no position)
+     */
+    public record AutoAssignees(List<User> users, LeadAssignmentConfig config, Integer nextIndex) {
+
+        static AutoAssignees none() {
+            return new AutoAssignees(List.of(), null, null);
+        }
+    }
+
+    /**
+     * Pick the users the next count new leads of the tenant are auto-assigned to, in order, and
+     * advance the round-robin position. Empty when auto-assignment is disabled or nobody is eligible.
+     */
+    public List<User> selectAutoAssignees(String tenantId, int count) {
+        AutoAssignees pending = selectPendingAutoAssignees(tenantId, count);
+        advanceRoundRobin(pending);
+        return pending.users();
+    }
+
+    /**
+     * Pick the users the next count new leads of the tenant are auto-assigned to, in order, with one
+     * config and user lookup for the whole batch, without moving the round-robin position; call
+     * advanceRoundRobin once the leads are written. Empty when auto-assignment is disabled or nobody is eligible.
+     */
+    public AutoAssignees selectPendingAutoAssignees(String tenantId, int count) {
         // Get assignment configuration
         LeadAssignmentConfig config = configRepository.findByTenantId(tenantId)
                 .stream().findFirst().orElse(null);
@@ -60,7 +103,7 @@ public class LeadAssignmentService {
 
             if (eligibleRoleIds.isEmpty()) {
                 log.warn("No roles found for tenant: {}", tenantId);
-                return;
+                return AutoAssignees.none();
             }
 
             if (config == null) {
@@ -83,7 +126,7 @@ public class LeadAssignmentService {
         // Check if auto-assignment is enabled
         if (!Boolean.TRUE.equals(config.getEnabled())) {
             log.info("Auto-assignment disabled for tenant: {}", tenantId);
-            return;
+            return AutoAssignees.none();
         }
 
         // Get eligible users
@@ -91,40 +134,60 @@ public class LeadAssignmentService {
 
         if (eligibleUsers.isEmpty()) {
             log.warn("No eligible users found for assignment in tenant: {}", tenantId);
-            return;
+            return AutoAssignees.none();
         }
 
         // Select strategy
         LeadAssignmentStrategy strategy = getStrategy(config.getStrategy());
 
-        // Assign user
-        User selectedUser = strategy.selectUser(eligibleUsers, config.getLastAssignedIndex());
+        // Assign users
+        List<User> selectedUsers = strategy.selectUsers(eligibleUsers, config.getLastAssignedIndex(), count);
 
-        // Update lead
-        lead.setAssignedUserId(selectedUser.getUserId());
-        lead.setAssignedUserName(selectedUser.getFullName());
-        lead.setAssignedAt(LocalDateTime.now());
-        leadRepository.save(lead);
+        // New round-robin position, stored by advanceRoundRobin
+        Integer nextIndex = null;
+        if (config.getStrategy() == LeadAssignmentConfig.AssignmentStrategy.ROUND_ROBIN && !selectedUsers.isEmpty()) {
+            nextIndex = eligibleUsers.indexOf(selectedUsers.get(selectedUsers.size() - 1));
+        }
 
-        // Update config (for round-robin)
-        if (config.getStrategy() == LeadAssignmentConfig.AssignmentStrategy.ROUND_ROBIN) {
-            int newIndex = eligibleUsers.indexOf(selectedUser);
-            config.setLastAssignedIndex(newIndex);
-            configRepository.save(config);
+        return new AutoAssignees(selectedUsers, config, nextIndex);
+    }
+
+    /**
+     * Store the round-robin position after the users of a selection were assigned
+     */
+    public void advanceRoundRobin(AutoAssignees assignees) {
+        if (assignees.nextIndex() == null) {
+            return;
         }
+        assignees.config().setLastAssignedIndex(assignees.nextIndex());
+        configRepository.save(assignees.config());
+    }
 
-        log.info("Lead {} assigned to user {}", lead.getId(), selectedUser.getEmail());
+    /**
+     * Set the auto-assignment fields of a lead without saving it
+     */
+    public void applyAssignment(Lead lead, User selectedUser) {
+        lead.setAssignedUserId(selectedUser.getUserId());
+        lead.setAssignedUserName(selectedUser.getFullName());
+        lead.setAssignedAt(LocalDateTime.now());
+        log.debug("Lead {} assigned to user {}", lead.getLeadId(), selectedUser.getEmail());
+    }
 
-        // Notify assigned user
+    /**
+     * Notify a user about a lead auto-assigned to them
+     */
+    public void notifyAutoAssigned(Lead lead, User selectedUser) {
         try {
-            notificationService.createAndSendNotification(
+            // Digest mode: a burst of new leads for one user becomes a single notification
+            notificationService.queueDigestNotification(
                 selectedUser.getUserId(),
                 "Lead Auto-Assigned: " + lead.getFirstName() + " " + lead.getLastName(),
                 "A new lead from " + lead.getCompanyName() + " has been auto-assigned to you.",
                 "LEAD_ASSIGNED",
-                "/leads/" + lead.getId()
+                "/leads/" + lead.getId(),
+                "/leads"
             );
-            log.info("Notification sent for auto lead assignment: {}", lead.getLeadId());
+            log.info("Notification queued for auto lead assignment: {}", lead.getLeadId());
         } catch (Exception e) {
             log.error("Failed to send notification for auto lead assignment: {}", lead.getLeadId(), e);
         }
@@ -194,14 +257,17 @@ public class LeadAssignmentService {
         }
 
         // Assign lead
+        Document rollupBefore = analyticsRollupService.snapshot(lead);
         String previousUserId = lead.getAssignedUserId();
         lead.setAssignedUserId(user.getUserId());
         lead.setAssignedUserName(user.getFullName());
         lead.setLeadOwnerId(user.getId());
+        lead.setLeadOwnerName(user.getFullName());
         lead.setAssignedAt(LocalDateTime.now());
         lead.setLastModifiedBy(modifiedBy);
         lead.setLastModifiedAt(LocalDateTime.now());
         Lead savedLead = leadRepository.save(lead);
+        analyticsRollupService.recordSaved(RollupEntity.LEAD, rollupBefore, savedLead);
 
         log.info("Lead {} reassigned from user {} to user {}",
                 leadId, previousUserId, userId);
@@ -209,14 +275,15 @@ public class LeadAssignmentService {
         // Notify assigned user if changed
         if (!userId.equals(previousUserId)) {
             try {
-                notificationService.createAndSendNotification(
+                notificationService.queueDigestNotification(
                     user.getUserId(),
                     "Lead Manually Assigned: " + lead.getFirstName() + " " + lead.getLastName(),
                     "A lead from " + lead.getCompanyName() + " has been manually assigned to you.",
                     "LEAD_ASSIGNED",
-                    "/leads/" + lead.getId()
+                    "/leads/" + lead.getId(),
+                    "/leads"
                 );
-                log.info("Notification sent for manual lead assignment: {}", lead.getLeadId());
+                log.info("Notification queued for manual lead assignment: {}", lead.getLeadId());
             } catch (Exception e) {
                 log.error("Failed to send notification for manual lead assignment: {}", lead.getLeadId(), e);
             }
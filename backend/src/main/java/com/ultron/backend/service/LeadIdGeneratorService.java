@@ -1,17 +1,81 @@
 package com.ultron.backend.service;
 
+import com.ultron.backend.domain.entity.Lead;
+import com.ultron.backend.domain.entity.Sequence;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 /**
- * Service to generate unique Lead IDs using timestamp
- * Format: LEAD-timestamp
+ * Service to generate unique Lead IDs from a shared sequence
+ * Format: LEAD-number
  * Example: LEAD-1773242807123
  */
 @Service
+@RequiredArgsConstructor
 public class LeadIdGeneratorService {
 
+    private static final String SEQUENCE_ID = "lead-id";
+    private static final String PREFIX = "LEAD-";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.lead-id.block-size:100}")
+    private int blockSize;
+
+    // Next id of the block this node holds, and the first id past it
+    private long next;
+    private long limit;
+
+    /**
+     * Ids come from blocks of the lead-id sequence, so every node hands out its own range and a
+     * bulk import costs one round trip per block
+     */
     public synchronized String generateLeadId() {
-        long timestamp = System.currentTimeMillis();
-        return String.format("LEAD-%d", timestamp);
+        if (next >= limit) {
+            long size = Math.max(1, blockSize);
+            long end = allocate(size);
+            next = end - size + 1;
+            limit = end + 1;
+        }
+        return PREFIX + next++;
+    }
+
+    /**
+     * Reserve size ids and return the last one. The sequence is seeded the first time from the
+     * highest existing id, as leads created before it exist were numbered by timestamp.
+     */
+    private long allocate(long size) {
+        Query sequence = new Query(Criteria.where("_id").is(SEQUENCE_ID));
+        if (!mongoTemplate.exists(sequence, Sequence.class)) {
+            try {
+                mongoTemplate.upsert(sequence, new Update().setOnInsert("sequence", highestExistingId()), Sequence.class);
+            } catch (DuplicateKeyException e) {
+                // Seeded concurrently
+            }
+        }
+        Sequence allocated = mongoTemplate.findAndModify(sequence, new Update().inc("sequence", size),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Sequence.class);
+        return allocated.getSequence();
+    }
+
+    private long highestExistingId() {
+        long highest = System.currentTimeMillis();
+        Query query = new Query(Criteria.where("leadId").regex("^" + PREFIX + "\\d+$"))
+                .with(Sort.by(Sort.Direction.DESC, "leadId"))
+                .limit(1);
+        query.fields().include("leadId");
+        Lead latest = mongoTemplate.findOne(query, Lead.class);
+        if (latest != null) {
+            highest = Math.max(highest, Long.parseLong(latest.getLeadId().substring(PREFIX.length())));
+        }
+        return highest;
     }
 }
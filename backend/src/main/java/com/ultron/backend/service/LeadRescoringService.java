@@ -0,0 +1,280 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.Activity;
+import com.ultron.backend.domain.entity.Lead;
+import com.ultron.backend.domain.entity.LeadScoringStatus;
+import com.ultron.backend.domain.enums.ActivityStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes stored lead scores outside the create / update path.
+ *
+ * Activity writes queue their lead; a background tick (app.lead-scoring.flush-ms) rescores the
+ * queued leads in chunks, and the queue is flushed on shutdown. Since the behavioral score includes
+ * a recency bonus, another tick (app.lead-scoring.recency-ms) queues the leads whose last activity
+ * crossed a recency window since the previous tick. rescoreTenant walks all leads of a tenant with a cursor and scores chunks
+ * in parallel (app.lead-scoring.parallelism); it runs when LeadScoringService.RULES_VERSION changes.
+ * Only leads whose score changed are written, with one unordered bulk update per chunk.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeadRescoringService extends BaseTenantService {
+
+    private static final String[] SCORING_FIELDS = {"tenantId", "companySize", "jobTitle", "industry",
+            "demographicScore", "behavioralScore", "leadScore", "leadGrade"};
+
+    private final MongoTemplate mongoTemplate;
+    private final LeadScoringService scoringService;
+
+    @Value("${app.lead-scoring.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.lead-scoring.parallelism:4}")
+    private int parallelism;
+
+    // tenantId|lead id of leads whose activities changed since the last tick
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    // End of the window checked by the previous recency tick; starts a day back to cover a restart
+    private volatile LocalDateTime recencyCheckedUpTo = LocalDateTime.now().minusDays(1);
+
+    /**
+     * Queue a lead for rescoring after one of its activities was created, changed or deleted
+     */
+    public void activityChanged(String tenantId, String leadId) {
+        if (tenantId != null && leadId != null) {
+            pending.add(tenantId + "|" + leadId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.lead-scoring.flush-ms:30000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<String>> leadIdsByTenant = new LinkedHashMap<>();
+        for (String key : List.copyOf(pending)) {
+            if (pending.remove(key)) {
+                String[] parts = key.split("\\|", 2);
+                leadIdsByTenant.computeIfAbsent(parts[0], t -> new ArrayList<>()).add(parts[1]);
+            }
+        }
+
+        leadIdsByTenant.forEach((tenantId, leadIds) -> {
+            for (int from = 0; from < leadIds.size(); from += chunkSize()) {
+                List<String> chunk = leadIds.subList(from, Math.min(leadIds.size(), from + chunkSize()));
+                try {
+                    rescore(loadLeads(new Query(Criteria.where("tenantId").is(tenantId)
+                            .and("_id").in(chunk)
+                            .and("isDeleted").is(false))));
+                } catch (Exception e) {
+                    log.error("[Tenant: {}] Failed to rescore {} leads: {}", tenantId, chunk.size(), e.getMessage());
+                    chunk.forEach(leadId -> activityChanged(tenantId, leadId));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Failed to rescore {} queued leads on shutdown: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Queue the leads whose recency bonus expired since the previous tick: the bonus drops a day after
+     * the last activity is RECENT_DAYS or ACTIVE_DAYS old. Candidates are leads with an activity dated
+     * in those windows; leads with a newer activity rescore to the same value and are not written.
+     */
+    @Scheduled(fixedDelayString = "${app.lead-scoring.recency-ms:3600000}")
+    public void queueRecencyCrossings() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = recencyCheckedUpTo;
+        List<Criteria> windows = new ArrayList<>();
+        for (int days : new int[]{LeadScoringService.RECENT_DAYS + 1, LeadScoringService.ACTIVE_DAYS + 1}) {
+            LocalDateTime from = since.minusDays(days);
+            LocalDateTime to = now.minusDays(days);
+            windows.add(Criteria.where("completedDate").gt(from).lte(to));
+            windows.add(Criteria.where("completedDate").is(null).and("createdAt").gt(from).lte(to));
+        }
+
+        TypedAggregation<Activity> aggregation = Aggregation.newAggregation(Activity.class,
+                Aggregation.match(new Criteria().andOperator(
+                        Criteria.where("leadId").ne(null).and("isDeleted").ne(true)
+                                .and("status").ne(ActivityStatus.CANCELLED),
+                        new Criteria().orOperator(windows))),
+                Aggregation.group("tenantId", "leadId"));
+        int queued = 0;
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            activityChanged(id.getString("tenantId"), id.getString("leadId"));
+            queued++;
+        }
+        recencyCheckedUpTo = now;
+        if (queued > 0) {
+            log.info("Queued {} leads whose activity recency bonus expired", queued);
+        }
+    }
+
+    /**
+     * Rescore every lead of the current tenant
+     */
+    public long rescoreCurrentTenant() {
+        return rescoreTenant(getCurrentTenantId());
+    }
+
+    /**
+     * Rescore every lead of a tenant; returns the number of leads whose score changed
+     */
+    public long rescoreTenant(String tenantId) {
+        long started = System.currentTimeMillis();
+        int workers = Math.max(1, parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        // Bounds the chunks held in memory while the cursor runs ahead of the workers
+        Semaphore inFlight = new Semaphore(workers * 2);
+        AtomicLong scanned = new AtomicLong();
+        AtomicLong updated = new AtomicLong();
+        List<Future<?>> tasks = new ArrayList<>();
+
+        Query query = new Query(Criteria.where("tenantId").is(tenantId).and("isDeleted").is(false))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include(SCORING_FIELDS);
+        try (Stream<Lead> leads = mongoTemplate.stream(query, Lead.class)) {
+            List<Lead> chunk = new ArrayList<>(chunkSize());
+            for (Lead lead : (Iterable<Lead>) leads::iterator) {
+                chunk.add(lead);
+                if (chunk.size() == chunkSize()) {
+                    tasks.add(submit(executor, inFlight, chunk, scanned, updated));
+                    chunk = new ArrayList<>(chunkSize());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                tasks.add(submit(executor, inFlight, chunk, scanned, updated));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lead rescoring interrupted for tenant " + tenantId, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Lead rescoring failed for tenant " + tenantId + ": " + e.getMessage(), e);
+        } finally {
+            executor.shutdown();
+        }
+
+        mongoTemplate.save(LeadScoringStatus.builder()
+                .id(tenantId)
+                .rulesVersion(LeadScoringService.RULES_VERSION)
+                .rescoredAt(LocalDateTime.now())
+                .leadCount(scanned.get())
+                .updatedCount(updated.get())
+                .build());
+        log.info("[Tenant: {}] Rescored {} leads ({} changed) in {} ms", tenantId, scanned.get(), updated.get(),
+                System.currentTimeMillis() - started);
+        return updated.get();
+    }
+
+    /**
+     * Whether the tenant's stored scores were computed with the current scoring rules
+     */
+    public boolean isCurrent(String tenantId) {
+        return mongoTemplate.exists(new Query(Criteria.where("_id").is(tenantId)
+                .and("rulesVersion").is(LeadScoringService.RULES_VERSION)), LeadScoringStatus.class);
+    }
+
+    private Future<?> submit(ExecutorService executor, Semaphore inFlight, List<Lead> chunk,
+                             AtomicLong scanned, AtomicLong updated) throws InterruptedException {
+        inFlight.acquire();
+        return executor.submit(() -> {
+            try {
+                updated.addAndGet(rescore(chunk));
+                scanned.addAndGet(chunk.size());
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Score a chunk of leads (one activity lookup) and write back the changed scores in one bulk
+     */
+    private int rescore(List<Lead> leads) {
+        if (leads.isEmpty()) {
+            return 0;
+        }
+        List<String> before = leads.stream().map(this::scoreKey).toList();
+        scoringService.scoreAll(leads);
+
+        BulkOperations ops = null;
+        int changed = 0;
+        for (int i = 0; i < leads.size(); i++) {
+            Lead lead = leads.get(i);
+            if (Objects.equals(before.get(i), scoreKey(lead))) {
+                continue;
+            }
+            if (ops == null) {
+                ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Lead.class);
+            }
+            ops.updateOne(new Query(Criteria.where("_id").is(lead.getId())), new Update()
+                    .set("demographicScore", lead.getDemographicScore())
+                    .set("behavioralScore", lead.getBehavioralScore())
+                    .set("leadScore", lead.getLeadScore())
+                    .set("leadGrade", lead.getLeadGrade()));
+            changed++;
+        }
+        if (ops != null) {
+            ops.execute();
+        }
+        return changed;
+    }
+
+    private List<Lead> loadLeads(Query query) {
+        query.fields().include(SCORING_FIELDS);
+        try (Stream<Lead> leads = mongoTemplate.stream(query, Lead.class)) {
+            return leads.toList();
+        }
+    }
+
+    private String scoreKey(Lead lead) {
+        return lead.getDemographicScore() + "|" + lead.getBehavioralScore() + "|" + lead.getLeadScore() + "|" + lead.getLeadGrade();
+    }
+
+    private int chunkSize() {
+        return Math.max(1, chunkSize);
+    }
+}
@@ -1,30 +1,133 @@
 package com.ultron.backend.service;
 
 import com.ultron.backend.domain.entity.Lead;
+import com.ultron.backend.domain.enums.ActivityStatus;
+import com.ultron.backend.domain.enums.ActivityType;
 import com.ultron.backend.domain.enums.CompanySize;
+import com.ultron.backend.service.scoring.KeywordMatcher;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * Service to calculate lead scores based on demographic and behavioral factors
  * Total Score = Demographic Score (max 40) + Behavioral Score (max 60) = 0-100
+ *
+ * Keyword rules are compiled once into a KeywordMatcher. scoreAll scores a batch with a single
+ * activity lookup; LeadRescoringService re-applies scores when activities or RULES_VERSION change.
  */
 @Service
+@RequiredArgsConstructor
 public class LeadScoringService {
 
+    /**
+     * Bump whenever a scoring rule changes, so stored scores are recomputed (see LeadRescoringService)
+     */
+    public static final int RULES_VERSION = 2;
+
+    /**
+     * Recency bonus windows, in whole days since the last activity. The stored bonus goes stale as
+     * time passes; LeadRescoringService rescores leads whose last activity crossed a window.
+     */
+    public static final int RECENT_DAYS = 7;
+    public static final int ACTIVE_DAYS = 30;
+
+    // Job title authority keywords; the highest matching tier wins
+    private static final KeywordMatcher JOB_TITLE_MATCHER = KeywordMatcher.of(jobTitleKeywords());
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Activity counts of a lead that feed its behavioral score
+     */
+    public record Engagement(int emails, int calls, int meetings, int other, LocalDateTime lastActivityAt) {
+        public static final Engagement NONE = new Engagement(0, 0, 0, 0, null);
+    }
+
     /**
      * Calculate total lead score
      */
     public void calculateLeadScore(Lead lead) {
-        int demographicScore = calculateDemographicScore(lead);
-        int behavioralScore = calculateBehavioralScore(lead);
+        scoreAll(List.of(lead));
+    }
+
+    /**
+     * Calculate total lead score of a batch of leads, loading the activities of all saved leads at once
+     */
+    public void scoreAll(List<Lead> leads) {
+        scoreAll(leads, loadEngagement(leads));
+    }
 
-        int totalScore = demographicScore + behavioralScore;
-        totalScore = Math.min(100, Math.max(0, totalScore)); // Clamp between 0-100
+    /**
+     * Calculate total lead score of a batch of leads from already loaded engagement (keyed by lead id)
+     */
+    public void scoreAll(List<Lead> leads, Map<String, Engagement> engagement) {
+        int size = leads.size();
+        int[] demographic = new int[size];
+        int[] behavioral = new int[size];
+        LocalDateTime now = LocalDateTime.now();
 
-        lead.setDemographicScore(demographicScore);
-        lead.setBehavioralScore(behavioralScore);
-        lead.setLeadScore(totalScore);
-        lead.setLeadGrade(calculateLeadGrade(totalScore));
+        for (int i = 0; i < size; i++) {
+            demographic[i] = calculateDemographicScore(leads.get(i));
+        }
+        for (int i = 0; i < size; i++) {
+            String id = leads.get(i).getId();
+            behavioral[i] = calculateBehavioralScore(id != null ? engagement.getOrDefault(id, Engagement.NONE) : Engagement.NONE, now);
+        }
+        for (int i = 0; i < size; i++) {
+            int totalScore = Math.min(100, Math.max(0, demographic[i] + behavioral[i])); // Clamp between 0-100
+            Lead lead = leads.get(i);
+            lead.setDemographicScore(demographic[i]);
+            lead.setBehavioralScore(behavioral[i]);
+            lead.setLeadScore(totalScore);
+            lead.setLeadGrade(calculateLeadGrade(totalScore));
+        }
+    }
+
+    /**
+     * Activity counts of the given saved leads, one aggregation for the whole batch
+     */
+    public Map<String, Engagement> loadEngagement(List<Lead> leads) {
+        List<String> ids = leads.stream().map(Lead::getId).filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<String> tenantIds = leads.stream().map(Lead::getTenantId).filter(Objects::nonNull).distinct().toList();
+
+        Map<String, Engagement> engagement = new HashMap<>();
+        for (Document row : mongoTemplate.getCollection("activities").aggregate(List.of(
+                new Document("$match", new Document("tenantId", new Document("$in", tenantIds))
+                        .append("leadId", new Document("$in", ids))
+                        .append("isDeleted", new Document("$ne", true))
+                        .append("status", new Document("$ne", ActivityStatus.CANCELLED.name()))),
+                new Document("$group", new Document("_id", "$leadId")
+                        .append("emails", countType(ActivityType.EMAIL))
+                        .append("calls", countType(ActivityType.CALL))
+                        .append("meetings", countType(ActivityType.MEETING))
+                        .append("other", new Document("$sum", new Document("$cond", List.of(
+                                new Document("$in", List.of("$type", List.of(ActivityType.TASK.name(), ActivityType.NOTE.name()))), 1, 0))))
+                        .append("lastActivityAt", new Document("$max",
+                                new Document("$ifNull", List.of("$completedDate", "$createdAt")))))))) {
+            engagement.put(row.getString("_id"), new Engagement(
+                    row.getInteger("emails", 0),
+                    row.getInteger("calls", 0),
+                    row.getInteger("meetings", 0),
+                    row.getInteger("other", 0),
+                    row.get("lastActivityAt") instanceof Date date
+                            ? mongoTemplate.getConverter().getConversionService().convert(date, LocalDateTime.class)
+                            : null));
+        }
+        return engagement;
     }
 
     /**
@@ -60,32 +163,22 @@ public class LeadScoringService {
      * Based on decision-making authority keywords
      */
     private int calculateJobTitleScore(String jobTitle) {
-        if (jobTitle == null || jobTitle.isEmpty()) return 0;
-
-        String lowerTitle = jobTitle.toLowerCase();
+        return JOB_TITLE_MATCHER.maxWeight(jobTitle);
+    }
 
+    private static Map<String, Integer> jobTitleKeywords() {
+        Map<String, Integer> keywords = new LinkedHashMap<>();
         // C-Level Executive (15 points)
-        if (lowerTitle.matches(".*(ceo|cto|cfo|cmo|coo|chief|president).*")) {
-            return 15;
-        }
+        List.of("ceo", "cto", "cfo", "cmo", "coo", "chief", "president").forEach(k -> keywords.merge(k, 15, Math::max));
         // Vice President (12 points)
-        if (lowerTitle.matches(".*(vp|vice president|svp|senior vice president).*")) {
-            return 12;
-        }
+        List.of("vp", "vice president", "svp", "senior vice president").forEach(k -> keywords.merge(k, 12, Math::max));
         // Director (10 points)
-        if (lowerTitle.matches(".*(director|head of).*")) {
-            return 10;
-        }
+        List.of("director", "head of").forEach(k -> keywords.merge(k, 10, Math::max));
         // Manager (8 points)
-        if (lowerTitle.matches(".*(manager|mgr|lead).*")) {
-            return 8;
-        }
+        List.of("manager", "mgr", "lead").forEach(k -> keywords.merge(k, 8, Math::max));
         // Executive/Specialist (5 points)
-        if (lowerTitle.matches(".*(executive|specialist|senior|coordinator).*")) {
-            return 5;
-        }
-
-        return 0;
+        List.of("executive", "specialist", "senior", "coordinator").forEach(k -> keywords.merge(k, 5, Math::max));
+        return keywords;
     }
 
     /**
@@ -115,19 +208,28 @@ public class LeadScoringService {
 
     /**
      * Calculate behavioral score (max 60 points)
-     * Based on engagement activities
-     *
-     * TODO: Implement when activity tracking is added:
-     * - Email opens/clicks
-     * - Website visits
-     * - Content downloads
-     * - Form submissions
-     * - Direct engagement
+     * Based on engagement activities (cancelled and deleted activities excluded)
+     * = Emails (15) + Calls (15) + Meetings (20) + Tasks/Notes (5) + Recency (5)
      */
-    private int calculateBehavioralScore(Lead lead) {
-        // Placeholder - will be implemented when activity tracking is added
-        // For now, return 0
-        return 0;
+    private int calculateBehavioralScore(Engagement engagement, LocalDateTime now) {
+        int score = Math.min(15, engagement.emails() * 3)
+                + Math.min(15, engagement.calls() * 5)
+                + Math.min(20, engagement.meetings() * 10)
+                + Math.min(5, engagement.other());
+
+        if (engagement.lastActivityAt() != null) {
+            long days = Duration.between(engagement.lastActivityAt(), now).toDays();
+            if (days <= RECENT_DAYS) {
+                score += 5;
+            } else if (days <= ACTIVE_DAYS) {
+                score += 3;
+            }
+        }
+        return Math.min(60, score);
+    }
+
+    private Document countType(ActivityType type) {
+        return new Document("$sum", new Document("$cond", List.of(new Document("$eq", List.of("$type", type.name())), 1, 0)));
     }
 
     /**
@@ -4,8 +4,10 @@ import com.ultron.backend.domain.entity.Account;
 import com.ultron.backend.domain.entity.Contact;
 import com.ultron.backend.domain.entity.Lead;
 import com.ultron.backend.domain.entity.Opportunity;
+import com.ultron.backend.domain.entity.User;
 import com.ultron.backend.domain.enums.LeadStatus;
 import com.ultron.backend.domain.enums.OpportunityStage;
+import com.ultron.backend.domain.enums.RollupEntity;
 import com.ultron.backend.dto.request.CreateAccountRequest;
 import com.ultron.backend.dto.request.CreateContactRequest;
 import com.ultron.backend.dto.request.CreateLeadRequest;
@@ -26,12 +28,24 @@ import com.ultron.backend.event.LeadCreatedEvent;
 import com.ultron.backend.domain.enums.ProposalSource;
 import com.ultron.backend.domain.entity.Proposal;
 import com.ultron.backend.domain.entity.Activity;
+import com.ultron.backend.service.export.ExportColumn;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoClient;
+import com.mongodb.connection.ClusterType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 
@@ -39,6 +53,7 @@ import static com.ultron.backend.config.CacheConfig.DASHBOARD_STATS_CACHE;
 import static com.ultron.backend.config.CacheConfig.GROWTH_TRENDS_CACHE;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -49,6 +64,24 @@ import java.util.stream.Collectors;
 @Slf4j
 public class LeadService extends BaseTenantService {
 
+    private static final List<ExportColumn> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("leadId", "Lead ID"),
+            ExportColumn.of("firstName", "First Name"),
+            ExportColumn.of("lastName", "Last Name"),
+            ExportColumn.of("email", "Email"),
+            ExportColumn.of("phone", "Phone"),
+            ExportColumn.of("companyName", "Company"),
+            ExportColumn.of("industry", "Industry"),
+            ExportColumn.of("leadStatus", "Status"),
+            ExportColumn.of("leadSource", "Lead Source"),
+            ExportColumn.of("expectedRevenue", "Expected Revenue"),
+            ExportColumn.of("leadScore", "Score"),
+            ExportColumn.of("leadGrade", "Grade"),
+            ExportColumn.of("city", "City"),
+            ExportColumn.of("country", "Country"),
+            ExportColumn.of("leadOwnerId", "Owner ID"),
+            ExportColumn.of("createdAt", "Created At"));
+
     private final LeadRepository leadRepository;
     private final LeadIdGeneratorService leadIdGenerator;
     private final LeadScoringService scoringService;
@@ -65,6 +98,12 @@ public class LeadService extends BaseTenantService {
     private final AuditLogService auditLogService;
     private final NotificationService notificationService;
     private final DataVisibilityService dataVisibilityService;
+    private final TabularExportService tabularExportService;
+    private final LeadAssignmentService leadAssignmentService;
+    private final MongoTemplate mongoTemplate;
+    private final MongoClient mongoClient;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final OrganizationService organizationService;
 
     /**
      * Create a new lead
@@ -118,6 +157,7 @@ public class LeadService extends BaseTenantService {
                 .leadSource(request.getLeadSource() != null ? request.getLeadSource() : com.ultron.backend.domain.enums.LeadSource.OTHER)
                 .leadStatus(LeadStatus.NEW)
                 .leadOwnerId(request.getLeadOwnerId() != null ? request.getLeadOwnerId() : createdByUserId)
+                .leadOwnerName(findUserName(request.getLeadOwnerId() != null ? request.getLeadOwnerId() : createdByUserId))
                 .expectedRevenue(request.getExpectedRevenue())
                 .expectedCloseDate(request.getExpectedCloseDate())
                 // Additional
@@ -134,79 +174,128 @@ public class LeadService extends BaseTenantService {
         // Calculate lead score
         scoringService.calculateLeadScore(lead);
 
-        // Save to database
-        Lead savedLead = leadRepository.save(lead);
+        // Ids are allocated up front so the lead, its account and its contact reference each other
+        // from their first write
+        lead.setId(new ObjectId().toHexString());
+        String createdByName = userService.getUserFullName(createdByUserId);
 
-        // For new company, create Account immediately
-        if (savedLead.getAccountId() == null) {
+        // Assign before the insert instead of re-saving the lead afterwards; the round-robin
+        // position only moves once the lead is written
+        LeadAssignmentService.AutoAssignees pending = null;
+        User assignee = null;
+        try {
+            pending = leadAssignmentService.selectPendingAutoAssignees(tenantId, 1);
+            if (!pending.users().isEmpty()) {
+                assignee = pending.users().get(0);
+                leadAssignmentService.applyAssignment(lead, assignee);
+            }
+        } catch (Exception e) {
+            log.error("Error during auto-assignment for lead: {}", lead.getLeadId(), e);
+        }
+
+        // Counted against the plan limits up front; given back if the insert fails
+        organizationService.reserveUsage(tenantId, "LEADS");
+
+        // For new company, create Account alongside the lead
+        Account account = null;
+        if (lead.getAccountId() == null) {
             try {
-                log.info("Creating Account for new company: {}", savedLead.getCompanyName());
+                log.info("Creating Account for new company: {}", lead.getCompanyName());
                 CreateAccountRequest accountRequest = CreateAccountRequest.builder()
-                        .accountName(savedLead.getCompanyName())
-                        .industry(savedLead.getIndustry())
-                        .companySize(savedLead.getCompanySize())
-                        .annualRevenue(savedLead.getAnnualRevenue())
-                        .numberOfEmployees(savedLead.getNumberOfEmployees())
-                        .website(savedLead.getWebsite())
-                        .phone(savedLead.getPhone())
-                        .email(savedLead.getEmail())
-                        .billingStreet(savedLead.getStreetAddress())
-                        .billingCity(savedLead.getCity())
-                        .billingState(savedLead.getState())
-                        .billingPostalCode(savedLead.getPostalCode())
-                        .billingCountry(savedLead.getCountry())
-                        .description(savedLead.getDescription())
-                        .tags(savedLead.getTags())
+                        .accountName(lead.getCompanyName())
+                        .industry(lead.getIndustry())
+                        .companySize(lead.getCompanySize())
+                        .annualRevenue(lead.getAnnualRevenue())
+                        .numberOfEmployees(lead.getNumberOfEmployees())
+                        .website(lead.getWebsite())
+                        .phone(lead.getPhone())
+                        .email(lead.getEmail())
+                        .billingStreet(lead.getStreetAddress())
+                        .billingCity(lead.getCity())
+                        .billingState(lead.getState())
+                        .billingPostalCode(lead.getPostalCode())
+                        .billingCountry(lead.getCountry())
+                        .description(lead.getDescription())
+                        .tags(lead.getTags())
                         .build();
 
-                AccountResponse newAccount = accountService.createAccount(accountRequest, createdByUserId);
-                savedLead.setAccountId(newAccount.getId());
-                savedLead = leadRepository.save(savedLead);
-                log.info("Account {} created alongside Lead {}", newAccount.getAccountId(), savedLead.getLeadId());
+                Account newAccount = accountService.newAccount(accountRequest, createdByUserId, createdByName);
+                organizationService.reserveUsage(tenantId, "ACCOUNTS");
+                account = newAccount;
+                account.setId(new ObjectId().toHexString());
+                lead.setAccountId(account.getId());
             } catch (Exception e) {
-                log.error("Failed to create Account for Lead {}", savedLead.getLeadId(), e);
+                log.error("Failed to create Account for Lead {}", lead.getLeadId(), e);
             }
         }
 
-        // Immediately create mapping Contact
+        // Mapping Contact created alongside the lead
+        Contact contact = null;
         try {
             CreateContactRequest contactRequest = CreateContactRequest.builder()
-                    .firstName(savedLead.getFirstName())
-                    .lastName(savedLead.getLastName())
-                    .email(savedLead.getEmail())
-                    .phone(savedLead.getPhone())
-                    .mobilePhone(savedLead.getMobilePhone())
-                    .workPhone(savedLead.getWorkPhone())
-                    .jobTitle(savedLead.getJobTitle())
-                    .department(savedLead.getDepartment())
-                    .linkedInProfile(savedLead.getLinkedInProfile())
-                    .website(savedLead.getWebsite())
-                    .accountId(savedLead.getAccountId())
-                    .mailingStreet(savedLead.getStreetAddress())
-                    .mailingCity(savedLead.getCity())
-                    .mailingState(savedLead.getState())
-                    .mailingPostalCode(savedLead.getPostalCode())
-                    .mailingCountry(savedLead.getCountry())
-                    .description(savedLead.getDescription())
-                    .tags(savedLead.getTags())
+                    .firstName(lead.getFirstName())
+                    .lastName(lead.getLastName())
+                    .email(lead.getEmail())
+                    .phone(lead.getPhone())
+                    .mobilePhone(lead.getMobilePhone())
+                    .workPhone(lead.getWorkPhone())
+                    .jobTitle(lead.getJobTitle())
+                    .department(lead.getDepartment())
+                    .linkedInProfile(lead.getLinkedInProfile())
+                    .website(lead.getWebsite())
+                    .accountId(lead.getAccountId())
+                    .mailingStreet(lead.getStreetAddress())
+                    .mailingCity(lead.getCity())
+                    .mailingState(lead.getState())
+                    .mailingPostalCode(lead.getPostalCode())
+                    .mailingCountry(lead.getCountry())
+                    .description(lead.getDescription())
+                    .tags(lead.getTags())
                     .build();
 
-            ContactResponse contactResponse = contactService.createContact(contactRequest, createdByUserId);
-            savedLead.setConvertedToContactId(contactResponse.getId());
-            
-            Contact contactEntity = contactRepository.findById(contactResponse.getId()).orElse(null);
-            if (contactEntity != null) {
-                contactEntity.setConvertedFromLeadId(savedLead.getId());
-                contactRepository.save(contactEntity);
-            }
-            
-            savedLead = leadRepository.save(savedLead);
-            log.info("Contact {} created immediately alongside Lead {}", contactResponse.getContactId(), savedLead.getLeadId());
+            contactService.ensureEmailAvailable(contactRequest.getEmail());
+            String accountName = account != null
+                    ? account.getAccountName()
+                    : lead.getAccountId() != null
+                            ? accountRepository.findById(lead.getAccountId()).map(Account::getAccountName).orElse(null)
+                            : null;
+            Contact newContact = contactService.newContact(contactRequest, createdByUserId, createdByName, accountName);
+            organizationService.reserveUsage(tenantId, "CONTACTS");
+            contact = newContact;
+            contact.setId(new ObjectId().toHexString());
+            contact.setConvertedFromLeadId(lead.getId());
+            lead.setConvertedToContactId(contact.getId());
         } catch (Exception e) {
-            log.error("Failed to automatically create contact for Lead {}", savedLead.getLeadId(), e);
+            log.error("Failed to automatically create contact for Lead {}", lead.getLeadId(), e);
+        }
+
+        Lead savedLead;
+        try {
+            savedLead = insertComposed(lead, account, contact);
+        } catch (RuntimeException e) {
+            releaseUsage(tenantId, account, contact);
+            throw e;
+        }
+        analyticsRollupService.recordSaved(RollupEntity.LEAD, null, savedLead);
+        if (contact != null) {
+            analyticsRollupService.recordSaved(RollupEntity.CONTACT, null, contact);
+        }
+        if (account != null) {
+            log.info("Account {} created alongside Lead {}", account.getAccountId(), savedLead.getLeadId());
+        }
+        if (contact != null) {
+            log.info("Contact {} created immediately alongside Lead {}", contact.getContactId(), savedLead.getLeadId());
+        }
+        if (assignee != null) {
+            try {
+                leadAssignmentService.advanceRoundRobin(pending);
+            } catch (Exception e) {
+                log.error("Failed to advance round-robin position after lead {}", savedLead.getLeadId(), e);
+            }
+            leadAssignmentService.notifyAutoAssigned(savedLead, assignee);
         }
 
-        // Publish event for auto-assignment
+        // Published for other listeners; the lead is already assigned
         eventPublisher.publishEvent(new LeadCreatedEvent(this, savedLead));
 
         log.info("Lead created successfully with ID: {}", savedLead.getLeadId());
@@ -237,6 +326,59 @@ public class LeadService extends BaseTenantService {
         return mapToResponse(savedLead);
     }
 
+    /**
+     * Write a new lead with its account and contact: in one transaction on replica sets and sharded clusters, otherwise
+     * as ordered inserts (account, contact, lead) so a reference never points to a missing document.
+     */
+    private Lead insertComposed(Lead lead, Account account, Contact contact) {
+        List<Object> documents = new ArrayList<>(3);
+        if (account != null) {
+            documents.add(account);
+        }
+        if (contact != null) {
+            documents.add(contact);
+        }
+        documents.add(lead);
+
+        if (!supportsTransactions()) {
+            documents.forEach(mongoTemplate::insert);
+            return lead;
+        }
+        try (ClientSession session = mongoClient.startSession()) {
+            session.withTransaction(() -> mongoTemplate.withSession(session).execute(operations -> {
+                documents.forEach(operations::insert);
+                return null;
+            }));
+        }
+        return lead;
+    }
+
+    /**
+     * Give back the usage reserved by a lead create whose insert failed
+     */
+    private void releaseUsage(String tenantId, Account account, Contact contact) {
+        organizationService.decrementUsage(tenantId, "LEADS");
+        if (account != null) {
+            organizationService.decrementUsage(tenantId, "ACCOUNTS");
+        }
+        if (contact != null) {
+            organizationService.decrementUsage(tenantId, "CONTACTS");
+        }
+    }
+
+    /**
+     * Only replica sets and sharded clusters run transactions. Before the driver has reached the
+     * deployment its type is UNKNOWN, so a ping settles it first.
+     */
+    private boolean supportsTransactions() {
+        ClusterType type = mongoClient.getClusterDescription().getType();
+        if (type == ClusterType.UNKNOWN) {
+            mongoTemplate.executeCommand(new Document("ping", 1));
+            type = mongoClient.getClusterDescription().getType();
+        }
+        return type == ClusterType.REPLICA_SET || type == ClusterType.SHARDED;
+    }
+
     /**
      * Get lead by ID
      */
@@ -293,6 +435,19 @@ public class LeadService extends BaseTenantService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Stream the leads visible to the user (same visibility rules as getLeadsForCurrentUser)
+     */
+    public StreamingResponseBody exportLeads(String userId, ExportFormat format) {
+        String tenantId = getCurrentTenantId();
+        Criteria criteria = Criteria.where("tenantId").is(tenantId).and("isDeleted").is(false);
+        if (!"ALL".equals(dataVisibilityService.getDataVisibilityLevel(userId))) {
+            criteria.and("leadOwnerId").in(dataVisibilityService.getVisibleUserIds(userId));
+        }
+        log.info("[Tenant: {}] User {} exporting leads as {}", tenantId, userId, format);
+        return tabularExportService.stream("leads", new Query(criteria), EXPORT_COLUMNS, format);
+    }
+
     /**
      * Get all leads (ADMIN ONLY - no filtering)
      * @deprecated Use getLeadsForCurrentUser() instead for proper RBAC
@@ -354,6 +509,7 @@ public class LeadService extends BaseTenantService {
 
         // Validate tenant ownership
         validateResourceTenantOwnership(lead.getTenantId());
+        Document rollupBefore = analyticsRollupService.snapshot(lead);
 
         LeadStatus oldStatus = lead.getLeadStatus();
         lead.setLeadStatus(newStatus);
@@ -366,6 +522,7 @@ public class LeadService extends BaseTenantService {
         }
 
         Lead updated = leadRepository.save(lead);
+        analyticsRollupService.recordSaved(RollupEntity.LEAD, rollupBefore, updated);
 
         // Log audit
         auditLogService.logAsync("LEAD", updated.getId(), updated.getFirstName() + " " + updated.getLastName(),
@@ -411,6 +568,7 @@ public class LeadService extends BaseTenantService {
 
         // Validate tenant ownership
         validateResourceTenantOwnership(lead.getTenantId());
+        Document rollupBefore = analyticsRollupService.snapshot(lead);
 
         // NOTE: Email uniqueness check removed for updates too
         // Same contact can have multiple leads across different deal opportunities
@@ -508,6 +666,7 @@ public class LeadService extends BaseTenantService {
             String oldOwnerId = lead.getLeadOwnerId();
             String newOwnerId = request.getLeadOwnerId();
             lead.setLeadOwnerId(newOwnerId);
+            lead.setLeadOwnerName(findUserName(newOwnerId));
 
             // Notify new owner (if different from updater)
             if (!newOwnerId.equals(updatedByUserId)) {
@@ -615,6 +774,7 @@ public class LeadService extends BaseTenantService {
 
         // Save and return
         Lead updatedLead = leadRepository.save(lead);
+        analyticsRollupService.recordSaved(RollupEntity.LEAD, rollupBefore, updatedLead);
         log.info("Lead {} updated successfully", id);
 
         // Log audit
@@ -641,11 +801,17 @@ public class LeadService extends BaseTenantService {
         // Validate tenant ownership
         validateResourceTenantOwnership(lead.getTenantId());
 
+        Document rollupBefore = analyticsRollupService.snapshot(lead);
+        boolean wasActive = !Boolean.TRUE.equals(lead.getIsDeleted());
         lead.setIsDeleted(true);
         lead.setDeletedAt(LocalDateTime.now());
         lead.setDeletedBy(deletedByUserId);
 
-        leadRepository.save(lead);
+        Lead deleted = leadRepository.save(lead);
+        analyticsRollupService.recordSaved(RollupEntity.LEAD, rollupBefore, deleted);
+        if (wasActive) {
+            organizationService.decrementUsage(deleted.getTenantId(), "LEADS");
+        }
         log.info("Lead {} soft deleted by user {}", id, deletedByUserId);
 
         // Log audit
@@ -666,6 +832,8 @@ public class LeadService extends BaseTenantService {
         // Validate tenant ownership
         validateResourceTenantOwnership(lead.getTenantId());
 
+        Document rollupBefore = analyticsRollupService.snapshot(lead);
+
         // Validate lead can be converted
         if (lead.getLeadStatus() != LeadStatus.QUALIFIED && lead.getLeadStatus() != LeadStatus.NEGOTIATION) {
             throw new RuntimeException("Only qualified or negotiating leads can be converted");
@@ -791,6 +959,7 @@ public class LeadService extends BaseTenantService {
         lead.setLastModifiedBy(convertedByUserId);
 
         Lead converted = leadRepository.save(lead);
+        analyticsRollupService.recordSaved(RollupEntity.LEAD, rollupBefore, converted);
         log.info("Lead {} converted successfully - Contact: {}, Account: {}, Opportunity: {}",
                 lead.getLeadId(), contactEntity.getContactId(), account.getAccountId(), opportunity.getOpportunityId());
 
@@ -889,6 +1058,7 @@ public class LeadService extends BaseTenantService {
 
         // Validate tenant ownership
         validateResourceTenantOwnership(lead.getTenantId());
+        Document rollupBefore = analyticsRollupService.snapshot(lead);
 
         // Determine Account to use for lost lead
         // If lead already has an Account (created at lead creation), use it; otherwise create new
@@ -980,6 +1150,7 @@ public class LeadService extends BaseTenantService {
         lead.setLastModifiedBy(userId);
 
         Lead lost = leadRepository.save(lead);
+        analyticsRollupService.recordSaved(RollupEntity.LEAD, rollupBefore, lost);
         log.info("Lead {} marked as lost - Opportunity: {}", lead.getLeadId(), opportunity.getOpportunityId());
 
         // Migrate historical data (Proposals, Activities)
@@ -1060,13 +1231,20 @@ public class LeadService extends BaseTenantService {
                 .build();
     }
 
+    private String findUserName(String userId) {
+        if (userId == null) {
+            return null;
+        }
+        return userService.findById(userId).map(user -> user.getFullName()).orElse(null);
+    }
+
     /**
      * Map Lead entity to LeadResponse DTO
      */
     private LeadResponse mapToResponse(Lead lead) {
-        // Get owner name
-        String ownerName = null;
-        if (lead.getLeadOwnerId() != null) {
+        // Owner name is denormalized on the lead; look it up only for leads written before it was
+        String ownerName = lead.getLeadOwnerName();
+        if (ownerName == null && lead.getLeadOwnerId() != null) {
             ownerName = userService.findById(lead.getLeadOwnerId())
                     .map(user -> user.getFullName())
                     .orElse(null);
@@ -0,0 +1,71 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.dto.response.EngineerLocationResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces engineer location broadcasts.
+ *
+ * Pings are not sent as they arrive; only the latest position per engineer is kept and
+ * flushed once per tick (app.websocket.location-tick-ms). Each tick sends one message per
+ * engineer topic that changed, plus one batched message per tenant on
+ * /topic/engineer-locations/{tenantId} for dispatch maps.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LocationUpdateCoalescer {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // tenantId -> (engineerId -> latest position since last tick)
+    private final Map<String, Map<String, EngineerLocationResponse>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Queue a position for the next tick, replacing any earlier position of the same engineer
+     */
+    public void publish(String tenantId, EngineerLocationResponse location) {
+        pending.computeIfAbsent(tenantId, t -> new ConcurrentHashMap<>())
+                .put(location.getEngineerId(), location);
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.location-tick-ms:1000}")
+    public void flush() {
+        for (Map.Entry<String, Map<String, EngineerLocationResponse>> tenantEntry : pending.entrySet()) {
+            String tenantId = tenantEntry.getKey();
+            Map<String, EngineerLocationResponse> tenantPending = tenantEntry.getValue();
+            if (tenantPending.isEmpty()) {
+                continue;
+            }
+
+            ArrayList<EngineerLocationResponse> batch = new ArrayList<>(tenantPending.size());
+            Iterator<Map.Entry<String, EngineerLocationResponse>> iterator = tenantPending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, EngineerLocationResponse> entry = iterator.next();
+                // Remove only if unchanged, so a ping arriving mid-flush is kept for the next tick
+                if (tenantPending.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry.getValue());
+                }
+            }
+
+            try {
+                for (EngineerLocationResponse location : batch) {
+                    messagingTemplate.convertAndSend(
+                            "/topic/engineer-location/" + tenantId + "/" + location.getEngineerId(), location);
+                }
+                messagingTemplate.convertAndSend("/topic/engineer-locations/" + tenantId, batch);
+            } catch (Exception e) {
+                log.error("Failed to broadcast {} engineer locations for tenant {}: {}", batch.size(), tenantId, e.getMessage());
+            }
+        }
+    }
+}
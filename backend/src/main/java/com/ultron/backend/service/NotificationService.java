@@ -1,21 +1,33 @@
 package com.ultron.backend.service;
 
 import com.ultron.backend.domain.entity.Notification;
+import com.ultron.backend.domain.entity.NotificationCounter;
 import com.ultron.backend.dto.response.NotificationDTO;
 import com.ultron.backend.multitenancy.TenantContext;
 import com.ultron.backend.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +38,38 @@ public class NotificationService {
     private final SimpMessagingTemplate messagingTemplate;
     private final MongoTemplate mongoTemplate;
 
+    private static final int MAX_SEED_ATTEMPTS = 3;
+
+    // tenantId:targetUserId:type -> notifications queued in digest mode since the last flush
+    private final Map<String, Digest> digests = new ConcurrentHashMap<>();
+
+    /**
+     * First notification of a burst plus the number collapsed into it; only changed inside digests.compute / merge
+     */
+    private static final class Digest {
+
+        private final Notification first;
+        private final String digestActionUrl;
+        private int count = 1;
+
+        Digest(Notification first, String digestActionUrl) {
+            this.first = first;
+            this.digestActionUrl = digestActionUrl;
+        }
+
+        Notification toNotification() {
+            if (count == 1) {
+                return first;
+            }
+            int more = count - 1;
+            return first.toBuilder()
+                    .title(first.getTitle() + " (+" + more + " more)")
+                    .message(first.getMessage() + " " + more + " more like this.")
+                    .actionUrl(digestActionUrl != null ? digestActionUrl : first.getActionUrl())
+                    .build();
+        }
+    }
+
     public NotificationDTO createAndSendNotification(String targetUserId, String title, String message, String type, String actionUrl) {
         String tenantId = TenantContext.getTenantId();
 
@@ -53,6 +97,7 @@ public class NotificationService {
 
         notification = notificationRepository.save(notification);
         log.info("✓ Notification saved to database with ID: {}", notification.getId());
+        adjustUnread(tenantId, targetUserId, 1);
 
         NotificationDTO dto = mapToDTO(notification);
 
@@ -66,7 +111,111 @@ public class NotificationService {
         return dto;
     }
 
+    /**
+     * Queue a notification in digest mode: notifications of the same type for the same user arriving
+     * within app.notifications.digest-window-ms are stored and pushed as one. A burst of n collapses
+     * into the first notification with "(+n-1 more)" and digestActionUrl; a single one is sent as is.
+     */
+    public void queueDigestNotification(String targetUserId, String title, String message, String type,
+                                        String actionUrl, String digestActionUrl) {
+        if (targetUserId == null) {
+            return;
+        }
+        String tenantId = TenantContext.getTenantId();
+        Notification notification = Notification.builder()
+                .tenantId(tenantId)
+                .targetUserId(targetUserId)
+                .title(title)
+                .message(message)
+                .type(type)
+                .actionUrl(actionUrl)
+                .isRead(false)
+                .build();
+
+        digests.compute(tenantId + ":" + targetUserId + ":" + type, (key, digest) -> {
+            if (digest == null) {
+                return new Digest(notification, digestActionUrl);
+            }
+            digest.count++;
+            return digest;
+        });
+    }
+
+    /**
+     * Store and push the digests collected during the last window: one insert for all of them,
+     * one bulk counter update, then one WebSocket message per digest. If the insert fails the
+     * digests are queued again, merged with any that arrived meanwhile, for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.digest-window-ms:5000}")
+    public void flushDigests() {
+        if (digests.isEmpty()) {
+            return;
+        }
+
+        Map<String, Digest> batch = new LinkedHashMap<>();
+        for (String key : List.copyOf(digests.keySet())) {
+            Digest digest = digests.remove(key);
+            if (digest != null) {
+                batch.put(key, digest);
+            }
+        }
+        List<Notification> notifications = batch.values().stream().map(Digest::toNotification).toList();
+
+        LocalDateTime now = LocalDateTime.now();
+        Collection<Notification> saved;
+        try {
+            notifications.forEach(notification -> notification.setCreatedAt(now));
+            saved = mongoTemplate.insert(notifications, Notification.class);
+        } catch (Exception e) {
+            log.error("Failed to store {} digest notifications, retrying on the next flush: {}",
+                    notifications.size(), e.getMessage());
+            batch.forEach((key, digest) -> digests.merge(key, digest, (queued, failed) -> {
+                failed.count += queued.count;
+                return failed;
+            }));
+            return;
+        }
+
+        try {
+            Map<String, List<Notification>> byCounter = saved.stream().collect(Collectors.groupingBy(
+                    notification -> counterId(notification.getTenantId(), notification.getTargetUserId())));
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationCounter.class);
+            byCounter.forEach((counterId, userNotifications) -> {
+                Notification first = userNotifications.get(0);
+                ops.upsert(new Query(Criteria.where("_id").is(counterId)),
+                        unseededCounter(first.getTenantId(), first.getTargetUserId())
+                                .inc("unread", userNotifications.size()).inc("version", 1).set("updatedAt", now));
+            });
+            ops.execute();
+        } catch (Exception e) {
+            // Stored already, so not queued again; a counter that ends up low is recounted when it would go negative
+            log.error("Failed to count {} digest notifications as unread: {}", saved.size(), e.getMessage());
+        }
+
+        for (Notification notification : saved) {
+            try {
+                messagingTemplate.convertAndSendToUser(notification.getTargetUserId(), "/queue/notifications", mapToDTO(notification));
+            } catch (Exception e) {
+                log.warn("Failed to push digest notification {}: {}", notification.getId(), e.getMessage());
+            }
+        }
+        log.debug("Flushed {} digest notifications", saved.size());
+    }
+
+    @PreDestroy
+    void flushDigestsOnShutdown() {
+        flushDigests();
+    }
 
+    /**
+     * Push a transient progress update over the notification WebSocket; nothing is stored
+     */
+    public void sendProgress(String targetUserId, Object progress) {
+        if (targetUserId == null) {
+            return;
+        }
+        messagingTemplate.convertAndSendToUser(targetUserId, "/queue/progress", progress);
+    }
 
     public Page<NotificationDTO> getUserNotifications(String targetUserId, Pageable pageable) {
         String tenantId = TenantContext.getTenantId();
@@ -74,20 +223,82 @@ public class NotificationService {
                 .map(this::mapToDTO);
     }
 
+    /**
+     * Unread count from the user's counter document, seeded from a count of unread notifications
+     * the first time. The counter is read on every call, one lookup by id, rather than cached per
+     * instance, so a change made through any instance shows at once.
+     */
     public long getUnreadCount(String targetUserId) {
         String tenantId = TenantContext.getTenantId();
-        return notificationRepository.countByTenantIdAndTargetUserIdAndIsReadFalse(tenantId, targetUserId);
+        String counterId = counterId(tenantId, targetUserId);
+
+        NotificationCounter counter = mongoTemplate.findById(counterId, NotificationCounter.class);
+        if (counter != null && !Boolean.FALSE.equals(counter.getSeeded())) {
+            return counter.getUnread();
+        }
+        return seedUnread(tenantId, targetUserId);
+    }
+
+    /**
+     * Set the counter from a count of the unread notifications. Notifications created meanwhile bump
+     * the counter's version, which fails the guarded write, so the count is taken again.
+     */
+    private long seedUnread(String tenantId, String targetUserId) {
+        String counterId = counterId(tenantId, targetUserId);
+        long unread = 0;
+        for (int attempt = 0; attempt < MAX_SEED_ATTEMPTS; attempt++) {
+            NotificationCounter counter = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(counterId)),
+                    unseededCounter(tenantId, targetUserId).setOnInsert("unread", 0L).setOnInsert("version", 0L),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), NotificationCounter.class);
+            if (!Boolean.FALSE.equals(counter.getSeeded())) {
+                // Seeded by a concurrent read
+                return counter.getUnread();
+            }
+
+            unread = notificationRepository.countByTenantIdAndTargetUserIdAndIsReadFalse(tenantId, targetUserId);
+            NotificationCounter seeded = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(counterId)
+                            .and("version").is(counter.getVersion())
+                            .and("seeded").is(false)),
+                    new Update().set("unread", unread).set("seeded", true).inc("version", 1).set("updatedAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true), NotificationCounter.class);
+            if (seeded != null) {
+                return seeded.getUnread();
+            }
+        }
+        // Still changing under a burst of notifications: answer with the count, seed on a later read
+        return unread;
+    }
+
+    /**
+     * Upsert part of a counter update: a counter created by it waits to be seeded on the next read
+     */
+    private static Update unseededCounter(String tenantId, String targetUserId) {
+        return new Update()
+                .setOnInsert("tenantId", tenantId)
+                .setOnInsert("targetUserId", targetUserId)
+                .setOnInsert("seeded", false);
     }
 
     /**
-     * Mark a notification as read using MongoTemplate for reliable update.
+     * Mark a notification as read; the unread counter drops only if this call changed it
      */
     public void markAsRead(String notificationId, String authenticatedUserId) {
         String tenantId = TenantContext.getTenantId();
 
         log.info("markAsRead called: notificationId={}, userId={}, tenantId={}", notificationId, authenticatedUserId, tenantId);
 
-        // First verify the notification exists
+        var result = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(notificationId)
+                        .and("tenantId").is(tenantId)
+                        .and("targetUserId").is(authenticatedUserId)
+                        .and("isRead").is(false)),
+                new Update().set("isRead", true), Notification.class);
+        if (result.getModifiedCount() > 0) {
+            adjustUnread(tenantId, authenticatedUserId, -1);
+            log.info("markAsRead result: notificationId={}, modified={}", notificationId, result.getModifiedCount());
+            return;
+        }
+
+        // Nothing changed: already read, missing, or not this user's notification
         Notification notification = notificationRepository.findById(notificationId).orElse(null);
         if (notification == null) {
             log.warn("Notification {} not found", notificationId);
@@ -105,15 +316,6 @@ public class NotificationService {
                     authenticatedUserId, notificationId, notification.getTargetUserId());
             throw new SecurityException("Not authorized to modify this notification");
         }
-
-        // Use MongoTemplate with explicit collection and $set operator
-        Query query = Query.query(Criteria.where("_id").is(notificationId));
-        Update update = new Update();
-        update.set("isRead", true);
-        // Also set it with $set to ensure it works regardless of field existence
-        var result = mongoTemplate.updateFirst(query, update, Notification.class);
-
-        log.info("markAsRead result: notificationId={}, modified={}", notificationId, result.getModifiedCount());
     }
 
     /**
@@ -124,26 +326,52 @@ public class NotificationService {
 
         log.info("markAllAsRead called: userId={}, tenantId={}", authenticatedUserId, tenantId);
 
-        // Get all unread notifications
-        var unreadNotifications = notificationRepository.findByTenantIdAndTargetUserIdAndIsReadFalse(
-                tenantId, authenticatedUserId);
-
-        log.info("Found {} unread notifications", unreadNotifications.size());
+        Query query = Query.query(
+                Criteria.where("tenantId").is(tenantId)
+                        .and("targetUserId").is(authenticatedUserId)
+                        .and("isRead").is(false)
+        );
+        var result = mongoTemplate.updateMulti(query, new Update().set("isRead", true), Notification.class);
+        if (result.getModifiedCount() > 0) {
+            adjustUnread(tenantId, authenticatedUserId, -result.getModifiedCount());
+        }
+        log.info("markAllAsRead via MongoTemplate: modifiedCount={}", result.getModifiedCount());
+    }
 
-        if (!unreadNotifications.isEmpty()) {
-            // Update via MongoTemplate for reliability
-            Query query = Query.query(
-                    Criteria.where("tenantId").is(tenantId)
-                            .and("targetUserId").is(authenticatedUserId)
-                            .and("isRead").is(false)
-            );
-            Update update = new Update();
-            update.set("isRead", true);
-            var result = mongoTemplate.updateMulti(query, update, Notification.class);
-            log.info("markAllAsRead via MongoTemplate: modifiedCount={}", result.getModifiedCount());
+    /**
+     * Apply a change to the user's unread counter. An increase creates a missing counter unseeded,
+     * so a seed running concurrently sees the change; a decrease that would go negative means the
+     * counter has drifted, and it is recounted.
+     */
+    private void adjustUnread(String tenantId, String targetUserId, long delta) {
+        String counterId = counterId(tenantId, targetUserId);
+        try {
+            Criteria criteria = Criteria.where("_id").is(counterId);
+            Update update = new Update().inc("unread", delta).inc("version", 1).set("updatedAt", LocalDateTime.now());
+            FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
+            if (delta < 0) {
+                criteria.and("unread").gte(-delta);
+            } else {
+                update = unseededCounter(tenantId, targetUserId).inc("unread", delta).inc("version", 1)
+                        .set("updatedAt", LocalDateTime.now());
+                options.upsert(true);
+            }
+            NotificationCounter counter = mongoTemplate.findAndModify(new Query(criteria), update, options, NotificationCounter.class);
+            if (counter == null && delta < 0) {
+                long unread = notificationRepository.countByTenantIdAndTargetUserIdAndIsReadFalse(tenantId, targetUserId);
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(counterId)),
+                        new Update().set("unread", unread).inc("version", 1).set("updatedAt", LocalDateTime.now()),
+                        NotificationCounter.class);
+            }
+        } catch (Exception e) {
+            log.error("Failed to update unread counter {}: {}", counterId, e.getMessage());
         }
     }
 
+    private String counterId(String tenantId, String targetUserId) {
+        return tenantId + ":" + targetUserId;
+    }
+
     private NotificationDTO mapToDTO(Notification notification) {
         boolean isReadValue = notification.isRead();
         log.debug("mapToDTO: notificationId={}, isRead={}", notification.getId(), isReadValue);
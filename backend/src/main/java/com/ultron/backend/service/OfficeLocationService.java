@@ -27,6 +27,7 @@ public class OfficeLocationService extends BaseTenantService {
 
     private final OfficeLocationRepository officeLocationRepository;
     private final OfficeLocationIdGeneratorService idGenerator;
+    private final AttendanceRosterService attendanceRosterService;
 
     /**
      * Create new office location
@@ -81,6 +82,7 @@ public class OfficeLocationService extends BaseTenantService {
             .build();
 
         location = officeLocationRepository.save(location);
+        attendanceRosterService.invalidate(tenantId);
 
         log.info("✅ Office location created: {} ({})", location.getName(), location.getLocationId());
 
@@ -142,6 +144,7 @@ public class OfficeLocationService extends BaseTenantService {
         location.setLastModifiedBy(userId);
 
         location = officeLocationRepository.save(location);
+        attendanceRosterService.invalidate(tenantId);
 
         log.info("✅ Office location updated: {} ({})", location.getName(), location.getLocationId());
 
@@ -170,6 +173,7 @@ public class OfficeLocationService extends BaseTenantService {
         location.setLastModifiedBy(userId);
 
         officeLocationRepository.save(location);
+        attendanceRosterService.invalidate(tenantId);
 
         log.info("✅ Office location deleted: {} ({})", location.getName(), location.getLocationId());
     }
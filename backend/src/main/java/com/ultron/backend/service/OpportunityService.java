@@ -4,6 +4,7 @@ import com.ultron.backend.domain.entity.Account;
 import com.ultron.backend.domain.entity.Contact;
 import com.ultron.backend.domain.entity.Opportunity;
 import com.ultron.backend.domain.enums.OpportunityStage;
+import com.ultron.backend.domain.enums.RollupEntity;
 import com.ultron.backend.dto.request.CreateOpportunityRequest;
 import com.ultron.backend.dto.request.UpdateOpportunityRequest;
 import com.ultron.backend.dto.response.OpportunityResponse;
@@ -12,11 +13,18 @@ import com.ultron.backend.exception.UserAlreadyExistsException;
 import com.ultron.backend.repository.AccountRepository;
 import com.ultron.backend.repository.ContactRepository;
 import com.ultron.backend.repository.OpportunityRepository;
+import com.ultron.backend.service.export.ExportColumn;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 
@@ -35,6 +43,20 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OpportunityService extends BaseTenantService {
 
+    private static final List<ExportColumn> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("opportunityId", "Opportunity ID"),
+            ExportColumn.of("opportunityName", "Name"),
+            ExportColumn.of("stage", "Stage"),
+            ExportColumn.of("amount", "Amount"),
+            ExportColumn.of("probability", "Probability"),
+            ExportColumn.of("expectedCloseDate", "Expected Close Date"),
+            ExportColumn.of("accountName", "Account"),
+            ExportColumn.of("primaryContactName", "Primary Contact"),
+            ExportColumn.of("ownerName", "Owner"),
+            ExportColumn.of("leadSource", "Lead Source"),
+            ExportColumn.of("currency", "Currency"),
+            ExportColumn.of("createdAt", "Created At"));
+
     private final OpportunityRepository opportunityRepository;
     private final AccountRepository accountRepository;
     private final ContactRepository contactRepository;
@@ -42,6 +64,8 @@ public class OpportunityService extends BaseTenantService {
     private final UserService userService;
     private final NotificationService notificationService;
     private final DataVisibilityService dataVisibilityService;
+    private final TabularExportService tabularExportService;
+    private final AnalyticsRollupService analyticsRollupService;
 
     /**
      * Create a new opportunity
@@ -141,6 +165,7 @@ public class OpportunityService extends BaseTenantService {
         }
 
         Opportunity saved = opportunityRepository.save(opportunity);
+        analyticsRollupService.recordSaved(RollupEntity.OPPORTUNITY, null, saved);
         log.info("Opportunity created successfully with ID: {}", saved.getOpportunityId());
 
         // P0 #6: Notify opportunity owner about creation
@@ -199,6 +224,17 @@ public class OpportunityService extends BaseTenantService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Stream the opportunities visible to the user (same visibility rules as getOpportunitiesForCurrentUser)
+     */
+    public StreamingResponseBody exportOpportunities(String userId, ExportFormat format) {
+        String tenantId = getCurrentTenantId();
+        Criteria criteria = Criteria.where("tenantId").is(tenantId).and("isDeleted").is(false)
+                .and("ownerId").in(dataVisibilityService.getVisibleUserIds(userId));
+        log.info("[Tenant: {}] User {} exporting opportunities as {}", tenantId, userId, format);
+        return tabularExportService.stream("opportunities", new Query(criteria), EXPORT_COLUMNS, format);
+    }
+
     /**
      * Get all opportunities (ADMIN ONLY - no filtering)
      * @deprecated Use getOpportunitiesForCurrentUser() instead for proper RBAC
@@ -299,6 +335,7 @@ public class OpportunityService extends BaseTenantService {
 
         // Validate tenant ownership
         validateResourceTenantOwnership(opportunity.getTenantId());
+        Document rollupBefore = analyticsRollupService.snapshot(opportunity);
 
         // Check name uniqueness if changed within tenant
         if (request.getOpportunityName() != null && !request.getOpportunityName().equals(opportunity.getOpportunityName())) {
@@ -437,6 +474,7 @@ public class OpportunityService extends BaseTenantService {
         opportunity.setLastModifiedByName(updatedByName);
 
         Opportunity updated = opportunityRepository.save(opportunity);
+        analyticsRollupService.recordSaved(RollupEntity.OPPORTUNITY, rollupBefore, updated);
         log.info("Opportunity {} updated successfully", id);
 
         return mapToResponse(updated);
@@ -456,12 +494,14 @@ public class OpportunityService extends BaseTenantService {
 
         // Validate tenant ownership
         validateResourceTenantOwnership(opportunity.getTenantId());
+        Document rollupBefore = analyticsRollupService.snapshot(opportunity);
 
         opportunity.setIsDeleted(true);
         opportunity.setDeletedAt(LocalDateTime.now());
         opportunity.setDeletedBy(deletedByUserId);
 
-        opportunityRepository.save(opportunity);
+        Opportunity deleted = opportunityRepository.save(opportunity);
+        analyticsRollupService.recordSaved(RollupEntity.OPPORTUNITY, rollupBefore, deleted);
         log.info("Opportunity {} soft deleted by user {}", id, deletedByUserId);
     }
 
@@ -68,9 +68,8 @@ public class OrganizationInvitationService extends BaseTenantService {
             throw new BusinessException("Pending invitation already exists for this email");
         }
 
-        // 4. Validate user limits
-        // TODO: Implement usage limit validation
-        // organizationService.validateResourceLimit("USER", tenantId);
+        // 4. Validate user limits; capacity is reserved when the invitation is accepted
+        organizationService.validateResourceLimit(tenantId, "USERS");
 
         // 5. Get inviter details
         User inviter = userRepository.findById(currentUserId)
@@ -216,7 +215,14 @@ public class OrganizationInvitationService extends BaseTenantService {
                 .isDeleted(false)
                 .build();
 
-        User savedUser = userRepository.save(user);
+        organizationService.reserveUsage(invitation.getTenantId(), "USERS");
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (RuntimeException e) {
+            organizationService.decrementUsage(invitation.getTenantId(), "USERS");
+            throw e;
+        }
 
         // 5. Update invitation status
         invitation.setStatus(OrganizationInvitation.InvitationStatus.ACCEPTED);
@@ -241,10 +247,6 @@ public class OrganizationInvitationService extends BaseTenantService {
             }
         }
 
-        // 6. Increment organization user count
-        // TODO: Implement usage increment
-        // organizationService.incrementUsage("USER", invitation.getTenantId());
-
         log.info("Invitation accepted successfully: {} -> User: {}", invitationId, userId);
 
         return savedUser;
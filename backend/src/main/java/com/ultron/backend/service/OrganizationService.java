@@ -1,7 +1,13 @@
 package com.ultron.backend.service;
 
+import com.mongodb.client.result.UpdateResult;
+import com.ultron.backend.domain.entity.Account;
+import com.ultron.backend.domain.entity.Contact;
+import com.ultron.backend.domain.entity.Lead;
 import com.ultron.backend.domain.entity.LeadAssignmentConfig;
+import com.ultron.backend.domain.entity.Opportunity;
 import com.ultron.backend.domain.entity.Organization;
+import com.ultron.backend.domain.entity.Product;
 import com.ultron.backend.domain.entity.Profile;
 import com.ultron.backend.domain.entity.Role;
 import com.ultron.backend.domain.entity.User;
@@ -18,6 +24,13 @@ import com.ultron.backend.repository.RoleRepository;
 import com.ultron.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,6 +38,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 /**
  * Service for managing organizations (tenants)
@@ -46,6 +60,7 @@ public class OrganizationService {
     private final JwtService jwtService;
     private final OrganizationIdGeneratorService organizationIdGenerator;
     private final UserIdGeneratorService userIdGenerator;
+    private final MongoTemplate mongoTemplate;
 
     /**
      * Complete organization onboarding:
@@ -144,6 +159,7 @@ public class OrganizationService {
                 .build();
 
         User savedUser = userRepository.save(adminUser);
+        incrementUsage(savedOrg.getId(), "USERS");
         log.info("Created admin user: {} for organization: {}", savedUser.getEmail(), savedOrg.getOrganizationName());
 
         // 4. Generate JWT token for immediate login (with dynamic role/profile IDs)
@@ -177,67 +193,102 @@ public class OrganizationService {
     }
 
     /**
-     * Validate resource limit before creation
+     * Result of a quota reservation; when not reserved nothing was counted and message explains the limit
+     */
+    public record UsageReservation(boolean reserved, Integer used, Integer limit, String message) {
+    }
+
+    /**
+     * Usage counter and limit fields of a resource type, with the over-limit message
+     */
+    private enum UsageResource {
+        LEADS("currentLeads", "maxLeads", "Lead limit reached (%d). Upgrade your plan to add more leads."),
+        CONTACTS("currentContacts", "maxContacts", "Contact limit reached (%d). Upgrade your plan."),
+        USERS("currentUsers", "maxUsers", "User limit reached (%d). Upgrade your plan."),
+        ACCOUNTS("currentAccounts", "maxAccounts", "Account limit reached (%d). Upgrade your plan."),
+        OPPORTUNITIES("currentOpportunities", "maxOpportunities", "Opportunity limit reached (%d). Upgrade your plan."),
+        PRODUCTS("currentProducts", "maxProducts", "Product limit reached (%d). Upgrade your plan.");
+
+        private final String usageField;
+        private final String limitField;
+        private final String limitMessage;
+
+        UsageResource(String usageField, String limitField, String limitMessage) {
+            this.usageField = "usage." + usageField;
+            this.limitField = "limits." + limitField;
+            this.limitMessage = limitMessage;
+        }
+
+        static UsageResource of(String resourceType) {
+            try {
+                return resourceType == null ? null : valueOf(resourceType.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Validate resource limit before creation, without reserving capacity.
+     * Creates should prefer reserveUsage, which checks and counts in one atomic update.
      * @param tenantId Organization ID
      * @param resourceType Type of resource (leads, contacts, users, etc.)
      * @throws BusinessException if limit exceeded
      */
     public void validateResourceLimit(String tenantId, String resourceType) {
-        Organization org = organizationRepository.findById(tenantId)
-                .orElseThrow(() -> new ResourceNotFoundException("Organization not found"));
-
-        Organization.UsageLimits limits = org.getLimits();
-        Organization.UsageMetrics usage = org.getUsage();
+        UsageResource resource = UsageResource.of(resourceType);
+        if (resource == null || mongoTemplate.exists(withinLimit(tenantId, resource, 1), Organization.class)) {
+            return;
+        }
+        if (reconcileIfNeeded(tenantId) && mongoTemplate.exists(withinLimit(tenantId, resource, 1), Organization.class)) {
+            return;
+        }
+        UsageReservation rejected = rejected(tenantId, resource);
+        log.warn("Resource limit exceeded for tenant {}: {}", tenantId, rejected.message());
+        throw new BusinessException(rejected.message());
+    }
 
-        if (limits == null || usage == null) {
-            return; // No limits configured
+    /**
+     * Check the limit and count one new resource in a single conditional update
+     * @throws BusinessException if limit exceeded
+     */
+    public void reserveUsage(String tenantId, String resourceType) {
+        UsageReservation reservation = tryReserveUsage(tenantId, resourceType, 1);
+        if (!reservation.reserved()) {
+            log.warn("Resource limit exceeded for tenant {}: {}", tenantId, reservation.message());
+            throw new BusinessException(reservation.message());
         }
+    }
 
-        boolean limitExceeded = false;
-        String errorMessage = "";
-
-        switch (resourceType.toLowerCase()) {
-            case "leads":
-                if (limits.getMaxLeads() != null && usage.getCurrentLeads() != null &&
-                    usage.getCurrentLeads() >= limits.getMaxLeads()) {
-                    limitExceeded = true;
-                    errorMessage = "Lead limit reached (" + limits.getMaxLeads() + "). Upgrade your plan to add more leads.";
-                }
-                break;
-            case "contacts":
-                if (limits.getMaxContacts() != null && usage.getCurrentContacts() != null &&
-                    usage.getCurrentContacts() >= limits.getMaxContacts()) {
-                    limitExceeded = true;
-                    errorMessage = "Contact limit reached (" + limits.getMaxContacts() + "). Upgrade your plan.";
-                }
-                break;
-            case "users":
-                if (limits.getMaxUsers() != null && usage.getCurrentUsers() != null &&
-                    usage.getCurrentUsers() >= limits.getMaxUsers()) {
-                    limitExceeded = true;
-                    errorMessage = "User limit reached (" + limits.getMaxUsers() + "). Upgrade your plan.";
-                }
-                break;
-            case "accounts":
-                if (limits.getMaxAccounts() != null && usage.getCurrentAccounts() != null &&
-                    usage.getCurrentAccounts() >= limits.getMaxAccounts()) {
-                    limitExceeded = true;
-                    errorMessage = "Account limit reached (" + limits.getMaxAccounts() + "). Upgrade your plan.";
-                }
-                break;
-            case "opportunities":
-                if (limits.getMaxOpportunities() != null && usage.getCurrentOpportunities() != null &&
-                    usage.getCurrentOpportunities() >= limits.getMaxOpportunities()) {
-                    limitExceeded = true;
-                    errorMessage = "Opportunity limit reached (" + limits.getMaxOpportunities() + "). Upgrade your plan.";
-                }
-                break;
+    /**
+     * Atomically reserve capacity for amount new resources: the usage counter is incremented only
+     * if it stays within the limit (or no limit is set). Concurrent callers never overshoot the limit.
+     */
+    public UsageReservation tryReserveUsage(String tenantId, String resourceType, int amount) {
+        UsageResource resource = UsageResource.of(resourceType);
+        if (resource == null) {
+            return new UsageReservation(true, null, null, null);
         }
 
-        if (limitExceeded) {
-            log.warn("Resource limit exceeded for tenant {}: {}", tenantId, errorMessage);
-            throw new BusinessException(errorMessage);
+        Organization org = reserve(tenantId, resource, amount);
+        if (org == null && reconcileIfNeeded(tenantId)) {
+            org = reserve(tenantId, resource, amount);
+        }
+        if (org == null) {
+            return rejected(tenantId, resource);
         }
+
+        Integer used = usageOf(org, resource);
+        log.debug("Reserved {} {} for tenant {}: {} in use", amount, resourceType, tenantId, used);
+        return new UsageReservation(true, used, null, null);
+    }
+
+    private Organization reserve(String tenantId, UsageResource resource, int amount) {
+        Query query = withinLimit(tenantId, resource, amount);
+        query.fields().include(resource.usageField);
+        return mongoTemplate.findAndModify(query,
+                new Update().inc(resource.usageField, amount).set("usage.lastCalculated", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), Organization.class);
     }
 
     /**
@@ -246,75 +297,151 @@ public class OrganizationService {
      * @param resourceType Type of resource
      */
     public void incrementUsage(String tenantId, String resourceType) {
-        Organization org = organizationRepository.findById(tenantId)
-                .orElseThrow(() -> new ResourceNotFoundException("Organization not found"));
+        UsageResource resource = UsageResource.of(resourceType);
+        if (resource == null) {
+            return;
+        }
 
-        Organization.UsageMetrics usage = org.getUsage();
-        if (usage == null) {
-            usage = createInitialUsage();
+        UpdateResult result = mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(tenantId)),
+                new Update().inc(resource.usageField, 1).set("usage.lastCalculated", LocalDateTime.now()),
+                Organization.class);
+        if (result.getMatchedCount() == 0) {
+            throw new ResourceNotFoundException("Organization not found");
         }
 
-        switch (resourceType.toLowerCase()) {
-            case "leads":
-                usage.setCurrentLeads((usage.getCurrentLeads() != null ? usage.getCurrentLeads() : 0) + 1);
-                break;
-            case "contacts":
-                usage.setCurrentContacts((usage.getCurrentContacts() != null ? usage.getCurrentContacts() : 0) + 1);
-                break;
-            case "users":
-                usage.setCurrentUsers((usage.getCurrentUsers() != null ? usage.getCurrentUsers() : 0) + 1);
-                break;
-            case "accounts":
-                usage.setCurrentAccounts((usage.getCurrentAccounts() != null ? usage.getCurrentAccounts() : 0) + 1);
-                break;
-            case "opportunities":
-                usage.setCurrentOpportunities((usage.getCurrentOpportunities() != null ? usage.getCurrentOpportunities() : 0) + 1);
-                break;
-            case "products":
-                usage.setCurrentProducts((usage.getCurrentProducts() != null ? usage.getCurrentProducts() : 0) + 1);
-                break;
+        log.debug("Incremented usage for tenant {}: {}", tenantId, resourceType);
+    }
+
+    /**
+     * Decrement usage counter for a resource type (when deleted, or when a create that reserved
+     * it failed); never goes below zero
+     */
+    public void decrementUsage(String tenantId, String resourceType) {
+        releaseUsage(tenantId, resourceType, 1);
+    }
+
+    /**
+     * Decrement usage counter by amount, e.g. for part of a tryReserveUsage batch that was not
+     * written; never goes below zero
+     */
+    public void releaseUsage(String tenantId, String resourceType, int amount) {
+        UsageResource resource = UsageResource.of(resourceType);
+        if (resource == null || amount <= 0) {
+            return;
         }
 
-        usage.setLastCalculated(LocalDateTime.now());
-        org.setUsage(usage);
-        organizationRepository.save(org);
+        UpdateResult result = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(tenantId).and(resource.usageField).gte(amount)),
+                new Update().inc(resource.usageField, -amount).set("usage.lastCalculated", LocalDateTime.now()),
+                Organization.class);
+        if (result.getMatchedCount() == 0) {
+            // Counter drifted below amount; clamp it until the next reconciliation
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(tenantId).and(resource.usageField).gt(0)),
+                    new Update().set(resource.usageField, 0).set("usage.lastCalculated", LocalDateTime.now()),
+                    Organization.class);
+        }
+    }
 
-        log.debug("Incremented usage for tenant {}: {} = {}", tenantId, resourceType, usage);
+    /**
+     * Recompute the usage counters of a tenant from the actual (not deleted) documents.
+     * Corrects drift from creates and deletes that bypassed the counters; a create racing with the
+     * recount may be off by one until the next run.
+     */
+    public Organization.UsageMetrics reconcileUsage(String tenantId) {
+        Organization.UsageMetrics counts = Organization.UsageMetrics.builder()
+                .currentUsers(countActive(tenantId, User.class))
+                .currentLeads(countActive(tenantId, Lead.class))
+                .currentContacts(countActive(tenantId, Contact.class))
+                .currentAccounts(countActive(tenantId, Account.class))
+                .currentOpportunities(countActive(tenantId, Opportunity.class))
+                .currentProducts(countActive(tenantId, Product.class))
+                .lastCalculated(LocalDateTime.now())
+                .build();
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(tenantId)), new Update()
+                        .set(UsageResource.USERS.usageField, counts.getCurrentUsers())
+                        .set(UsageResource.LEADS.usageField, counts.getCurrentLeads())
+                        .set(UsageResource.CONTACTS.usageField, counts.getCurrentContacts())
+                        .set(UsageResource.ACCOUNTS.usageField, counts.getCurrentAccounts())
+                        .set(UsageResource.OPPORTUNITIES.usageField, counts.getCurrentOpportunities())
+                        .set(UsageResource.PRODUCTS.usageField, counts.getCurrentProducts())
+                        .set("usage.lastCalculated", counts.getLastCalculated())
+                        .set("usage.reconciledAt", counts.getLastCalculated()),
+                Organization.class);
+        return counts;
     }
 
     /**
-     * Decrement usage counter for a resource type (when deleted)
+     * Reconcile a tenant whose counters were never recomputed, e.g. one created before usage was
+     * counted, so its limits are not checked against a counter starting at zero. False if it was.
      */
-    public void decrementUsage(String tenantId, String resourceType) {
-        Organization org = organizationRepository.findById(tenantId)
-                .orElseThrow(() -> new ResourceNotFoundException("Organization not found"));
+    private boolean reconcileIfNeeded(String tenantId) {
+        if (mongoTemplate.exists(new Query(Criteria.where("_id").is(tenantId).and("usage.reconciledAt").ne(null)),
+                Organization.class)) {
+            return false;
+        }
+        log.info("Reconciling usage of tenant {} before checking its limits", tenantId);
+        reconcileUsage(tenantId);
+        return true;
+    }
+
+    /**
+     * Organization by id with reconciled counters whose counter plus amount stays within its limit,
+     * or that has no limit
+     */
+    private Query withinLimit(String tenantId, UsageResource resource, int amount) {
+        AggregationExpression fits = context -> new Document("$lte", List.of(
+                new Document("$add", List.of(new Document("$ifNull", List.of("$" + resource.usageField, 0)), amount)),
+                "$" + resource.limitField));
+        return new Query(Criteria.where("_id").is(tenantId).and("usage.reconciledAt").ne(null).orOperator(
+                Criteria.where(resource.limitField).is(null),
+                Criteria.expr(fits)));
+    }
+
+    private UsageReservation rejected(String tenantId, UsageResource resource) {
+        Query query = new Query(Criteria.where("_id").is(tenantId));
+        query.fields().include(resource.usageField, resource.limitField);
+        Organization org = mongoTemplate.findOne(query, Organization.class);
+        if (org == null) {
+            throw new ResourceNotFoundException("Organization not found");
+        }
+        Integer limit = limitOf(org, resource);
+        return new UsageReservation(false, usageOf(org, resource), limit, String.format(resource.limitMessage, limit));
+    }
+
+    private int countActive(String tenantId, Class<?> entityClass) {
+        return (int) mongoTemplate.count(new Query(Criteria.where("tenantId").is(tenantId)
+                .and("isDeleted").ne(true)), entityClass);
+    }
 
+    private Integer usageOf(Organization org, UsageResource resource) {
         Organization.UsageMetrics usage = org.getUsage();
         if (usage == null) {
-            return;
+            return null;
         }
+        return switch (resource) {
+            case LEADS -> usage.getCurrentLeads();
+            case CONTACTS -> usage.getCurrentContacts();
+            case USERS -> usage.getCurrentUsers();
+            case ACCOUNTS -> usage.getCurrentAccounts();
+            case OPPORTUNITIES -> usage.getCurrentOpportunities();
+            case PRODUCTS -> usage.getCurrentProducts();
+        };
+    }
 
-        switch (resourceType.toLowerCase()) {
-            case "leads":
-                usage.setCurrentLeads(Math.max(0, (usage.getCurrentLeads() != null ? usage.getCurrentLeads() : 0) - 1));
-                break;
-            case "contacts":
-                usage.setCurrentContacts(Math.max(0, (usage.getCurrentContacts() != null ? usage.getCurrentContacts() : 0) - 1));
-                break;
-            case "users":
-                usage.setCurrentUsers(Math.max(0, (usage.getCurrentUsers() != null ? usage.getCurrentUsers() : 0) - 1));
-                break;
-            case "accounts":
-                usage.setCurrentAccounts(Math.max(0, (usage.getCurrentAccounts() != null ? usage.getCurrentAccounts() : 0) - 1));
-                break;
-            case "opportunities":
-                usage.setCurrentOpportunities(Math.max(0, (usage.getCurrentOpportunities() != null ? usage.getCurrentOpportunities() : 0) - 1));
-                break;
+    private Integer limitOf(Organization org, UsageResource resource) {
+        Organization.UsageLimits limits = org.getLimits();
+        if (limits == null) {
+            return null;
         }
-
-        usage.setLastCalculated(LocalDateTime.now());
-        org.setUsage(usage);
-        organizationRepository.save(org);
+        return switch (resource) {
+            case LEADS -> limits.getMaxLeads();
+            case CONTACTS -> limits.getMaxContacts();
+            case USERS -> limits.getMaxUsers();
+            case ACCOUNTS -> limits.getMaxAccounts();
+            case OPPORTUNITIES -> limits.getMaxOpportunities();
+            case PRODUCTS -> limits.getMaxProducts();
+        };
     }
 
     // Helper methods
@@ -405,6 +532,7 @@ public class OrganizationService {
                 .currentStorageMB(0L)
                 .apiCallsToday(0)
                 .lastCalculated(LocalDateTime.now())
+                .reconciledAt(LocalDateTime.now())
                 .build();
     }
 
@@ -10,6 +10,7 @@ import com.ultron.backend.repository.ProductRepository;
 import com.ultron.backend.repository.PurchaseOrderRepository;
 import com.ultron.backend.repository.StockTransactionRepository;
 import com.ultron.backend.repository.WorkOrderRepository;
+import com.ultron.backend.service.inventory.StockMovementIndexService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,6 +29,7 @@ public class PartsConsumptionService extends BaseTenantService {
     private final ProductRepository productRepository;
     private final StockTransactionRepository stockTransactionRepository;
     private final PurchaseOrderRepository purchaseOrderRepository;
+    private final StockMovementIndexService stockMovementIndexService;
 
     public void consumePartsOnClosure(String workOrderId, String userId) {
         String tenantId = getCurrentTenantId();
@@ -72,6 +74,7 @@ public class PartsConsumptionService extends BaseTenantService {
                     .recordedBy(userId)
                     .build();
             stockTransactionRepository.save(txn);
+            stockMovementIndexService.record(txn);
 
             if (product.getReorderPoint() != null && newStock <= product.getReorderPoint()) {
                 createDraftReorderPO(product, tenantId, userId);
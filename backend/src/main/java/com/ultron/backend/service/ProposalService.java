@@ -21,6 +21,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +41,9 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ProposalService extends BaseTenantService {
 
+    // Order of non-admin proposal lists when the request does not specify one
+    private static final Sort DEFAULT_LIST_SORT = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id"));
+
     private final ProposalRepository proposalRepository;
     private final ProposalIdGeneratorService proposalIdGeneratorService;
     private final ProposalCalculationService calculationService;
@@ -51,6 +59,7 @@ public class ProposalService extends BaseTenantService {
     private final AuditLogRepository auditLogRepository;
     private final ProposalVersioningService proposalVersioningService;
     private final NotificationService notificationService;
+    private final MongoTemplate mongoTemplate;
 
     @Transactional
     public ProposalResponse createProposal(CreateProposalRequest request, String createdBy) {
@@ -1143,26 +1152,9 @@ public class ProposalService extends BaseTenantService {
                 proposals = proposalRepository.findByTenantIdAndIsDeletedFalse(tenantId);
             }
         } else {
-            String mongoId = getCurrentUserId();
-            // assignedUserId on Lead stores the business userId (USR-...), not the MongoDB _id
-            String businessUserId = userRepository.findById(mongoId)
-                    .map(User::getUserId).orElse(mongoId);
-
-            List<String> assignedLeadIds = leadRepository.findByAssignedUserIdAndTenantIdAndIsDeletedFalse(businessUserId, tenantId)
-                    .stream().map(Lead::getId).collect(Collectors.toList());
-
-            List<Proposal> owned = isProforma != null
-                    ? proposalRepository.findByTenantIdAndOwnerOrCreatedByAndIsProformaAndIsDeletedFalse(tenantId, mongoId, isProforma)
-                    : proposalRepository.findByTenantIdAndOwnerOrCreatedByAndIsDeletedFalse(tenantId, mongoId);
-
-            List<Proposal> fromLeads = assignedLeadIds.isEmpty()
-                    ? List.of()
-                    : proposalRepository.findByLeadIdInAndTenantIdAndIsDeletedFalse(assignedLeadIds, tenantId);
-
-            proposals = java.util.stream.Stream.concat(owned.stream(), fromLeads.stream())
-                    .collect(Collectors.collectingAndThen(
-                            Collectors.toMap(p -> p.getId(), p -> p, (a, b) -> a, java.util.LinkedHashMap::new),
-                            m -> new java.util.ArrayList<>(m.values())));
+            Query query = new Query(visibleProposalsCriteria(tenantId, getCurrentUserId(), isProforma))
+                    .with(DEFAULT_LIST_SORT);
+            proposals = mongoTemplate.find(query, Proposal.class);
         }
 
         return proposals.stream()
@@ -1187,31 +1179,49 @@ public class ProposalService extends BaseTenantService {
                         .map(this::mapToResponse);
             }
         } else {
-            String mongoId = getCurrentUserId();
-            String businessUserId = userRepository.findById(mongoId)
-                    .map(User::getUserId).orElse(mongoId);
-
-            List<String> assignedLeadIds = leadRepository.findByAssignedUserIdAndTenantIdAndIsDeletedFalse(businessUserId, tenantId)
-                    .stream().map(Lead::getId).collect(Collectors.toList());
-
-            List<Proposal> owned = isProforma != null
-                    ? proposalRepository.findByTenantIdAndOwnerOrCreatedByAndIsProformaAndIsDeletedFalse(tenantId, mongoId, isProforma)
-                    : proposalRepository.findByTenantIdAndOwnerOrCreatedByAndIsDeletedFalse(tenantId, mongoId);
-
-            List<Proposal> fromLeads = assignedLeadIds.isEmpty()
-                    ? List.of()
-                    : proposalRepository.findByLeadIdInAndTenantIdAndIsDeletedFalse(assignedLeadIds, tenantId);
-
-            List<ProposalResponse> merged = java.util.stream.Stream.concat(owned.stream(), fromLeads.stream())
-                    .collect(Collectors.collectingAndThen(
-                            Collectors.toMap(p -> p.getId(), p -> p, (a, b) -> a, java.util.LinkedHashMap::new),
-                            m -> m.values().stream().map(this::mapToResponse).collect(Collectors.toList())));
+            Criteria visible = visibleProposalsCriteria(tenantId, getCurrentUserId(), isProforma);
+            Query query = new Query(visible).with(pageable);
+            if (pageable.getSort().isUnsorted()) {
+                query.with(DEFAULT_LIST_SORT);
+            } else if (pageable.getSort().getOrderFor("id") == null && pageable.getSort().getOrderFor("_id") == null) {
+                // Tie-breaker so skip/limit pages neither repeat nor drop proposals with equal sort keys
+                query.with(Sort.by(Sort.Direction.ASC, "_id"));
+            }
+            List<Proposal> page = mongoTemplate.find(query, Proposal.class);
+            return PageableExecutionUtils.getPage(page, pageable, () -> mongoTemplate.count(new Query(visible), Proposal.class))
+                    .map(this::mapToResponse);
+        }
+    }
 
-            int start = (int) pageable.getOffset();
-            int end = Math.min(start + pageable.getPageSize(), merged.size());
-            List<ProposalResponse> page = start >= merged.size() ? List.of() : merged.subList(start, end);
-            return new org.springframework.data.domain.PageImpl<>(page, pageable, merged.size());
+    /**
+     * Proposals a non-admin user may see: owned or created by them (limited to isProforma when
+     * given), or linked to a lead assigned to them. Each $or branch is backed by a
+     * {tenantId, field, isDeleted} index.
+     */
+    Criteria visibleProposalsCriteria(String tenantId, String mongoId, Boolean isProforma) {
+        // assignedUserId on Lead stores the business userId (USR-...), not the MongoDB _id
+        String businessUserId = userRepository.findById(mongoId)
+                .map(User::getUserId).orElse(mongoId);
+        Query assignedLeads = new Query(Criteria.where("tenantId").is(tenantId)
+                .and("assignedUserId").is(businessUserId)
+                .and("isDeleted").is(false));
+        assignedLeads.fields().include("_id");
+        List<String> assignedLeadIds = mongoTemplate.find(assignedLeads, Lead.class).stream()
+                .map(Lead::getId).collect(Collectors.toList());
+
+        List<Criteria> branches = new java.util.ArrayList<>();
+        for (String field : List.of("ownerId", "createdBy")) {
+            Criteria owned = Criteria.where(field).is(mongoId);
+            if (isProforma != null) {
+                owned.and("isProforma").is(isProforma);
+            }
+            branches.add(owned);
+        }
+        if (!assignedLeadIds.isEmpty()) {
+            branches.add(Criteria.where("leadId").in(assignedLeadIds));
         }
+        return Criteria.where("tenantId").is(tenantId).and("isDeleted").is(false)
+                .orOperator(branches.toArray(new Criteria[0]));
     }
 
     public ProposalResponse getProposalById(String id) {
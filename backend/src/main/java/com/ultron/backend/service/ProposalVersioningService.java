@@ -2,64 +2,195 @@ package com.ultron.backend.service;
 
 import com.ultron.backend.domain.entity.Proposal;
 import com.ultron.backend.domain.entity.ProposalVersion;
+import com.ultron.backend.domain.entity.Sequence;
 import com.ultron.backend.dto.response.ProposalVersionResponse;
+import com.ultron.backend.exception.ResourceNotFoundException;
 import com.ultron.backend.repository.ProposalVersionRepository;
 import com.ultron.backend.repository.UserRepository;
+import com.ultron.backend.service.versioning.DocumentDelta;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Proposal version history.
+ *
+ * Every app.proposals.version-keyframe-interval versions the full proposal document is stored as
+ * a keyframe; the versions in between store a field-level delta (DocumentDelta) against the version
+ * they were derived from. Version numbers come from an atomic per-proposal sequence.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProposalVersioningService extends BaseTenantService {
 
+    private static final String VERSIONS_COLLECTION = "proposal_versions";
+
     private final ProposalVersionRepository proposalVersionRepository;
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.proposals.version-keyframe-interval:10}")
+    private int keyframeInterval;
 
     @Transactional
     public void createSnapshot(Proposal proposal, String action, String comment, String userId) {
         String tenantId = getCurrentTenantId();
         log.info("[Tenant: {}] Creating snapshot for proposal: {}, action: {}", tenantId, proposal.getProposalId(), action);
 
-        // Find the latest version number
-        Integer nextVersion = proposalVersionRepository.findFirstByProposalIdAndTenantIdOrderByVersionDesc(proposal.getId(), tenantId)
-                .map(v -> v.getVersion() + 1)
-                .orElse(1);
+        int nextVersion = nextVersion(tenantId, proposal.getId());
+        Document state = toDocument(proposal);
 
-        ProposalVersion version = ProposalVersion.builder()
+        ProposalVersion.ProposalVersionBuilder version = ProposalVersion.builder()
                 .proposalId(proposal.getId())
                 .tenantId(tenantId)
                 .version(nextVersion)
-                .snapshot(proposal) // Mongo will store the full object snapshot
+                .totalAmount(proposal.getTotalAmount())
                 .action(action)
                 .comment(comment)
                 .createdAt(LocalDateTime.now())
                 .createdBy(userId)
-                .createdByName(getUserName(userId))
-                .build();
+                .createdByName(getUserName(userId));
+
+        ProposalVersion previous = latestVersionBefore(tenantId, proposal.getId(), nextVersion);
+        // Legacy full snapshots count as keyframes
+        int chainLength = previous == null ? 0 : (previous.getChainLength() == null ? 0 : previous.getChainLength()) + 1;
+        Document base = previous == null || chainLength >= keyframeInterval
+                ? null
+                : rebuildDocument(tenantId, proposal.getId(), previous.getVersion());
+        if (base == null) {
+            version.state(state).chainLength(0);
+        } else {
+            version.delta(DocumentDelta.diff(base, state)).baseVersion(previous.getVersion()).chainLength(chainLength);
+        }
 
-        proposalVersionRepository.save(version);
+        proposalVersionRepository.save(version.build());
     }
 
+    /**
+     * Version metadata, newest first; snapshots are not included
+     */
     public List<ProposalVersionResponse> getVersionHistory(String proposalId) {
         String tenantId = getCurrentTenantId();
-        return proposalVersionRepository.findByProposalIdAndTenantIdOrderByVersionDesc(proposalId, tenantId)
+        Query query = new Query(Criteria.where("tenantId").is(tenantId).and("proposalId").is(proposalId))
+                .with(Sort.by(Sort.Direction.DESC, "version"));
+        query.fields().include("proposalId", "version", "action", "comment", "createdAt", "createdBy",
+                "createdByName", "totalAmount", "snapshot.totalAmount");
+        return mongoTemplate.find(query, ProposalVersion.class)
                 .stream()
-                .map(this::mapToResponse)
+                .map(this::mapToSummary)
                 .collect(Collectors.toList());
     }
 
     public ProposalVersionResponse getVersion(String proposalId, Integer version) {
         String tenantId = getCurrentTenantId();
-        return proposalVersionRepository.findByProposalIdAndVersionAndTenantId(proposalId, version, tenantId)
-                .map(this::mapToResponse)
-                .orElseThrow(() -> new RuntimeException("Proposal version " + version + " not found"));
+        ProposalVersion proposalVersion = proposalVersionRepository.findByProposalIdAndVersionAndTenantId(proposalId, version, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Proposal version " + version + " not found"));
+        Document state = rebuildDocument(tenantId, proposalId, version);
+        if (state == null) {
+            throw new ResourceNotFoundException("Proposal version " + version + " cannot be rebuilt");
+        }
+        ProposalVersionResponse response = mapToSummary(proposalVersion);
+        response.setSnapshot(mongoTemplate.getConverter().read(Proposal.class, state));
+        return response;
+    }
+
+    /**
+     * The proposal as stored in the proposals collection (without the type key)
+     */
+    Document toDocument(Proposal proposal) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(proposal, document);
+        document.remove("_class");
+        return document;
+    }
+
+    /**
+     * Rebuild the proposal document of a version by replaying deltas from its keyframe; null when
+     * the version or a link of its chain is missing
+     */
+    Document rebuildDocument(String tenantId, String proposalId, int version) {
+        Query query = new Query(Criteria.where("tenantId").is(tenantId).and("proposalId").is(proposalId)
+                .and("version").lte(version))
+                .with(Sort.by(Sort.Direction.DESC, "version"));
+        query.fields().include("version", "baseVersion", "state", "delta", "snapshot");
+
+        // Versions come newest first, so each delta's base is reached after the delta itself
+        Deque<List<Document>> deltas = new ArrayDeque<>();
+        Integer needed = version;
+        Document keyframe = null;
+        try (Stream<Document> versions = mongoTemplate.stream(query, Document.class, VERSIONS_COLLECTION)) {
+            for (Document stored : (Iterable<Document>) versions::iterator) {
+                if (!needed.equals(stored.getInteger("version"))) {
+                    continue;
+                }
+                Document state = stored.get("state", Document.class);
+                if (state == null) {
+                    state = stored.get("snapshot", Document.class);
+                }
+                if (state != null) {
+                    keyframe = state;
+                    break;
+                }
+                deltas.push(stored.getList("delta", Document.class));
+                needed = stored.getInteger("baseVersion");
+                if (needed == null) {
+                    break;
+                }
+            }
+        }
+        if (keyframe == null) {
+            return null;
+        }
+        while (!deltas.isEmpty()) {
+            DocumentDelta.apply(keyframe, deltas.pop());
+        }
+        return keyframe;
+    }
+
+    /**
+     * Allocate the next version number of a proposal. The sequence is seeded from the existing
+     * versions the first time, for proposals versioned before the sequence existed.
+     */
+    private int nextVersion(String tenantId, String proposalId) {
+        Query sequence = new Query(Criteria.where("_id").is("proposal-version:" + tenantId + ":" + proposalId));
+        if (!mongoTemplate.exists(sequence, Sequence.class)) {
+            ProposalVersion latest = latestVersionBefore(tenantId, proposalId, Integer.MAX_VALUE);
+            try {
+                mongoTemplate.upsert(sequence, new Update().setOnInsert("sequence", latest == null ? 0L : latest.getVersion().longValue()), Sequence.class);
+            } catch (DuplicateKeyException e) {
+                // Seeded concurrently
+            }
+        }
+        Sequence next = mongoTemplate.findAndModify(sequence, new Update().inc("sequence", 1L),
+                FindAndModifyOptions.options().returnNew(true), Sequence.class);
+        return next.getSequence().intValue();
+    }
+
+    private ProposalVersion latestVersionBefore(String tenantId, String proposalId, int version) {
+        Query query = new Query(Criteria.where("tenantId").is(tenantId).and("proposalId").is(proposalId)
+                .and("version").lt(version))
+                .with(Sort.by(Sort.Direction.DESC, "version"))
+                .limit(1);
+        query.fields().include("version", "chainLength");
+        return mongoTemplate.findOne(query, ProposalVersion.class);
     }
 
     private String getUserName(String userId) {
@@ -73,14 +204,16 @@ public class ProposalVersioningService extends BaseTenantService {
                 .orElse("Unknown");
     }
 
-    private ProposalVersionResponse mapToResponse(ProposalVersion version) {
+    private ProposalVersionResponse mapToSummary(ProposalVersion version) {
         return ProposalVersionResponse.builder()
                 .id(version.getId())
                 .proposalId(version.getProposalId())
                 .version(version.getVersion())
                 .action(version.getAction())
                 .comment(version.getComment())
-                .snapshot(version.getSnapshot())
+                .totalAmount(version.getTotalAmount() != null || version.getSnapshot() == null
+                        ? version.getTotalAmount()
+                        : version.getSnapshot().getTotalAmount())
                 .createdAt(version.getCreatedAt())
                 .createdBy(version.getCreatedBy())
                 .createdByName(version.getCreatedByName())
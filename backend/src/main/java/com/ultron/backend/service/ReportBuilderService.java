@@ -1,28 +1,59 @@
 package com.ultron.backend.service;
 
+import com.ultron.backend.config.CacheConfig;
 import com.ultron.backend.domain.entity.SavedReport;
 import com.ultron.backend.domain.enums.ReportDataSource;
+import com.ultron.backend.exception.BusinessException;
 import com.ultron.backend.repository.SavedReportRepository;
+import com.ultron.backend.service.export.ExportColumn;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReportBuilderService extends BaseTenantService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final Pattern FIELD_PATTERN = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z0-9_]+)*$");
+    private static final Pattern ALIAS_PATTERN = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*$");
+    private static final AggregationOptions REPORT_OPTIONS = AggregationOptions.builder().allowDiskUse(true).build();
+
     private final SavedReportRepository savedReportRepository;
     private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final TabularExportService tabularExportService;
 
     public SavedReport createReport(SavedReport report) {
         String tenantId = getCurrentTenantId();
@@ -52,6 +83,10 @@ public class ReportBuilderService extends BaseTenantService {
         if (updated.getFilters() != null) existing.setFilters(updated.getFilters());
         if (updated.getColumns() != null) existing.setColumns(updated.getColumns());
         if (updated.getGroupBy() != null) existing.setGroupBy(updated.getGroupBy());
+        if (updated.getMeasures() != null) existing.setMeasures(updated.getMeasures());
+        if (updated.getSortBy() != null) existing.setSortBy(updated.getSortBy());
+        if (updated.getSortDirection() != null) existing.setSortDirection(updated.getSortDirection());
+        if (updated.getLimit() != null) existing.setLimit(updated.getLimit());
         if (updated.getChartType() != null) existing.setChartType(updated.getChartType());
         existing.setScheduled(updated.isScheduled());
         existing.setScheduleFrequency(updated.getScheduleFrequency());
@@ -68,34 +103,209 @@ public class ReportBuilderService extends BaseTenantService {
         savedReportRepository.save(report);
     }
 
-    @SuppressWarnings("unchecked")
-    public List<Map<String, Object>> runReport(String reportId) {
+    /**
+     * Run a report and return one page of its rows.
+     *
+     * Pages are cached per report definition hash for a short time (REPORT_RESULTS_CACHE), so
+     * paging or re-running a report right away does not hit the database again. Many writes
+     * (bulk imports, rescoring, denormalization) bypass entity events and instances do not share
+     * caches, so results are bounded by the expiry rather than tied to a data version.
+     */
+    public Page<Map<String, Object>> runReport(String reportId, int page, int size) {
         SavedReport report = getById(reportId);
         String tenantId = getCurrentTenantId();
-        String collectionName = getCollectionName(report.getDataSource());
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(page, 0);
+
+        CompiledReport compiled = compile(report, tenantId);
+        String cacheKey = tenantId + ":" + compiled.hash();
+        Cache cache = cacheManager.getCache(CacheConfig.REPORT_RESULTS_CACHE);
+
+        Long total = cache != null ? cache.get(cacheKey + ":count", Long.class) : null;
+        if (total == null) {
+            total = countRows(compiled);
+            if (cache != null) cache.put(cacheKey + ":count", total);
+        }
+
+        String pageKey = cacheKey + ":" + pageNumber + ":" + pageSize;
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> rows = cache != null ? cache.get(pageKey, List.class) : null;
+        if (rows == null) {
+            rows = fetchRows(compiled, (long) pageNumber * pageSize, pageSize);
+            if (cache != null) cache.put(pageKey, rows);
+        }
+
+        return new PageImpl<>(rows, PageRequest.of(pageNumber, pageSize), total);
+    }
+
+    /**
+     * Stream every row of a report as CSV or XLSX, bypassing paging and the result cache
+     */
+    public StreamingResponseBody exportReport(String reportId, ExportFormat format) {
+        SavedReport report = getById(reportId);
+        CompiledReport compiled = compile(report, getCurrentTenantId());
+        if (compiled.columns().isEmpty()) {
+            throw new BusinessException("Select the report columns to export");
+        }
+        return tabularExportService.stream(compiled.collectionName(),
+                Aggregation.newAggregation(compiled.pipeline()).withOptions(REPORT_OPTIONS),
+                compiled.columns(), format);
+    }
 
+    /**
+     * Compile a saved report into an aggregation pipeline (without paging stages)
+     */
+    private CompiledReport compile(SavedReport report, String tenantId) {
         List<AggregationOperation> pipeline = new ArrayList<>();
-        pipeline.add(Aggregation.match(Criteria.where("tenantId").is(tenantId).and("isDeleted").is(false)));
 
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("tenantId").is(tenantId).and("isDeleted").is(false));
         if (report.getFilters() != null) {
             for (SavedReport.ReportFilter filter : report.getFilters()) {
                 Criteria c = applyFilter(filter);
-                if (c != null) pipeline.add(Aggregation.match(c));
+                if (c != null) criteria.add(c);
             }
         }
+        pipeline.add(Aggregation.match(new Criteria().andOperator(criteria)));
+
+        List<ExportColumn> columns = new ArrayList<>();
+        Sort.Direction direction = "ASC".equalsIgnoreCase(report.getSortDirection())
+                ? Sort.Direction.ASC : Sort.Direction.DESC;
+        String sortBy = report.getSortBy() != null && !report.getSortBy().isBlank()
+                ? validateField(report.getSortBy()) : null;
 
         if (report.getGroupBy() != null && !report.getGroupBy().isBlank()) {
-            pipeline.add(Aggregation.group(report.getGroupBy()).count().as("count"));
+            String groupBy = validateField(report.getGroupBy());
+            List<SavedReport.ReportMeasure> measures = report.getMeasures() != null ? report.getMeasures() : List.of();
+
+            // Only carry the grouped and measured fields into the group stage
+            Set<String> fields = new LinkedHashSet<>();
+            fields.add(groupBy);
+            measures.forEach(m -> fields.add(validateField(m.getField())));
+            pipeline.add(Aggregation.project(fields.toArray(String[]::new)));
+
+            Set<String> outputFields = new LinkedHashSet<>(List.of("_id", "count"));
+            columns.add(ExportColumn.of("_id", groupBy));
+            columns.add(ExportColumn.of("count", "count"));
+            GroupOperation group = Aggregation.group(groupBy).count().as("count");
+            for (SavedReport.ReportMeasure measure : measures) {
+                String alias = measureAlias(measure);
+                group = applyMeasure(group, measure, alias);
+                outputFields.add(alias);
+                columns.add(ExportColumn.of(alias, alias));
+            }
+            pipeline.add(group);
+
+            // After grouping, the group key is _id and only count and measure aliases exist
+            if (groupBy.equals(sortBy)) {
+                sortBy = "_id";
+            }
+            if (sortBy != null && !outputFields.contains(sortBy)) {
+                throw new BusinessException("Grouped reports can only be sorted by the group, count or a measure: " + sortBy);
+            }
+            pipeline.add(Aggregation.sort(stableSort(sortBy, direction)));
+        } else {
+            // Sort before projecting so the sort can use an index on the source collection
+            pipeline.add(Aggregation.sort(stableSort(sortBy, direction)));
+            if (report.getColumns() != null && !report.getColumns().isEmpty()) {
+                pipeline.add(Aggregation.project(report.getColumns().stream()
+                        .map(this::validateField)
+                        .toArray(String[]::new)).andExclude("_id"));
+                report.getColumns().forEach(column -> columns.add(ExportColumn.of(column, column)));
+            }
+        }
+
+        if (report.getLimit() != null && report.getLimit() > 0) {
+            pipeline.add(Aggregation.limit(report.getLimit()));
         }
 
-        Aggregation agg = Aggregation.newAggregation(pipeline);
-        return mongoTemplate.aggregate(agg, collectionName, Map.class)
+        return new CompiledReport(getCollectionName(report.getDataSource()), pipeline, columns, definitionHash(report));
+    }
+
+    /**
+     * Sort with _id as tie-breaker so skip/limit pages are stable
+     */
+    private Sort stableSort(String sortBy, Sort.Direction direction) {
+        if (sortBy == null) return Sort.by("_id");
+        if (sortBy.equals("_id")) return Sort.by(direction, "_id");
+        return Sort.by(direction, sortBy).and(Sort.by("_id"));
+    }
+
+    private long countRows(CompiledReport compiled) {
+        List<AggregationOperation> pipeline = new ArrayList<>(compiled.pipeline());
+        pipeline.add(Aggregation.count().as("total"));
+        Document result = mongoTemplate.aggregate(
+                Aggregation.newAggregation(pipeline).withOptions(REPORT_OPTIONS),
+                compiled.collectionName(), Document.class).getUniqueMappedResult();
+        return result != null ? ((Number) result.get("total")).longValue() : 0L;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> fetchRows(CompiledReport compiled, long skip, int limit) {
+        List<AggregationOperation> pipeline = new ArrayList<>(compiled.pipeline());
+        pipeline.add(Aggregation.skip(skip));
+        pipeline.add(Aggregation.limit(limit));
+        return mongoTemplate.aggregate(
+                        Aggregation.newAggregation(pipeline).withOptions(REPORT_OPTIONS),
+                        compiled.collectionName(), Map.class)
                 .getMappedResults()
                 .stream()
                 .map(m -> (Map<String, Object>) m)
                 .toList();
     }
 
+    private String measureAlias(SavedReport.ReportMeasure measure) {
+        if (measure.getAlias() != null && !measure.getAlias().isBlank()) {
+            return validateAlias(measure.getAlias());
+        }
+        return measureFunction(measure) + "_" + measure.getField().replace('.', '_');
+    }
+
+    private String measureFunction(SavedReport.ReportMeasure measure) {
+        return measure.getFunction() != null ? measure.getFunction().toLowerCase() : "sum";
+    }
+
+    private GroupOperation applyMeasure(GroupOperation group, SavedReport.ReportMeasure measure, String alias) {
+        String field = measure.getField();
+        return switch (measureFunction(measure)) {
+            case "sum" -> group.sum(field).as(alias);
+            case "avg" -> group.avg(field).as(alias);
+            case "min" -> group.min(field).as(alias);
+            case "max" -> group.max(field).as(alias);
+            default -> throw new BusinessException("Unsupported report measure: " + measure.getFunction());
+        };
+    }
+
+    /**
+     * Stable hash of everything that affects a report's result
+     */
+    private String definitionHash(SavedReport report) {
+        String definition = String.join("|",
+                String.valueOf(report.getDataSource()),
+                String.valueOf(report.getFilters()),
+                String.valueOf(report.getColumns()),
+                String.valueOf(report.getGroupBy()),
+                String.valueOf(report.getMeasures()),
+                String.valueOf(report.getSortBy()),
+                String.valueOf(report.getSortDirection()),
+                String.valueOf(report.getLimit()));
+        return DigestUtils.md5DigestAsHex(definition.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String validateField(String field) {
+        if (field == null || !FIELD_PATTERN.matcher(field).matches()) {
+            throw new BusinessException("Invalid report field: " + field);
+        }
+        return field;
+    }
+
+    private String validateAlias(String alias) {
+        if (!ALIAS_PATTERN.matcher(alias).matches()) {
+            throw new BusinessException("Invalid report measure alias: " + alias);
+        }
+        return alias;
+    }
+
     private String getCollectionName(ReportDataSource source) {
         if (source == null) return "leads";
         return switch (source) {
@@ -110,11 +320,45 @@ public class ReportBuilderService extends BaseTenantService {
 
     private Criteria applyFilter(SavedReport.ReportFilter filter) {
         if (filter.getField() == null || filter.getValue() == null) return null;
+        String field = validateField(filter.getField());
         return switch (filter.getOperator() != null ? filter.getOperator() : "eq") {
-            case "eq" -> Criteria.where(filter.getField()).is(filter.getValue());
-            case "ne" -> Criteria.where(filter.getField()).ne(filter.getValue());
-            case "contains" -> Criteria.where(filter.getField()).regex(filter.getValue(), "i");
-            default -> Criteria.where(filter.getField()).is(filter.getValue());
+            case "eq" -> Criteria.where(field).is(filter.getValue());
+            case "ne" -> Criteria.where(field).ne(filter.getValue());
+            case "contains" -> Criteria.where(field).regex(filter.getValue(), "i");
+            case "gt" -> Criteria.where(field).gt(toRangeValue(filter.getValue()));
+            case "gte" -> Criteria.where(field).gte(toRangeValue(filter.getValue()));
+            case "lt" -> Criteria.where(field).lt(toRangeValue(filter.getValue()));
+            case "lte" -> Criteria.where(field).lte(toRangeValue(filter.getValue()));
+            case "in" -> Criteria.where(field).in(Arrays.stream(filter.getValue().split(","))
+                    .map(String::trim)
+                    .toList());
+            default -> Criteria.where(field).is(filter.getValue());
         };
     }
+
+    /**
+     * Interpret a range filter value as a number or ISO date/date-time when possible,
+     * converted the same way entity fields are stored
+     */
+    private Object toRangeValue(String value) {
+        Object parsed = value;
+        try {
+            parsed = new BigDecimal(value).doubleValue();
+        } catch (NumberFormatException e) {
+            try {
+                parsed = LocalDateTime.parse(value);
+            } catch (DateTimeParseException e2) {
+                try {
+                    parsed = LocalDate.parse(value).atStartOfDay();
+                } catch (DateTimeParseException ignored) {
+                    // keep as string
+                }
+            }
+        }
+        return mongoTemplate.getConverter().convertToMongoType(parsed);
+    }
+
+    private record CompiledReport(String collectionName, List<AggregationOperation> pipeline,
+                                  List<ExportColumn> columns, String hash) {
+    }
 }
@@ -1,131 +1,78 @@
 package com.ultron.backend.service;
 
-import com.ultron.backend.domain.entity.WorkOrder;
-import com.ultron.backend.domain.enums.WorkOrderStatus;
-import com.ultron.backend.repository.WorkOrderRepository;
+import com.ultron.backend.config.CacheConfig;
+import com.ultron.backend.domain.entity.WorkOrderKpiStats;
 import com.ultron.backend.repository.PartsRequestRepository;
 import com.ultron.backend.domain.enums.PartsRequestStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ServiceAnalyticsService extends BaseTenantService {
 
-    private final WorkOrderRepository workOrderRepository;
+    private final WorkOrderKpiService workOrderKpiService;
+    private final MongoTemplate mongoTemplate;
     private final PartsRequestRepository partsRequestRepository;
 
-    @Cacheable(value = "serviceKpis", key = "#root.target.getCurrentTenantId()")
+    @Cacheable(value = CacheConfig.SERVICE_KPIS_CACHE, key = "#root.target.getCurrentTenantId()")
     public Map<String, Object> getKpiSummary() {
         String tenantId = getCurrentTenantId();
-        List<WorkOrder> all = workOrderRepository.findByTenantIdAndIsDeletedFalse(tenantId);
-
-        List<WorkOrder> completed = all.stream()
-                .filter(w -> w.getStatus() == WorkOrderStatus.COMPLETED || w.getStatus() == WorkOrderStatus.REOPENED)
-                .collect(Collectors.toList());
-
-        // MTTR
-        double mttrHours = completed.stream()
-                .filter(w -> w.getActualStartTime() != null && w.getActualEndTime() != null)
-                .mapToLong(w -> Duration.between(w.getActualStartTime(), w.getActualEndTime()).toMinutes())
-                .average().orElse(0) / 60.0;
-
-        // First Time Fix Rate
-        long closedWithoutReopen = completed.stream()
-                .filter(w -> w.getStatus() == WorkOrderStatus.COMPLETED
-                        && (w.getReopenCount() == null || w.getReopenCount() == 0))
-                .count();
-        double ftfr = completed.isEmpty() ? 0 : (double) closedWithoutReopen / completed.size() * 100;
-
-        // SLA Compliance Rate
-        long withinSla = completed.stream()
-                .filter(w -> !w.isSlaBreached()).count();
-        double slaCompliance = completed.isEmpty() ? 0 : (double) withinSla / completed.size() * 100;
-
-        // Repeat Visit Rate (same asset within 30 days of previous close)
-        long repeatVisits = completed.stream()
-                .filter(w -> w.getAssetId() != null)
-                .collect(Collectors.groupingBy(WorkOrder::getAssetId))
-                .values().stream()
-                .mapToLong(list -> {
-                    list.sort(Comparator.comparing(WorkOrder::getCreatedAt));
-                    long repeats = 0;
-                    for (int i = 1; i < list.size(); i++) {
-                        WorkOrder prev = list.get(i - 1);
-                        WorkOrder curr = list.get(i);
-                        if (prev.getActualEndTime() != null && curr.getCreatedAt() != null
-                                && Duration.between(prev.getActualEndTime(), curr.getCreatedAt()).toDays() <= 30) {
-                            repeats++;
-                        }
-                    }
-                    return repeats;
-                }).sum();
-        double repeatVisitRate = completed.isEmpty() ? 0 : (double) repeatVisits / completed.size() * 100;
-
-        // Open WO aging buckets
-        LocalDateTime now = LocalDateTime.now();
-        List<WorkOrder> open = all.stream()
-                .filter(w -> w.getStatus() != WorkOrderStatus.COMPLETED
-                        && w.getStatus() != WorkOrderStatus.CANCELLED
-                        && w.getStatus() != WorkOrderStatus.REOPENED)
-                .collect(Collectors.toList());
+        WorkOrderKpiStats stats = workOrderKpiService.getStats(tenantId);
+        long completed = stats.getCompletedCount();
 
-        Map<String, Long> agingBuckets = new LinkedHashMap<>();
-        agingBuckets.put("0-4h", open.stream().filter(w -> hours(w, now) <= 4).count());
-        agingBuckets.put("4-8h", open.stream().filter(w -> hours(w, now) > 4 && hours(w, now) <= 8).count());
-        agingBuckets.put("8-24h", open.stream().filter(w -> hours(w, now) > 8 && hours(w, now) <= 24).count());
-        agingBuckets.put("24h+", open.stream().filter(w -> hours(w, now) > 24).count());
+        double mttrHours = stats.getTimedRepairCount() == 0 ? 0
+                : (double) stats.getRepairMinutesTotal() / stats.getTimedRepairCount() / 60.0;
+        double ftfr = percentage(stats.getFirstTimeFixCount(), completed);
+        double slaCompliance = percentage(stats.getWithinSlaCount(), completed);
+        double repeatVisitRate = percentage(stats.getRepeatVisitCount(), completed);
 
-        // Engineer productivity (WOs completed per engineer)
-        Map<String, Long> engineerProductivity = completed.stream()
-                .filter(w -> w.getAssignedEngineerIds() != null)
-                .flatMap(w -> w.getAssignedEngineerIds().stream().map(e -> Map.entry(e, w)))
-                .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.counting()));
+        long totalOpen = stats.getByStatus().entrySet().stream()
+                .filter(e -> WorkOrderKpiService.CLOSED_STATUSES.stream().noneMatch(s -> s.name().equals(e.getKey())))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
 
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("mttrHours", Math.round(mttrHours * 10.0) / 10.0);
         result.put("firstTimeFixRatePct", Math.round(ftfr * 10.0) / 10.0);
         result.put("slaComplianceRatePct", Math.round(slaCompliance * 10.0) / 10.0);
         result.put("repeatVisitRatePct", Math.round(repeatVisitRate * 10.0) / 10.0);
-        result.put("totalOpenWOs", open.size());
-        result.put("totalCompletedWOs", completed.size());
-        result.put("openWOAgingBuckets", agingBuckets);
-        result.put("engineerProductivity", engineerProductivity);
+        result.put("totalOpenWOs", totalOpen);
+        result.put("totalCompletedWOs", completed);
+        result.put("openWOAgingBuckets", getOpenAgingBuckets(tenantId));
+        result.put("engineerProductivity", positive(stats.getEngineerCompleted()));
         return result;
     }
 
-    @Cacheable(value = "serviceKpis", key = "#root.target.getCurrentTenantId() + '_volume'")
+    @Cacheable(value = CacheConfig.SERVICE_KPIS_CACHE, key = "#root.target.getCurrentTenantId() + '_volume'")
     public Map<String, Object> getVolumeByTypeAndPriority() {
-        String tenantId = getCurrentTenantId();
-        List<WorkOrder> all = workOrderRepository.findByTenantIdAndIsDeletedFalse(tenantId);
-
-        Map<String, Long> byType = all.stream()
-                .filter(w -> w.getType() != null)
-                .collect(Collectors.groupingBy(w -> w.getType().name(), Collectors.counting()));
-
-        Map<String, Long> byPriority = all.stream()
-                .filter(w -> w.getPriority() != null)
-                .collect(Collectors.groupingBy(w -> w.getPriority().name(), Collectors.counting()));
-
-        Map<String, Long> byStatus = all.stream()
-                .filter(w -> w.getStatus() != null)
-                .collect(Collectors.groupingBy(w -> w.getStatus().name(), Collectors.counting()));
+        WorkOrderKpiStats stats = workOrderKpiService.getStats(getCurrentTenantId());
 
         Map<String, Object> result = new LinkedHashMap<>();
-        result.put("byType", byType);
-        result.put("byPriority", byPriority);
-        result.put("byStatus", byStatus);
+        result.put("byType", positive(stats.getByType()));
+        result.put("byPriority", positive(stats.getByPriority()));
+        result.put("byStatus", positive(stats.getByStatus()));
         return result;
     }
 
+    /**
+     * Rebuild the current tenant's work order KPI counters from work_orders
+     */
+    @CacheEvict(value = CacheConfig.SERVICE_KPIS_CACHE, allEntries = true)
+    public WorkOrderKpiStats rebuildKpis() {
+        return workOrderKpiService.rebuild(getCurrentTenantId());
+    }
+
     public Map<String, Object> getPartsAvailabilityRate() {
         String tenantId = getCurrentTenantId();
         List<com.ultron.backend.domain.entity.PartsRequest> all =
@@ -148,8 +95,48 @@ public class ServiceAnalyticsService extends BaseTenantService {
         return result;
     }
 
-    private long hours(WorkOrder w, LocalDateTime now) {
-        if (w.getCreatedAt() == null) return 0;
-        return Duration.between(w.getCreatedAt(), now).toHours();
+    /**
+     * Age of open WOs in whole hours since creation, bucketed in one aggregation over open WOs only
+     */
+    private Map<String, Long> getOpenAgingBuckets(String tenantId) {
+        LocalDateTime now = LocalDateTime.now();
+        Document age = new Document("$switch", new Document("branches", List.of(
+                        new Document("case", new Document("$ne", List.of(new Document("$type", "$createdAt"), "date")))
+                                .append("then", "0-4h"),
+                        agingBranch(now.minusHours(5), "0-4h"),
+                        agingBranch(now.minusHours(9), "4-8h"),
+                        agingBranch(now.minusHours(25), "8-24h")))
+                .append("default", "24h+"));
+
+        Map<String, Long> agingBuckets = new LinkedHashMap<>();
+        List.of("0-4h", "4-8h", "8-24h", "24h+").forEach(bucket -> agingBuckets.put(bucket, 0L));
+        mongoTemplate.getCollection("work_orders").aggregate(List.of(
+                        new Document("$match", new Document("tenantId", tenantId)
+                                .append("isDeleted", false)
+                                .append("status", new Document("$nin",
+                                        WorkOrderKpiService.CLOSED_STATUSES.stream().map(Enum::name).toList()))),
+                        new Document("$group", new Document("_id", age).append("count", new Document("$sum", 1)))))
+                .forEach(bucket -> agingBuckets.put(bucket.getString("_id"), ((Number) bucket.get("count")).longValue()));
+        return agingBuckets;
+    }
+
+    private Document agingBranch(LocalDateTime createdAfter, String bucket) {
+        return new Document("case", new Document("$gt", List.of("$createdAt",
+                        mongoTemplate.getConverter().convertToMongoType(createdAfter))))
+                .append("then", bucket);
+    }
+
+    private double percentage(long part, long total) {
+        return total == 0 ? 0 : (double) part / total * 100;
+    }
+
+    private Map<String, Long> positive(Map<String, Long> counts) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counts.forEach((key, count) -> {
+            if (count != null && count > 0) {
+                result.put(key, count);
+            }
+        });
+        return result;
     }
 }
@@ -32,6 +32,7 @@ public class ShiftService extends BaseTenantService {
     private final ShiftRepository shiftRepository;
     private final ShiftIdGeneratorService idGenerator;
     private final UserShiftAssignmentRepository userShiftAssignmentRepository;
+    private final AttendanceRosterService attendanceRosterService;
 
     /**
      * Create new shift
@@ -85,6 +86,7 @@ public class ShiftService extends BaseTenantService {
             .build();
 
         shift = shiftRepository.save(shift);
+        attendanceRosterService.invalidate(tenantId);
 
         log.info("✅ Shift created: {} ({})", shift.getName(), shift.getShiftId());
 
@@ -145,6 +147,7 @@ public class ShiftService extends BaseTenantService {
         shift.setLastModifiedBy(userId);
 
         shift = shiftRepository.save(shift);
+        attendanceRosterService.invalidate(tenantId);
 
         log.info("✅ Shift updated: {} ({})", shift.getName(), shift.getShiftId());
 
@@ -172,6 +175,7 @@ public class ShiftService extends BaseTenantService {
         shift.setLastModifiedBy(userId);
 
         shiftRepository.save(shift);
+        attendanceRosterService.invalidate(shift.getTenantId());
 
         log.info("✅ Shift deleted: {} ({})", shift.getName(), shift.getShiftId());
     }
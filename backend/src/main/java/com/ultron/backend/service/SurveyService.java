@@ -2,6 +2,7 @@ package com.ultron.backend.service;
 
 import com.ultron.backend.domain.entity.Survey;
 import com.ultron.backend.domain.entity.SurveyResponse;
+import com.ultron.backend.domain.entity.SurveyTally;
 import com.ultron.backend.repository.SurveyRepository;
 import com.ultron.backend.repository.SurveyResponseRepository;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -21,6 +23,7 @@ public class SurveyService extends BaseTenantService {
 
     private final SurveyRepository surveyRepository;
     private final SurveyResponseRepository surveyResponseRepository;
+    private final SurveyTallyService surveyTallyService;
 
     public Survey createSurvey(Survey survey) {
         String tenantId = getCurrentTenantId();
@@ -37,7 +40,9 @@ public class SurveyService extends BaseTenantService {
                 if (q.getQuestionId() == null) q.setQuestionId(UUID.randomUUID().toString());
             });
         }
-        return surveyRepository.save(survey);
+        Survey saved = surveyRepository.save(survey);
+        surveyTallyService.initialize(saved);
+        return saved;
     }
 
     public List<Survey> getAll() {
@@ -59,7 +64,12 @@ public class SurveyService extends BaseTenantService {
         existing.setAnonymous(updated.isAnonymous());
         existing.setUpdatedAt(LocalDateTime.now());
         existing.setUpdatedBy(getCurrentUserId());
-        return surveyRepository.save(existing);
+        Survey saved = surveyRepository.save(existing);
+        if (updated.getQuestions() != null) {
+            // Question types decide which answers get numeric summaries, so recount existing responses
+            surveyTallyService.scheduleRebuild(saved);
+        }
+        return saved;
     }
 
     public void deleteSurvey(String surveyId) {
@@ -70,35 +80,50 @@ public class SurveyService extends BaseTenantService {
     }
 
     public SurveyResponse submitResponse(String surveyId, List<SurveyResponse.Answer> answers, boolean anonymous) {
-        String tenantId = getCurrentTenantId();
+        Survey survey = getById(surveyId);
         String respondentId = anonymous ? null : getCurrentUserId();
         SurveyResponse response = SurveyResponse.builder()
                 .surveyId(surveyId)
-                .tenantId(tenantId)
+                .tenantId(survey.getTenantId())
                 .respondentId(respondentId)
                 .answers(answers)
                 .submittedAt(LocalDateTime.now())
                 .build();
-        return surveyResponseRepository.save(response);
+        long epoch = surveyTallyService.rebuildEpoch(survey);
+        SurveyResponse saved = surveyResponseRepository.save(response);
+        surveyTallyService.record(survey, saved, epoch);
+        return saved;
     }
 
+    /**
+     * Results read from the survey's tally document: answer counts per question and value, and
+     * count / mean / min / max / standard deviation of RATING and NPS answers
+     */
     public Map<String, Object> getResults(String surveyId) {
         Survey survey = getById(surveyId);
-        List<SurveyResponse> responses = surveyResponseRepository.findBySurveyIdAndTenantId(surveyId, getCurrentTenantId());
+        SurveyTally tally = surveyTallyService.get(survey);
 
-        Map<String, Map<String, Integer>> tallies = new HashMap<>();
-        for (SurveyResponse resp : responses) {
-            if (resp.getAnswers() == null) continue;
-            for (SurveyResponse.Answer answer : resp.getAnswers()) {
-                tallies.computeIfAbsent(answer.getQuestionId(), k -> new HashMap<>())
-                        .merge(answer.getValue() != null ? answer.getValue() : "", 1, Integer::sum);
+        Map<String, Map<String, Object>> summaries = new HashMap<>();
+        SurveyTallyService.decodeNumeric(tally).forEach((questionId, numeric) -> {
+            if (numeric.getCount() == 0) {
+                return;
             }
-        }
+            double mean = numeric.getSum() / numeric.getCount();
+            double variance = Math.max(0, numeric.getSumOfSquares() / numeric.getCount() - mean * mean);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", numeric.getCount());
+            summary.put("mean", mean);
+            summary.put("min", numeric.getMin());
+            summary.put("max", numeric.getMax());
+            summary.put("stdDev", Math.sqrt(variance));
+            summaries.put(questionId, summary);
+        });
 
         Map<String, Object> result = new HashMap<>();
         result.put("survey", survey);
-        result.put("totalResponses", responses.size());
-        result.put("tallies", tallies);
+        result.put("totalResponses", tally != null ? tally.getTotalResponses() : 0);
+        result.put("tallies", SurveyTallyService.decodeCounts(tally));
+        result.put("summaries", summaries);
         return result;
     }
 }
@@ -0,0 +1,386 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.Survey;
+import com.ultron.backend.domain.entity.SurveyResponse;
+import com.ultron.backend.domain.entity.SurveyTally;
+import com.ultron.backend.domain.enums.SurveyQuestionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains per-survey answer tallies so results are read from one document.
+ *
+ * Each submitted response is added to its tally with a single atomic update ($inc / $min / $max).
+ * A rebuild recounts the responses and replaces the tally unless a response was counted meanwhile,
+ * in which case it recounts again. Tallies are rebuilt when a survey's questions are edited, when
+ * none exists yet for a survey with responses, when the first tallied response finds older ones,
+ * and by a periodic sweep of tallies marked stale; reads rebuild a stale tally first.
+ *
+ * rebuildEpoch is bumped when a rebuild starts and again when it replaces the tally. A submission
+ * reads it before saving its response and gets it back from its own update: if it changed, a rebuild
+ * may have recounted the response before its update landed, so the tally is marked stale.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SurveyTallyService {
+
+    private static final String COLLECTION = "survey_tallies";
+    private static final Set<SurveyQuestionType> NUMERIC_TYPES = EnumSet.of(SurveyQuestionType.RATING, SurveyQuestionType.NPS);
+    private static final int MAX_REBUILD_ATTEMPTS = 5;
+    private static final int STALE_SWEEP_BATCH = 100;
+    private static final FindAndModifyOptions UPSERT = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startExecutor() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Create the empty tally of a new survey, so its first response is not mistaken for the first
+     * tallied response of a survey answered before tallies were kept
+     */
+    public void initialize(Survey survey) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            mongoTemplate.insert(SurveyTally.builder()
+                    .id(tallyId(survey.getTenantId(), survey.getSurveyId()))
+                    .tenantId(survey.getTenantId())
+                    .surveyId(survey.getSurveyId())
+                    .rebuiltAt(now)
+                    .updatedAt(now)
+                    .build());
+        } catch (DuplicateKeyException e) {
+            // Already created
+        }
+    }
+
+    /**
+     * The survey's current rebuild epoch; read before saving a response and passed to record
+     */
+    public long rebuildEpoch(Survey survey) {
+        Query query = byId(survey.getTenantId(), survey.getSurveyId());
+        query.fields().include("rebuildEpoch");
+        Document tally = mongoTemplate.findOne(query, Document.class, COLLECTION);
+        return epochOf(tally);
+    }
+
+    /**
+     * Add a saved response to its survey's tally. Failures are logged and never fail the
+     * submission; the tally is marked stale so a rebuild corrects it.
+     *
+     * @param epochBeforeSave rebuildEpoch read before the response was saved
+     */
+    public void record(Survey survey, SurveyResponse response, long epochBeforeSave) {
+        Tally delta = new Tally(numericQuestionIds(survey));
+        delta.add(response.getAnswers());
+
+        Update update = new Update()
+                .inc("totalResponses", 1)
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now())
+                .setOnInsert("surveyId", survey.getSurveyId())
+                .setOnInsert("stale", false);
+        delta.counts.forEach((question, values) ->
+                values.forEach((value, count) -> update.inc("counts." + question + "." + value, count)));
+        delta.numeric.forEach((question, summary) -> {
+            String prefix = "numeric." + question + ".";
+            update.inc(prefix + "count", summary.getCount())
+                    .inc(prefix + "sum", summary.getSum())
+                    .inc(prefix + "sumOfSquares", summary.getSumOfSquares())
+                    .min(prefix + "min", summary.getMin())
+                    .max(prefix + "max", summary.getMax());
+        });
+
+        Query query = byId(survey.getTenantId(), survey.getSurveyId());
+        query.fields().include("rebuildEpoch").include("totalResponses").include("rebuiltAt");
+        Document tally;
+        try {
+            try {
+                tally = mongoTemplate.findAndModify(query, update, UPSERT, Document.class, COLLECTION);
+            } catch (DuplicateKeyException e) {
+                // A concurrent first response created the tally; it now exists
+                tally = mongoTemplate.findAndModify(query, update, UPSERT, Document.class, COLLECTION);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to update tally of survey {}: {}", survey.getSurveyId(), e.getMessage());
+            scheduleRebuild(survey);
+            return;
+        }
+
+        if (epochOf(tally) != epochBeforeSave) {
+            log.info("Rebuild of survey {} overlapped a submission; recounting", survey.getSurveyId());
+            scheduleRebuild(survey);
+        } else if (tally != null && tally.get("rebuiltAt") == null
+                && ((Number) tally.get("totalResponses")).longValue() == 1 && hasOtherResponses(survey, response)) {
+            // First tallied response of a survey that had responses before tallies were kept
+            scheduleRebuild(survey);
+        }
+    }
+
+    /**
+     * The survey's tally, rebuilt first when none exists yet or it is stale
+     */
+    public SurveyTally get(Survey survey) {
+        SurveyTally tally = mongoTemplate.findOne(byId(survey.getTenantId(), survey.getSurveyId()), SurveyTally.class);
+        if (tally != null && !tally.isStale()) {
+            return tally;
+        }
+        SurveyTally rebuilt = rebuild(survey);
+        return rebuilt != null ? rebuilt
+                : mongoTemplate.findOne(byId(survey.getTenantId(), survey.getSurveyId()), SurveyTally.class);
+    }
+
+    /**
+     * Mark the survey's tally stale and rebuild it in the background
+     */
+    public void scheduleRebuild(Survey survey) {
+        markStale(survey.getTenantId(), survey.getSurveyId());
+        executor.submit(() -> {
+            try {
+                rebuild(survey);
+            } catch (Exception e) {
+                log.error("Failed to rebuild tally of survey {}: {}", survey.getSurveyId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Recount the survey's responses into its tally. Returns null when responses kept arriving
+     * through every attempt; the tally then stays stale for the next sweep.
+     */
+    public SurveyTally rebuild(Survey survey) {
+        String tenantId = survey.getTenantId();
+        String surveyId = survey.getSurveyId();
+        for (int attempt = 1; attempt <= MAX_REBUILD_ATTEMPTS; attempt++) {
+            // Announce the rebuild before recounting so overlapping submissions can tell
+            SurveyTally live = mongoTemplate.findAndModify(byId(tenantId, surveyId),
+                    new Update().inc("rebuildEpoch", 1), FindAndModifyOptions.options().returnNew(true), SurveyTally.class);
+            Tally recount = recount(survey);
+
+            LocalDateTime now = LocalDateTime.now();
+            SurveyTally rebuilt = SurveyTally.builder()
+                    .id(tallyId(tenantId, surveyId))
+                    .tenantId(tenantId)
+                    .surveyId(surveyId)
+                    .totalResponses(recount.responses)
+                    .counts(recount.counts)
+                    .numeric(recount.numeric)
+                    .version(live != null ? live.getVersion() : 0)
+                    .rebuildEpoch(live != null ? live.getRebuildEpoch() + 1 : 1)
+                    .stale(false)
+                    .rebuiltAt(now)
+                    .updatedAt(now)
+                    .build();
+
+            if (live == null) {
+                try {
+                    return mongoTemplate.insert(rebuilt);
+                } catch (DuplicateKeyException e) {
+                    continue;
+                }
+            }
+            // Replace only if no response was counted and no other rebuild started meanwhile
+            Query unchanged = new Query(Criteria.where("_id").is(rebuilt.getId())
+                    .and("tenantId").is(tenantId)
+                    .and("version").is(live.getVersion())
+                    .and("rebuildEpoch").is(live.getRebuildEpoch()));
+            if (mongoTemplate.findAndReplace(unchanged, rebuilt) != null) {
+                log.info("Rebuilt tally of survey {} from {} responses", surveyId, recount.responses);
+                return rebuilt;
+            }
+        }
+        log.warn("Tally of survey {} changed during {} rebuild attempts; leaving it stale", surveyId, MAX_REBUILD_ATTEMPTS);
+        markStale(tenantId, surveyId);
+        return null;
+    }
+
+    /**
+     * Rebuild tallies still marked stale, e.g. when the server stopped before a scheduled rebuild ran
+     */
+    @Scheduled(fixedDelayString = "${app.surveys.tally-rebuild-ms:300000}")
+    public void rebuildStaleTallies() {
+        Query stale = new Query(Criteria.where("stale").is(true)).limit(STALE_SWEEP_BATCH);
+        stale.fields().include("tenantId").include("surveyId");
+        for (SurveyTally tally : mongoTemplate.find(stale, SurveyTally.class, COLLECTION)) {
+            try {
+                Survey survey = mongoTemplate.findOne(new Query(Criteria.where("tenantId").is(tally.getTenantId())
+                        .and("surveyId").is(tally.getSurveyId())), Survey.class);
+                if (survey == null) {
+                    mongoTemplate.remove(byId(tally.getTenantId(), tally.getSurveyId()), COLLECTION);
+                } else {
+                    rebuild(survey);
+                }
+            } catch (Exception e) {
+                log.error("Failed to rebuild tally of survey {}: {}", tally.getSurveyId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Answer counts keyed by question id and answer value, as getResults has always returned them
+     */
+    public static Map<String, Map<String, Long>> decodeCounts(SurveyTally tally) {
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        if (tally != null && tally.getCounts() != null) {
+            tally.getCounts().forEach((question, values) -> counts.put(decodeKey(question),
+                    values.entrySet().stream().collect(Collectors.toMap(e -> decodeKey(e.getKey()), Map.Entry::getValue))));
+        }
+        return counts;
+    }
+
+    /**
+     * Numeric summaries keyed by question id
+     */
+    public static Map<String, SurveyTally.NumericSummary> decodeNumeric(SurveyTally tally) {
+        Map<String, SurveyTally.NumericSummary> numeric = new HashMap<>();
+        if (tally != null && tally.getNumeric() != null) {
+            tally.getNumeric().forEach((question, summary) -> numeric.put(decodeKey(question), summary));
+        }
+        return numeric;
+    }
+
+    /**
+     * Make a question id or answer value usable as a field name: '%', '.' and '$' are escaped
+     * and the empty string (also used for null) becomes a lone '%', which no other value encodes to
+     */
+    static String encodeKey(String key) {
+        if (key == null || key.isEmpty()) {
+            return "%";
+        }
+        return key.replace("%", "%25").replace(".", "%2E").replace("$", "%24");
+    }
+
+    static String decodeKey(String key) {
+        if (key.equals("%")) {
+            return "";
+        }
+        return key.replace("%2E", ".").replace("%24", "$").replace("%25", "%");
+    }
+
+    private Tally recount(Survey survey) {
+        Tally tally = new Tally(numericQuestionIds(survey));
+        Query query = new Query(Criteria.where("tenantId").is(survey.getTenantId()).and("surveyId").is(survey.getSurveyId()));
+        query.fields().include("answers");
+        try (Stream<SurveyResponse> responses = mongoTemplate.stream(query, SurveyResponse.class)) {
+            responses.forEach(response -> tally.add(response.getAnswers()));
+        }
+        return tally;
+    }
+
+    private boolean hasOtherResponses(Survey survey, SurveyResponse response) {
+        return mongoTemplate.exists(new Query(Criteria.where("tenantId").is(survey.getTenantId())
+                .and("surveyId").is(survey.getSurveyId())
+                .and("_id").ne(response.getId())), SurveyResponse.class);
+    }
+
+    private static long epochOf(Document tally) {
+        Object epoch = tally != null ? tally.get("rebuildEpoch") : null;
+        return epoch instanceof Number number ? number.longValue() : 0;
+    }
+
+    private void markStale(String tenantId, String surveyId) {
+        try {
+            mongoTemplate.updateFirst(byId(tenantId, surveyId), new Update().set("stale", true).inc("version", 1), COLLECTION);
+        } catch (Exception e) {
+            log.error("Failed to mark tally of survey {} stale: {}", surveyId, e.getMessage());
+        }
+    }
+
+    private static Set<String> numericQuestionIds(Survey survey) {
+        if (survey.getQuestions() == null) {
+            return Set.of();
+        }
+        return survey.getQuestions().stream()
+                .filter(q -> q.getQuestionId() != null && NUMERIC_TYPES.contains(q.getType()))
+                .map(Survey.SurveyQuestion::getQuestionId)
+                .collect(Collectors.toSet());
+    }
+
+    private static Query byId(String tenantId, String surveyId) {
+        return new Query(Criteria.where("_id").is(tallyId(tenantId, surveyId)).and("tenantId").is(tenantId));
+    }
+
+    private static String tallyId(String tenantId, String surveyId) {
+        return tenantId + ":" + surveyId;
+    }
+
+    /**
+     * Counts and numeric summaries of a set of responses, with encoded keys
+     */
+    private static final class Tally {
+
+        private final Set<String> numericQuestions;
+        private final Map<String, Map<String, Long>> counts = new HashMap<>();
+        private final Map<String, SurveyTally.NumericSummary> numeric = new HashMap<>();
+        private long responses;
+
+        private Tally(Set<String> numericQuestions) {
+            this.numericQuestions = numericQuestions;
+        }
+
+        private void add(List<SurveyResponse.Answer> answers) {
+            responses++;
+            if (answers == null) {
+                return;
+            }
+            for (SurveyResponse.Answer answer : answers) {
+                String question = encodeKey(answer.getQuestionId());
+                counts.computeIfAbsent(question, k -> new HashMap<>()).merge(encodeKey(answer.getValue()), 1L, Long::sum);
+
+                Double value = numericQuestions.contains(answer.getQuestionId()) ? parse(answer.getValue()) : null;
+                if (value != null) {
+                    SurveyTally.NumericSummary summary = numeric.computeIfAbsent(question, k -> new SurveyTally.NumericSummary());
+                    summary.setCount(summary.getCount() + 1);
+                    summary.setSum(summary.getSum() + value);
+                    summary.setSumOfSquares(summary.getSumOfSquares() + value * value);
+                    summary.setMin(summary.getMin() == null ? value : Math.min(summary.getMin(), value));
+                    summary.setMax(summary.getMax() == null ? value : Math.max(summary.getMax(), value));
+                }
+            }
+        }
+
+        private static Double parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                double parsed = Double.parseDouble(value.trim());
+                return Double.isFinite(parsed) ? parsed : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
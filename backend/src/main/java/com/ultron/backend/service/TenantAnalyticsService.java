@@ -1,6 +1,8 @@
 package com.ultron.backend.service;
 
 import com.ultron.backend.domain.entity.*;
+import com.ultron.backend.domain.enums.RollupDimension;
+import com.ultron.backend.domain.enums.RollupEntity;
 import com.ultron.backend.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,7 +10,6 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.*;
 
 import static com.ultron.backend.config.CacheConfig.DASHBOARD_STATS_CACHE;
@@ -28,6 +29,7 @@ public class TenantAnalyticsService extends BaseTenantService {
     private final OpportunityRepository opportunityRepository;
     private final UserRepository userRepository;
     private final ActivityRepository activityRepository;
+    private final AnalyticsRollupService analyticsRollupService;
 
     /**
      * Get comprehensive dashboard statistics for the current tenant
@@ -39,6 +41,20 @@ public class TenantAnalyticsService extends BaseTenantService {
         String tenantId = getCurrentTenantId();
         log.info("[Tenant: {}] Computing dashboard stats (cache miss)", tenantId);
 
+        // Once history is backfilled, totals are the running sum of the daily rollups
+        if (analyticsRollupService.isBackfilled(tenantId)) {
+            Map<RollupEntity, Long> totals = new EnumMap<>(RollupEntity.class);
+            for (AnalyticsDailyRollup row : analyticsRollupService.findRows(tenantId, null, RollupDimension.TOTAL, null)) {
+                totals.merge(row.getEntity(), row.getAdded() - row.getRemoved(), Long::sum);
+            }
+            return DashboardStats.builder()
+                    .totalLeads(totals.getOrDefault(RollupEntity.LEAD, 0L))
+                    .totalContacts(totals.getOrDefault(RollupEntity.CONTACT, 0L))
+                    .totalOpportunities(totals.getOrDefault(RollupEntity.OPPORTUNITY, 0L))
+                    .totalActivities(totals.getOrDefault(RollupEntity.ACTIVITY, 0L))
+                    .build();
+        }
+
         return DashboardStats.builder()
                 .totalLeads(leadRepository.countByTenantIdAndIsDeletedFalse(tenantId))
                 .totalContacts(contactRepository.countByTenantIdAndIsDeletedFalse(tenantId))
@@ -57,16 +73,66 @@ public class TenantAnalyticsService extends BaseTenantService {
         String tenantId = getCurrentTenantId();
         log.info("[Tenant: {}] Computing growth trends for {} days (cache miss)", tenantId, days);
 
-        // TODO: Implement actual growth calculation based on date ranges
-        // For now, returning current counts
+        LocalDate from = LocalDate.now().minusDays(Math.max(days, 1) - 1L);
+        Map<String, DailyGrowth> daily = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            daily.put(day.toString(), DailyGrowth.builder().day(day.toString()).build());
+        }
+
+        Map<RollupEntity, Long> created = new EnumMap<>(RollupEntity.class);
+        Map<RollupEntity, Long> net = new EnumMap<>(RollupEntity.class);
+        for (AnalyticsDailyRollup row : analyticsRollupService.findRows(tenantId, null, RollupDimension.TOTAL, from)) {
+            created.merge(row.getEntity(), row.getCreated(), Long::sum);
+            net.merge(row.getEntity(), row.getAdded() - row.getRemoved(), Long::sum);
+            DailyGrowth point = daily.get(row.getDay());
+            if (point == null) {
+                continue;
+            }
+            switch (row.getEntity()) {
+                case LEAD -> point.setLeads(point.getLeads() + row.getCreated());
+                case CONTACT -> point.setContacts(point.getContacts() + row.getCreated());
+                case OPPORTUNITY -> point.setOpportunities(point.getOpportunities() + row.getCreated());
+                case ACTIVITY -> point.setActivities(point.getActivities() + row.getCreated());
+            }
+        }
+
         return GrowthTrends.builder()
                 .period(days + " days")
-                .leadGrowth(leadRepository.countByTenantIdAndIsDeletedFalse(tenantId))
-                .contactGrowth(contactRepository.countByTenantIdAndIsDeletedFalse(tenantId))
-                .opportunityGrowth(opportunityRepository.countByTenantIdAndIsDeletedFalse(tenantId))
+                .leadGrowth(created.getOrDefault(RollupEntity.LEAD, 0L))
+                .contactGrowth(created.getOrDefault(RollupEntity.CONTACT, 0L))
+                .opportunityGrowth(created.getOrDefault(RollupEntity.OPPORTUNITY, 0L))
+                .activityGrowth(created.getOrDefault(RollupEntity.ACTIVITY, 0L))
+                .netLeadChange(net.getOrDefault(RollupEntity.LEAD, 0L))
+                .netContactChange(net.getOrDefault(RollupEntity.CONTACT, 0L))
+                .netOpportunityChange(net.getOrDefault(RollupEntity.OPPORTUNITY, 0L))
+                .netActivityChange(net.getOrDefault(RollupEntity.ACTIVITY, 0L))
+                .daily(new ArrayList<>(daily.values()))
                 .build();
     }
 
+    /**
+     * Breakdown of an entity by status, owner or source over a period: records created and
+     * net change per value in the period, and the current count per value
+     * MULTI-TENANT SAFE
+     */
+    @Cacheable(value = GROWTH_TRENDS_CACHE, key = "T(com.ultron.backend.multitenancy.TenantContext).getTenantId() + '_' + #entity + '_' + #dimension + '_' + #days")
+    public List<DimensionBreakdown> getDimensionBreakdown(RollupEntity entity, RollupDimension dimension, int days) {
+        String tenantId = getCurrentTenantId();
+        String from = LocalDate.now().minusDays(Math.max(days, 1) - 1L).toString();
+
+        Map<String, DimensionBreakdown> byValue = new TreeMap<>();
+        for (AnalyticsDailyRollup row : analyticsRollupService.findRows(tenantId, entity, dimension, null)) {
+            DimensionBreakdown breakdown = byValue.computeIfAbsent(row.getValue(),
+                    value -> DimensionBreakdown.builder().value(value).build());
+            breakdown.setCurrent(breakdown.getCurrent() + row.getAdded() - row.getRemoved());
+            if (row.getDay().compareTo(from) >= 0) {
+                breakdown.setCreated(breakdown.getCreated() + row.getCreated());
+                breakdown.setNetChange(breakdown.getNetChange() + row.getAdded() - row.getRemoved());
+            }
+        }
+        return new ArrayList<>(byValue.values());
+    }
+
     // DTOs
 
     @lombok.Data
@@ -82,8 +148,35 @@ public class TenantAnalyticsService extends BaseTenantService {
     @lombok.Builder
     public static class GrowthTrends {
         private String period;
+        // Records created in the period
         private long leadGrowth;
         private long contactGrowth;
         private long opportunityGrowth;
+        private long activityGrowth;
+        // Created minus deleted in the period
+        private long netLeadChange;
+        private long netContactChange;
+        private long netOpportunityChange;
+        private long netActivityChange;
+        private List<DailyGrowth> daily;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class DailyGrowth {
+        private String day;
+        private long leads;
+        private long contacts;
+        private long opportunities;
+        private long activities;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class DimensionBreakdown {
+        private String value;
+        private long current;
+        private long created;
+        private long netChange;
     }
 }
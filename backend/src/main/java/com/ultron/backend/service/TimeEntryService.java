@@ -7,17 +7,25 @@ import com.ultron.backend.domain.enums.TimeEntryType;
 import com.ultron.backend.dto.request.CreateTimeEntryRequest;
 import com.ultron.backend.dto.response.TimeEntryResponse;
 import com.ultron.backend.dto.response.WorkloadSummary;
-import com.ultron.backend.repository.ProjectTaskRepository;
 import com.ultron.backend.repository.TimeEntryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,7 +34,7 @@ import java.util.stream.Collectors;
 public class TimeEntryService extends BaseTenantService {
 
     private final TimeEntryRepository timeEntryRepository;
-    private final ProjectTaskRepository taskRepository;
+    private final MongoTemplate mongoTemplate;
 
     public TimeEntryResponse createEntry(CreateTimeEntryRequest request, String userId) {
         String tenantId = getCurrentTenantId();
@@ -112,51 +120,65 @@ public class TimeEntryService extends BaseTenantService {
                 .stream().map(this::toResponse).collect(Collectors.toList());
     }
 
-    public List<WorkloadSummary> getWorkloadSummary(LocalDate date) {
+    /**
+     * Per-assignee load over [from, to): minutes logged in the period, open tasks, and tasks closed
+     * in the period. Both sides are $group-by-user aggregations, so the cost follows the period and the
+     * open work rather than the tenant's whole task history.
+     */
+    public List<WorkloadSummary> getWorkloadSummary(LocalDate from, LocalDate to) {
         String tenantId = getCurrentTenantId();
-        LocalDateTime from = date.atStartOfDay();
-        LocalDateTime to = date.plusDays(7).atStartOfDay();
-
-        List<TimeEntry> entries = timeEntryRepository.findByTenantIdAndStartTimeBetween(tenantId, from, to);
-        List<ProjectTask> tasks = taskRepository.findByTenantIdAndIsDeletedFalse(tenantId);
-
-        Map<String, List<TimeEntry>> entriesByUser = entries.stream()
-                .collect(Collectors.groupingBy(TimeEntry::getUserId));
-
-        Map<String, List<ProjectTask>> tasksByAssignee = new java.util.HashMap<>();
-        for (ProjectTask task : tasks) {
-            if (task.getAssigneeIds() != null) {
-                for (String assigneeId : task.getAssigneeIds()) {
-                    tasksByAssignee.computeIfAbsent(assigneeId, k -> new ArrayList<>()).add(task);
-                }
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atStartOfDay();
+
+        TypedAggregation<TimeEntry> logged = Aggregation.newAggregation(TimeEntry.class,
+                Aggregation.match(Criteria.where("tenantId").is(tenantId).and("startTime").gte(start).lt(end)),
+                Aggregation.group("userId").sum("durationMinutes").as("totalMinutes"));
+        Map<String, Integer> minutesByUser = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(logged, Document.class).getMappedResults()) {
+            if (row.getString("_id") != null) {
+                minutesByUser.put(row.getString("_id"), ((Number) row.get("totalMinutes")).intValue());
             }
         }
 
-        java.util.Set<String> allUserIds = new java.util.HashSet<>(entriesByUser.keySet());
-        allUserIds.addAll(tasksByAssignee.keySet());
-
-        return allUserIds.stream().map(userId -> {
-            List<TimeEntry> userEntries = entriesByUser.getOrDefault(userId, new ArrayList<>());
-            List<ProjectTask> userTasks = tasksByAssignee.getOrDefault(userId, new ArrayList<>());
-
-            int totalMinutes = userEntries.stream()
-                    .mapToInt(e -> e.getDurationMinutes() != null ? e.getDurationMinutes() : 0)
-                    .sum();
-
-            long completed = userTasks.stream()
-                    .filter(t -> t.getStatus() == TaskStatus.DONE).count();
-
-            double pendingHours = userTasks.stream()
-                    .filter(t -> t.getStatus() != TaskStatus.DONE && t.getEstimatedHours() != null)
-                    .mapToDouble(ProjectTask::getEstimatedHours).sum();
+        // Open statuses listed explicitly (plus tasks without one) so both branches are index point lookups
+        List<String> closed = List.of(TaskStatus.DONE.name(), TaskStatus.CANCELLED.name());
+        List<String> open = Arrays.stream(TaskStatus.values()).map(Enum::name)
+                .filter(status -> !closed.contains(status)).collect(Collectors.toCollection(ArrayList::new));
+        open.add(null);
+        Criteria tasksCriteria = Criteria.where("tenantId").is(tenantId)
+                .and("isDeleted").is(false)
+                .orOperator(
+                        Criteria.where("status").in(open),
+                        Criteria.where("status").in(closed).and("updatedAt").gte(start).lt(end));
+        Document group = new Document("_id", "$assigneeIds")
+                .append("assignedTasks", new Document("$sum", 1))
+                .append("completedTasks", new Document("$sum", new Document("$cond", Arrays.asList(
+                        new Document("$eq", Arrays.asList("$status", TaskStatus.DONE.name())), 1, 0))))
+                .append("pendingHours", new Document("$sum", new Document("$cond", Arrays.asList(
+                        new Document("$ne", Arrays.asList("$status", TaskStatus.DONE.name())),
+                        new Document("$ifNull", Arrays.asList("$estimatedHours", 0)), 0))));
+        TypedAggregation<ProjectTask> assigned = Aggregation.newAggregation(ProjectTask.class,
+                Aggregation.match(tasksCriteria),
+                Aggregation.unwind("assigneeIds"),
+                context -> new Document("$group", group));
+        Map<String, Document> tasksByUser = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(assigned, Document.class).getMappedResults()) {
+            if (row.getString("_id") != null) {
+                tasksByUser.put(row.getString("_id"), row);
+            }
+        }
 
+        Set<String> userIds = new HashSet<>(minutesByUser.keySet());
+        userIds.addAll(tasksByUser.keySet());
+        return userIds.stream().map(userId -> {
+            Document tasks = tasksByUser.get(userId);
             return WorkloadSummary.builder()
                     .userId(userId)
                     .userName(userId)
-                    .assignedTasks(userTasks.size())
-                    .completedTasks(completed)
-                    .totalHoursLogged(totalMinutes / 60)
-                    .pendingHours(pendingHours)
+                    .assignedTasks(tasks != null ? ((Number) tasks.get("assignedTasks")).longValue() : 0)
+                    .completedTasks(tasks != null ? ((Number) tasks.get("completedTasks")).longValue() : 0)
+                    .totalHoursLogged(minutesByUser.getOrDefault(userId, 0) / 60)
+                    .pendingHours(tasks != null ? ((Number) tasks.get("pendingHours")).doubleValue() : 0)
                     .build();
         }).collect(Collectors.toList());
     }
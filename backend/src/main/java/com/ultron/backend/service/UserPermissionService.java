@@ -414,7 +414,7 @@ public class UserPermissionService extends BaseTenantService {
 
         // HR
         metadata.put("ATTENDANCE", new ObjectMetadata("HR", "Attendance",
-                Arrays.asList("CREATE", "READ", "EDIT", "READ_ALL", "APPROVE")));
+                Arrays.asList("CREATE", "READ", "EDIT", "READ_ALL", "APPROVE", "MODIFYALL")));
         metadata.put("SHIFT", new ObjectMetadata("HR", "Shifts",
                 Arrays.asList("CREATE", "READ", "EDIT", "DELETE", "ASSIGN")));
         metadata.put("LEAVE", new ObjectMetadata("HR", "Leave Management",
@@ -13,6 +13,8 @@ import com.ultron.backend.exception.UserAlreadyExistsException;
 import com.ultron.backend.repository.UserRepository;
 import com.ultron.backend.repository.RoleRepository;
 import com.ultron.backend.repository.ProfileRepository;
+import com.ultron.backend.service.denormalization.DenormalizationService;
+import com.ultron.backend.service.denormalization.DenormalizedSource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,6 +23,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -37,6 +40,8 @@ public class UserService extends BaseTenantService {
     private final PasswordEncoder passwordEncoder;
     private final RoleRepository roleRepository;
     private final ProfileRepository profileRepository;
+    private final DenormalizationService denormalizationService;
+    private final OrganizationService organizationService;
 
     // ==================== Legacy methods (for backward compatibility) ====================
 
@@ -179,7 +184,14 @@ public class UserService extends BaseTenantService {
                     });
         }
 
-        User savedUser = userRepository.save(user);
+        organizationService.reserveUsage(tenantId, "USERS");
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (RuntimeException e) {
+            organizationService.decrementUsage(tenantId, "USERS");
+            throw e;
+        }
         log.info("User created successfully with userId: {}", savedUser.getUserId());
 
         // TODO: Log audit event when AuditService is available
@@ -283,6 +295,10 @@ public class UserService extends BaseTenantService {
         User savedUser = userRepository.save(user);
         log.info("User updated successfully with userId: {}", savedUser.getUserId());
 
+        if (nameChanged) {
+            propagateName(savedUser);
+        }
+
         return mapToResponse(savedUser);
 //        return mapToResponse(savedUser);
     }
@@ -330,6 +346,9 @@ public class UserService extends BaseTenantService {
         user.setLastModifiedBy(userId);
 
         User savedUser = userRepository.save(user);
+        if (nameChanged) {
+            propagateName(savedUser);
+        }
         return mapToResponse(savedUser);
     }
 
@@ -462,6 +481,7 @@ public class UserService extends BaseTenantService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         validateResourceTenantOwnership(user.getTenantId());
+        boolean wasActive = !Boolean.TRUE.equals(user.getIsDeleted());
 
         user.setIsDeleted(true);
         user.setStatus(UserStatus.INACTIVE);
@@ -471,6 +491,9 @@ public class UserService extends BaseTenantService {
         user.setLastModifiedBy(deletedBy);
 
         userRepository.save(user);
+        if (wasActive) {
+            organizationService.decrementUsage(user.getTenantId(), "USERS");
+        }
         log.info("User soft-deleted successfully with userId: {}", user.getUserId());
     }
 
@@ -593,6 +616,16 @@ public class UserService extends BaseTenantService {
         return idOrUserId;
     }
 
+    /**
+     * Copies of the user's name elsewhere reference either the internal or the business ID
+     */
+    private void propagateName(User user) {
+        if (user.getFullName() != null) {
+            denormalizationService.propagate(DenormalizedSource.USER_NAME, user.getTenantId(),
+                    Arrays.asList(user.getId(), user.getUserId()), user.getFullName());
+        }
+    }
+
     private UserResponse mapToResponse(User user) {
         UserResponse.UserProfileDTO profileDTO = null;
         if (user.getProfile() != null) {
@@ -1,14 +1,19 @@
 package com.ultron.backend.service;
 
+import com.ultron.backend.domain.entity.WebhookEndpoint;
 import com.ultron.backend.domain.entity.WebhookEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -224,12 +229,24 @@ public class WebhookEventService extends BaseTenantService {
                     .isDeleted(false)
                     .build();
 
-            mongoTemplate.save(event);
+            // One copy per subscribed endpoint; WebhookDeliveryService delivers copies with an endpointId
+            List<WebhookEndpoint> endpoints = mongoTemplate.find(new Query(Criteria.where("tenantId").is(tenantId)
+                    .and("active").is(true)
+                    .and("isDeleted").is(false)), WebhookEndpoint.class).stream()
+                    .filter(endpoint -> endpoint.accepts(eventType))
+                    .toList();
+            if (endpoints.isEmpty()) {
+                mongoTemplate.save(event);
+            } else {
+                mongoTemplate.insert(endpoints.stream()
+                        .map(endpoint -> event.toBuilder()
+                                .endpointId(endpoint.getId())
+                                .webhookUrl(endpoint.getUrl())
+                                .build())
+                        .toList(), WebhookEvent.class);
+            }
 
-            log.info("[Tenant: {}] Event published: {} - {}", tenantId, eventType, eventId);
-
-            // TODO: Trigger async webhook delivery
-            // webhookDeliveryService.deliver(event);
+            log.info("[Tenant: {}] Event published: {} - {} ({} endpoints)", tenantId, eventType, eventId, endpoints.size());
 
         } catch (Exception e) {
             log.error("Failed to publish event: {}", eventType, e);
@@ -239,6 +256,6 @@ public class WebhookEventService extends BaseTenantService {
     private String generateEventId() {
         LocalDateTime now = LocalDateTime.now();
         String yearMonth = now.format(DateTimeFormatter.ofPattern("yyyyMM"));
-        return "EVT-" + yearMonth + "-" + System.currentTimeMillis();
+        return "EVT-" + yearMonth + "-" + new ObjectId().toHexString();
     }
 }
@@ -0,0 +1,311 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.WorkOrder;
+import com.ultron.backend.domain.entity.WorkOrderKpiStats;
+import com.ultron.backend.domain.enums.WorkOrderStatus;
+import com.ultron.backend.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains the per-tenant work order KPI counters (work_order_kpi_stats).
+ *
+ * Work order updates go through save, which replaces the stored document and gets the replaced
+ * one back in the same round trip; the difference between the two states is applied with a single
+ * $inc. rebuild recomputes the counters from work_orders with one $facet aggregation.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkOrderKpiService {
+
+    public static final List<WorkOrderStatus> COMPLETED_STATUSES = List.of(WorkOrderStatus.COMPLETED, WorkOrderStatus.REOPENED);
+    public static final List<WorkOrderStatus> CLOSED_STATUSES =
+            List.of(WorkOrderStatus.COMPLETED, WorkOrderStatus.CANCELLED, WorkOrderStatus.REOPENED);
+
+    private static final int REPEAT_VISIT_DAYS = 30;
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * The KPI-relevant fields of a work order at one point in time
+     */
+    public record State(boolean active, WorkOrderStatus status, String type, String priority,
+                        boolean firstTimeFix, boolean slaBreached, Long repairMinutes, List<String> engineerIds) {
+
+        public static final State NONE = new State(false, null, null, null, false, false, null, List.of());
+
+        public static State of(WorkOrder wo) {
+            if (wo == null || wo.isDeleted()) {
+                return NONE;
+            }
+            Long repairMinutes = wo.getActualStartTime() != null && wo.getActualEndTime() != null
+                    ? Duration.between(wo.getActualStartTime(), wo.getActualEndTime()).toMinutes()
+                    : null;
+            return new State(true,
+                    wo.getStatus(),
+                    wo.getType() != null ? wo.getType().name() : null,
+                    wo.getPriority() != null ? wo.getPriority().name() : null,
+                    wo.getStatus() == WorkOrderStatus.COMPLETED && (wo.getReopenCount() == null || wo.getReopenCount() == 0),
+                    wo.isSlaBreached(),
+                    repairMinutes,
+                    wo.getAssignedEngineerIds() != null ? List.copyOf(wo.getAssignedEngineerIds()) : List.of());
+        }
+
+        boolean completed() {
+            return active && COMPLETED_STATUSES.contains(status);
+        }
+    }
+
+    /**
+     * Replace a stored work order and apply its KPI change. The before-state is the document the
+     * replace overwrote (returnNew false), not the copy the caller loaded, so a concurrent write
+     * between load and save cannot leave the counters off.
+     */
+    public WorkOrder save(WorkOrder wo) {
+        WorkOrder previous = mongoTemplate.findAndReplace(
+                new Query(Criteria.where("_id").is(wo.getId()).and("tenantId").is(wo.getTenantId())), wo);
+        if (previous == null) {
+            throw new ResourceNotFoundException("Work order not found: " + wo.getId());
+        }
+        recordChange(State.of(previous), wo);
+        return wo;
+    }
+
+    /**
+     * Apply the change between the state before a write and the saved work order.
+     * Failures are logged and never fail the write; a rebuild corrects drift.
+     */
+    public void recordChange(State before, WorkOrder after) {
+        try {
+            State current = State.of(after);
+            Map<String, Long> increments = new LinkedHashMap<>();
+            contribute(increments, before, -1);
+            contribute(increments, current, 1);
+            if (before.completed() != current.completed() && isRepeatVisit(after)) {
+                increments.merge("repeatVisitCount", current.completed() ? 1L : -1L, Long::sum);
+            }
+            increments.values().removeIf(value -> value == 0);
+            if (increments.isEmpty()) {
+                return;
+            }
+
+            Update update = new Update();
+            increments.forEach(update::inc);
+            // Counters of tenants that were never rebuilt are left alone until the first rebuild
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(after.getTenantId()).and("rebuiltAt").exists(true)),
+                    update, WorkOrderKpiStats.class);
+        } catch (Exception e) {
+            log.warn("Failed to update work order KPIs for {}: {}", after.getWoNumber(), e.getMessage());
+        }
+    }
+
+    /**
+     * Counters of a tenant, rebuilt first if they do not exist yet
+     */
+    public WorkOrderKpiStats getStats(String tenantId) {
+        WorkOrderKpiStats stats = mongoTemplate.findById(tenantId, WorkOrderKpiStats.class);
+        if (stats == null || stats.getRebuiltAt() == null) {
+            stats = rebuild(tenantId);
+        }
+        return stats;
+    }
+
+    /**
+     * Recompute the counters of a tenant from work_orders in a single aggregation
+     */
+    public WorkOrderKpiStats rebuild(String tenantId) {
+        long started = System.currentTimeMillis();
+        Document facets = mongoTemplate.getCollection("work_orders")
+                .aggregate(rebuildPipeline(tenantId))
+                .allowDiskUse(true)
+                .first();
+
+        Document completed = first(facets, "completed");
+        WorkOrderKpiStats stats = WorkOrderKpiStats.builder()
+                .id(tenantId)
+                .completedCount(longValue(completed, "count"))
+                .firstTimeFixCount(longValue(completed, "firstTimeFix"))
+                .withinSlaCount(longValue(completed, "withinSla"))
+                .repairMinutesTotal(longValue(completed, "repairMinutes"))
+                .timedRepairCount(longValue(completed, "timedRepairs"))
+                .repeatVisitCount(longValue(first(facets, "repeatVisits"), "count"))
+                .byStatus(counts(facets, "byStatus"))
+                .byType(counts(facets, "byType"))
+                .byPriority(counts(facets, "byPriority"))
+                .engineerCompleted(counts(facets, "engineerCompleted"))
+                .rebuiltAt(LocalDateTime.now())
+                .build();
+        mongoTemplate.save(stats);
+        log.info("[Tenant: {}] Rebuilt work order KPIs in {} ms", tenantId, System.currentTimeMillis() - started);
+        return stats;
+    }
+
+    private void contribute(Map<String, Long> increments, State state, long sign) {
+        if (!state.active()) {
+            return;
+        }
+        if (state.status() != null) {
+            increments.merge("byStatus." + state.status().name(), sign, Long::sum);
+        }
+        if (state.type() != null) {
+            increments.merge("byType." + state.type(), sign, Long::sum);
+        }
+        if (state.priority() != null) {
+            increments.merge("byPriority." + state.priority(), sign, Long::sum);
+        }
+        if (!state.completed()) {
+            return;
+        }
+        increments.merge("completedCount", sign, Long::sum);
+        if (state.firstTimeFix()) {
+            increments.merge("firstTimeFixCount", sign, Long::sum);
+        }
+        if (!state.slaBreached()) {
+            increments.merge("withinSlaCount", sign, Long::sum);
+        }
+        if (state.repairMinutes() != null) {
+            increments.merge("repairMinutesTotal", sign * state.repairMinutes(), Long::sum);
+            increments.merge("timedRepairCount", sign, Long::sum);
+        }
+        state.engineerIds().stream().filter(Objects::nonNull)
+                .forEach(engineerId -> increments.merge("engineerCompleted." + engineerId, sign, Long::sum));
+    }
+
+    /**
+     * A completed WO is a repeat visit when the previously created completed WO of the same asset
+     * was closed no more than REPEAT_VISIT_DAYS days before it was created. The gap is tested with
+     * the same repeatGap expression the rebuild uses.
+     */
+    private boolean isRepeatVisit(WorkOrder wo) {
+        if (wo.getAssetId() == null || wo.getCreatedAt() == null) {
+            return false;
+        }
+        Aggregation aggregation = Aggregation.newAggregation(WorkOrder.class,
+                Aggregation.match(Criteria.where("tenantId").is(wo.getTenantId())
+                        .and("assetId").is(wo.getAssetId())
+                        .and("isDeleted").is(false)
+                        .and("status").in(COMPLETED_STATUSES)
+                        .and("createdAt").lt(wo.getCreatedAt())
+                        .and("_id").ne(wo.getId())),
+                Aggregation.sort(Sort.Direction.DESC, "createdAt"),
+                Aggregation.limit(1),
+                stage(new Document("$project", new Document("previousEnd", "$actualEndTime").append("createdAt",
+                        new Document("$literal", mongoTemplate.getConverter().convertToMongoType(wo.getCreatedAt()))))),
+                stage(new Document("$match", new Document("$expr", repeatGap()))));
+        return mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult() != null;
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+
+    /**
+     * True when createdAt is less than REPEAT_VISIT_DAYS + 1 days after previousEnd (Duration.toDays()
+     * <= REPEAT_VISIT_DAYS, negative gaps included); both fields must be dates
+     */
+    private static Document repeatGap() {
+        return new Document("$and", List.of(
+                new Document("$eq", List.of(new Document("$type", "$previousEnd"), "date")),
+                new Document("$eq", List.of(new Document("$type", "$createdAt"), "date")),
+                new Document("$lt", List.of(new Document("$subtract", List.of("$createdAt", "$previousEnd")),
+                        (REPEAT_VISIT_DAYS + 1) * DAY_MILLIS))));
+    }
+
+    private List<Document> rebuildPipeline(String tenantId) {
+        Document completedMatch = new Document("$match", new Document("status",
+                new Document("$in", COMPLETED_STATUSES.stream().map(Enum::name).toList())));
+        Document timed = new Document("$and", List.of(
+                new Document("$eq", List.of(new Document("$type", "$actualStartTime"), "date")),
+                new Document("$eq", List.of(new Document("$type", "$actualEndTime"), "date"))));
+        Document firstTimeFix = new Document("$and", List.of(
+                new Document("$eq", List.of("$status", WorkOrderStatus.COMPLETED.name())),
+                new Document("$eq", List.of(new Document("$ifNull", List.of("$reopenCount", 0)), 0))));
+
+        Document facets = new Document()
+                .append("completed", List.of(completedMatch,
+                        new Document("$group", new Document("_id", null)
+                                .append("count", new Document("$sum", 1))
+                                .append("firstTimeFix", sumIf(firstTimeFix))
+                                .append("withinSla", new Document("$sum", new Document("$cond",
+                                        List.of(new Document("$eq", List.of("$slaBreached", true)), 0, 1))))
+                                .append("repairMinutes", new Document("$sum", new Document("$cond", List.of(timed,
+                                        new Document("$trunc", new Document("$divide", List.of(
+                                                new Document("$subtract", List.of("$actualEndTime", "$actualStartTime")),
+                                                60000))),
+                                        0))))
+                                .append("timedRepairs", sumIf(timed)))))
+                .append("engineerCompleted", List.of(completedMatch,
+                        new Document("$unwind", "$assignedEngineerIds"),
+                        new Document("$group", new Document("_id", "$assignedEngineerIds")
+                                .append("count", new Document("$sum", 1)))))
+                .append("repeatVisits", List.of(completedMatch,
+                        new Document("$match", new Document("assetId", new Document("$ne", null))),
+                        new Document("$setWindowFields", new Document()
+                                .append("partitionBy", "$assetId")
+                                .append("sortBy", new Document("createdAt", 1))
+                                .append("output", new Document("previousEnd",
+                                        new Document("$shift", new Document("output", "$actualEndTime").append("by", -1))))),
+                        new Document("$match", new Document("$expr", repeatGap())),
+                        new Document("$count", "count")))
+                .append("byStatus", countBy("status"))
+                .append("byType", countBy("type"))
+                .append("byPriority", countBy("priority"));
+
+        return List.of(
+                new Document("$match", new Document("tenantId", tenantId).append("isDeleted", false)),
+                new Document("$facet", facets));
+    }
+
+    private List<Document> countBy(String field) {
+        return List.of(
+                new Document("$match", new Document(field, new Document("$ne", null))),
+                new Document("$group", new Document("_id", "$" + field).append("count", new Document("$sum", 1))));
+    }
+
+    private Document sumIf(Document condition) {
+        return new Document("$sum", new Document("$cond", List.of(condition, 1, 0)));
+    }
+
+    private Document first(Document facets, String facet) {
+        if (facets == null) {
+            return null;
+        }
+        List<Document> buckets = facets.getList(facet, Document.class, List.of());
+        return buckets.isEmpty() ? null : buckets.get(0);
+    }
+
+    private Map<String, Long> counts(Document facets, String facet) {
+        Map<String, Long> counts = new HashMap<>();
+        if (facets != null) {
+            for (Document bucket : facets.getList(facet, Document.class, List.of())) {
+                if (bucket.get("_id") != null) {
+                    counts.put(bucket.get("_id").toString(), longValue(bucket, "count"));
+                }
+            }
+        }
+        return counts;
+    }
+
+    private long longValue(Document document, String field) {
+        return document != null && document.get(field) instanceof Number number ? number.longValue() : 0;
+    }
+}
@@ -9,9 +9,15 @@ import com.ultron.backend.dto.response.WorkOrderResponse;
 import com.ultron.backend.exception.ResourceNotFoundException;
 import com.ultron.backend.repository.ContractRepository;
 import com.ultron.backend.repository.WorkOrderRepository;
+import com.ultron.backend.service.export.ExportColumn;
+import com.ultron.backend.service.export.ExportFormat;
+import com.ultron.backend.service.export.TabularExportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,9 +28,27 @@ import java.util.stream.Collectors;
 @Slf4j
 public class WorkOrderService extends BaseTenantService {
 
+    private static final List<ExportColumn> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("woNumber", "Work Order"),
+            ExportColumn.of("type", "Type"),
+            ExportColumn.of("priority", "Priority"),
+            ExportColumn.of("status", "Status"),
+            ExportColumn.of("accountId", "Account ID"),
+            ExportColumn.of("assetId", "Asset ID"),
+            ExportColumn.of("assignedEngineerIds", "Engineers"),
+            ExportColumn.of("scheduledDate", "Scheduled Date"),
+            ExportColumn.of("slaDeadline", "SLA Deadline"),
+            ExportColumn.of("slaBreached", "SLA Breached"),
+            ExportColumn.of("actualStartTime", "Started At"),
+            ExportColumn.of("actualEndTime", "Completed At"),
+            ExportColumn.of("totalLaborHours", "Labor Hours"),
+            ExportColumn.of("createdAt", "Created At"));
+
     private final WorkOrderRepository workOrderRepository;
     private final ContractRepository contractRepository;
     private final WorkOrderIdGeneratorService idGeneratorService;
+    private final TabularExportService tabularExportService;
+    private final WorkOrderKpiService workOrderKpiService;
 
     public WorkOrderResponse create(CreateWorkOrderRequest request, String userId) {
         String tenantId = getCurrentTenantId();
@@ -67,6 +91,7 @@ public class WorkOrderService extends BaseTenantService {
                 .build();
 
         wo = workOrderRepository.save(wo);
+        workOrderKpiService.recordChange(WorkOrderKpiService.State.NONE, wo);
         log.info("Work order created: {} by {}", wo.getWoNumber(), userId);
         return toResponse(wo);
     }
@@ -76,6 +101,14 @@ public class WorkOrderService extends BaseTenantService {
                 .stream().map(this::toResponse).collect(Collectors.toList());
     }
 
+    /**
+     * Stream all work orders of the current tenant
+     */
+    public StreamingResponseBody exportAll(ExportFormat format) {
+        Query query = new Query(Criteria.where("tenantId").is(getCurrentTenantId()).and("isDeleted").is(false));
+        return tabularExportService.stream("work_orders", query, EXPORT_COLUMNS, format);
+    }
+
     public List<WorkOrderResponse> getByStatus(WorkOrderStatus status) {
         return workOrderRepository.findByTenantIdAndStatusAndIsDeletedFalse(getCurrentTenantId(), status)
                 .stream().map(this::toResponse).collect(Collectors.toList());
@@ -109,7 +142,7 @@ public class WorkOrderService extends BaseTenantService {
         }
         wo.setUpdatedAt(LocalDateTime.now());
         wo.setUpdatedBy(userId);
-        return toResponse(workOrderRepository.save(wo));
+        return toResponse(workOrderKpiService.save(wo));
     }
 
     /**
@@ -130,7 +163,7 @@ public class WorkOrderService extends BaseTenantService {
         }
         wo.setUpdatedAt(LocalDateTime.now());
         wo.setUpdatedBy(userId);
-        return toResponse(workOrderRepository.save(wo));
+        return toResponse(workOrderKpiService.save(wo));
     }
 
     public WorkOrderResponse update(String id, UpdateWorkOrderRequest request, String userId) {
@@ -152,7 +185,7 @@ public class WorkOrderService extends BaseTenantService {
         }
         wo.setUpdatedAt(LocalDateTime.now());
         wo.setUpdatedBy(userId);
-        return toResponse(workOrderRepository.save(wo));
+        return toResponse(workOrderKpiService.save(wo));
     }
 
     public void delete(String id, String userId) {
@@ -160,7 +193,7 @@ public class WorkOrderService extends BaseTenantService {
         wo.setDeleted(true);
         wo.setUpdatedAt(LocalDateTime.now());
         wo.setUpdatedBy(userId);
-        workOrderRepository.save(wo);
+        workOrderKpiService.save(wo);
     }
 
     private void validateTransition(WorkOrderStatus from, WorkOrderStatus to) {
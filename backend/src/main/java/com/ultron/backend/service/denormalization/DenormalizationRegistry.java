@@ -0,0 +1,48 @@
+package com.ultron.backend.service.denormalization;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declares where denormalized copies live. Add a rule here when a collection starts
+ * copying a name; renames are then propagated to it automatically.
+ */
+@Component
+public class DenormalizationRegistry {
+
+    private final Map<DenormalizedSource, List<PropagationRule>> rules = new EnumMap<>(DenormalizedSource.class);
+
+    public DenormalizationRegistry() {
+        // Account name
+        register(DenormalizedSource.ACCOUNT_NAME, "opportunities", "accountId", "accountName");
+        register(DenormalizedSource.ACCOUNT_NAME, "contacts", "accountId", "accountName");
+        register(DenormalizedSource.ACCOUNT_NAME, "activities", "accountId", "accountName");
+        register(DenormalizedSource.ACCOUNT_NAME, "accounts", "parentAccountId", "parentAccountName");
+
+        // User full name
+        register(DenormalizedSource.USER_NAME, "leads", "leadOwnerId", "leadOwnerName");
+        register(DenormalizedSource.USER_NAME, "leads", "assignedUserId", "assignedUserName");
+        register(DenormalizedSource.USER_NAME, "opportunities", "ownerId", "ownerName");
+        register(DenormalizedSource.USER_NAME, "opportunities", "createdBy", "createdByName");
+        register(DenormalizedSource.USER_NAME, "accounts", "ownerId", "ownerName");
+        register(DenormalizedSource.USER_NAME, "accounts", "createdBy", "createdByName");
+        register(DenormalizedSource.USER_NAME, "contacts", "ownerId", "ownerName");
+        register(DenormalizedSource.USER_NAME, "contacts", "createdBy", "createdByName");
+        register(DenormalizedSource.USER_NAME, "activities", "assignedToId", "assignedToName");
+        register(DenormalizedSource.USER_NAME, "activities", "createdBy", "createdByName");
+        register(DenormalizedSource.USER_NAME, "proposal_versions", "createdBy", "createdByName");
+    }
+
+    public List<PropagationRule> rulesFor(DenormalizedSource source) {
+        return rules.getOrDefault(source, List.of());
+    }
+
+    private void register(DenormalizedSource source, String targetCollection, String referenceField, String targetField) {
+        rules.computeIfAbsent(source, s -> new ArrayList<>())
+                .add(new PropagationRule(source, targetCollection, referenceField, targetField));
+    }
+}
@@ -0,0 +1,156 @@
+package com.ultron.backend.service.denormalization;
+
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Propagates changed source values (renames) to their denormalized copies.
+ *
+ * Callers only queue the new value; a background tick (app.denormalization.flush-ms) applies
+ * all queued changes with one unordered bulk of updateMany per target collection, following
+ * the rules in DenormalizationRegistry. Repeated renames of the same source before a tick
+ * collapse into one, and the value written is re-read from the source at flush time. Only
+ * documents whose copy differs are written. Changes still queued at shutdown are flushed before
+ * the context closes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DenormalizationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final DenormalizationRegistry registry;
+
+    // source|tenantId|primary key -> latest change since last tick
+    private final Map<String, Change> pending = new ConcurrentHashMap<>();
+
+    /**
+     * A new source value; keys are every identifier the copies may reference the source by, the
+     * source document's _id first
+     */
+    public record Change(DenormalizedSource source, String tenantId, List<String> keys, String value) {
+    }
+
+    /**
+     * Queue a source value for propagation to all copies
+     */
+    public void propagate(DenormalizedSource source, String tenantId, List<String> keys, String value) {
+        List<String> sourceKeys = keys.stream().filter(Objects::nonNull).distinct().toList();
+        if (tenantId == null || sourceKeys.isEmpty() || value == null) {
+            return;
+        }
+        pending.put(source + "|" + tenantId + "|" + sourceKeys.get(0), new Change(source, tenantId, sourceKeys, value));
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Failed to propagate {} queued changes on shutdown: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.denormalization.flush-ms:2000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, Change> batch = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, Change>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Change> entry = iterator.next();
+            // Remove only if unchanged, so a rename arriving mid-flush is kept for the next tick
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        List<Change> current;
+        try {
+            current = withCurrentValues(batch.values());
+        } catch (Exception e) {
+            log.error("Failed to read current values of {} changes: {}", batch.size(), e.getMessage());
+            batch.forEach(pending::putIfAbsent);
+            return;
+        }
+
+        Map<String, List<Change>> changesByCollection = new LinkedHashMap<>();
+        Map<String, List<PropagationRule>> rulesByCollection = new LinkedHashMap<>();
+        for (Change change : current) {
+            for (PropagationRule rule : registry.rulesFor(change.source())) {
+                changesByCollection.computeIfAbsent(rule.targetCollection(), c -> new ArrayList<>()).add(change);
+                rulesByCollection.computeIfAbsent(rule.targetCollection(), c -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        changesByCollection.forEach((collection, changes) -> {
+            List<PropagationRule> rules = rulesByCollection.get(collection);
+            try {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                for (int i = 0; i < changes.size(); i++) {
+                    Change change = changes.get(i);
+                    PropagationRule rule = rules.get(i);
+                    ops.updateMulti(new Query(Criteria.where("tenantId").is(change.tenantId())
+                                    .and(rule.referenceField()).in(change.keys())
+                                    .and(rule.targetField()).ne(change.value())),
+                            new Update().set(rule.targetField(), change.value()));
+                }
+                BulkWriteResult result = ops.execute();
+                log.debug("Propagated {} changes to {}: {} documents updated", changes.size(), collection, result.getModifiedCount());
+            } catch (Exception e) {
+                log.error("Failed to propagate {} changes to {}: {}", changes.size(), collection, e.getMessage());
+                // Retry on the next tick unless a newer value was queued meanwhile
+                batch.forEach(pending::putIfAbsent);
+            }
+        });
+    }
+
+    /**
+     * The changes with the value their source holds now rather than the queued one. Each node queues
+     * its own renames, so two nodes may flush renames of one source in either order; writing the
+     * current value makes the last flush land the latest name. Sources that no longer exist are dropped.
+     */
+    private List<Change> withCurrentValues(Collection<Change> changes) {
+        Map<DenormalizedSource, List<Change>> bySource = new LinkedHashMap<>();
+        changes.forEach(change -> bySource.computeIfAbsent(change.source(), s -> new ArrayList<>()).add(change));
+
+        List<Change> current = new ArrayList<>(changes.size());
+        bySource.forEach((source, sourceChanges) -> {
+            Query query = new Query(Criteria.where("_id").in(sourceChanges.stream().map(change -> change.keys().get(0)).toList()));
+            query.fields().include(source.getValueField());
+            Map<String, String> values = new HashMap<>();
+            for (Document document : mongoTemplate.find(query, Document.class, source.getCollectionName())) {
+                values.put(document.get("_id").toString(), document.getString(source.getValueField()));
+            }
+            for (Change change : sourceChanges) {
+                String value = values.get(change.keys().get(0));
+                if (value != null) {
+                    current.add(new Change(source, change.tenantId(), change.keys(), value));
+                }
+            }
+        });
+        return current;
+    }
+}
@@ -0,0 +1,17 @@
+package com.ultron.backend.service.denormalization;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A source value that other collections copy (denormalize) by reference
+ */
+@Getter
+@RequiredArgsConstructor
+public enum DenormalizedSource {
+    ACCOUNT_NAME("accounts", "accountName"),   // Account.accountName, referenced by the account's _id
+    USER_NAME("users", "fullName");            // User.fullName, referenced by the user's _id or business userId
+
+    private final String collectionName;
+    private final String valueField;
+}
@@ -0,0 +1,8 @@
+package com.ultron.backend.service.denormalization;
+
+/**
+ * Copies a source value into targetField of every document in targetCollection whose
+ * referenceField points at the source
+ */
+public record PropagationRule(DenormalizedSource source, String targetCollection, String referenceField, String targetField) {
+}
@@ -0,0 +1,11 @@
+package com.ultron.backend.service.export;
+
+/**
+ * A column of a tabular export: a (possibly dotted) document field and its header
+ */
+public record ExportColumn(String field, String header) {
+
+    public static ExportColumn of(String field, String header) {
+        return new ExportColumn(field, header);
+    }
+}
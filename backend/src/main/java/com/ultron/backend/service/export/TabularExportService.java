@@ -0,0 +1,230 @@
+package com.ultron.backend.service.export;
+
+import com.opencsv.CSVWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams Mongo cursors out as CSV or XLSX.
+ *
+ * Rows are read from a cursor and written one at a time, so exports never hold the result set.
+ * CSV bytes are flushed to the client every CSV_FLUSH_ROWS rows. XLSX uses an SXSSF workbook
+ * that keeps only XLSX_ROW_WINDOW rows in memory and spills the rest to a temp file; the zip
+ * container is written once the cursor is drained.
+ *
+ * Queries must carry their own tenant criteria: the body runs on an async request thread
+ * where TenantContext is not set.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TabularExportService {
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+    private static final int CSV_FLUSH_ROWS = 1000;
+    private static final int XLSX_ROW_WINDOW = 500;
+    private static final int XLSX_MAX_ROWS_PER_SHEET = 1_048_575; // Excel limit minus header
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Stream the documents matched by a query
+     */
+    public StreamingResponseBody stream(String collectionName, Query query, List<ExportColumn> columns, ExportFormat format) {
+        query.cursorBatchSize(CURSOR_BATCH_SIZE);
+        columns.forEach(column -> query.fields().include(column.field()));
+        return body(() -> mongoTemplate.stream(query, Document.class, collectionName), columns, format);
+    }
+
+    /**
+     * Stream the output of an aggregation
+     */
+    public StreamingResponseBody stream(String collectionName, Aggregation aggregation, List<ExportColumn> columns, ExportFormat format) {
+        return body(() -> mongoTemplate.aggregateStream(aggregation, collectionName, Document.class), columns, format);
+    }
+
+    /**
+     * Wrap an export body in a download response
+     */
+    public ResponseEntity<StreamingResponseBody> toResponse(String fileBaseName, ExportFormat format, StreamingResponseBody body) {
+        String fileName = fileBaseName + "_export_" + LocalDate.now() + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(body);
+    }
+
+    private StreamingResponseBody body(Supplier<Stream<Document>> rows, List<ExportColumn> columns, ExportFormat format) {
+        return out -> {
+            long started = System.currentTimeMillis();
+            long count;
+            try (Stream<Document> stream = rows.get()) {
+                count = format == ExportFormat.XLSX
+                        ? writeXlsx(stream.iterator(), columns, out)
+                        : writeCsv(stream.iterator(), columns, out);
+            }
+            log.info("Exported {} rows as {} in {} ms", count, format, System.currentTimeMillis() - started);
+        };
+    }
+
+    private long writeCsv(Iterator<Document> rows, List<ExportColumn> columns, OutputStream out) throws IOException {
+        CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        writer.writeNext(columns.stream().map(ExportColumn::header).toArray(String[]::new));
+
+        long count = 0;
+        String[] line = new String[columns.size()];
+        while (rows.hasNext()) {
+            Document row = rows.next();
+            for (int i = 0; i < line.length; i++) {
+                line[i] = toText(value(row, columns.get(i).field()));
+            }
+            writer.writeNext(line);
+            if (++count % CSV_FLUSH_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeXlsx(Iterator<Document> rows, List<ExportColumn> columns, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+
+            Sheet sheet = newSheet(workbook, columns, 1);
+            int rowIndex = 1;
+            long count = 0;
+            while (rows.hasNext()) {
+                if (rowIndex > XLSX_MAX_ROWS_PER_SHEET) {
+                    sheet = newSheet(workbook, columns, workbook.getNumberOfSheets() + 1);
+                    rowIndex = 1;
+                }
+                Document document = rows.next();
+                Row row = sheet.createRow(rowIndex++);
+                for (int i = 0; i < columns.size(); i++) {
+                    setCell(row.createCell(i), value(document, columns.get(i).field()), dateStyle);
+                }
+                count++;
+            }
+            workbook.write(out);
+            return count;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private Sheet newSheet(SXSSFWorkbook workbook, List<ExportColumn> columns, int number) {
+        Sheet sheet = workbook.createSheet(number == 1 ? "Export" : "Export " + number);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < columns.size(); i++) {
+            header.createCell(i).setCellValue(columns.get(i).header());
+        }
+        return sheet;
+    }
+
+    private void setCell(Cell cell, Object value, CellStyle dateStyle) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Decimal128 decimal) {
+            cell.setCellValue(decimal.bigDecimalValue().doubleValue());
+        } else if (value instanceof Number number) {
+            cell.setCellValue(number.doubleValue());
+        } else if (value instanceof Boolean bool) {
+            cell.setCellValue(bool);
+        } else if (value instanceof Date date) {
+            cell.setCellValue(toLocalDateTime(date));
+            cell.setCellStyle(dateStyle);
+        } else {
+            cell.setCellValue(toText(value));
+        }
+    }
+
+    private String toText(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Date date) {
+            return toLocalDateTime(date).toString();
+        }
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue().toPlainString();
+        }
+        if (value instanceof ObjectId objectId) {
+            return objectId.toHexString();
+        }
+        if (value instanceof Document document) {
+            return document.toJson();
+        }
+        if (value instanceof Collection<?> values) {
+            return values.stream().map(this::toText).collect(Collectors.joining(", "));
+        }
+        return value.toString();
+    }
+
+    /**
+     * Convert a stored date with the application's Mongo converters, so exported times match the API
+     */
+    private LocalDateTime toLocalDateTime(Date date) {
+        return mongoTemplate.getConverter().getConversionService().convert(date, LocalDateTime.class);
+    }
+
+    /**
+     * Resolve a dotted field path; values inside arrays of sub-documents are collected
+     */
+    private Object value(Document document, String path) {
+        Object current = document;
+        for (String part : path.split("\\.")) {
+            if (current instanceof Document nested) {
+                current = nested.get(part);
+            } else if (current instanceof Collection<?> items) {
+                List<Object> values = new ArrayList<>(items.size());
+                for (Object item : items) {
+                    if (item instanceof Document nested) {
+                        values.add(nested.get(part));
+                    }
+                }
+                current = values;
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,294 @@
+package com.ultron.backend.service.inventory;
+
+import com.ultron.backend.domain.entity.StockMovementIndexStatus;
+import com.ultron.backend.domain.entity.StockMovementSummary;
+import com.ultron.backend.domain.entity.StockTransaction;
+import com.ultron.backend.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Maintains per-(tenant, product, warehouse) stock movement summaries from the transaction log.
+ *
+ * Each recorded transaction updates its summary atomically ($max / $inc), then re-derives the
+ * rolling consumption windows of that summary. Windows of summaries without new transactions
+ * are re-derived nightly. rebuild recomputes a tenant's summaries with one aggregation; it runs
+ * from the scheduler or on request, never from report reads.
+ *
+ * Reservations (RESERVED / RELEASED) do not move stock and are not counted as movement.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockMovementIndexService {
+
+    private static final List<StockTransaction.TransactionType> NON_MOVEMENT_TYPES =
+            List.of(StockTransaction.TransactionType.RESERVED, StockTransaction.TransactionType.RELEASED);
+    private static final StockTransaction.TransactionType CONSUMPTION_TYPE = StockTransaction.TransactionType.PRODUCTION_OUT;
+    private static final int USAGE_WINDOW_DAYS = 90;
+    private static final int RETAINED_DAYS = 365;
+    private static final int UPSERT_BATCH_SIZE = 1000;
+    private static final int REBUILD_LOCK_MINUTES = 30;
+    private static final String TIMEZONE = "Asia/Kolkata";
+    private static final FindAndModifyOptions UPSERT = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Apply a saved stock transaction to its summary. Failures are logged and never fail the
+     * transaction; a rebuild corrects drift.
+     */
+    public void record(StockTransaction transaction) {
+        if (transaction.getTenantId() == null || transaction.getProductId() == null
+                || NON_MOVEMENT_TYPES.contains(transaction.getTransactionType())) {
+            return;
+        }
+        try {
+            LocalDateTime timestamp = transaction.getTimestamp() != null ? transaction.getTimestamp() : LocalDateTime.now();
+            boolean consumption = transaction.getTransactionType() == CONSUMPTION_TYPE;
+            long quantity = transaction.getQuantity() != null ? transaction.getQuantity() : 0;
+
+            Update update = new Update().max("lastMovementAt", timestamp);
+            if (consumption) {
+                update.max("lastConsumedAt", timestamp)
+                        .inc("totalConsumed", quantity)
+                        .inc("dailyConsumption." + timestamp.toLocalDate(), quantity);
+            }
+            Query query = summaryQuery(transaction.getTenantId(), transaction.getProductId(), transaction.getWarehouseId());
+            StockMovementSummary summary;
+            try {
+                summary = mongoTemplate.findAndModify(query, update, UPSERT, StockMovementSummary.class);
+            } catch (DuplicateKeyException e) {
+                // A concurrent first movement of the same product created the summary; it now exists
+                summary = mongoTemplate.findAndModify(query, update, UPSERT, StockMovementSummary.class);
+            }
+            if (consumption && summary != null) {
+                refreshWindows(summary, LocalDate.now());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to update stock movement summary for product {}: {}", transaction.getProductId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-derive the rolling windows of a tenant's summaries that had consumption in the last year
+     */
+    public int refreshWindows(String tenantId) {
+        LocalDate today = LocalDate.now();
+        Query query = new Query(Criteria.where("tenantId").is(tenantId).and("consumed365Days").gt(0));
+        int refreshed = 0;
+        try (Stream<StockMovementSummary> summaries = mongoTemplate.stream(query, StockMovementSummary.class)) {
+            for (StockMovementSummary summary : (Iterable<StockMovementSummary>) summaries::iterator) {
+                refreshWindows(summary, today);
+                refreshed++;
+            }
+        }
+        return refreshed;
+    }
+
+    /**
+     * Recompute all summaries of a tenant from the transaction log. Summaries are upserted by key, so
+     * reports keep reading the previous values meanwhile and concurrent record() calls never collide
+     * with the rebuild; summaries the rebuild did not produce and no transaction touched since are
+     * removed at the end. One rebuild per tenant runs at a time.
+     */
+    public long rebuild(String tenantId) {
+        LocalDateTime started = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        if (!acquireRebuild(tenantId, started)) {
+            throw new BusinessException("Stock movement summaries are already being rebuilt");
+        }
+
+        Update release = new Update().unset("rebuildingSince");
+        try {
+            LocalDate today = LocalDate.now();
+            long count = 0;
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StockMovementSummary.class);
+            int batched = 0;
+            for (Document row : mongoTemplate.getCollection("inventory_transactions")
+                    .aggregate(rebuildPipeline(tenantId))
+                    .allowDiskUse(true)) {
+                Document key = row.get("_id", Document.class);
+                if (key.getString("productId") == null) {
+                    continue;
+                }
+                Map<String, Long> daily = new HashMap<>();
+                for (Document day : row.getList("days", Document.class, List.of())) {
+                    long consumed = ((Number) day.get("consumed")).longValue();
+                    if (consumed != 0) {
+                        daily.put(day.getString("day"), consumed);
+                    }
+                }
+                StockMovementSummary summary = StockMovementSummary.builder()
+                        .dailyConsumption(daily)
+                        .build();
+                applyWindows(summary, today);
+                ops.upsert(summaryQuery(tenantId, key.getString("productId"), key.getString("warehouseId")), new Update()
+                        .set("lastMovementAt", toLocalDateTime(row.get("lastMovementAt")))
+                        .set("lastConsumedAt", toLocalDateTime(row.get("lastConsumedAt")))
+                        .set("totalConsumed", ((Number) row.get("totalConsumed")).longValue())
+                        .set("dailyConsumption", summary.getDailyConsumption())
+                        .set("consumed30Days", summary.getConsumed30Days())
+                        .set("consumed90Days", summary.getConsumed90Days())
+                        .set("consumed365Days", summary.getConsumed365Days())
+                        .set("avgDailyUsage", summary.getAvgDailyUsage())
+                        .set("rebuiltAt", started));
+                count++;
+                if (++batched == UPSERT_BATCH_SIZE) {
+                    ops.execute();
+                    ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StockMovementSummary.class);
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                ops.execute();
+            }
+
+            // Left over from products whose transactions are gone; recorded movements since the start are kept
+            mongoTemplate.remove(new Query(Criteria.where("tenantId").is(tenantId)
+                    .and("lastMovementAt").lt(started)
+                    .orOperator(Criteria.where("rebuiltAt").is(null), Criteria.where("rebuiltAt").lt(started))),
+                    StockMovementSummary.class);
+
+            release.set("rebuiltAt", LocalDateTime.now()).set("summaryCount", count);
+            log.info("[Tenant: {}] Rebuilt {} stock movement summaries in {} ms", tenantId, count,
+                    Duration.between(started, LocalDateTime.now()).toMillis());
+            return count;
+        } finally {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(tenantId)), release, StockMovementIndexStatus.class);
+        }
+    }
+
+    public boolean isBuilt(String tenantId) {
+        return mongoTemplate.exists(new Query(Criteria.where("_id").is(tenantId).and("rebuiltAt").ne(null)),
+                StockMovementIndexStatus.class);
+    }
+
+    /**
+     * Mark a tenant's rebuild as running unless another one started within REBUILD_LOCK_MINUTES.
+     * The upsert inserts the status if there is none; if it exists and is locked, the insert fails
+     * on the _id.
+     */
+    private boolean acquireRebuild(String tenantId, LocalDateTime started) {
+        Query free = new Query(Criteria.where("_id").is(tenantId).orOperator(
+                Criteria.where("rebuildingSince").is(null),
+                Criteria.where("rebuildingSince").lt(started.minusMinutes(REBUILD_LOCK_MINUTES))));
+        try {
+            mongoTemplate.upsert(free, new Update().set("rebuildingSince", started), StockMovementIndexStatus.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void refreshWindows(StockMovementSummary summary, LocalDate today) {
+        Map<String, Long> before = new HashMap<>(summary.getDailyConsumption());
+        applyWindows(summary, today);
+
+        Update update = new Update()
+                .set("consumed30Days", summary.getConsumed30Days())
+                .set("consumed90Days", summary.getConsumed90Days())
+                .set("consumed365Days", summary.getConsumed365Days())
+                .set("avgDailyUsage", summary.getAvgDailyUsage());
+        before.keySet().stream()
+                .filter(day -> !summary.getDailyConsumption().containsKey(day))
+                .forEach(day -> update.unset("dailyConsumption." + day));
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(summary.getId())), update, StockMovementSummary.class);
+    }
+
+    /**
+     * Derive the rolling windows (days ending today) and drop days older than RETAINED_DAYS
+     */
+    private void applyWindows(StockMovementSummary summary, LocalDate today) {
+        String from30 = today.minusDays(30).toString();
+        String from90 = today.minusDays(USAGE_WINDOW_DAYS).toString();
+        String from365 = today.minusDays(RETAINED_DAYS).toString();
+
+        summary.getDailyConsumption().keySet().removeIf(day -> day.compareTo(from365) <= 0);
+        long consumed30 = 0;
+        long consumed90 = 0;
+        long consumed365 = 0;
+        for (Map.Entry<String, Long> day : summary.getDailyConsumption().entrySet()) {
+            long quantity = day.getValue() != null ? day.getValue() : 0;
+            consumed365 += quantity;
+            if (day.getKey().compareTo(from90) > 0) {
+                consumed90 += quantity;
+            }
+            if (day.getKey().compareTo(from30) > 0) {
+                consumed30 += quantity;
+            }
+        }
+        summary.setConsumed30Days(consumed30);
+        summary.setConsumed90Days(consumed90);
+        summary.setConsumed365Days(consumed365);
+        summary.setAvgDailyUsage(Math.round((double) consumed90 / USAGE_WINDOW_DAYS * 100.0) / 100.0);
+    }
+
+    private Query summaryQuery(String tenantId, String productId, String warehouseId) {
+        return new Query(Criteria.where("tenantId").is(tenantId)
+                .and("productId").is(productId)
+                .and("warehouseId").is(warehouseId));
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Date date
+                ? mongoTemplate.getConverter().getConversionService().convert(date, LocalDateTime.class)
+                : null;
+    }
+
+    /**
+     * Per (product, warehouse): last movement, last consumption, total consumed and
+     * consumption per IST day
+     */
+    private List<Document> rebuildPipeline(String tenantId) {
+        Document consumption = new Document("$eq", List.of("$transactionType", CONSUMPTION_TYPE.name()));
+        Document day = new Document("$dateToString", new Document()
+                .append("format", "%Y-%m-%d")
+                .append("date", "$timestamp")
+                .append("timezone", TIMEZONE)
+                .append("onNull", "1970-01-01"));
+
+        return List.of(
+                new Document("$match", new Document("tenantId", tenantId)
+                        .append("transactionType", new Document("$nin", NON_MOVEMENT_TYPES.stream().map(Enum::name).toList()))),
+                new Document("$group", new Document("_id", new Document()
+                        .append("productId", "$productId")
+                        .append("warehouseId", "$warehouseId")
+                        .append("day", day))
+                        .append("lastMovementAt", new Document("$max", "$timestamp"))
+                        .append("lastConsumedAt", new Document("$max", new Document("$cond", List.of(consumption, "$timestamp", null))))
+                        .append("consumed", new Document("$sum", new Document("$cond", List.of(consumption,
+                                new Document("$ifNull", List.of("$quantity", 0)), 0))))),
+                new Document("$group", new Document("_id", new Document()
+                        .append("productId", "$_id.productId")
+                        .append("warehouseId", "$_id.warehouseId"))
+                        .append("lastMovementAt", new Document("$max", "$lastMovementAt"))
+                        .append("lastConsumedAt", new Document("$max", "$lastConsumedAt"))
+                        .append("totalConsumed", new Document("$sum", "$consumed"))
+                        .append("days", new Document("$push", new Document("day", "$_id.day").append("consumed", "$consumed")))),
+                new Document("$project", new Document("lastMovementAt", 1)
+                        .append("lastConsumedAt", 1)
+                        .append("totalConsumed", 1)
+                        .append("days", new Document("$filter", new Document()
+                                .append("input", "$days")
+                                .append("cond", new Document("$ne", List.of("$$this.consumed", 0)))))));
+    }
+}
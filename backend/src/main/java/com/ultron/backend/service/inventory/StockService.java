@@ -39,6 +39,7 @@ public class StockService extends BaseTenantService {
     private final WarehouseService warehouseService;
     private final TransactionIdGeneratorService transactionIdGenerator;
     private final ProductMappingRepository productMappingRepository;
+    private final StockMovementIndexService stockMovementIndexService;
 
     public StockService(
         StockRepository stockRepository,
@@ -47,7 +48,8 @@ public class StockService extends BaseTenantService {
         ProductRepository structuredProductRepository,
         WarehouseService warehouseService,
         TransactionIdGeneratorService transactionIdGenerator,
-        ProductMappingRepository productMappingRepository
+        ProductMappingRepository productMappingRepository,
+        StockMovementIndexService stockMovementIndexService
     ) {
         this.stockRepository = stockRepository;
         this.transactionRepository = transactionRepository;
@@ -56,6 +58,7 @@ public class StockService extends BaseTenantService {
         this.warehouseService = warehouseService;
         this.transactionIdGenerator = transactionIdGenerator;
         this.productMappingRepository = productMappingRepository;
+        this.stockMovementIndexService = stockMovementIndexService;
     }
 
     /**
@@ -194,6 +197,7 @@ public class StockService extends BaseTenantService {
             .build();
 
         transactionRepository.save(transaction);
+        stockMovementIndexService.record(transaction);
 
         log.info("Adjusted stock for product: {} by {} {} at warehouse: {}",
             productId, direction, quantity, warehouseId);
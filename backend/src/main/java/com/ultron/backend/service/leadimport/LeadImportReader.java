@@ -0,0 +1,172 @@
+package com.ultron.backend.service.leadimport;
+
+import com.opencsv.CSVReader;
+import com.ultron.backend.exception.BusinessException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams the rows of an uploaded CSV or XLSX lead list in fixed-size chunks.
+ *
+ * Rows are maps keyed by the normalized header (lower case, letters and digits only). XLSX files
+ * are read with the SAX event API, so only the current chunk is held in memory.
+ */
+final class LeadImportReader {
+
+    private LeadImportReader() {
+    }
+
+    static boolean isSupported(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".xlsx");
+    }
+
+    static String normalizeHeader(String header) {
+        return header == null ? "" : header.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    /**
+     * Read the first sheet (XLSX) or the file (CSV), passing chunks of at most chunkSize rows to the handler
+     */
+    static void read(Path file, String fileName, int chunkSize, Consumer<List<Map<String, String>>> handler) throws Exception {
+        ChunkCollector collector = new ChunkCollector(chunkSize, handler);
+        if (fileName.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            readCsv(file, collector);
+        } else {
+            readXlsx(file, collector);
+        }
+        collector.flush();
+    }
+
+    private static void readCsv(Path file, ChunkCollector collector) throws Exception {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             CSVReader csvReader = new CSVReader(reader)) {
+            String[] headers = csvReader.readNext();
+            if (headers == null) {
+                throw new BusinessException("CSV file has no headers");
+            }
+            if (headers.length > 0 && headers[0] != null && headers[0].startsWith("\uFEFF")) {
+                headers[0] = headers[0].substring(1);
+            }
+            String[] keys = new String[headers.length];
+            for (int i = 0; i < headers.length; i++) {
+                keys[i] = normalizeHeader(headers[i]);
+            }
+
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < Math.min(row.length, keys.length); i++) {
+                    values.put(keys[i], row[i]);
+                }
+                collector.add(values);
+            }
+        }
+    }
+
+    private static void readXlsx(Path file, ChunkCollector collector) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new BusinessException("Excel file has no sheets");
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+                        new ReadOnlySharedStringsTable(pkg), new SheetRows(collector), new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+    }
+
+    /**
+     * First row is the header; every later row becomes a map of header to formatted cell value
+     */
+    private static class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final ChunkCollector collector;
+        private final Map<Integer, String> keys = new HashMap<>();
+        private boolean headerRead;
+        private Map<String, String> current;
+        private int column;
+
+        SheetRows(ChunkCollector collector) {
+            this.collector = collector;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            current = new HashMap<>();
+            column = -1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!headerRead) {
+                headerRead = true;
+            } else if (!current.isEmpty()) {
+                collector.add(current);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            column = cellReference != null ? new CellReference(cellReference).getCol() : column + 1;
+            if (!headerRead) {
+                keys.put(column, normalizeHeader(formattedValue));
+            } else if (keys.containsKey(column)) {
+                current.put(keys.get(column), formattedValue);
+            }
+        }
+    }
+
+    private static class ChunkCollector {
+
+        private final int chunkSize;
+        private final Consumer<List<Map<String, String>>> handler;
+        private List<Map<String, String>> chunk;
+
+        ChunkCollector(int chunkSize, Consumer<List<Map<String, String>>> handler) {
+            this.chunkSize = chunkSize;
+            this.handler = handler;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        void add(Map<String, String> row) {
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!chunk.isEmpty()) {
+                handler.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+    }
+}
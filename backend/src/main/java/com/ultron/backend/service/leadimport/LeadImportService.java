@@ -0,0 +1,609 @@
+package com.ultron.backend.service.leadimport;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.ultron.backend.domain.entity.Lead;
+import com.ultron.backend.domain.entity.LeadImportJob;
+import com.ultron.backend.domain.entity.User;
+import com.ultron.backend.domain.enums.CompanySize;
+import com.ultron.backend.domain.enums.Industry;
+import com.ultron.backend.domain.enums.LeadSource;
+import com.ultron.backend.domain.enums.LeadStatus;
+import com.ultron.backend.domain.enums.RollupEntity;
+import com.ultron.backend.dto.response.LeadImportJobResponse;
+import com.ultron.backend.exception.BusinessException;
+import com.ultron.backend.exception.ResourceNotFoundException;
+import com.ultron.backend.multitenancy.TenantContext;
+import com.ultron.backend.service.AnalyticsRollupService;
+import com.ultron.backend.service.BaseTenantService;
+import com.ultron.backend.service.LeadAssignmentService;
+import com.ultron.backend.service.LeadIdGeneratorService;
+import com.ultron.backend.service.LeadScoringService;
+import com.ultron.backend.service.NotificationService;
+import com.ultron.backend.service.OrganizationService;
+import com.ultron.backend.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.ultron.backend.config.CacheConfig.DASHBOARD_STATS_CACHE;
+import static com.ultron.backend.config.CacheConfig.GROWTH_TRENDS_CACHE;
+
+/**
+ * Bulk lead import from CSV / XLSX lead lists.
+ *
+ * The upload is parsed in the background in chunks (app.lead-import.chunk-size). Per chunk, rows
+ * are deduplicated by normalized email and phone against a hash set seeded with the tenant's
+ * existing leads, scored and auto-assigned as a batch and inserted with one unordered bulk write.
+ * Imported leads do not get an account or contact; those are created when a lead is converted.
+ *
+ * Progress goes to the importer over the notification WebSocket (/user/queue/progress) and is saved
+ * to lead_import_jobs after every chunk, so any instance can report it; at the end each assignee gets
+ * one digest notification instead of one per lead. On shutdown running imports get
+ * app.lead-import.shutdown-grace-seconds to finish and are then stopped and marked failed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeadImportService extends BaseTenantService {
+
+    public static final String PROGRESS_TYPE = "LEAD_IMPORT";
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int MAX_ERRORS = 50;
+    private static final String INTERRUPTED = "Import interrupted by a server shutdown";
+
+    private final MongoTemplate mongoTemplate;
+    private final LeadIdGeneratorService leadIdGenerator;
+    private final LeadScoringService scoringService;
+    private final LeadAssignmentService leadAssignmentService;
+    private final UserService userService;
+    private final NotificationService notificationService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final OrganizationService organizationService;
+    private final CacheManager cacheManager;
+
+    @Value("${app.lead-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.lead-import.parallelism:2}")
+    private int parallelism;
+
+    @Value("${app.lead-import.shutdown-grace-seconds:30}")
+    private long shutdownGraceSeconds;
+
+    // Imports queued or running on this node, to mark the ones a shutdown cuts off
+    private final Map<String, ActiveImport> active = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) {
+                log.warn("Stopping {} lead imports still running after {}s", active.size(), shutdownGraceSeconds);
+                executor.shutdownNow();
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // Imports that never started, or did not notice the interrupt, would otherwise stay RUNNING
+        active.values().forEach(stopped -> {
+            synchronized (stopped.job) {
+                if (stopped.job.getCompletedAt() == null) {
+                    stopped.job.setStatus("FAILED");
+                    stopped.job.setCompletedAt(LocalDateTime.now());
+                    addError(stopped.job, INTERRUPTED);
+                }
+            }
+            save(stopped.job, stopped.tenantId, stopped.importedByUserId);
+        });
+    }
+
+    /**
+     * Queue an import of the uploaded file for the current tenant; rows become leads owned by the importer
+     */
+    public LeadImportJobResponse startImport(MultipartFile file, String importedByUserId) {
+        String tenantId = getCurrentTenantId();
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "leads.csv";
+        if (file.isEmpty()) {
+            throw new BusinessException("Uploaded file is empty");
+        }
+        if (!LeadImportReader.isSupported(fileName)) {
+            throw new BusinessException("Unsupported file format. Use CSV or XLSX.");
+        }
+
+        // The multipart temp file is removed when the request ends, so the upload is copied first
+        Path copy;
+        try {
+            copy = Files.createTempFile("lead-import-", fileName.substring(fileName.lastIndexOf('.')));
+            file.transferTo(copy);
+        } catch (IOException e) {
+            throw new BusinessException("Failed to store uploaded file: " + e.getMessage());
+        }
+
+        LeadImportJobResponse job = LeadImportJobResponse.builder()
+                .jobId(new ObjectId().toHexString())
+                .type(PROGRESS_TYPE)
+                .fileName(fileName)
+                .status("QUEUED")
+                .errors(new ArrayList<>())
+                .startedAt(LocalDateTime.now())
+                .build();
+        save(job, tenantId, importedByUserId);
+        active.put(job.getJobId(), new ActiveImport(job, tenantId, importedByUserId));
+
+        log.info("[Tenant: {}] Queued lead import {} of {} by {}", tenantId, job.getJobId(), fileName, importedByUserId);
+        executor.submit(() -> runImport(job, copy, tenantId, importedByUserId));
+        return snapshot(job);
+    }
+
+    public LeadImportJobResponse getJob(String jobId) {
+        LeadImportJob job = mongoTemplate.findOne(new Query(Criteria.where("_id").is(jobId)
+                .and("tenantId").is(getCurrentTenantId())), LeadImportJob.class);
+        if (job == null) {
+            throw new ResourceNotFoundException("Lead import job not found: " + jobId);
+        }
+        return toResponse(job);
+    }
+
+    private void runImport(LeadImportJobResponse job, Path file, String tenantId, String importedByUserId) {
+        TenantContext.setTenantId(tenantId);
+        TenantContext.setUserId(importedByUserId);
+        long started = System.currentTimeMillis();
+        ImportRun run = new ImportRun(tenantId, importedByUserId, userService.getUserFullName(importedByUserId));
+        try {
+            synchronized (job) {
+                job.setStatus("RUNNING");
+            }
+            run.seen.addAll(existingKeys(tenantId));
+            publish(job, importedByUserId);
+
+            LeadImportReader.read(file, job.getFileName(), Math.max(1, chunkSize), rows -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException(INTERRUPTED);
+                }
+                importChunk(job, run, rows);
+                save(job, tenantId, importedByUserId);
+                publish(job, importedByUserId);
+            });
+
+            synchronized (job) {
+                job.setStatus("COMPLETED");
+            }
+            log.info("[Tenant: {}] Lead import {} done in {} ms: {} imported, {} duplicates, {} invalid, {} failed",
+                    tenantId, job.getJobId(), System.currentTimeMillis() - started,
+                    job.getImported(), job.getDuplicates(), job.getInvalid(), job.getFailed());
+        } catch (Exception e) {
+            log.error("[Tenant: {}] Lead import {} failed", tenantId, job.getJobId(), e);
+            synchronized (job) {
+                job.setStatus("FAILED");
+                addError(job, e.getMessage());
+            }
+        } finally {
+            synchronized (job) {
+                job.setCompletedAt(LocalDateTime.now());
+            }
+            // A job whose final state was not saved stays active, so the shutdown hook saves it
+            if (save(job, tenantId, importedByUserId)) {
+                active.remove(job.getJobId());
+            }
+            try {
+                evictCaches(tenantId, job);
+                sendDigests(job, run);
+                publish(job, importedByUserId);
+            } finally {
+                TenantContext.clear();
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Failed to delete lead import file {}: {}", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void importChunk(LeadImportJobResponse job, ImportRun run, List<Map<String, String>> rows) {
+        List<Lead> leads = new ArrayList<>(rows.size());
+        for (Map<String, String> row : rows) {
+            long rowNumber;
+            synchronized (job) {
+                rowNumber = job.getRowsRead() + 2; // header is row 1
+                job.setRowsRead(job.getRowsRead() + 1);
+            }
+
+            Lead lead = toLead(row, run);
+            if (lead == null) {
+                synchronized (job) {
+                    job.setInvalid(job.getInvalid() + 1);
+                    addError(job, "Row " + rowNumber + ": first name, last name and a valid email are required");
+                }
+                continue;
+            }
+            String emailKey = "e:" + lead.getEmail();
+            String phoneKey = normalizePhone(lead.getPhone());
+            if (run.seen.contains(emailKey) || (phoneKey != null && run.seen.contains("p:" + phoneKey))) {
+                synchronized (job) {
+                    job.setDuplicates(job.getDuplicates() + 1);
+                }
+                continue;
+            }
+            run.seen.add(emailKey);
+            if (phoneKey != null) {
+                run.seen.add("p:" + phoneKey);
+            }
+            leads.add(lead);
+        }
+        if (leads.isEmpty()) {
+            return;
+        }
+
+        // The whole chunk is counted against the lead limit; rows that are not written are given back
+        OrganizationService.UsageReservation reservation =
+                organizationService.tryReserveUsage(run.tenantId, "LEADS", leads.size());
+        if (!reservation.reserved()) {
+            synchronized (job) {
+                job.setFailed(job.getFailed() + leads.size());
+                addError(job, reservation.message());
+            }
+            return;
+        }
+
+        // New leads have no activities yet
+        scoringService.scoreAll(leads, Map.of());
+
+        List<User> assignees = List.of();
+        try {
+            assignees = leadAssignmentService.selectAutoAssignees(run.tenantId, leads.size());
+        } catch (Exception e) {
+            log.error("[Tenant: {}] Auto-assignment failed for imported leads", run.tenantId, e);
+        }
+        for (int i = 0; i < assignees.size(); i++) {
+            leadAssignmentService.applyAssignment(leads.get(i), assignees.get(i));
+        }
+
+        Set<Integer> rejected;
+        try {
+            rejected = insert(job, leads);
+        } catch (RuntimeException e) {
+            organizationService.releaseUsage(run.tenantId, "LEADS", leads.size());
+            throw e;
+        }
+        organizationService.releaseUsage(run.tenantId, "LEADS", rejected.size());
+
+        List<Document> created = new ArrayList<>(leads.size());
+        for (int i = 0; i < leads.size(); i++) {
+            if (rejected.contains(i)) {
+                continue;
+            }
+            Lead lead = leads.get(i);
+            if (lead.getAssignedUserId() != null) {
+                run.assigned.merge(lead.getAssignedUserId(), 1L, Long::sum);
+            }
+            Document document = new Document();
+            mongoTemplate.getConverter().write(lead, document);
+            created.add(document);
+        }
+        try {
+            analyticsRollupService.recordCreated(RollupEntity.LEAD, run.tenantId, created);
+        } catch (Exception e) {
+            log.warn("Failed to update lead analytics rollup for import {}: {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Insert a chunk with one unordered bulk write; returns the indexes of leads that were not written
+     */
+    private Set<Integer> insert(LeadImportJobResponse job, List<Lead> leads) {
+        Set<Integer> rejected = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Lead.class).insert(leads).execute();
+        } catch (BulkOperationException e) {
+            synchronized (job) {
+                for (BulkWriteError error : e.getErrors()) {
+                    rejected.add(error.getIndex());
+                    if (error.getCode() == DUPLICATE_KEY) {
+                        // Email already used by a lead of another tenant (unique index)
+                        job.setDuplicates(job.getDuplicates() + 1);
+                    } else {
+                        job.setFailed(job.getFailed() + 1);
+                        addError(job, "Lead " + leads.get(error.getIndex()).getEmail() + ": " + error.getMessage());
+                    }
+                }
+            }
+        }
+        synchronized (job) {
+            job.setImported(job.getImported() + leads.size() - rejected.size());
+        }
+        return rejected;
+    }
+
+    private Lead toLead(Map<String, String> row, ImportRun run) {
+        String firstName = value(row, "firstname", "first");
+        String lastName = value(row, "lastname", "last", "surname");
+        String email = value(row, "email", "emailaddress", "emailid");
+        if (firstName == null || lastName == null || email == null || !email.contains("@")) {
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LeadSource source = parseEnum(LeadSource.class, value(row, "leadsource", "source"));
+        return Lead.builder()
+                .id(new ObjectId().toHexString())
+                .leadId(leadIdGenerator.generateLeadId())
+                .tenantId(run.tenantId)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email.toLowerCase(Locale.ROOT))
+                .phone(value(row, "phone", "phonenumber", "contactnumber"))
+                .companyName(value(row, "companyname", "company", "organization", "organisation"))
+                .gstNumber(value(row, "gstnumber", "gst", "gstin"))
+                .jobTitle(value(row, "jobtitle", "title", "designation"))
+                .department(value(row, "department"))
+                .mobilePhone(value(row, "mobilephone", "mobile"))
+                .workPhone(value(row, "workphone"))
+                .linkedInProfile(value(row, "linkedinprofile", "linkedin"))
+                .website(value(row, "website"))
+                .industry(parseEnum(Industry.class, value(row, "industry")))
+                .companySize(parseEnum(CompanySize.class, value(row, "companysize")))
+                .annualRevenue(parseDecimal(value(row, "annualrevenue")))
+                .numberOfEmployees(parseInteger(value(row, "numberofemployees", "employees")))
+                .country(value(row, "country"))
+                .state(value(row, "state"))
+                .city(value(row, "city"))
+                .streetAddress(value(row, "streetaddress", "address", "street"))
+                .postalCode(value(row, "postalcode", "zip", "zipcode", "pincode"))
+                .leadSource(source != null ? source : LeadSource.OTHER)
+                .leadStatus(LeadStatus.NEW)
+                .leadOwnerId(run.importedByUserId)
+                .leadOwnerName(run.importedByName)
+                .expectedRevenue(parseDecimal(value(row, "expectedrevenue")))
+                .description(value(row, "description", "notes"))
+                .tags(parseTags(value(row, "tags")))
+                .createdAt(now)
+                .createdBy(run.importedByUserId)
+                .lastModifiedAt(now)
+                .lastModifiedBy(run.importedByUserId)
+                .isDeleted(false)
+                .build();
+    }
+
+    /**
+     * Emails and phones of the tenant's leads, normalized like imported rows
+     */
+    private Set<String> existingKeys(String tenantId) {
+        Set<String> keys = new HashSet<>();
+        for (Document lead : mongoTemplate.getCollection("leads")
+                .find(Filters.and(Filters.eq("tenantId", tenantId), Filters.ne("isDeleted", true)))
+                .projection(Projections.include("email", "phone"))) {
+            String email = lead.getString("email");
+            if (email != null) {
+                keys.add("e:" + email.trim().toLowerCase(Locale.ROOT));
+            }
+            String phone = normalizePhone(lead.getString("phone"));
+            if (phone != null) {
+                keys.add("p:" + phone);
+            }
+        }
+        return keys;
+    }
+
+    private void sendDigests(LeadImportJobResponse job, ImportRun run) {
+        run.assigned.forEach((userId, count) -> {
+            try {
+                notificationService.createAndSendNotification(userId,
+                        "Leads Auto-Assigned: " + count + " new leads",
+                        count + " leads imported from " + job.getFileName() + " have been auto-assigned to you.",
+                        "LEAD_ASSIGNED",
+                        "/leads");
+            } catch (Exception e) {
+                log.error("Failed to send lead import digest to {}", userId, e);
+            }
+        });
+        try {
+            notificationService.createAndSendNotification(run.importedByUserId,
+                    "Lead Import " + ("COMPLETED".equals(job.getStatus()) ? "Completed" : "Failed") + ": " + job.getFileName(),
+                    job.getImported() + " imported, " + job.getDuplicates() + " duplicates, "
+                            + job.getInvalid() + " invalid, " + job.getFailed() + " failed",
+                    PROGRESS_TYPE,
+                    "/leads");
+        } catch (Exception e) {
+            log.error("Failed to send lead import summary to {}", run.importedByUserId, e);
+        }
+    }
+
+    private void evictCaches(String tenantId, LeadImportJobResponse job) {
+        if (job.getImported() == 0) {
+            return;
+        }
+        Cache dashboard = cacheManager.getCache(DASHBOARD_STATS_CACHE);
+        if (dashboard != null) {
+            dashboard.evict(tenantId);
+        }
+        Cache trends = cacheManager.getCache(GROWTH_TRENDS_CACHE);
+        if (trends != null) {
+            trends.clear();
+        }
+    }
+
+    private void publish(LeadImportJobResponse job, String userId) {
+        try {
+            notificationService.sendProgress(userId, snapshot(job));
+        } catch (Exception e) {
+            log.debug("Failed to send lead import progress: {}", e.getMessage());
+        }
+    }
+
+    private boolean save(LeadImportJobResponse job, String tenantId, String importedByUserId) {
+        LeadImportJobResponse current = snapshot(job);
+        try {
+            mongoTemplate.save(LeadImportJob.builder()
+                    .id(current.getJobId())
+                    .tenantId(tenantId)
+                    .importedBy(importedByUserId)
+                    .fileName(current.getFileName())
+                    .status(current.getStatus())
+                    .rowsRead(current.getRowsRead())
+                    .imported(current.getImported())
+                    .duplicates(current.getDuplicates())
+                    .invalid(current.getInvalid())
+                    .failed(current.getFailed())
+                    .errors(current.getErrors())
+                    .startedAt(current.getStartedAt())
+                    .updatedAt(LocalDateTime.now())
+                    .completedAt(current.getCompletedAt())
+                    .build());
+            return true;
+        } catch (Exception e) {
+            // Progress is saved again after the next chunk
+            log.warn("Failed to save lead import {}: {}", current.getJobId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private LeadImportJobResponse toResponse(LeadImportJob job) {
+        return LeadImportJobResponse.builder()
+                .jobId(job.getId())
+                .type(PROGRESS_TYPE)
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .rowsRead(job.getRowsRead())
+                .imported(job.getImported())
+                .duplicates(job.getDuplicates())
+                .invalid(job.getInvalid())
+                .failed(job.getFailed())
+                .errors(job.getErrors() != null ? job.getErrors() : List.of())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private LeadImportJobResponse snapshot(LeadImportJobResponse job) {
+        synchronized (job) {
+            return job.toBuilder().errors(List.copyOf(job.getErrors())).build();
+        }
+    }
+
+    private void addError(LeadImportJobResponse job, String error) {
+        synchronized (job) {
+            if (job.getErrors().size() < MAX_ERRORS) {
+                job.getErrors().add(error);
+            }
+        }
+    }
+
+    private String value(Map<String, String> row, String... columns) {
+        for (String column : columns) {
+            String value = row.get(column);
+            if (value != null && !value.isBlank()) {
+                return value.trim();
+            }
+        }
+        return null;
+    }
+
+    static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("\\D", "");
+        if (digits.isEmpty()) {
+            return null;
+        }
+        // Compare national numbers, so +91 98765 43210 and 098765-43210 match
+        return digits.length() > 10 ? digits.substring(digits.length() - 10) : digits;
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]+", "_"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private BigDecimal parseDecimal(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.replaceAll("[^0-9.\\-]", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Integer parseInteger(String value) {
+        BigDecimal decimal = parseDecimal(value);
+        return decimal != null ? decimal.intValue() : null;
+    }
+
+    private List<String> parseTags(String value) {
+        if (value == null) {
+            return null;
+        }
+        return Arrays.stream(value.split("[;,]")).map(String::trim).filter(tag -> !tag.isEmpty()).toList();
+    }
+
+    private record ActiveImport(LeadImportJobResponse job, String tenantId, String importedByUserId) {
+    }
+
+    /**
+     * State of one import run: the dedupe keys seen so far and the leads assigned per user
+     */
+    private static class ImportRun {
+        private final String tenantId;
+        private final String importedByUserId;
+        private final String importedByName;
+        private final Set<String> seen = new HashSet<>();
+        private final Map<String, Long> assigned = new LinkedHashMap<>();
+
+        ImportRun(String tenantId, String importedByUserId, String importedByName) {
+            this.tenantId = tenantId;
+            this.importedByUserId = importedByUserId;
+            this.importedByName = importedByName;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ultron.backend.service.scoring;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick matcher over a fixed set of keywords, each carrying a weight.
+ *
+ * The automaton is built once; maxWeight scans a text in a single pass and returns the highest
+ * weight of all keywords occurring anywhere in it (case-insensitive substring match), or 0.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class KeywordMatcher {
+
+    private static final class Node {
+        private final Map<Character, Node> next = new HashMap<>();
+        private Node fail;
+        // Highest weight of the keywords ending here, including those reached through fail links
+        private int weight;
+    }
+
+    private final Node root = new Node();
+
+    private KeywordMatcher(Map<String, Integer> keywords) {
+        keywords.forEach((keyword, weight) -> {
+            Node node = root;
+            for (char c : keyword.toLowerCase(Locale.ROOT).toCharArray()) {
+                node = node.next.computeIfAbsent(c, k -> new Node());
+            }
+            node.weight = Math.max(node.weight, weight);
+        });
+
+        // Breadth-first: fail links point to the longest proper suffix that is also a prefix
+        Queue<Node> queue = new ArrayDeque<>();
+        root.fail = root;
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> edge : node.next.entrySet()) {
+                Node child = edge.getValue();
+                Node fail = node.fail;
+                while (fail != root && !fail.next.containsKey(edge.getKey())) {
+                    fail = fail.fail;
+                }
+                Node target = fail.next.get(edge.getKey());
+                child.fail = target != null && target != child ? target : root;
+                child.weight = Math.max(child.weight, child.fail.weight);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Compile keywords (keyword -> weight) into a matcher
+     */
+    public static KeywordMatcher of(Map<String, Integer> keywords) {
+        return new KeywordMatcher(keywords);
+    }
+
+    /**
+     * Highest weight of the keywords contained in text, 0 when none or text is null
+     */
+    public int maxWeight(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int best = 0;
+        Node node = root;
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            while (node != root && !node.next.containsKey(c)) {
+                node = node.fail;
+            }
+            node = node.next.getOrDefault(c, root);
+            best = Math.max(best, node.weight);
+        }
+        return best;
+    }
+}
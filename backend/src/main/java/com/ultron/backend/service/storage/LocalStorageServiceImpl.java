@@ -1,22 +1,37 @@
 package com.ultron.backend.service.storage;
 
+import com.ultron.backend.exception.BusinessException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service @Slf4j
 public class LocalStorageServiceImpl implements StorageService {
     private static final String UPLOAD_DIR = "./uploads/drive/";
+    // Chunks of in-progress uploads: ./uploads/drive/.parts/{uploadId}/{chunkIndex}
+    private static final String PARTS_DIR = UPLOAD_DIR + ".parts/";
+    private static final String COMPOSED = "composed";
+    private static final Pattern UPLOAD_ID = Pattern.compile("[A-Za-z0-9-]+");
 
     public LocalStorageServiceImpl() {
         try {
             Files.createDirectories(Paths.get(UPLOAD_DIR));
+            Files.createDirectories(Paths.get(PARTS_DIR));
         } catch (IOException e) {
             log.error("Failed to create upload directory", e);
         }
@@ -25,7 +40,7 @@ public class LocalStorageServiceImpl implements StorageService {
     @Override
     public void uploadFile(String key, InputStream inputStream, long size) {
         try {
-            Path target = Paths.get(UPLOAD_DIR + key.replace("/", "_"));
+            Path target = path(key);
             Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file: " + key, e);
@@ -40,9 +55,132 @@ public class LocalStorageServiceImpl implements StorageService {
     @Override
     public void deleteFile(String key) {
         try {
-            Files.deleteIfExists(Paths.get(UPLOAD_DIR + key.replace("/", "_")));
+            Files.deleteIfExists(path(key));
         } catch (IOException e) {
             log.warn("Failed to delete file: {}", key);
         }
     }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(path(key));
+    }
+
+    @Override
+    public FileChannel openChannel(String key) throws IOException {
+        return FileChannel.open(path(key), StandardOpenOption.READ);
+    }
+
+    @Override
+    public String writeChunk(String uploadId, int chunkIndex, InputStream inputStream, long maxBytes) {
+        Path part = null;
+        try {
+            Path dir = Files.createDirectories(partsDir(uploadId));
+            // Unique per request, so concurrent sends of the same chunk never write into one file
+            part = dir.resolve(chunkIndex + "." + UUID.randomUUID() + ".tmp");
+            MessageDigest digest = sha256();
+            long size = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(part, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) throw new BusinessException("Chunk is larger than " + maxBytes + " bytes");
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            // A retried chunk replaces the previous attempt only once fully written
+            Files.move(part, dir.resolve(String.valueOf(chunkIndex)), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store chunk " + chunkIndex + " of upload " + uploadId, e);
+        } finally {
+            deleteQuietly(part);
+        }
+    }
+
+    @Override
+    public ComposedUpload composeChunks(String uploadId, int chunkCount) {
+        Path dir = partsDir(uploadId);
+        MessageDigest digest = sha256();
+        long size = 0;
+        byte[] buffer = new byte[64 * 1024];
+        if (chunkCount == 1) {
+            // Nothing to concatenate: hash the single chunk and rename it instead of copying
+            try (InputStream in = Files.newInputStream(dir.resolve("0"))) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    size += read;
+                }
+                Files.move(dir.resolve("0"), dir.resolve(COMPOSED), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to compose upload " + uploadId, e);
+            }
+            return new ComposedUpload(HexFormat.of().formatHex(digest.digest()), size);
+        }
+        try (OutputStream out = Files.newOutputStream(dir.resolve(COMPOSED))) {
+            for (int i = 0; i < chunkCount; i++) {
+                try (InputStream in = Files.newInputStream(dir.resolve(String.valueOf(i)))) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                        out.write(buffer, 0, read);
+                        size += read;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compose upload " + uploadId, e);
+        }
+        return new ComposedUpload(HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    @Override
+    public void promote(String uploadId, String key) {
+        try {
+            Files.move(partsDir(uploadId).resolve(COMPOSED), path(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + key, e);
+        }
+    }
+
+    @Override
+    public void deleteUpload(String uploadId) {
+        Path dir = partsDir(uploadId);
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.warn("Failed to delete upload parts: {}", uploadId);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", file);
+        }
+    }
+
+    private Path path(String key) {
+        return Paths.get(UPLOAD_DIR + key.replace("/", "_"));
+    }
+
+    private Path partsDir(String uploadId) {
+        if (!UPLOAD_ID.matcher(uploadId).matches()) throw new BusinessException("Invalid upload id");
+        return Paths.get(PARTS_DIR, uploadId);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -1,7 +1,24 @@
 package com.ultron.backend.service.storage;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 public interface StorageService {
     void uploadFile(String key, InputStream inputStream, long size);
     String getFileUrl(String key);
     void deleteFile(String key);
+
+    boolean exists(String key);
+    /** Read-only channel over a stored file, for ranged and zero-copy reads */
+    FileChannel openChannel(String key) throws IOException;
+
+    // Chunked uploads: chunks are staged per upload until composed into one staged file
+    /** Store one chunk of at most maxBytes (larger input is rejected); returns its SHA-256 (hex) */
+    String writeChunk(String uploadId, int chunkIndex, InputStream inputStream, long maxBytes);
+    /** Concatenate chunks 0..chunkCount-1 into the staged file; returns its SHA-256 (hex) and size */
+    ComposedUpload composeChunks(String uploadId, int chunkCount);
+    /** Move the composed file of an upload to key (replacing an identical existing file) */
+    void promote(String uploadId, String key);
+    void deleteUpload(String uploadId);
+
+    record ComposedUpload(String sha256, long size) {}
 }
@@ -0,0 +1,142 @@
+package com.ultron.backend.service.versioning;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Field-level deltas between two BSON documents.
+ *
+ * A delta is a list of operations, each with a path "p" (field names and list indexes):
+ * "v" sets a value, "u" removes a field, "n" truncates a list and "k" restores the field order of
+ * an embedded document. Applying diff(a, b) to a copy of a yields a document equal to b, including
+ * field order, so both encode to the same bytes.
+ */
+public final class DocumentDelta {
+
+    private static final String PATH = "p";
+    private static final String SET = "v";
+    private static final String UNSET = "u";
+    private static final String TRUNCATE = "n";
+    private static final String ORDER = "k";
+
+    private DocumentDelta() {
+    }
+
+    /**
+     * Operations turning from into to; empty when they are identical
+     */
+    public static List<Document> diff(Document from, Document to) {
+        List<Document> ops = new ArrayList<>();
+        diffDocument(new ArrayList<>(), from, to, ops);
+        return ops;
+    }
+
+    /**
+     * Apply operations to base in place and return it
+     */
+    public static Document apply(Document base, List<Document> ops) {
+        for (Document op : ops) {
+            List<?> path = op.getList(PATH, Object.class);
+            if (op.containsKey(ORDER)) {
+                Document target = (Document) resolve(base, path, path.size());
+                Document reordered = new Document();
+                for (String key : op.getList(ORDER, String.class)) {
+                    reordered.put(key, target.get(key));
+                }
+                target.clear();
+                target.putAll(reordered);
+                continue;
+            }
+            if (op.containsKey(TRUNCATE)) {
+                List<?> list = (List<?>) resolve(base, path, path.size());
+                list.subList(op.getInteger(TRUNCATE), list.size()).clear();
+                continue;
+            }
+            Object parent = resolve(base, path, path.size() - 1);
+            Object last = path.get(path.size() - 1);
+            if (op.containsKey(UNSET)) {
+                ((Document) parent).remove(last);
+            } else if (parent instanceof Document document) {
+                document.put((String) last, op.get(SET));
+            } else {
+                @SuppressWarnings("unchecked")
+                List<Object> list = (List<Object>) parent;
+                int index = (Integer) last;
+                if (index == list.size()) {
+                    list.add(op.get(SET));
+                } else {
+                    list.set(index, op.get(SET));
+                }
+            }
+        }
+        return base;
+    }
+
+    private static void diffDocument(List<Object> path, Document from, Document to, List<Document> ops) {
+        List<String> expectedOrder = new ArrayList<>();
+        for (String key : from.keySet()) {
+            if (!to.containsKey(key)) {
+                ops.add(op(path, key).append(UNSET, true));
+            } else {
+                expectedOrder.add(key);
+                diffValue(child(path, key), from.get(key), to.get(key), ops);
+            }
+        }
+        for (String key : to.keySet()) {
+            if (!from.containsKey(key)) {
+                ops.add(op(path, key).append(SET, to.get(key)));
+                expectedOrder.add(key);
+            }
+        }
+        List<String> order = new ArrayList<>(to.keySet());
+        if (!order.equals(expectedOrder)) {
+            ops.add(new Document(PATH, new ArrayList<>(path)).append(ORDER, order));
+        }
+    }
+
+    private static void diffList(List<Object> path, List<?> from, List<?> to, List<Document> ops) {
+        int common = Math.min(from.size(), to.size());
+        for (int i = 0; i < common; i++) {
+            diffValue(child(path, i), from.get(i), to.get(i), ops);
+        }
+        for (int i = common; i < to.size(); i++) {
+            ops.add(op(path, i).append(SET, to.get(i)));
+        }
+        if (to.size() < from.size()) {
+            ops.add(new Document(PATH, new ArrayList<>(path)).append(TRUNCATE, to.size()));
+        }
+    }
+
+    private static void diffValue(List<Object> path, Object from, Object to, List<Document> ops) {
+        if (from instanceof Document a && to instanceof Document b) {
+            diffDocument(path, a, b, ops);
+        } else if (from instanceof List<?> a && to instanceof List<?> b) {
+            diffList(path, a, b, ops);
+        } else if (!Objects.equals(from, to)) {
+            ops.add(new Document(PATH, path).append(SET, to));
+        }
+    }
+
+    private static Object resolve(Document root, List<?> path, int depth) {
+        Object node = root;
+        for (int i = 0; i < depth; i++) {
+            Object segment = path.get(i);
+            node = segment instanceof Integer index ? ((List<?>) node).get(index) : ((Document) node).get(segment);
+        }
+        return node;
+    }
+
+    private static Document op(List<Object> path, Object last) {
+        return new Document(PATH, child(path, last));
+    }
+
+    private static List<Object> child(List<Object> path, Object segment) {
+        List<Object> child = new ArrayList<>(path.size() + 1);
+        child.addAll(path);
+        child.add(segment);
+        return child;
+    }
+}
@@ -0,0 +1,322 @@
+package com.ultron.backend.service.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ultron.backend.domain.entity.WebhookEndpoint;
+import com.ultron.backend.domain.entity.WebhookEvent;
+import com.ultron.backend.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Delivers pending webhook events to their endpoints.
+ *
+ * Each tick (app.webhooks.poll-ms) claims up to app.webhooks.batch-size due events with a lease
+ * (leaseId / leaseExpiresAt), so several instances never send the same event at once and events
+ * of a crashed worker are picked up again when the lease expires. Requests go out through one
+ * pooled, non-blocking HttpClient; each endpoint has at most maxConcurrency requests in flight,
+ * and events that find their endpoint saturated are released for the next tick. Endpoints with
+ * batchSize > 1 receive up to that many events per request as {"events": [...]}.
+ * Failed deliveries are retried with exponential backoff and jitter, and move to DEAD_LETTER
+ * after app.webhooks.max-attempts attempts. Outcomes are recorded only while the lease is still
+ * held, so a delivery that outlived its lease cannot overwrite the state of a later attempt.
+ *
+ * maxConcurrency is enforced per instance: with several instances an endpoint may see up to
+ * maxConcurrency requests from each. URLs are re-checked by WebhookUrlGuard before every request.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookDeliveryService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final WebhookUrlGuard urlGuard;
+
+    @Value("${app.webhooks.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.webhooks.max-in-flight:4}")
+    private int defaultMaxConcurrency;
+
+    @Value("${app.webhooks.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.webhooks.backoff-base-ms:5000}")
+    private long backoffBaseMs;
+
+    @Value("${app.webhooks.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${app.webhooks.request-timeout-ms:10000}")
+    private long requestTimeoutMs;
+
+    @Value("${app.webhooks.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.webhooks.io-threads:4}")
+    private int ioThreads;
+
+    // endpointId -> permits for requests in flight from this instance to that endpoint
+    private final Map<String, EndpointPermits> inFlight = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private HttpClient httpClient;
+
+    @PostConstruct
+    void startClient() {
+        executor = Executors.newFixedThreadPool(Math.max(1, ioThreads));
+        httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofMillis(requestTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @PreDestroy
+    void stopClient() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Claim due events and send them; returns the number of events claimed
+     */
+    @Scheduled(fixedDelayString = "${app.webhooks.poll-ms:1000}")
+    public int deliverPending() {
+        String leaseId = UUID.randomUUID().toString();
+        List<WebhookEvent> events = claim(leaseId);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<WebhookEvent>> eventsByEndpoint = events.stream()
+                .collect(Collectors.groupingBy(WebhookEvent::getEndpointId, LinkedHashMap::new, Collectors.toList()));
+        Map<String, WebhookEndpoint> endpoints = loadEndpoints(eventsByEndpoint.keySet());
+
+        eventsByEndpoint.forEach((endpointId, endpointEvents) -> {
+            WebhookEndpoint endpoint = endpoints.get(endpointId);
+            if (endpoint == null || !endpoint.isActive()) {
+                inFlight.remove(endpointId);
+                cancel(endpointEvents, "Webhook endpoint removed or disabled", leaseId);
+                return;
+            }
+            int perRequest = endpoint.getBatchSize() != null ? Math.max(1, endpoint.getBatchSize()) : 1;
+            int maxConcurrency = endpoint.getMaxConcurrency() != null
+                    ? Math.max(1, endpoint.getMaxConcurrency()) : Math.max(1, defaultMaxConcurrency);
+            // A changed limit replaces the permits; requests still in flight release the old ones
+            Semaphore permits = inFlight.compute(endpointId, (id, current) -> current != null && current.limit() == maxConcurrency
+                    ? current : new EndpointPermits(maxConcurrency, new Semaphore(maxConcurrency))).semaphore();
+
+            for (int from = 0; from < endpointEvents.size(); from += perRequest) {
+                if (!permits.tryAcquire()) {
+                    release(endpointEvents.subList(from, endpointEvents.size()), leaseId);
+                    break;
+                }
+                send(endpoint, endpointEvents.subList(from, Math.min(endpointEvents.size(), from + perRequest)), permits, leaseId);
+            }
+        });
+        return events.size();
+    }
+
+    /**
+     * Lease up to batchSize due events: pick candidates, then take the lease only on those still claimable
+     */
+    private List<WebhookEvent> claim(String leaseId) {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria claimable = new Criteria().andOperator(
+                Criteria.where("status").is(WebhookEvent.EventStatus.PENDING).and("endpointId").ne(null),
+                new Criteria().orOperator(Criteria.where("nextRetryAt").is(null), Criteria.where("nextRetryAt").lte(now)),
+                new Criteria().orOperator(Criteria.where("leaseExpiresAt").is(null), Criteria.where("leaseExpiresAt").lte(now)));
+
+        Query candidates = new Query(claimable).with(Sort.by(Sort.Direction.ASC, "_id")).limit(Math.max(1, batchSize));
+        candidates.fields().include("_id");
+        List<String> ids;
+        try (Stream<WebhookEvent> stream = mongoTemplate.stream(candidates, WebhookEvent.class)) {
+            ids = stream.map(WebhookEvent::getId).toList();
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Another worker may have leased some candidates meanwhile; the filter skips those
+        mongoTemplate.updateMulti(new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable)),
+                new Update().set("leaseId", leaseId).set("leaseExpiresAt", now.plusSeconds(leaseSeconds)),
+                WebhookEvent.class);
+        try (Stream<WebhookEvent> stream = mongoTemplate.stream(new Query(Criteria.where("leaseId").is(leaseId)), WebhookEvent.class)) {
+            return stream.toList();
+        }
+    }
+
+    private Map<String, WebhookEndpoint> loadEndpoints(Set<String> endpointIds) {
+        try (Stream<WebhookEndpoint> stream = mongoTemplate.stream(new Query(Criteria.where("_id").in(endpointIds)
+                .and("isDeleted").is(false)), WebhookEndpoint.class)) {
+            return stream.collect(Collectors.toMap(WebhookEndpoint::getId, Function.identity()));
+        }
+    }
+
+    private void send(WebhookEndpoint endpoint, List<WebhookEvent> events, Semaphore permits, String leaseId) {
+        try {
+            urlGuard.check(endpoint.getUrl());
+            byte[] body = objectMapper.writeValueAsBytes(events.size() == 1 && !isBatched(endpoint)
+                    ? toPayload(events.get(0))
+                    : Map.of("events", events.stream().map(this::toPayload).toList()));
+
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(endpoint.getUrl()))
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .header("Content-Type", "application/json")
+                    .header("X-Webhook-Event-Id", events.stream().map(WebhookEvent::getEventId).collect(Collectors.joining(",")))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (endpoint.getSecret() != null && !endpoint.getSecret().isBlank()) {
+                request.header("X-Webhook-Signature", "sha256=" + sign(endpoint.getSecret(), body));
+            }
+
+            httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        try {
+                            if (error == null && response.statusCode() / 100 == 2) {
+                                delivered(events, leaseId);
+                            } else {
+                                failed(events, error != null ? describe(error) : "HTTP " + response.statusCode(), leaseId);
+                            }
+                        } catch (Exception e) {
+                            log.error("Failed to record webhook delivery for endpoint {}: {}", endpoint.getId(), e.getMessage());
+                        } finally {
+                            permits.release();
+                        }
+                    });
+        } catch (Exception e) {
+            permits.release();
+            failed(events, e instanceof BusinessException ? e.getMessage() : describe(e), leaseId);
+        }
+    }
+
+    private boolean isBatched(WebhookEndpoint endpoint) {
+        return endpoint.getBatchSize() != null && endpoint.getBatchSize() > 1;
+    }
+
+    private Map<String, Object> toPayload(WebhookEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", event.getEventId());
+        payload.put("type", event.getEventType());
+        payload.put("category", event.getCategory());
+        payload.put("tenantId", event.getTenantId());
+        payload.put("entityType", event.getEntityType());
+        payload.put("entityId", event.getEntityId());
+        payload.put("occurredAt", event.getOccurredAt());
+        payload.put("data", event.getPayload());
+        return payload;
+    }
+
+    private void delivered(List<WebhookEvent> events, String leaseId) {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids(events)).and("leaseId").is(leaseId)), new Update()
+                        .set("status", WebhookEvent.EventStatus.DELIVERED)
+                        .set("deliveredAt", now)
+                        .set("lastDeliveryAttempt", now)
+                        .inc("deliveryAttempts", 1)
+                        .unset("deliveryError")
+                        .unset("nextRetryAt")
+                        .unset("leaseId")
+                        .unset("leaseExpiresAt"),
+                WebhookEvent.class);
+    }
+
+    /**
+     * Schedule the next attempt with jittered exponential backoff, or dead-letter after maxAttempts
+     */
+    private void failed(List<WebhookEvent> events, String error, String leaseId) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WebhookEvent.class);
+        for (WebhookEvent event : events) {
+            int attempts = (event.getDeliveryAttempts() != null ? event.getDeliveryAttempts() : 0) + 1;
+            Update update = new Update()
+                    .set("deliveryAttempts", attempts)
+                    .set("lastDeliveryAttempt", now)
+                    .set("deliveryError", error)
+                    .unset("leaseId")
+                    .unset("leaseExpiresAt");
+            if (attempts >= maxAttempts) {
+                update.set("status", WebhookEvent.EventStatus.DEAD_LETTER).unset("nextRetryAt");
+                log.warn("[Tenant: {}] Webhook event {} dead-lettered after {} attempts: {}",
+                        event.getTenantId(), event.getEventId(), attempts, error);
+            } else {
+                update.set("nextRetryAt", now.plus(Duration.ofMillis(backoff(attempts))));
+            }
+            ops.updateOne(new Query(Criteria.where("_id").is(event.getId()).and("leaseId").is(leaseId)), update);
+        }
+        ops.execute();
+    }
+
+    /**
+     * Equal jitter: half of the capped exponential delay plus a random share of the other half
+     */
+    private long backoff(int attempts) {
+        long delay = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 30));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void cancel(List<WebhookEvent> events, String reason, String leaseId) {
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids(events)).and("leaseId").is(leaseId)), new Update()
+                        .set("status", WebhookEvent.EventStatus.CANCELLED)
+                        .set("deliveryError", reason)
+                        .unset("leaseId")
+                        .unset("leaseExpiresAt"),
+                WebhookEvent.class);
+    }
+
+    private void release(List<WebhookEvent> events, String leaseId) {
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids(events)).and("leaseId").is(leaseId)),
+                new Update().unset("leaseId").unset("leaseExpiresAt"), WebhookEvent.class);
+    }
+
+    private List<String> ids(List<WebhookEvent> events) {
+        return events.stream().map(WebhookEvent::getId).toList();
+    }
+
+    private String sign(String secret, byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    private record EndpointPermits(int limit, Semaphore semaphore) {
+    }
+
+    private String describe(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        return cause.getClass().getSimpleName() + (cause.getMessage() != null ? ": " + cause.getMessage() : "");
+    }
+}
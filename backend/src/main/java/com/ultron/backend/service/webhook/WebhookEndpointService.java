@@ -0,0 +1,83 @@
+package com.ultron.backend.service.webhook;
+
+import com.ultron.backend.domain.entity.WebhookEndpoint;
+import com.ultron.backend.domain.entity.WebhookEvent;
+import com.ultron.backend.dto.request.CreateWebhookEndpointRequest;
+import com.ultron.backend.exception.ResourceNotFoundException;
+import com.ultron.backend.service.BaseTenantService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Manages the webhook endpoints of the current tenant
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookEndpointService extends BaseTenantService {
+
+    private final MongoTemplate mongoTemplate;
+    private final WebhookUrlGuard urlGuard;
+
+    public WebhookEndpoint createEndpoint(CreateWebhookEndpointRequest request) {
+        String tenantId = getCurrentTenantId();
+        urlGuard.check(request.getUrl());
+        WebhookEndpoint endpoint = mongoTemplate.insert(WebhookEndpoint.builder()
+                .tenantId(tenantId)
+                .url(request.getUrl())
+                .secret(request.getSecret())
+                .eventTypes(request.getEventTypes())
+                .maxConcurrency(request.getMaxConcurrency())
+                .batchSize(request.getBatchSize())
+                .active(true)
+                .createdAt(LocalDateTime.now())
+                .createdBy(getCurrentUserId())
+                .isDeleted(false)
+                .build());
+
+        log.info("[Tenant: {}] Webhook endpoint created: {}", tenantId, endpoint.getId());
+        return endpoint;
+    }
+
+    public List<WebhookEndpoint> getEndpoints() {
+        return mongoTemplate.find(new Query(Criteria.where("tenantId").is(getCurrentTenantId())
+                .and("isDeleted").is(false)), WebhookEndpoint.class);
+    }
+
+    /**
+     * Soft delete an endpoint; its undelivered events are cancelled by the delivery worker
+     */
+    public void deleteEndpoint(String endpointId) {
+        String tenantId = getCurrentTenantId();
+        long updated = mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(endpointId)
+                        .and("tenantId").is(tenantId)
+                        .and("isDeleted").is(false)),
+                new Update().set("isDeleted", true).set("active", false),
+                WebhookEndpoint.class).getMatchedCount();
+        if (updated == 0) {
+            throw new ResourceNotFoundException("Webhook endpoint not found: " + endpointId);
+        }
+        log.info("[Tenant: {}] Webhook endpoint deleted: {}", tenantId, endpointId);
+    }
+
+    /**
+     * Requeue the dead-lettered events of an endpoint for delivery; returns the number requeued
+     */
+    public long redeliverDeadLetters(String endpointId) {
+        return mongoTemplate.updateMulti(new Query(Criteria.where("tenantId").is(getCurrentTenantId())
+                        .and("endpointId").is(endpointId)
+                        .and("status").is(WebhookEvent.EventStatus.DEAD_LETTER)),
+                new Update().set("status", WebhookEvent.EventStatus.PENDING)
+                        .set("deliveryAttempts", 0)
+                        .unset("nextRetryAt"),
+                WebhookEvent.class).getModifiedCount();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ultron.backend.service.webhook;
+
+import com.ultron.backend.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+
+/**
+ * Keeps webhook requests away from the internal network: a URL is accepted only if it is http(s)
+ * and every address its host resolves to is public. Checked when an endpoint is registered and
+ * again before each delivery, since DNS can change in between.
+ * app.webhooks.allow-private-addresses turns the address check off for local development and tests.
+ */
+@Component
+public class WebhookUrlGuard {
+
+    @Value("${app.webhooks.allow-private-addresses:false}")
+    private boolean allowPrivateAddresses;
+
+    /**
+     * @throws BusinessException if the URL is malformed or its host is unresolvable or internal
+     */
+    public void check(String url) {
+        if (url == null) {
+            throw new BusinessException("Invalid webhook URL");
+        }
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            throw new BusinessException("Invalid webhook URL");
+        }
+        String scheme = uri.getScheme();
+        if (scheme == null || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https")) || uri.getHost() == null) {
+            throw new BusinessException("Webhook URL must be an http:// or https:// URL with a host");
+        }
+        if (allowPrivateAddresses) {
+            return;
+        }
+
+        String host = uri.getHost();
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new BusinessException("Webhook host cannot be resolved: " + host);
+        }
+        for (InetAddress address : addresses) {
+            if (isInternal(address)) {
+                throw new BusinessException("Webhook URL must not point to an internal address: " + host);
+            }
+        }
+    }
+
+    /**
+     * Loopback, unspecified, link-local, private (including IPv6 unique local and carrier-grade NAT)
+     * and multicast addresses
+     */
+    static boolean isInternal(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            // 100.64.0.0/10
+            return (bytes[0] & 0xff) == 100 && (bytes[1] & 0xc0) == 64;
+        }
+        if (address instanceof Inet6Address) {
+            // fc00::/7
+            return (bytes[0] & 0xfe) == 0xfc;
+        }
+        return false;
+    }
+}
@@ -2,6 +2,7 @@ package com.ultron.backend.strategy;
 
 import com.ultron.backend.domain.entity.User;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,6 +19,25 @@ public interface LeadAssignmentStrategy {
      */
     User selectUser(List<User> eligibleUsers, Integer lastAssignedIndex);
 
+    /**
+     * Select users for a batch of leads, one per lead in order
+     *
+     * @param eligibleUsers List of active users with eligible roles
+     * @param lastAssignedIndex For round-robin: index of last assigned user
+     * @param count Number of leads to assign
+     * @return Selected user per lead
+     */
+    default List<User> selectUsers(List<User> eligibleUsers, Integer lastAssignedIndex, int count) {
+        List<User> selected = new ArrayList<>(count);
+        Integer index = lastAssignedIndex;
+        for (int i = 0; i < count; i++) {
+            User user = selectUser(eligibleUsers, index);
+            selected.add(user);
+            index = eligibleUsers.indexOf(user);
+        }
+        return selected;
+    }
+
     /**
      * Get the strategy name
      */
@@ -7,7 +7,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -29,19 +31,7 @@ public class LeastLoadedAssignmentStrategy implements LeadAssignmentStrategy {
             throw new IllegalArgumentException("No eligible users available for assignment");
         }
 
-        // Get all user IDs
-        List<String> userIds = eligibleUsers.stream()
-                .map(User::getId)
-                .collect(Collectors.toList());
-
-        // Count active leads per user
-        Map<String, Long> leadCountsByUser = leadRepository
-                .findByAssignedUserIdInAndIsDeletedFalse(userIds)
-                .stream()
-                .collect(Collectors.groupingBy(
-                        Lead::getAssignedUserId,
-                        Collectors.counting()
-                ));
+        Map<String, Long> leadCountsByUser = countLeads(eligibleUsers);
 
         // Find user with minimum lead count
         User selectedUser = eligibleUsers.stream()
@@ -57,6 +47,45 @@ public class LeastLoadedAssignmentStrategy implements LeadAssignmentStrategy {
         return selectedUser;
     }
 
+    /**
+     * Counts are loaded once for the batch; each pick adds to the picked user's count
+     */
+    @Override
+    public List<User> selectUsers(List<User> eligibleUsers, Integer lastAssignedIndex, int count) {
+        if (eligibleUsers == null || eligibleUsers.isEmpty()) {
+            throw new IllegalArgumentException("No eligible users available for assignment");
+        }
+
+        Map<String, Long> leadCountsByUser = new HashMap<>(countLeads(eligibleUsers));
+        List<User> selected = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = eligibleUsers.stream()
+                    .min(Comparator.comparingLong(u -> leadCountsByUser.getOrDefault(u.getId(), 0L)))
+                    .orElse(eligibleUsers.get(0));
+            leadCountsByUser.merge(user.getId(), 1L, Long::sum);
+            selected.add(user);
+        }
+        log.info("Least-loaded: Selected users for {} leads among {} users", count, eligibleUsers.size());
+        return selected;
+    }
+
+    /**
+     * Count active leads per user
+     */
+    private Map<String, Long> countLeads(List<User> eligibleUsers) {
+        List<String> userIds = eligibleUsers.stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
+
+        return leadRepository
+                .findByAssignedUserIdInAndIsDeletedFalse(userIds)
+                .stream()
+                .collect(Collectors.groupingBy(
+                        Lead::getAssignedUserId,
+                        Collectors.counting()
+                ));
+    }
+
     @Override
     public String getStrategyName() {
         return "LEAST_LOADED";
@@ -4,6 +4,7 @@ import com.ultron.backend.domain.entity.User;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -33,6 +34,21 @@ public class RoundRobinAssignmentStrategy implements LeadAssignmentStrategy {
         return selectedUser;
     }
 
+    @Override
+    public List<User> selectUsers(List<User> eligibleUsers, Integer lastAssignedIndex, int count) {
+        if (eligibleUsers == null || eligibleUsers.isEmpty()) {
+            throw new IllegalArgumentException("No eligible users available for assignment");
+        }
+
+        int start = (lastAssignedIndex == null ? -1 : lastAssignedIndex) + 1;
+        List<User> selected = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            selected.add(eligibleUsers.get((start + i) % eligibleUsers.size()));
+        }
+        log.info("Round-robin: Selected users for {} leads starting at index {}", count, start % eligibleUsers.size());
+        return selected;
+    }
+
     @Override
     public String getStrategyName() {
         return "ROUND_ROBIN";
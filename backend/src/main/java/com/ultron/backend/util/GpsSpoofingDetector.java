@@ -1,66 +1,134 @@
 package com.ultron.backend.util;
 
+import com.ultron.backend.domain.entity.Attendance;
 import com.ultron.backend.dto.request.CheckInRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Utility to detect GPS spoofing and fake locations
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class GpsSpoofingDetector {
 
-    // Store last known locations for users (in-memory cache)
-    private final Map<String, LocationHistory> userLocationHistory = new ConcurrentHashMap<>();
+    // Recent fixes per (tenant, user), bounded and TTL-evicted
+    private final LocationTrackStore locationTrackStore;
 
     private static final double SUSPICIOUS_SPEED_MPS = 100.0; // 100 m/s = 360 km/h
     private static final double PERFECT_ACCURACY_THRESHOLD = 5.0; // Too perfect to be real
     private static final int MIN_REALISTIC_ACCURACY = 3; // Meters
+    private static final long SPEED_CHECK_WINDOW_SECONDS = 3600; // Only compare fixes within the last hour
 
     /**
      * Detect if location might be spoofed
      */
-    public SpoofingDetectionResult detectSpoofing(String userId, CheckInRequest request) {
+    public SpoofingDetectionResult detectSpoofing(String tenantId, String userId, CheckInRequest request) {
+        long now = System.currentTimeMillis();
+        LocationTrackStore.Fix previous = locationTrackStore.getLastFix(tenantId, userId);
+
+        SpoofingDetectionResult result = evaluate(request.getLatitude(), request.getLongitude(),
+                request.getAccuracy(), request.getDeviceInfo(), now, previous);
+
+        // Update location history
+        locationTrackStore.record(tenantId, userId, request.getLatitude(), request.getLongitude(), now);
+
+        if (result.isSuspicious()) {
+            log.warn("GPS spoofing detected for user: {} - Score: {} - Indicators: {}",
+                    userId, result.getSuspicionScore(), String.join("; ", result.getIndicators()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Re-run spoofing analysis over a day's attendance records, without touching the live track store.
+     * Each record's fixes (check-in, break start/end, check-out) are scored in time order against the
+     * user's previous fix that day; the highest-scoring fix is reported per attendance record.
+     *
+     * @return result per attendanceId
+     */
+    public Map<String, SpoofingDetectionResult> scoreDay(List<Attendance> attendances) {
+        Map<String, List<Attendance>> byUser = attendances.stream()
+                .filter(a -> a.getUserId() != null && a.getCheckInTime() != null)
+                .collect(Collectors.groupingBy(Attendance::getUserId));
+
+        Map<String, SpoofingDetectionResult> results = new HashMap<>();
+        for (List<Attendance> userAttendances : byUser.values()) {
+            userAttendances.sort(Comparator.comparing(Attendance::getCheckInTime));
+
+            LocationTrackStore.Fix previous = null;
+            for (Attendance attendance : userAttendances) {
+                SpoofingDetectionResult worst = null;
+                for (TimedLocation point : collectFixes(attendance)) {
+                    Attendance.AttendanceLocation location = point.location;
+                    long timestamp = point.time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    String deviceInfo = point.isCheckIn ? attendance.getCheckInDeviceInfo() : attendance.getCheckOutDeviceInfo();
+
+                    SpoofingDetectionResult result = evaluate(location.getLatitude(), location.getLongitude(),
+                            location.getAccuracy(), deviceInfo, timestamp, previous);
+                    if (worst == null || result.getSuspicionScore() > worst.getSuspicionScore()) {
+                        worst = result;
+                    }
+                    previous = new LocationTrackStore.Fix(location.getLatitude(), location.getLongitude(), timestamp);
+                }
+                if (worst != null) {
+                    results.put(attendance.getAttendanceId(), worst);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Score a single fix, optionally against the user's previous fix
+     */
+    private SpoofingDetectionResult evaluate(double latitude, double longitude, Double accuracy,
+                                             String deviceInfo, long timestamp, LocationTrackStore.Fix previous) {
         List<String> suspiciousIndicators = new ArrayList<>();
         int suspicionScore = 0;
 
         // 1. Check accuracy - Too perfect is suspicious
-        if (request.getAccuracy() != null && request.getAccuracy() < PERFECT_ACCURACY_THRESHOLD) {
+        if (accuracy != null && accuracy < PERFECT_ACCURACY_THRESHOLD) {
             suspiciousIndicators.add("Suspiciously high GPS accuracy (< 5m)");
             suspicionScore += 20;
         }
 
         // 2. Check for exact integer coordinates (common in spoofing)
-        if (isExactInteger(request.getLatitude()) && isExactInteger(request.getLongitude())) {
+        if (isExactInteger(latitude) && isExactInteger(longitude)) {
             suspiciousIndicators.add("Coordinates are exact integers (typical of manual input)");
             suspicionScore += 30;
         }
 
         // 3. Check device info for mock location providers
-        if (request.getDeviceInfo() != null) {
-            String deviceInfo = request.getDeviceInfo().toLowerCase();
-            if (deviceInfo.contains("mock") || deviceInfo.contains("fake") ||
-                deviceInfo.contains("spoof") || deviceInfo.contains("emulator")) {
+        if (deviceInfo != null) {
+            String normalizedDeviceInfo = deviceInfo.toLowerCase();
+            if (normalizedDeviceInfo.contains("mock") || normalizedDeviceInfo.contains("fake") ||
+                normalizedDeviceInfo.contains("spoof") || normalizedDeviceInfo.contains("emulator")) {
                 suspiciousIndicators.add("Device info indicates mock location provider");
                 suspicionScore += 50;
             }
         }
 
         // 4. Check for impossible movement (teleportation)
-        LocationHistory history = userLocationHistory.get(userId);
-        if (history != null && history.lastLatitude != null && history.lastLongitude != null) {
-            long timeDiffSeconds = (System.currentTimeMillis() - history.lastTimestamp) / 1000;
+        if (previous != null) {
+            long timeDiffSeconds = (timestamp - previous.getTimestamp()) / 1000;
 
-            if (timeDiffSeconds > 0 && timeDiffSeconds < 3600) { // Within last hour
+            if (timeDiffSeconds > 0 && timeDiffSeconds < SPEED_CHECK_WINDOW_SECONDS) { // Within last hour
                 double distance = calculateDistance(
-                        history.lastLatitude, history.lastLongitude,
-                        request.getLatitude(), request.getLongitude()
+                        previous.getLatitude(), previous.getLongitude(),
+                        latitude, longitude
                 );
 
                 double speed = distance / timeDiffSeconds; // meters per second
@@ -75,18 +143,11 @@ public class GpsSpoofingDetector {
         }
 
         // 5. Check for commonly spoofed coordinates (0,0 or famous landmarks)
-        if (Math.abs(request.getLatitude()) < 0.1 && Math.abs(request.getLongitude()) < 0.1) {
+        if (Math.abs(latitude) < 0.1 && Math.abs(longitude) < 0.1) {
             suspiciousIndicators.add("Coordinates near (0,0) - Null Island");
             suspicionScore += 60;
         }
 
-        // Update location history
-        userLocationHistory.put(userId, new LocationHistory(
-                request.getLatitude(),
-                request.getLongitude(),
-                System.currentTimeMillis()
-        ));
-
         // Determine result
         SpoofingLikelihood likelihood;
         if (suspicionScore >= 70) {
@@ -101,11 +162,6 @@ public class GpsSpoofingDetector {
 
         boolean isSuspicious = suspicionScore >= 40;
 
-        if (isSuspicious) {
-            log.warn("GPS spoofing detected for user: {} - Score: {} - Indicators: {}",
-                    userId, suspicionScore, String.join("; ", suspiciousIndicators));
-        }
-
         return new SpoofingDetectionResult(
                 isSuspicious,
                 likelihood,
@@ -114,6 +170,29 @@ public class GpsSpoofingDetector {
         );
     }
 
+    /**
+     * All GPS fixes recorded on an attendance record, in time order
+     */
+    private List<TimedLocation> collectFixes(Attendance attendance) {
+        List<TimedLocation> fixes = new ArrayList<>();
+        addFix(fixes, attendance.getCheckInTime(), attendance.getCheckInLocation(), true);
+        if (attendance.getBreaks() != null) {
+            for (Attendance.BreakRecord breakRecord : attendance.getBreaks()) {
+                addFix(fixes, breakRecord.getStartTime(), breakRecord.getStartLocation(), false);
+                addFix(fixes, breakRecord.getEndTime(), breakRecord.getEndLocation(), false);
+            }
+        }
+        addFix(fixes, attendance.getCheckOutTime(), attendance.getCheckOutLocation(), false);
+        fixes.sort(Comparator.comparing(fix -> fix.time));
+        return fixes;
+    }
+
+    private void addFix(List<TimedLocation> fixes, LocalDateTime time, Attendance.AttendanceLocation location, boolean isCheckIn) {
+        if (time != null && location != null && location.getLatitude() != null && location.getLongitude() != null) {
+            fixes.add(new TimedLocation(time, location, isCheckIn));
+        }
+    }
+
     /**
      * Calculate distance between two GPS coordinates using Haversine formula
      */
@@ -137,17 +216,17 @@ public class GpsSpoofingDetector {
     }
 
     /**
-     * Location history for a user
+     * A recorded location with its timestamp
      */
-    private static class LocationHistory {
-        Double lastLatitude;
-        Double lastLongitude;
-        long lastTimestamp;
-
-        LocationHistory(Double latitude, Double longitude, long timestamp) {
-            this.lastLatitude = latitude;
-            this.lastLongitude = longitude;
-            this.lastTimestamp = timestamp;
+    private static class TimedLocation {
+        final LocalDateTime time;
+        final Attendance.AttendanceLocation location;
+        final boolean isCheckIn;
+
+        TimedLocation(LocalDateTime time, Attendance.AttendanceLocation location, boolean isCheckIn) {
+            this.time = time;
+            this.location = location;
+            this.isCheckIn = isCheckIn;
         }
     }
 
@@ -0,0 +1,132 @@
+package com.ultron.backend.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ultron.backend.domain.entity.GpsLocationTrack;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, time-decayed store of the last GPS fix per (tenant, user).
+ *
+ * Speed-jump detection only compares against the previous fix, so that is all that is kept;
+ * fixes expire after the configured TTL without access and the store is capped in size,
+ * so users who checked in once do not stay resident forever.
+ *
+ * With app.gps.track.shared=true the last fix is also written to the gps_location_tracks
+ * collection and read back on every lookup; the newer of the local and shared fix is used, so
+ * speed-jump detection works when consecutive check-ins hit different instances.
+ */
+@Component
+@Slf4j
+public class LocationTrackStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean shared;
+    private final Cache<String, Fix> tracks;
+
+    public LocationTrackStore(MongoTemplate mongoTemplate,
+                              @Value("${app.gps.track.shared:false}") boolean shared,
+                              @Value("${app.gps.track.max-users:50000}") long maxUsers,
+                              @Value("${app.gps.track.ttl-minutes:60}") long ttlMinutes) {
+        this.mongoTemplate = mongoTemplate;
+        this.shared = shared;
+        this.tracks = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttlMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * Get the most recent fix of a user, or null if none is known
+     */
+    public Fix getLastFix(String tenantId, String userId) {
+        Fix last = tracks.getIfPresent(key(tenantId, userId));
+        if (!shared) {
+            return last;
+        }
+
+        try {
+            // Another instance may have recorded a later fix than the one held here
+            GpsLocationTrack stored = mongoTemplate.findOne(
+                    new Query(Criteria.where("_id").is(key(tenantId, userId)).and("tenantId").is(tenantId)),
+                    GpsLocationTrack.class);
+            if (stored != null && (last == null || stored.getTimestamp() > last.getTimestamp())) {
+                return new Fix(stored.getLatitude(), stored.getLongitude(), stored.getTimestamp());
+            }
+            return last;
+        } catch (Exception e) {
+            log.warn("Failed to read shared location track for user {}: {}", userId, e.getMessage());
+            return last;
+        }
+    }
+
+    /**
+     * Record a new fix for a user
+     */
+    public void record(String tenantId, String userId, double latitude, double longitude, long timestamp) {
+        tracks.put(key(tenantId, userId), new Fix(latitude, longitude, timestamp));
+
+        if (shared) {
+            try {
+                mongoTemplate.upsert(
+                        new Query(Criteria.where("_id").is(key(tenantId, userId)).and("tenantId").is(tenantId)),
+                        new Update()
+                                .set("userId", userId)
+                                .set("latitude", latitude)
+                                .set("longitude", longitude)
+                                .set("timestamp", timestamp)
+                                .set("updatedAt", LocalDateTime.now()),
+                        GpsLocationTrack.class);
+            } catch (Exception e) {
+                log.warn("Failed to write shared location track for user {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Number of users whose last fix is held in memory
+     */
+    public long size() {
+        return tracks.estimatedSize();
+    }
+
+    private String key(String tenantId, String userId) {
+        return tenantId + ":" + userId;
+    }
+
+    /**
+     * A single GPS fix
+     */
+    public static final class Fix {
+        private final double latitude;
+        private final double longitude;
+        private final long timestamp;
+
+        public Fix(double latitude, double longitude, long timestamp) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.timestamp = timestamp;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
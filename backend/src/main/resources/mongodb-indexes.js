@@ -54,6 +54,21 @@ db.chat_messages.createIndex(
 );
 print("✓ Created index: idx_chat_broadcast");
 
+// Keyset index for chat history: one range scan per page, however deep (ChatService.getChatHistory)
+db.chat_messages.createIndex(
+    {
+        tenantId: 1,
+        conversationId: 1,
+        timestamp: -1,
+        _id: -1
+    },
+    {
+        name: "idx_chat_conversation_keyset",
+        background: true
+    }
+);
+print("✓ Created index: idx_chat_conversation_keyset");
+
 // Index for conversation existence check (security)
 db.chat_messages.createIndex(
     {
@@ -652,6 +667,33 @@ db.proposals.createIndex(
 );
 print("✓ Created index: idx_proposals_by_contact");
 
+// Indexes for the visibility branches of non-admin proposal lists (owner / creator / assigned lead)
+db.proposals.createIndex(
+    {
+        tenantId: 1,
+        ownerId: 1,
+        isDeleted: 1
+    },
+    {
+        name: "idx_proposals_by_owner",
+        background: true
+    }
+);
+print("✓ Created index: idx_proposals_by_owner");
+
+db.proposals.createIndex(
+    {
+        tenantId: 1,
+        createdBy: 1,
+        isDeleted: 1
+    },
+    {
+        name: "idx_proposals_by_creator",
+        background: true
+    }
+);
+print("✓ Created index: idx_proposals_by_creator");
+
 // ==================================================
 // TENANTS COLLECTION INDEXES
 // ==================================================
@@ -716,6 +758,92 @@ db.users.createIndex(
 );
 print("✓ Created index: idx_deleted_users");
 
+// ==================================================
+// CALENDAR, WORKLOAD AND SURVEY INDEXES
+// ==================================================
+print("\nCreating indexes for calendar_events, time_entries, project_tasks and survey_tallies...");
+
+// Calendar window queries: seriesEnd before startTime so a scan begins at the window, not the oldest event
+db.calendar_events.createIndex(
+    {
+        tenantId: 1,
+        createdBy: 1,
+        seriesEnd: 1,
+        startTime: 1
+    },
+    {
+        name: "idx_calendar_events_creator_window",
+        background: true
+    }
+);
+print("✓ Created index: idx_calendar_events_creator_window");
+
+db.calendar_events.createIndex(
+    {
+        tenantId: 1,
+        attendeeIds: 1,
+        seriesEnd: 1,
+        startTime: 1
+    },
+    {
+        name: "idx_calendar_events_attendee_window",
+        background: true
+    }
+);
+print("✓ Created index: idx_calendar_events_attendee_window");
+
+db.calendar_events.createIndex(
+    {
+        tenantId: 1,
+        seriesEnd: 1,
+        startTime: 1
+    },
+    {
+        name: "idx_calendar_events_window",
+        background: true
+    }
+);
+print("✓ Created index: idx_calendar_events_window");
+
+// Workload summary: time logged in the period and open / recently closed tasks
+db.time_entries.createIndex(
+    {
+        tenantId: 1,
+        startTime: 1
+    },
+    {
+        name: "idx_time_entries_by_start",
+        background: true
+    }
+);
+print("✓ Created index: idx_time_entries_by_start");
+
+db.project_tasks.createIndex(
+    {
+        tenantId: 1,
+        status: 1,
+        updatedAt: 1
+    },
+    {
+        name: "idx_project_tasks_by_status",
+        background: true
+    }
+);
+print("✓ Created index: idx_project_tasks_by_status");
+
+// Stale survey tallies awaiting a rebuild
+db.survey_tallies.createIndex(
+    {
+        stale: 1,
+        tenantId: 1
+    },
+    {
+        name: "idx_survey_tallies_stale",
+        background: true
+    }
+);
+print("✓ Created index: idx_survey_tallies_stale");
+
 // ==================================================
 // VERIFY INDEXES
 // ==================================================
@@ -0,0 +1,108 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.Attendance;
+import com.ultron.backend.domain.entity.Shift;
+import com.ultron.backend.domain.entity.User;
+import com.ultron.backend.domain.enums.AttendanceType;
+import com.ultron.backend.dto.request.CheckInRequest;
+import com.ultron.backend.dto.response.AttendanceResponse;
+import com.ultron.backend.exception.BusinessException;
+import com.ultron.backend.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A repeated check-in on the same day is rejected and leaves the first record as the only one
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AttendanceCheckInTest {
+
+    private static final String TENANT_ID = "attendance-checkin-test-tenant";
+    private static final String USER_ID = "attendance-checkin-user";
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private AttendanceRosterService attendanceRosterService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT_ID);
+        TenantContext.setUserId(USER_ID);
+        cleanupData();
+    }
+
+    @AfterEach
+    void cleanup() {
+        cleanupData();
+        TenantContext.clear();
+    }
+
+    @Test
+    void repeatedCheckInIsIdempotent() {
+        mongoTemplate.insert(Shift.builder()
+                .shiftId("SHIFT-CHECKIN")
+                .tenantId(TENANT_ID)
+                .name("General Shift")
+                .startTime(LocalTime.MIN)
+                .endTime(LocalTime.MAX)
+                .graceMinutes(0)
+                .isDefault(true)
+                .build());
+        mongoTemplate.insert(User.builder()
+                .id(USER_ID)
+                .userId(USER_ID)
+                .tenantId(TENANT_ID)
+                .username(USER_ID)
+                .email(USER_ID + "@example.com")
+                .fullName(USER_ID)
+                .build());
+        attendanceRosterService.invalidate(TENANT_ID);
+
+        AttendanceResponse first = attendanceService.checkIn(request(), USER_ID);
+
+        assertThatThrownBy(() -> attendanceService.checkIn(request(), USER_ID))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("already checked in");
+
+        List<Attendance> records = mongoTemplate.find(new Query(Criteria.where("tenantId").is(TENANT_ID)
+                .and("userId").is(USER_ID)), Attendance.class);
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getAttendanceId()).isEqualTo(first.getAttendanceId());
+        assertThat(records.get(0).getCreatedBy()).isEqualTo(USER_ID);
+    }
+
+    private CheckInRequest request() {
+        return CheckInRequest.builder()
+                .type(AttendanceType.REMOTE)
+                .latitude(12.9716)
+                .longitude(77.5946)
+                .accuracy(10.0)
+                .build();
+    }
+
+    private void cleanupData() {
+        Query tenant = new Query(Criteria.where("tenantId").is(TENANT_ID));
+        mongoTemplate.remove(tenant, Attendance.class);
+        mongoTemplate.remove(tenant, Shift.class);
+        mongoTemplate.remove(tenant, User.class);
+    }
+}
@@ -0,0 +1,155 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.Shift;
+import com.ultron.backend.domain.entity.User;
+import com.ultron.backend.domain.entity.UserShiftAssignment;
+import com.ultron.backend.dto.shift.BulkAssignmentResult;
+import com.ultron.backend.dto.shift.BulkShiftAssignmentRequest;
+import com.ultron.backend.dto.shift.ShiftAssignmentResponse;
+import com.ultron.backend.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A permanent bulk assignment ends the users' earlier assignments the day before, replaces one
+ * starting the same day, and leaves them alone when it is temporary
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkShiftAssignmentServiceTest {
+
+    private static final String TENANT_ID = "bulk-shift-test-tenant";
+    private static final String ADMIN_ID = "bulk-shift-admin";
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private BulkShiftAssignmentService bulkShiftAssignmentService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT_ID);
+        TenantContext.setUserId(ADMIN_ID);
+        cleanupData();
+    }
+
+    @AfterEach
+    void cleanup() {
+        cleanupData();
+        TenantContext.clear();
+    }
+
+    @Test
+    void permanentAssignmentEndsOrReplacesCurrentOnes() {
+        createShift("SHIFT-OLD");
+        createShift("SHIFT-NEW");
+        createUser("user-earlier");
+        createUser("user-same-day");
+        createUser("user-new");
+        UserShiftAssignment earlier = createAssignment("user-earlier", "SHIFT-OLD", TODAY.minusDays(30));
+        UserShiftAssignment sameDay = createAssignment("user-same-day", "SHIFT-OLD", TODAY);
+
+        BulkAssignmentResult result = bulkShiftAssignmentService.bulkAssignShift(request(false,
+                "user-earlier", "user-same-day", "user-new", "user-missing", "user-new"), ADMIN_ID);
+
+        assertThat(result.getSuccessCount()).isEqualTo(3);
+        assertThat(result.getFailed()).extracting(BulkAssignmentResult.FailedAssignment::getUserId)
+                .containsExactlyInAnyOrder("user-missing", "user-new");
+
+        UserShiftAssignment ended = mongoTemplate.findById(earlier.getId(), UserShiftAssignment.class);
+        assertThat(ended.getEndDate()).isEqualTo(TODAY.minusDays(1));
+        assertThat(ended.getIsDeleted()).isFalse();
+        UserShiftAssignment replaced = mongoTemplate.findById(sameDay.getId(), UserShiftAssignment.class);
+        assertThat(replaced.getIsDeleted()).isTrue();
+
+        for (String userId : List.of("user-earlier", "user-same-day", "user-new")) {
+            ShiftAssignmentResponse active = bulkShiftAssignmentService.getUserActiveAssignment(userId);
+            assertThat(active.getShiftId()).as(userId).isEqualTo("SHIFT-NEW");
+        }
+        assertThat(bulkShiftAssignmentService.getUserAssignments("user-same-day"))
+                .extracting(ShiftAssignmentResponse::getShiftId).containsExactly("SHIFT-NEW");
+        assertThat(bulkShiftAssignmentService.getUserAssignments("user-earlier"))
+                .extracting(ShiftAssignmentResponse::getShiftId).containsExactly("SHIFT-NEW", "SHIFT-OLD");
+    }
+
+    @Test
+    void temporaryAssignmentLeavesCurrentOnesInPlace() {
+        createShift("SHIFT-OLD");
+        createShift("SHIFT-NEW");
+        createUser("user-earlier");
+        UserShiftAssignment earlier = createAssignment("user-earlier", "SHIFT-OLD", TODAY.minusDays(30));
+
+        BulkAssignmentResult result = bulkShiftAssignmentService.bulkAssignShift(request(true, "user-earlier"), ADMIN_ID);
+
+        assertThat(result.getSuccessCount()).isEqualTo(1);
+        UserShiftAssignment unchanged = mongoTemplate.findById(earlier.getId(), UserShiftAssignment.class);
+        assertThat(unchanged.getEndDate()).isNull();
+        assertThat(unchanged.getIsDeleted()).isFalse();
+        assertThat(bulkShiftAssignmentService.getUserAssignments("user-earlier")).hasSize(2);
+    }
+
+    private BulkShiftAssignmentRequest request(boolean temporary, String... userIds) {
+        return BulkShiftAssignmentRequest.builder()
+                .userIds(List.of(userIds))
+                .shiftId("SHIFT-NEW")
+                .effectiveDate(TODAY)
+                .endDate(temporary ? TODAY.plusDays(7) : null)
+                .isTemporary(temporary)
+                .build();
+    }
+
+    private void createShift(String shiftId) {
+        mongoTemplate.insert(Shift.builder()
+                .shiftId(shiftId)
+                .tenantId(TENANT_ID)
+                .name(shiftId)
+                .build());
+    }
+
+    private void createUser(String id) {
+        mongoTemplate.insert(User.builder()
+                .id(id)
+                .userId(id)
+                .tenantId(TENANT_ID)
+                .username(id)
+                .email(id + "@example.com")
+                .fullName(id)
+                .build());
+    }
+
+    private UserShiftAssignment createAssignment(String userId, String shiftId, LocalDate effectiveDate) {
+        return mongoTemplate.insert(UserShiftAssignment.builder()
+                .tenantId(TENANT_ID)
+                .userId(userId)
+                .userName(userId)
+                .shiftId(shiftId)
+                .shiftName(shiftId)
+                .effectiveDate(effectiveDate)
+                .isTemporary(false)
+                .createdAt(LocalDateTime.now())
+                .createdBy(ADMIN_ID)
+                .build());
+    }
+
+    private void cleanupData() {
+        Query tenant = new Query(Criteria.where("tenantId").is(TENANT_ID));
+        mongoTemplate.remove(tenant, UserShiftAssignment.class);
+        mongoTemplate.remove(tenant, Shift.class);
+        mongoTemplate.remove(tenant, User.class);
+    }
+}
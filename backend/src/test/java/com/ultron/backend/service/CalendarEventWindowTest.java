@@ -0,0 +1,104 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.CalendarEvent;
+import com.ultron.backend.dto.request.CreateCalendarEventRequest;
+import com.ultron.backend.dto.response.CalendarEventResponse;
+import com.ultron.backend.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Window queries return each event once, only when it overlaps the window, with recurring series
+ * expanded to the occurrences inside it
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CalendarEventWindowTest {
+
+    private static final String TENANT_ID = "calendar-window-test-tenant";
+    private static final String USER_ID = "calendar-window-user";
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 2, 0, 0);
+    private static final LocalDateTime TO = FROM.plusWeeks(1);
+
+    @Autowired
+    private CalendarEventService calendarEventService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT_ID);
+        TenantContext.setUserId(USER_ID);
+        TenantContext.setUserRole("USER");
+        cleanupData();
+    }
+
+    @AfterEach
+    void cleanup() {
+        cleanupData();
+        TenantContext.clear();
+    }
+
+    @Test
+    void windowReturnsOverlappingEventsOnceAndExpandsSeries() {
+        // Created by the user with the user also listed as attendee: must come back once
+        create("Self-invite", FROM.plusDays(1).withHour(9), FROM.plusDays(1).withHour(10), "NONE", List.of(USER_ID));
+        // Starts before the window and ends inside it
+        create("Overnight", FROM.minusHours(2), FROM.plusHours(1), "NONE", List.of());
+        create("Last month", FROM.minusMonths(1), FROM.minusMonths(1).plusHours(1), "NONE", List.of());
+        create("Next week", TO.plusHours(1), TO.plusHours(2), "NONE", List.of());
+        create("Weekly sync", FROM.minusYears(1).withHour(11), FROM.minusYears(1).withHour(12), "WEEKLY", List.of());
+        create("Daily stand-up", FROM.plusDays(4).withHour(9), FROM.plusDays(4).withHour(9).plusMinutes(15), "DAILY", List.of());
+
+        TenantContext.setUserId("calendar-window-other");
+        create("Invited", FROM.plusDays(2).withHour(14), FROM.plusDays(2).withHour(15), "NONE", List.of(USER_ID));
+        create("Not invited", FROM.plusDays(2).withHour(16), FROM.plusDays(2).withHour(17), "NONE", List.of());
+        TenantContext.setUserId(USER_ID);
+
+        List<CalendarEventResponse> mine = calendarEventService.getMyEvents(FROM, TO);
+        assertThat(mine).extracting(CalendarEventResponse::getTitle).containsExactlyInAnyOrder(
+                "Overnight", "Self-invite", "Invited", "Weekly sync",
+                "Daily stand-up", "Daily stand-up", "Daily stand-up");
+        assertThat(mine).extracting(CalendarEventResponse::getStartTime).isSorted();
+        assertThat(mine).allSatisfy(event -> {
+            assertThat(event.getStartTime()).isBefore(TO);
+            assertThat(event.getEndTime()).isAfter(FROM);
+        });
+
+        CalendarEventResponse weekly = mine.stream().filter(e -> e.getTitle().equals("Weekly sync")).findFirst().orElseThrow();
+        assertThat(weekly.getStartTime().getDayOfWeek()).isEqualTo(FROM.minusYears(1).getDayOfWeek());
+        assertThat(weekly.getStartTime().toLocalTime()).isEqualTo(FROM.withHour(11).toLocalTime());
+        assertThat(weekly.getEndTime()).isEqualTo(weekly.getStartTime().plusHours(1));
+
+        assertThat(calendarEventService.getUserEvents("calendar-window-other", FROM, TO))
+                .extracting(CalendarEventResponse::getTitle).containsExactlyInAnyOrder("Invited", "Not invited");
+        assertThat(calendarEventService.getAllEvents(FROM, TO)).hasSize(mine.size() + 1);
+    }
+
+    private void create(String title, LocalDateTime start, LocalDateTime end, String recurrence, List<String> attendeeIds) {
+        CreateCalendarEventRequest request = new CreateCalendarEventRequest();
+        request.setTitle(title);
+        request.setStartTime(start);
+        request.setEndTime(end);
+        request.setRecurrence(recurrence);
+        request.setAttendeeIds(attendeeIds);
+        calendarEventService.createEvent(request);
+    }
+
+    private void cleanupData() {
+        mongoTemplate.remove(new Query(Criteria.where("tenantId").is(TENANT_ID)), CalendarEvent.class);
+    }
+}
@@ -0,0 +1,208 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.DriveBlob;
+import com.ultron.backend.domain.entity.DriveFile;
+import com.ultron.backend.domain.entity.DriveFileVersion;
+import com.ultron.backend.domain.entity.DriveUpload;
+import com.ultron.backend.exception.BusinessException;
+import com.ultron.backend.multitenancy.TenantContext;
+import com.ultron.backend.service.storage.StorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Chunked uploads, dedupe and ranged downloads against the local filesystem storage
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DriveServiceTest {
+
+    private static final String TENANT_ID = "drive-service-test-tenant";
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    @Autowired
+    private DriveService driveService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final byte[] content = new byte[CHUNK_SIZE * 2 + 12_345];
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT_ID);
+        TenantContext.setUserId("drive-test-user");
+        new Random(42).nextBytes(content);
+        cleanupData();
+    }
+
+    @AfterEach
+    void cleanup() {
+        cleanupData();
+        TenantContext.clear();
+    }
+
+    @Test
+    void chunksInAnyOrderWithRetryComposeTheFile() throws Exception {
+        DriveUpload upload = driveService.startUpload("report.bin", "application/octet-stream", content.length,
+                CHUNK_SIZE, null, null, "drive-test-user");
+        assertThat(upload.getChunkCount()).isEqualTo(3);
+
+        putChunk(upload, 2);
+        assertThatThrownBy(() -> driveService.putChunk(upload.getUploadId(), 0,
+                new ByteArrayInputStream(chunk(0)), sha256(chunk(1))))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("checksum");
+        assertThatThrownBy(() -> driveService.completeUpload(upload.getUploadId(), "drive-test-user"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("missing 2");
+
+        putChunk(upload, 0);
+        putChunk(upload, 1);
+        putChunk(upload, 1);
+        assertThat(driveService.getUpload(upload.getUploadId()).getReceivedChunks()).containsExactlyInAnyOrder(0, 1, 2);
+
+        DriveFile file = driveService.completeUpload(upload.getUploadId(), "drive-test-user");
+        assertThat(file.getContentHash()).isEqualTo(sha256(content));
+        assertThat(file.getSizeBytes()).isEqualTo(content.length);
+        assertThat(read(driveService.streamContent(file.getFileId(), null))).isEqualTo(content);
+        assertThat(driveService.getUpload(upload.getUploadId()).getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void identicalContentIsStoredOnceAndReleasedWithTheLastFile() {
+        String hash = sha256(content);
+        DriveFile first = uploadWhole("a.bin");
+        DriveFile second = uploadWhole("b.bin");
+        assertThat(second.getStorageKey()).isEqualTo(first.getStorageKey());
+        assertThat(blob(hash).getRefCount()).isEqualTo(2);
+
+        // A declared hash the tenant already stores completes without sending any chunk
+        DriveUpload instant = driveService.startUpload("c.bin", null, content.length, CHUNK_SIZE, hash, null, "drive-test-user");
+        assertThat(instant.getStatus()).isEqualTo("COMPLETED");
+        assertThat(blob(hash).getRefCount()).isEqualTo(3);
+
+        driveService.deleteFile(first.getFileId(), "drive-test-user");
+        driveService.deleteFile(second.getFileId(), "drive-test-user");
+        assertThat(storageService.exists(first.getStorageKey())).isTrue();
+        driveService.deleteFile(instant.getFileId(), "drive-test-user");
+        assertThat(blob(hash)).isNull();
+        assertThat(storageService.exists(first.getStorageKey())).isFalse();
+    }
+
+    @Test
+    void rangeRequestsReturnTheRequestedBytes() throws Exception {
+        DriveFile file = uploadWhole("range.bin");
+        int size = content.length;
+
+        ResponseEntity<StreamingResponseBody> middle = driveService.streamContent(file.getFileId(), "bytes=100-199");
+        assertThat(middle.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(middle.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 100-199/" + size);
+        assertThat(read(middle)).isEqualTo(Arrays.copyOfRange(content, 100, 200));
+
+        assertThat(read(driveService.streamContent(file.getFileId(), "bytes=" + (size - 10) + "-")))
+                .isEqualTo(Arrays.copyOfRange(content, size - 10, size));
+        assertThat(read(driveService.streamContent(file.getFileId(), "bytes=-5")))
+                .isEqualTo(Arrays.copyOfRange(content, size - 5, size));
+        assertThat(driveService.streamContent(file.getFileId(), "bytes=0-1,5-6").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<StreamingResponseBody> beyond = driveService.streamContent(file.getFileId(), "bytes=" + size + "-");
+        assertThat(beyond.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(beyond.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */" + size);
+    }
+
+    @Test
+    void oversizedChunksAreRejectedAndInvalidMimeTypesServedAsOctetStream() throws Exception {
+        DriveUpload upload = driveService.startUpload("odd.bin", "not a type", content.length,
+                CHUNK_SIZE, null, null, "drive-test-user");
+        assertThat(upload.getMimeType()).isNull();
+
+        byte[] tooLong = Arrays.copyOf(chunk(0), CHUNK_SIZE + 1);
+        assertThatThrownBy(() -> driveService.putChunk(upload.getUploadId(), 0, new ByteArrayInputStream(tooLong), null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("larger");
+        // The last chunk may only hold the remainder of the declared size
+        byte[] paddedLast = Arrays.copyOf(chunk(2), CHUNK_SIZE);
+        assertThatThrownBy(() -> driveService.putChunk(upload.getUploadId(), 2, new ByteArrayInputStream(paddedLast), null))
+                .isInstanceOf(BusinessException.class);
+        assertThat(driveService.getUpload(upload.getUploadId()).getReceivedChunks()).isEmpty();
+
+        putChunk(upload, 0);
+        putChunk(upload, 1);
+        putChunk(upload, 2);
+        DriveFile file = driveService.completeUpload(upload.getUploadId(), "drive-test-user");
+        ResponseEntity<StreamingResponseBody> response = driveService.streamContent(file.getFileId(), null);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+        assertThat(read(response)).isEqualTo(content);
+    }
+
+    private DriveFile uploadWhole(String name) {
+        DriveUpload upload = driveService.startUpload(name, null, content.length, CHUNK_SIZE * 4, null, null, "drive-test-user");
+        driveService.putChunk(upload.getUploadId(), 0, new ByteArrayInputStream(content), sha256(content));
+        return driveService.completeUpload(upload.getUploadId(), "drive-test-user");
+    }
+
+    private void putChunk(DriveUpload upload, int index) {
+        byte[] chunk = chunk(index);
+        driveService.putChunk(upload.getUploadId(), index, new ByteArrayInputStream(chunk), sha256(chunk));
+    }
+
+    private byte[] chunk(int index) {
+        return Arrays.copyOfRange(content, index * CHUNK_SIZE, Math.min(content.length, (index + 1) * CHUNK_SIZE));
+    }
+
+    private DriveBlob blob(String sha256) {
+        return mongoTemplate.findOne(new Query(Criteria.where("_id").is(TENANT_ID + ":" + sha256)), DriveBlob.class);
+    }
+
+    private static byte[] read(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void cleanupData() {
+        Query tenant = new Query(Criteria.where("tenantId").is(TENANT_ID));
+        List<DriveBlob> blobs = mongoTemplate.find(tenant, DriveBlob.class);
+        blobs.forEach(blob -> storageService.deleteFile(blob.getStorageKey()));
+        mongoTemplate.find(tenant, DriveUpload.class).forEach(upload -> storageService.deleteUpload(upload.getUploadId()));
+        mongoTemplate.remove(tenant, DriveBlob.class);
+        mongoTemplate.remove(tenant, DriveUpload.class);
+        mongoTemplate.remove(tenant, DriveFile.class);
+        mongoTemplate.remove(tenant, DriveFileVersion.class);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.Organization;
+import com.ultron.backend.exception.BusinessException;
+import com.ultron.backend.repository.OrganizationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Hammers the usage counters of one tenant from many threads and checks that no increment is
+ * lost and that reservations never exceed the limit
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrganizationUsageConcurrencyTest {
+
+    private static final String TENANT_ID = "usage-concurrency-test-tenant";
+    private static final int THREADS = 16;
+    private static final int CALLS_PER_THREAD = 50;
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @BeforeEach
+    void setUp() {
+        organizationRepository.deleteById(TENANT_ID);
+        organizationRepository.save(Organization.builder()
+                .id(TENANT_ID)
+                .organizationId("ORG-USAGE-TEST")
+                .organizationName("Usage Concurrency Test")
+                .subdomain("usage-concurrency-test")
+                .limits(Organization.UsageLimits.builder()
+                        .maxLeads(300)
+                        .build())
+                .usage(Organization.UsageMetrics.builder()
+                        .currentLeads(0)
+                        .currentContacts(0)
+                        .build())
+                .isDeleted(false)
+                .build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        organizationRepository.deleteById(TENANT_ID);
+    }
+
+    @Test
+    void shouldNotLoseConcurrentIncrementsAndDecrements() throws Exception {
+        List<Boolean> results = hammer(call -> {
+            organizationService.incrementUsage(TENANT_ID, "contacts");
+            if (call % 5 == 0) {
+                organizationService.decrementUsage(TENANT_ID, "contacts");
+            }
+            return true;
+        });
+
+        int decrements = THREADS * (CALLS_PER_THREAD / 5);
+        assertThat(results).hasSize(THREADS * CALLS_PER_THREAD);
+        assertThat(usage().getCurrentContacts()).isEqualTo(THREADS * CALLS_PER_THREAD - decrements);
+    }
+
+    @Test
+    void shouldReserveExactlyUpToTheLimit() throws Exception {
+        List<Boolean> results = hammer(call ->
+                organizationService.tryReserveUsage(TENANT_ID, "leads", 1).reserved());
+
+        assertThat(results.stream().filter(Boolean::booleanValue).count()).isEqualTo(300);
+        assertThat(usage().getCurrentLeads()).isEqualTo(300);
+
+        OrganizationService.UsageReservation rejected = organizationService.tryReserveUsage(TENANT_ID, "leads", 1);
+        assertThat(rejected.reserved()).isFalse();
+        assertThat(rejected.limit()).isEqualTo(300);
+        assertThrows(BusinessException.class, () -> organizationService.reserveUsage(TENANT_ID, "leads"));
+    }
+
+    @Test
+    void shouldNotDecrementBelowZero() throws Exception {
+        hammer(call -> {
+            organizationService.decrementUsage(TENANT_ID, "leads");
+            return true;
+        });
+
+        assertThat(usage().getCurrentLeads()).isZero();
+    }
+
+    @Test
+    void shouldReconcileToActualCounts() {
+        organizationService.incrementUsage(TENANT_ID, "leads");
+        organizationService.incrementUsage(TENANT_ID, "leads");
+
+        Organization.UsageMetrics counts = organizationService.reconcileUsage(TENANT_ID);
+
+        assertThat(counts.getCurrentLeads()).isZero();
+        assertThat(usage().getCurrentLeads()).isZero();
+    }
+
+    private interface Call {
+        boolean run(int call) throws Exception;
+    }
+
+    /**
+     * Run CALLS_PER_THREAD calls on each of THREADS threads, all released at once
+     */
+    private List<Boolean> hammer(Call call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Boolean>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<List<Boolean>> worker = () -> {
+                    start.await();
+                    List<Boolean> results = new ArrayList<>();
+                    for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                        results.add(call.run(i));
+                    }
+                    return results;
+                };
+                futures.add(executor.submit(worker));
+            }
+            start.countDown();
+
+            List<Boolean> results = new ArrayList<>();
+            for (Future<List<Boolean>> future : futures) {
+                results.addAll(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Organization.UsageMetrics usage() {
+        return organizationRepository.findById(TENANT_ID).orElseThrow().getUsage();
+    }
+}
@@ -0,0 +1,161 @@
+package com.ultron.backend.service;
+
+import com.mongodb.MongoClientSettings;
+import com.ultron.backend.domain.entity.Proposal;
+import com.ultron.backend.domain.entity.ProposalVersion;
+import com.ultron.backend.domain.entity.Sequence;
+import com.ultron.backend.dto.response.ProposalVersionResponse;
+import com.ultron.backend.multitenancy.TenantContext;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rebuilt versions must encode to exactly the bytes of the full proposal at that version
+ */
+@SpringBootTest(properties = "app.proposals.version-keyframe-interval=4")
+@ActiveProfiles("test")
+class ProposalVersioningServiceTest {
+
+    private static final String TENANT_ID = "proposal-versioning-test-tenant";
+    private static final String PROPOSAL_ID = "proposal-versioning-test-proposal";
+
+    @Autowired
+    private ProposalVersioningService versioningService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT_ID);
+        TenantContext.setUserId("versioning-test-user");
+        cleanupData();
+    }
+
+    @AfterEach
+    void cleanup() {
+        cleanupData();
+        TenantContext.clear();
+    }
+
+    @Test
+    void rebuiltVersionsMatchFullSnapshotsByteForByte() {
+        Random random = new Random(7);
+        Proposal proposal = Proposal.builder()
+                .id(PROPOSAL_ID)
+                .proposalId("PROP-TEST-00001")
+                .tenantId(TENANT_ID)
+                .title("Initial title")
+                .lineItems(new ArrayList<>())
+                .approverIds(new ArrayList<>(List.of("approver-1")))
+                .totalAmount(BigDecimal.ZERO)
+                .isDeleted(false)
+                .createdAt(LocalDateTime.of(2026, 1, 1, 10, 0))
+                .build();
+
+        List<byte[]> expected = new ArrayList<>();
+        for (int v = 1; v <= 23; v++) {
+            mutate(proposal, v, random);
+            versioningService.createSnapshot(proposal, v == 1 ? "CREATED" : "UPDATED", "v" + v, "versioning-test-user");
+            expected.add(encode(versioningService.toDocument(proposal)));
+        }
+
+        for (int v = 1; v <= expected.size(); v++) {
+            Document rebuilt = versioningService.rebuildDocument(TENANT_ID, PROPOSAL_ID, v);
+            assertThat(encode(rebuilt)).as("version %d", v).isEqualTo(expected.get(v - 1));
+        }
+
+        List<ProposalVersion> stored = mongoTemplate.find(new Query(Criteria.where("tenantId").is(TENANT_ID)
+                .and("proposalId").is(PROPOSAL_ID)), ProposalVersion.class);
+        assertThat(stored).extracting(ProposalVersion::getVersion).doesNotHaveDuplicates().hasSize(23);
+        assertThat(stored).filteredOn(version -> version.getState() != null)
+                .extracting(ProposalVersion::getVersion)
+                .containsExactlyInAnyOrder(1, 5, 9, 13, 17, 21);
+    }
+
+    @Test
+    void historyReturnsMetadataAndGetVersionReturnsTheSnapshot() {
+        Proposal proposal = Proposal.builder()
+                .id(PROPOSAL_ID).proposalId("PROP-TEST-00002").tenantId(TENANT_ID)
+                .title("First").totalAmount(new BigDecimal("100.00")).isDeleted(false).build();
+        versioningService.createSnapshot(proposal, "CREATED", "created", "versioning-test-user");
+        proposal.setTitle("Second");
+        proposal.setTotalAmount(new BigDecimal("250.00"));
+        versioningService.createSnapshot(proposal, "UPDATED", "updated", "versioning-test-user");
+
+        List<ProposalVersionResponse> history = versioningService.getVersionHistory(PROPOSAL_ID);
+        assertThat(history).extracting(ProposalVersionResponse::getVersion).containsExactly(2, 1);
+        assertThat(history).allSatisfy(version -> assertThat(version.getSnapshot()).isNull());
+        assertThat(history.get(0).getTotalAmount()).isEqualByComparingTo("250.00");
+
+        ProposalVersionResponse first = versioningService.getVersion(PROPOSAL_ID, 1);
+        assertThat(first.getSnapshot().getTitle()).isEqualTo("First");
+        assertThat(versioningService.getVersion(PROPOSAL_ID, 2).getSnapshot().getTitle()).isEqualTo("Second");
+    }
+
+    /**
+     * Edits of the kinds proposals go through: scalar changes, line items added, edited and
+     * removed, fields cleared and set again, and nested documents replaced
+     */
+    private void mutate(Proposal proposal, int v, Random random) {
+        proposal.setLastModifiedAt(LocalDateTime.of(2026, 1, 1, 10, 0).plusMinutes(v));
+        if (v % 3 == 0) {
+            proposal.setTitle("Title " + v);
+        }
+        if (v % 2 == 1 || proposal.getLineItems().isEmpty()) {
+            proposal.getLineItems().add(Proposal.ProposalLineItem.builder()
+                    .lineItemId("LI-" + v)
+                    .productName("Product " + v)
+                    .quantity(BigDecimal.valueOf(1 + random.nextInt(5)))
+                    .unitPrice(BigDecimal.valueOf(random.nextInt(10_000), 2))
+                    .build());
+        } else {
+            Proposal.ProposalLineItem item = proposal.getLineItems().get(random.nextInt(proposal.getLineItems().size()));
+            item.setQuantity(item.getQuantity().add(BigDecimal.ONE));
+            item.setDescription(v % 4 == 0 ? null : "Edited in " + v);
+        }
+        if (v % 7 == 0) {
+            proposal.getLineItems().remove(0);
+        }
+        if (v % 5 == 0) {
+            proposal.setNotes(proposal.getNotes() == null ? "Notes " + v : null);
+        }
+        if (v % 6 == 0) {
+            proposal.setDiscount(Proposal.DiscountConfig.builder().build());
+            proposal.setApproverIds(new ArrayList<>(Arrays.asList("approver-" + v, "approver-1")));
+        }
+        proposal.setTotalAmount(proposal.getLineItems().stream()
+                .map(item -> item.getUnitPrice().multiply(item.getQuantity()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    private static byte[] encode(Document document) {
+        RawBsonDocument raw = new RawBsonDocument(document, MongoClientSettings.getDefaultCodecRegistry().get(Document.class));
+        byte[] bytes = new byte[raw.getByteBuffer().remaining()];
+        raw.getByteBuffer().get(bytes);
+        return bytes;
+    }
+
+    private void cleanupData() {
+        mongoTemplate.remove(new Query(Criteria.where("tenantId").is(TENANT_ID)), ProposalVersion.class);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is("proposal-version:" + TENANT_ID + ":" + PROPOSAL_ID)), Sequence.class);
+    }
+}
@@ -0,0 +1,170 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.Lead;
+import com.ultron.backend.domain.entity.Proposal;
+import com.ultron.backend.domain.entity.User;
+import com.ultron.backend.dto.response.ProposalResponse;
+import com.ultron.backend.multitenancy.TenantContext;
+import com.ultron.backend.repository.LeadRepository;
+import com.ultron.backend.repository.ProposalRepository;
+import com.ultron.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The visibility criteria pushed into Mongo must select exactly the proposals the former
+ * in-memory filter (owned / created + proposals of assigned leads) selected
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProposalVisibilityQueryTest {
+
+    private static final String TENANT_ID = "proposal-visibility-test-tenant";
+    private static final List<String> USERS = List.of("vis-user-1", "vis-user-2", "vis-user-3", "vis-user-4");
+
+    @Autowired
+    private ProposalService proposalService;
+
+    @Autowired
+    private ProposalRepository proposalRepository;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT_ID);
+        TenantContext.setUserRole("USER");
+        cleanupData();
+    }
+
+    @AfterEach
+    void cleanup() {
+        cleanupData();
+        TenantContext.clear();
+    }
+
+    @Test
+    void pushedDownVisibilityMatchesInMemoryFilter() {
+        for (long seed = 1; seed <= 3; seed++) {
+            cleanupData();
+            seed(new Random(seed));
+            for (String user : USERS) {
+                TenantContext.setUserId(user);
+                for (Boolean isProforma : new Boolean[]{null, true, false}) {
+                    Set<String> expected = inMemoryVisibleIds(user, isProforma);
+
+                    Set<String> paged = new LinkedHashSet<>();
+                    long total = -1;
+                    for (int page = 0; ; page++) {
+                        Page<ProposalResponse> result = proposalService.getAllProposalsPage(isProforma,
+                                PageRequest.of(page, 7, Sort.by(Sort.Direction.ASC, "title")));
+                        total = result.getTotalElements();
+                        result.getContent().forEach(p -> assertThat(paged.add(p.getId())).as("duplicate across pages").isTrue());
+                        if (!result.hasNext()) {
+                            break;
+                        }
+                    }
+                    String label = "seed " + seed + ", " + user + ", isProforma " + isProforma;
+                    assertThat(paged).as(label).isEqualTo(expected);
+                    assertThat(total).as(label).isEqualTo(expected.size());
+                    assertThat(proposalService.getAllProposalsList(isProforma))
+                            .extracting(ProposalResponse::getId)
+                            .as(label)
+                            .containsExactlyInAnyOrderElementsOf(expected);
+                }
+            }
+        }
+    }
+
+    /**
+     * The filter getAllProposalsPage applied before the visibility rules moved into the query
+     */
+    private Set<String> inMemoryVisibleIds(String mongoId, Boolean isProforma) {
+        String businessUserId = userRepository.findById(mongoId).map(User::getUserId).orElse(mongoId);
+        List<String> assignedLeadIds = leadRepository.findByAssignedUserIdAndTenantIdAndIsDeletedFalse(businessUserId, TENANT_ID)
+                .stream().map(Lead::getId).collect(Collectors.toList());
+        List<Proposal> owned = isProforma != null
+                ? proposalRepository.findByTenantIdAndOwnerOrCreatedByAndIsProformaAndIsDeletedFalse(TENANT_ID, mongoId, isProforma)
+                : proposalRepository.findByTenantIdAndOwnerOrCreatedByAndIsDeletedFalse(TENANT_ID, mongoId);
+        List<Proposal> fromLeads = assignedLeadIds.isEmpty()
+                ? List.of()
+                : proposalRepository.findByLeadIdInAndTenantIdAndIsDeletedFalse(assignedLeadIds, TENANT_ID);
+        return Stream.concat(owned.stream(), fromLeads.stream()).map(Proposal::getId).collect(Collectors.toSet());
+    }
+
+    private void seed(Random random) {
+        // One user with a business id: leads are assigned by business id, proposals owned by Mongo id
+        userRepository.save(User.builder().id(USERS.get(0)).userId("USR-VIS-1").tenantId(TENANT_ID).username("vis-user-1").build());
+        List<String> assignees = new ArrayList<>(List.of("USR-VIS-1", USERS.get(1), USERS.get(2), "nobody"));
+
+        List<Lead> leads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            leads.add(Lead.builder()
+                    .id("vis-lead-" + i)
+                    .leadId("LEAD-VIS-" + i)
+                    .email("vis-lead-" + i + "@example.test")
+                    .tenantId(TENANT_ID)
+                    .assignedUserId(assignees.get(random.nextInt(assignees.size())))
+                    .isDeleted(random.nextInt(8) == 0)
+                    .build());
+        }
+        leadRepository.saveAll(leads);
+
+        List<Proposal> proposals = new ArrayList<>();
+        Set<String> titles = new HashSet<>();
+        for (int i = 0; i < 150; i++) {
+            String title = "Proposal " + random.nextInt(40);
+            titles.add(title);
+            proposals.add(Proposal.builder()
+                    .id("vis-proposal-" + i)
+                    .proposalId("PROP-VIS-" + i)
+                    .tenantId(TENANT_ID)
+                    .title(title)
+                    .ownerId(random.nextInt(4) == 0 ? null : USERS.get(random.nextInt(USERS.size())))
+                    .createdBy(USERS.get(random.nextInt(USERS.size())))
+                    .leadId(random.nextInt(3) == 0 ? null : "vis-lead-" + random.nextInt(leads.size()))
+                    .isProforma(random.nextInt(3) == 0 ? null : random.nextBoolean())
+                    .isDeleted(random.nextInt(10) == 0)
+                    .createdAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(random.nextInt(1000)))
+                    .build());
+        }
+        proposalRepository.saveAll(proposals);
+        assertThat(titles.size()).isLessThan(proposals.size());
+    }
+
+    private void cleanupData() {
+        Query tenant = new Query(Criteria.where("tenantId").is(TENANT_ID));
+        mongoTemplate.remove(tenant, Proposal.class);
+        mongoTemplate.remove(tenant, Lead.class);
+        mongoTemplate.remove(tenant, User.class);
+    }
+}
@@ -0,0 +1,249 @@
+package com.ultron.backend.service;
+
+import com.ultron.backend.domain.entity.Survey;
+import com.ultron.backend.domain.entity.SurveyResponse;
+import com.ultron.backend.domain.entity.SurveyTally;
+import com.ultron.backend.domain.enums.SurveyQuestionType;
+import com.ultron.backend.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tallies maintained by concurrent submissions must equal a full recount of the stored responses
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SurveyTallyConcurrencyTest {
+
+    private static final String TENANT_ID = "survey-tally-test-tenant";
+    private static final int THREADS = 8;
+    private static final int RESPONSES_PER_THREAD = 40;
+    private static final List<String> CHOICES = List.of("Yes", "No", "v1.2", "$cost", "100%", "");
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private SurveyTallyService surveyTallyService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT_ID);
+        TenantContext.setUserId("survey-tally-user");
+        cleanupData();
+    }
+
+    @AfterEach
+    void cleanup() {
+        cleanupData();
+        TenantContext.clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void talliesMatchFullRecountAfterConcurrentSubmissions() throws Exception {
+        Survey survey = createSurvey();
+        submitConcurrently(survey.getSurveyId());
+
+        List<SurveyResponse> responses = storedResponses();
+        assertThat(responses).hasSize(THREADS * RESPONSES_PER_THREAD);
+        // The maintained tally is read as is, not recounted on read
+        assertThat(tally(survey).isStale()).isFalse();
+
+        Map<String, Object> results = surveyService.getResults(survey.getSurveyId());
+        assertThat(((Number) results.get("totalResponses")).longValue()).isEqualTo(responses.size());
+        assertThat((Map<String, Map<String, Long>>) results.get("tallies")).isEqualTo(recountValues(responses));
+
+        Map<String, Map<String, Object>> summaries = (Map<String, Map<String, Object>>) results.get("summaries");
+        assertThat(summaries).containsOnlyKeys("q-rating", "q-nps");
+        for (String questionId : List.of("q-rating", "q-nps")) {
+            List<Double> values = responses.stream()
+                    .flatMap(response -> response.getAnswers().stream())
+                    .filter(answer -> answer.getQuestionId().equals(questionId))
+                    .map(answer -> Double.parseDouble(answer.getValue()))
+                    .toList();
+            Map<String, Object> summary = summaries.get(questionId);
+            assertThat(summary.get("count")).isEqualTo((long) values.size());
+            assertThat((Double) summary.get("min")).isEqualTo(values.stream().min(Double::compare).orElseThrow());
+            assertThat((Double) summary.get("max")).isEqualTo(values.stream().max(Double::compare).orElseThrow());
+            assertThat((Double) summary.get("mean"))
+                    .isCloseTo(values.stream().mapToDouble(Double::doubleValue).average().orElseThrow(), within(1e-9));
+        }
+
+        // A rebuild from the stored responses leaves the same tally
+        SurveyTally maintained = tally(survey);
+        SurveyTally rebuilt = surveyTallyService.rebuild(survey);
+        assertThat(rebuilt.getCounts()).isEqualTo(maintained.getCounts());
+        assertThat(rebuilt.getNumeric()).isEqualTo(maintained.getNumeric());
+        assertThat(rebuilt.getTotalResponses()).isEqualTo(maintained.getTotalResponses());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void editingQuestionTypesRebuildsTheTally() throws Exception {
+        Survey survey = createSurvey();
+        for (int i = 0; i < 5; i++) {
+            surveyService.submitResponse(survey.getSurveyId(), List.of(
+                    answer("q-choice", "Yes"), answer("q-text", String.valueOf(i))), false);
+        }
+        assertThat((Map<String, Object>) surveyService.getResults(survey.getSurveyId()).get("summaries"))
+                .doesNotContainKey("q-text");
+
+        Survey edited = Survey.builder().questions(new ArrayList<>(survey.getQuestions())).build();
+        edited.getQuestions().replaceAll(q -> q.getQuestionId().equals("q-text")
+                ? Survey.SurveyQuestion.builder().questionId("q-text").text("Score").type(SurveyQuestionType.RATING).build()
+                : q);
+        surveyService.updateSurvey(survey.getSurveyId(), edited);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (tally(survey).isStale() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Map<String, Map<String, Object>> summaries =
+                (Map<String, Map<String, Object>>) surveyService.getResults(survey.getSurveyId()).get("summaries");
+        assertThat(summaries.get("q-text")).containsEntry("count", 5L).containsEntry("mean", 2.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void responsesFromBeforeTalliesWereKeptAreBackfilled() {
+        Survey survey = createSurvey();
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(TENANT_ID + ":" + survey.getSurveyId())), SurveyTally.class);
+        for (int i = 0; i < 3; i++) {
+            mongoTemplate.insert(SurveyResponse.builder().surveyId(survey.getSurveyId()).tenantId(TENANT_ID)
+                    .answers(List.of(answer("q-rating", "4"))).build());
+        }
+
+        surveyService.submitResponse(survey.getSurveyId(), List.of(answer("q-rating", "2")), false);
+
+        Map<String, Object> results = surveyService.getResults(survey.getSurveyId());
+        assertThat(((Number) results.get("totalResponses")).longValue()).isEqualTo(4);
+        assertThat((Map<String, Map<String, Long>>) results.get("tallies")).isEqualTo(recountValues(storedResponses()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submissionRecordedAfterARebuildRecountedItIsNotCountedTwice() {
+        Survey survey = createSurvey();
+        surveyService.submitResponse(survey.getSurveyId(), List.of(answer("q-choice", "Yes")), false);
+
+        // A submission saves its response, a rebuild recounts it, and only then does its update land
+        long epoch = surveyTallyService.rebuildEpoch(survey);
+        SurveyResponse saved = mongoTemplate.insert(SurveyResponse.builder().surveyId(survey.getSurveyId())
+                .tenantId(TENANT_ID).answers(List.of(answer("q-choice", "No"))).build());
+        surveyTallyService.rebuild(survey);
+        surveyTallyService.record(survey, saved, epoch);
+
+        Map<String, Object> results = surveyService.getResults(survey.getSurveyId());
+        assertThat(((Number) results.get("totalResponses")).longValue()).isEqualTo(2);
+        assertThat((Map<String, Map<String, Long>>) results.get("tallies")).isEqualTo(recountValues(storedResponses()));
+    }
+
+    private Survey createSurvey() {
+        return surveyService.createSurvey(Survey.builder()
+                .title("Pulse")
+                .questions(new ArrayList<>(List.of(
+                        question("q-rating", SurveyQuestionType.RATING),
+                        question("q-nps", SurveyQuestionType.NPS),
+                        question("q-choice", SurveyQuestionType.MULTIPLE_CHOICE),
+                        question("q-text", SurveyQuestionType.TEXT))))
+                .build());
+    }
+
+    private void submitConcurrently(String surveyId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Random random = new Random(t);
+                futures.add(executor.submit(() -> {
+                    TenantContext.setTenantId(TENANT_ID);
+                    TenantContext.setUserId("survey-tally-user");
+                    try {
+                        start.await();
+                        for (int i = 0; i < RESPONSES_PER_THREAD; i++) {
+                            List<SurveyResponse.Answer> answers = new ArrayList<>();
+                            answers.add(answer("q-rating", String.valueOf(1 + random.nextInt(5))));
+                            answers.add(answer("q-nps", String.valueOf(random.nextInt(11))));
+                            if (random.nextInt(4) > 0) {
+                                answers.add(answer("q-choice", CHOICES.get(random.nextInt(CHOICES.size()))));
+                            }
+                            answers.add(answer("q-text", random.nextInt(3) == 0 ? null : "text " + random.nextInt(10)));
+                            surveyService.submitResponse(surveyId, answers, random.nextBoolean());
+                        }
+                    } finally {
+                        TenantContext.clear();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The in-memory recount getResults performed before tallies were maintained
+     */
+    private static Map<String, Map<String, Long>> recountValues(List<SurveyResponse> responses) {
+        Map<String, Map<String, Long>> tallies = new HashMap<>();
+        for (SurveyResponse response : responses) {
+            for (SurveyResponse.Answer answer : response.getAnswers()) {
+                tallies.computeIfAbsent(answer.getQuestionId(), k -> new HashMap<>())
+                        .merge(answer.getValue() != null ? answer.getValue() : "", 1L, Long::sum);
+            }
+        }
+        return tallies;
+    }
+
+    private List<SurveyResponse> storedResponses() {
+        return mongoTemplate.find(new Query(Criteria.where("tenantId").is(TENANT_ID)), SurveyResponse.class);
+    }
+
+    private SurveyTally tally(Survey survey) {
+        return mongoTemplate.findOne(new Query(Criteria.where("_id").is(TENANT_ID + ":" + survey.getSurveyId())), SurveyTally.class);
+    }
+
+    private static Survey.SurveyQuestion question(String id, SurveyQuestionType type) {
+        return Survey.SurveyQuestion.builder().questionId(id).text(id).type(type).build();
+    }
+
+    private static SurveyResponse.Answer answer(String questionId, String value) {
+        return SurveyResponse.Answer.builder().questionId(questionId).value(value).build();
+    }
+
+    private void cleanupData() {
+        Query tenant = new Query(Criteria.where("tenantId").is(TENANT_ID));
+        mongoTemplate.remove(tenant, Survey.class);
+        mongoTemplate.remove(tenant, SurveyResponse.class);
+        mongoTemplate.remove(tenant, SurveyTally.class);
+    }
+}
@@ -0,0 +1,190 @@
+package com.ultron.backend.service.webhook;
+
+import com.sun.net.httpserver.HttpServer;
+import com.ultron.backend.domain.entity.WebhookEndpoint;
+import com.ultron.backend.domain.entity.WebhookEvent;
+import com.ultron.backend.multitenancy.TenantContext;
+import com.ultron.backend.service.WebhookEventService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivers events to an embedded HTTP receiver that adds latency and fails a share of requests
+ */
+@SpringBootTest(properties = {
+        "app.webhooks.poll-ms=3600000",
+        "app.webhooks.backoff-base-ms=20",
+        "app.webhooks.backoff-max-ms=100",
+        "app.webhooks.max-attempts=3",
+        "app.webhooks.allow-private-addresses=true"
+})
+@ActiveProfiles("test")
+class WebhookDeliveryServiceTest {
+
+    private static final String TENANT_ID = "webhook-delivery-test-tenant";
+
+    @Autowired
+    private WebhookDeliveryService deliveryService;
+
+    @Autowired
+    private WebhookEventService eventService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private HttpServer receiver;
+    private ExecutorService receiverThreads;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Map<String, Boolean> receivedEventIds = new ConcurrentHashMap<>();
+
+    // Receiver behaviour: delay per request, and fail every failEvery-th request (0 = never, 1 = always)
+    private volatile long latencyMs;
+    private volatile int failEvery;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TenantContext.setTenantId(TENANT_ID);
+        TenantContext.setUserId("webhook-test-user");
+        cleanupData();
+
+        receiverThreads = Executors.newCachedThreadPool();
+        receiver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        receiver.setExecutor(receiverThreads);
+        receiver.createContext("/hook", exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                int number = requests.incrementAndGet();
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(latencyMs);
+                boolean fail = failEvery > 0 && number % failEvery == 0;
+                if (!fail) {
+                    for (String eventId : exchange.getRequestHeaders().getFirst("X-Webhook-Event-Id").split(",")) {
+                        receivedEventIds.put(eventId, true);
+                    }
+                }
+                exchange.sendResponseHeaders(fail ? 500 : 204, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(503, -1);
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        receiver.start();
+    }
+
+    @AfterEach
+    void cleanup() {
+        receiver.stop(0);
+        receiverThreads.shutdownNow();
+        cleanupData();
+        TenantContext.clear();
+    }
+
+    @Test
+    void shouldDeliverEveryEventDespiteLatencyAndFailures() throws Exception {
+        latencyMs = 30;
+        failEvery = 3;
+        createEndpoint(2, null);
+        publish(30);
+
+        deliverUntilSettled();
+
+        assertThat(events(WebhookEvent.EventStatus.DELIVERED)).hasSize(30);
+        assertThat(receivedEventIds).hasSize(30);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldBatchEventsPerEndpoint() throws Exception {
+        latencyMs = 0;
+        failEvery = 0;
+        createEndpoint(1, 10);
+        publish(25);
+
+        deliverUntilSettled();
+
+        assertThat(events(WebhookEvent.EventStatus.DELIVERED)).hasSize(25);
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDeadLetterAfterMaxAttempts() throws Exception {
+        latencyMs = 0;
+        failEvery = 1;
+        createEndpoint(4, null);
+        publish(5);
+
+        deliverUntilSettled();
+
+        List<WebhookEvent> deadLetters = events(WebhookEvent.EventStatus.DEAD_LETTER);
+        assertThat(deadLetters).hasSize(5);
+        assertThat(deadLetters).allSatisfy(event -> {
+            assertThat(event.getDeliveryAttempts()).isEqualTo(3);
+            assertThat(event.getDeliveryError()).isEqualTo("HTTP 500");
+        });
+        assertThat(requests.get()).isEqualTo(15);
+    }
+
+    private void createEndpoint(int maxConcurrency, Integer batchSize) {
+        mongoTemplate.insert(WebhookEndpoint.builder()
+                .tenantId(TENANT_ID)
+                .url("http://127.0.0.1:" + receiver.getAddress().getPort() + "/hook")
+                .secret("test-secret")
+                .maxConcurrency(maxConcurrency)
+                .batchSize(batchSize)
+                .active(true)
+                .createdAt(LocalDateTime.now())
+                .isDeleted(false)
+                .build());
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            eventService.publishEntityCreated("LEAD", "lead-" + i, Map.of("index", i));
+        }
+    }
+
+    /**
+     * Poll until no event is pending any more, as the scheduler would
+     */
+    private void deliverUntilSettled() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline && !events(WebhookEvent.EventStatus.PENDING).isEmpty()) {
+            deliveryService.deliverPending();
+            Thread.sleep(20);
+        }
+    }
+
+    private List<WebhookEvent> events(WebhookEvent.EventStatus status) {
+        return mongoTemplate.find(new Query(Criteria.where("tenantId").is(TENANT_ID).and("status").is(status)),
+                WebhookEvent.class);
+    }
+
+    private void cleanupData() {
+        mongoTemplate.remove(new Query(Criteria.where("tenantId").is(TENANT_ID)), WebhookEvent.class);
+        mongoTemplate.remove(new Query(Criteria.where("tenantId").is(TENANT_ID)), WebhookEndpoint.class);
+    }
+}
@@ -0,0 +1,49 @@
+package com.ultron.backend.service.webhook;
+
+import com.ultron.backend.exception.BusinessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for WebhookUrlGuard; uses literal addresses so no DNS lookup is needed
+ */
+@DisplayName("Webhook URL Guard Tests")
+class WebhookUrlGuardTest {
+
+    private final WebhookUrlGuard guard = new WebhookUrlGuard();
+
+    @Test
+    void shouldRejectInternalAddresses() {
+        for (String url : new String[]{
+                "http://127.0.0.1/hook",
+                "http://0.0.0.0/hook",
+                "http://10.1.2.3/hook",
+                "http://172.16.0.5/hook",
+                "http://192.168.1.10/hook",
+                "http://169.254.169.254/latest/meta-data",
+                "http://100.64.0.1/hook",
+                "http://224.0.0.1/hook",
+                "http://[::1]/hook",
+                "http://[fe80::1]/hook",
+                "http://[fd00::1]/hook",
+                "http://[::ffff:127.0.0.1]/hook"}) {
+            assertThatThrownBy(() -> guard.check(url)).as(url).isInstanceOf(BusinessException.class);
+        }
+    }
+
+    @Test
+    void shouldRejectOtherSchemesAndMalformedUrls() {
+        for (String url : new String[]{"ftp://93.184.216.34/hook", "file:///etc/passwd", "http://", "not a url"}) {
+            assertThatThrownBy(() -> guard.check(url)).as(url).isInstanceOf(BusinessException.class);
+        }
+    }
+
+    @Test
+    void shouldAcceptPublicAddresses() {
+        assertThatCode(() -> guard.check("https://93.184.216.34/hook")).doesNotThrowAnyException();
+        assertThatCode(() -> guard.check("http://[2606:2800:220:1::]:8443/hook")).doesNotThrowAnyException();
+    }
+}
@@ -68,6 +68,14 @@ function toISOWithoutZ(dt: Date): string {
   return `${dt.getFullYear()}-${pad(dt.getMonth() + 1)}-${pad(dt.getDate())}T${pad(dt.getHours())}:${pad(dt.getMinutes())}:00`;
 }
 
+// An occurrence of a recurring series carries its own times; moving it shifts the stored series by the same amount
+function toSeriesTimes(event: CalendarEvent, start: Date, end: Date): { start: Date; end: Date } {
+  if (!event.seriesStartTime) return { start, end };
+  const shift = start.getTime() - new Date(event.startTime).getTime();
+  const seriesStart = new Date(new Date(event.seriesStartTime).getTime() + shift);
+  return { start: seriesStart, end: new Date(seriesStart.getTime() + (end.getTime() - start.getTime())) };
+}
+
 function startOfMonth(date: Date): Date {
   return new Date(date.getFullYear(), date.getMonth(), 1);
 }
@@ -564,6 +572,8 @@ function EventModal({ event, defaultStart, users, leads, onClose, onSave, onDele
       return;
     }
 
+    const times = isEdit && event ? toSeriesTimes(event, start, end) : { start, end };
+
     setSaving(true);
     setError("");
     try {
@@ -571,8 +581,8 @@ function EventModal({ event, defaultStart, users, leads, onClose, onSave, onDele
         {
           title: title.trim(),
           description,
-          startTime: toISOWithoutZ(new Date(startTime)),
-          endTime: toISOWithoutZ(new Date(endTime)),
+          startTime: toISOWithoutZ(times.start),
+          endTime: toISOWithoutZ(times.end),
           location,
           clientId: selectedLeads[0]?.id,
           clientName: selectedLeads.map((l) => l.name).join(", "),
@@ -1550,12 +1560,13 @@ export default function CalendarPage() {
   }
 
   async function handleEventDrop(event: CalendarEvent, newStart: Date, newEnd: Date) {
+    const times = toSeriesTimes(event, newStart, newEnd);
     try {
       await calendarService.updateEvent(event.id, {
         title: event.title,
         description: event.description,
-        startTime: toISOWithoutZ(newStart),
-        endTime: toISOWithoutZ(newEnd),
+        startTime: toISOWithoutZ(times.start),
+        endTime: toISOWithoutZ(times.end),
         location: event.location,
         eventType: event.eventType,
         status: event.status,
@@ -26,6 +26,7 @@ export default function ChatPanel({ isOpen, onClose }: ChatPanelProps) {
     chatMessages,
     sendMessage,
     subscribeToChat,
+    subscribeToGroup,
     fetchChatHistory,
     connected,
     unreadMessageCounts,
@@ -75,6 +76,8 @@ export default function ChatPanel({ isOpen, onClose }: ChatPanelProps) {
         const data = await groupsRes.json();
         if (data.data) {
           setGroups(data.data);
+          // Pick up groups we were added to after connecting
+          data.data.forEach((group: ChatGroup) => subscribeToGroup(group.id));
         }
       }
     } catch (error) {
@@ -163,6 +166,7 @@ export default function ChatPanel({ isOpen, onClose }: ChatPanelProps) {
         const data = await res.json();
         if (data.data) {
           setGroups((prev) => [...prev, data.data]);
+          subscribeToGroup(data.data.id);
         }
         setIsCreateGroupModalOpen(false);
         setNewGroupName("");
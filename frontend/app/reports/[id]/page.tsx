@@ -4,14 +4,20 @@ import { useState, useEffect } from "react";
 import { useParams } from "next/navigation";
 import { reportsApi, SavedReport } from "@/lib/reports";
 import { showToast } from "@/lib/toast";
-import { Play, BarChart2 } from "lucide-react";
+import { Play, BarChart2, Download } from "lucide-react";
+
+const PAGE_SIZE = 100;
 
 export default function ReportViewerPage() {
   const { id } = useParams<{ id: string }>();
   const [report, setReport] = useState<SavedReport | null>(null);
   const [results, setResults] = useState<Record<string, any>[]>([]);
+  const [page, setPage] = useState(0);
+  const [totalPages, setTotalPages] = useState(0);
+  const [totalRows, setTotalRows] = useState(0);
   const [loading, setLoading] = useState(true);
   const [running, setRunning] = useState(false);
+  const [exporting, setExporting] = useState(false);
 
   useEffect(() => {
     load();
@@ -29,12 +35,15 @@ export default function ReportViewerPage() {
     }
   };
 
-  const runReport = async () => {
+  const runReport = async (pageNumber = 0) => {
     try {
       setRunning(true);
-      const data = await reportsApi.run(id);
-      setResults(data);
-      showToast.success(`${data.length} rows returned`);
+      const data = await reportsApi.run(id, pageNumber, PAGE_SIZE);
+      setResults(data.content);
+      setPage(data.number);
+      setTotalPages(data.totalPages);
+      setTotalRows(data.totalElements);
+      if (pageNumber === 0) showToast.success(`${data.totalElements} rows returned`);
     } catch {
       showToast.error("Failed to run report");
     } finally {
@@ -42,6 +51,23 @@ export default function ReportViewerPage() {
     }
   };
 
+  const exportReport = async (format: "csv" | "xlsx") => {
+    try {
+      setExporting(true);
+      const blob = await reportsApi.export(id, format);
+      const url = URL.createObjectURL(blob);
+      const link = document.createElement("a");
+      link.href = url;
+      link.download = `${report?.name || "report"}.${format}`;
+      link.click();
+      URL.revokeObjectURL(url);
+    } catch {
+      showToast.error("Failed to export report");
+    } finally {
+      setExporting(false);
+    }
+  };
+
   const maxVal =
     results.length > 0
       ? Math.max(...results.map((r) => (typeof r.count === "number" ? r.count : 0)), 1)
@@ -61,13 +87,25 @@ export default function ReportViewerPage() {
             {report.dataSource} · {report.chartType}
           </p>
         </div>
-        <button
-          onClick={runReport}
-          disabled={running}
-          className="flex items-center gap-2 px-4 py-2 bg-blue-600 text-white rounded-lg text-sm font-medium hover:bg-blue-700 disabled:opacity-50"
-        >
-          <Play className="w-4 h-4" /> {running ? "Running..." : "Run Report"}
-        </button>
+        <div className="flex items-center gap-2">
+          {(["csv", "xlsx"] as const).map((format) => (
+            <button
+              key={format}
+              onClick={() => exportReport(format)}
+              disabled={exporting}
+              className="flex items-center gap-2 px-3 py-2 border border-gray-300 rounded-lg text-sm font-medium text-gray-700 hover:bg-gray-50 disabled:opacity-50"
+            >
+              <Download className="w-4 h-4" /> {format.toUpperCase()}
+            </button>
+          ))}
+          <button
+            onClick={() => runReport(0)}
+            disabled={running}
+            className="flex items-center gap-2 px-4 py-2 bg-blue-600 text-white rounded-lg text-sm font-medium hover:bg-blue-700 disabled:opacity-50"
+          >
+            <Play className="w-4 h-4" /> {running ? "Running..." : "Run Report"}
+          </button>
+        </div>
       </div>
 
       {results.length > 0 && report.chartType === "BAR" && report.groupBy && (
@@ -125,6 +163,29 @@ export default function ReportViewerPage() {
               </tbody>
             </table>
           </div>
+          {totalPages > 1 && (
+            <div className="flex items-center justify-between px-4 py-3 border-t border-gray-200 text-sm text-gray-600">
+              <span>
+                Page {page + 1} of {totalPages} · {totalRows} rows
+              </span>
+              <div className="flex gap-2">
+                <button
+                  onClick={() => runReport(page - 1)}
+                  disabled={running || page === 0}
+                  className="px-3 py-1 border border-gray-300 rounded-lg hover:bg-gray-50 disabled:opacity-50"
+                >
+                  Previous
+                </button>
+                <button
+                  onClick={() => runReport(page + 1)}
+                  disabled={running || page + 1 >= totalPages}
+                  className="px-3 py-1 border border-gray-300 rounded-lg hover:bg-gray-50 disabled:opacity-50"
+                >
+                  Next
+                </button>
+              </div>
+            </div>
+          )}
         </div>
       ) : (
         <div className="text-center py-16 text-gray-400">
@@ -30,6 +30,7 @@ export default function SurveyResultsPage() {
 
   const survey = results.survey;
   const tallies: Record<string, Record<string, number>> = results.tallies || {};
+  const summaries: Record<string, { mean: number; min: number; max: number }> = results.summaries || {};
 
   return (
     <div className="p-6 max-w-2xl mx-auto">
@@ -49,6 +50,12 @@ export default function SurveyResultsPage() {
         return (
           <div key={q.questionId} className="bg-white rounded-xl border border-gray-200 p-5 mb-4">
             <h3 className="font-medium text-gray-900 mb-4">{q.text}</h3>
+            {summaries[q.questionId] && (
+              <p className="text-sm text-gray-500 -mt-3 mb-4">
+                Average {summaries[q.questionId].mean.toFixed(1)} (min {summaries[q.questionId].min}, max{" "}
+                {summaries[q.questionId].max})
+              </p>
+            )}
             {total === 0 ? (
               <p className="text-sm text-gray-400">No responses yet</p>
             ) : (
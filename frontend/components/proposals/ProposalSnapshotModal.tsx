@@ -17,7 +17,7 @@ export default function ProposalSnapshotModal({
 }: ProposalSnapshotModalProps) {
   if (!isOpen) return null;
 
-  const proposal = version.snapshot;
+  const proposal = version.snapshot!;
 
   const formatCurrency = (amount: number) => {
     return new Intl.NumberFormat("en-IN", {
@@ -15,8 +15,8 @@ export default function ProposalVersionDiff({
   version2,
   onBack,
 }: ProposalVersionDiffProps) {
-  const v1 = version1.snapshot;
-  const v2 = version2.snapshot;
+  const v1 = version1.snapshot!;
+  const v2 = version2.snapshot!;
 
   const formatCurrency = (amount: number) => {
     return new Intl.NumberFormat("en-IN", {
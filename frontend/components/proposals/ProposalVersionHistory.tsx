@@ -51,16 +51,30 @@ export default function ProposalVersionHistory({
     }
   };
 
-  const handleCompareClick = () => {
+  // The history list carries metadata only; snapshots are fetched per version
+  const loadSnapshot = (v: ProposalVersionResponse) =>
+    proposalsService.getVersion(proposalId, v.version);
+
+  const handleViewClick = async (v: ProposalVersionResponse) => {
+    try {
+      onVersionSelect(await loadSnapshot(v));
+    } catch (err) {
+      setError(err instanceof Error ? err.message : "Failed to load version");
+    }
+  };
+
+  const handleCompareClick = async () => {
     if (selectedForCompare.length === 2) {
       const v1 = history.find((v) => v.id === selectedForCompare[0]);
       const v2 = history.find((v) => v.id === selectedForCompare[1]);
       if (v1 && v2) {
-        // Ensure v1 is the older version for logical diff
-        if (v1.version > v2.version) {
-          onCompareSelect(v2, v1);
-        } else {
-          onCompareSelect(v1, v2);
+        try {
+          // Ensure v1 is the older version for logical diff
+          const [older, newer] = v1.version > v2.version ? [v2, v1] : [v1, v2];
+          const [olderFull, newerFull] = await Promise.all([loadSnapshot(older), loadSnapshot(newer)]);
+          onCompareSelect(olderFull, newerFull);
+        } catch (err) {
+          setError(err instanceof Error ? err.message : "Failed to load versions");
         }
       }
     }
@@ -170,7 +184,7 @@ export default function ProposalVersionHistory({
                         {new Intl.NumberFormat("en-IN", {
                           style: "currency",
                           currency: "INR",
-                        }).format(version.snapshot.totalAmount)}
+                        }).format(version.totalAmount ?? 0)}
                       </div>
                     </div>
                   </div>
@@ -178,7 +192,7 @@ export default function ProposalVersionHistory({
 
                 <div className="flex items-center gap-3 sm:self-center">
                   <button
-                    onClick={() => onVersionSelect(version)}
+                    onClick={() => handleViewClick(version)}
                     className="flex-1 sm:flex-none px-5 py-2.5 bg-slate-900 hover:bg-black text-white rounded-xl text-sm font-bold shadow-lg shadow-slate-200 transition-all flex items-center justify-center gap-2"
                   >
                     View Snapshot
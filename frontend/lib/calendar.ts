@@ -12,6 +12,9 @@ export interface CalendarEvent {
   description?: string;
   startTime: string;
   endTime: string;
+  // Stored times of a recurring series; startTime/endTime are those of the listed occurrence
+  seriesStartTime?: string;
+  seriesEndTime?: string;
   location?: string;
   clientId?: string;
   clientName?: string;
@@ -1,4 +1,5 @@
-import { apiRequest } from "./api-client";
+import { api, apiRequest } from "./api-client";
+import type { Page } from "@/types/common";
 
 export type ReportDataSource =
   | "LEADS"
@@ -15,6 +16,12 @@ export interface ReportFilter {
   value: string;
 }
 
+export interface ReportMeasure {
+  field: string;
+  function: "sum" | "avg" | "min" | "max";
+  alias?: string;
+}
+
 export interface SavedReport {
   reportId: string;
   name: string;
@@ -22,6 +29,10 @@ export interface SavedReport {
   filters: ReportFilter[];
   columns: string[];
   groupBy: string;
+  measures?: ReportMeasure[];
+  sortBy?: string;
+  sortDirection?: "ASC" | "DESC";
+  limit?: number;
   chartType: ReportChartType;
   isScheduled: boolean;
   scheduleFrequency?: string;
@@ -37,5 +48,9 @@ export const reportsApi = {
   update: (id: string, data: Partial<SavedReport>) =>
     apiRequest<SavedReport>(`/reports/${id}`, { method: "PUT", body: JSON.stringify(data) }),
   delete: (id: string) => apiRequest<void>(`/reports/${id}`, { method: "DELETE" }),
-  run: (id: string) => apiRequest<Record<string, any>[]>(`/reports/${id}/run`, { method: "POST" }),
+  run: (id: string, page = 0, size = 100) =>
+    apiRequest<Page<Record<string, any>>>(`/reports/${id}/run?page=${page}&size=${size}`, {
+      method: "POST",
+    }),
+  export: (id: string, format: "csv" | "xlsx") => api.download(`/reports/${id}/export?format=${format}`),
 };
@@ -53,6 +53,7 @@ interface WebSocketContextType {
   sendMessage: (recipientId: string, content: string, recipientType?: string) => void;
   sendTypingIndicator: (recipientId: string, recipientType: string, isTyping: boolean) => void;
   subscribeToChat: (recipientId: string) => void;
+  subscribeToGroup: (groupId: string) => void;
   fetchChatHistory: (recipientId: string, recipientType?: string) => Promise<void>;
   markNotificationAsRead: (notificationId: string) => void;
   markAllNotificationsAsRead: () => void;
@@ -219,43 +220,18 @@ export const WebSocketProvider: React.FC<{ children: ReactNode }> = ({ children
 
         // Subscribe to user's direct messages queue
         stompClient.subscribe(`/user/queue/chat`, (message: IMessage) => {
-          const chatMsg = JSON.parse(message.body) as ChatMessage;
-          // Prevent duplicate messages
-          setChatMessages((prev) => {
-            const exists = prev.some((m) => m.id === chatMsg.id);
-            if (exists) return prev;
-
-            // Update unread count only for new messages from others
-            if (chatMsg.senderId !== user.id) {
-              setUnreadMessageCount((count) => count + 1);
-              const trackingId =
-                chatMsg.recipientType === "GROUP" ? chatMsg.recipientId : chatMsg.senderId;
-              setUnreadMessageCounts((counts) => ({
-                ...counts,
-                [trackingId]: (counts[trackingId] || 0) + 1,
-              }));
-            }
-
-            return [...prev, chatMsg];
-          });
+          handleChatMessage(JSON.parse(message.body) as ChatMessage, user.id);
         });
 
         // Subscribe to typing indicators
         stompClient.subscribe(`/user/queue/typing`, (message: IMessage) => {
-          const typingEvent = JSON.parse(message.body) as TypingIndicator;
-          const key = `${typingEvent.userId}-${typingEvent.recipientId}`;
-
-          setTypingUsers((prev) => {
-            if (typingEvent.isTyping) {
-              return { ...prev, [key]: typingEvent };
-            } else {
-              const updated = { ...prev };
-              delete updated[key];
-              return updated;
-            }
-          });
+          handleTypingEvent(JSON.parse(message.body) as TypingIndicator);
         });
 
+        // Group messages are published once per group topic; subscriptions do not survive a reconnect
+        chatSubscriptions.current.clear();
+        subscribeToUserGroups(stompClient, token, user.id);
+
         // Fetch initial notifications using generic fetch to backend rest API
         setLoadingNotifications(true);
         fetchNotifications(token);
@@ -280,6 +256,79 @@ export const WebSocketProvider: React.FC<{ children: ReactNode }> = ({ children
     clientRef.current = stompClient;
   };
 
+  const handleChatMessage = (chatMsg: ChatMessage, userId: string) => {
+    // Prevent duplicate messages
+    setChatMessages((prev) => {
+      const exists = prev.some((m) => m.id === chatMsg.id);
+      if (exists) return prev;
+
+      // Update unread count only for new messages from others
+      if (chatMsg.senderId !== userId) {
+        setUnreadMessageCount((count) => count + 1);
+        const trackingId =
+          chatMsg.recipientType === "GROUP" ? chatMsg.recipientId : chatMsg.senderId;
+        setUnreadMessageCounts((counts) => ({
+          ...counts,
+          [trackingId]: (counts[trackingId] || 0) + 1,
+        }));
+      }
+
+      return [...prev, chatMsg];
+    });
+  };
+
+  const handleTypingEvent = (typingEvent: TypingIndicator) => {
+    const key = `${typingEvent.userId}-${typingEvent.recipientId}`;
+
+    setTypingUsers((prev) => {
+      if (typingEvent.isTyping) {
+        return { ...prev, [key]: typingEvent };
+      } else {
+        const updated = { ...prev };
+        delete updated[key];
+        return updated;
+      }
+    });
+  };
+
+  const subscribeToGroupTopics = (client: Client, groupId: string, userId: string) => {
+    const chatTopic = `/topic/group.${groupId}.chat`;
+    if (!chatSubscriptions.current.has(chatTopic)) {
+      const sub = client.subscribe(chatTopic, (message: IMessage) => {
+        handleChatMessage(JSON.parse(message.body) as ChatMessage, userId);
+      });
+      chatSubscriptions.current.set(chatTopic, sub);
+    }
+
+    const typingTopic = `/topic/group.${groupId}.typing`;
+    if (!chatSubscriptions.current.has(typingTopic)) {
+      const sub = client.subscribe(typingTopic, (message: IMessage) => {
+        const typingEvent = JSON.parse(message.body) as TypingIndicator;
+        // The group topic echoes our own typing events back
+        if (typingEvent.userId === userId) return;
+        handleTypingEvent(typingEvent);
+      });
+      chatSubscriptions.current.set(typingTopic, sub);
+    }
+  };
+
+  const subscribeToUserGroups = async (client: Client, token: string, userId: string) => {
+    try {
+      const backendUrl = process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080/api/v1";
+      const res = await fetch(`${backendUrl}/chat/groups`, {
+        headers: { Authorization: `Bearer ${token}` },
+      });
+      if (res.ok) {
+        const data = await res.json();
+        if (Array.isArray(data.data) && client.connected) {
+          data.data.forEach((group: { id: string }) => subscribeToGroupTopics(client, group.id, userId));
+        }
+      }
+    } catch (e) {
+      console.error("Failed to subscribe to chat groups", e);
+    }
+  };
+
   const fetchNotifications = async (token: string, page = 0, append = false) => {
     try {
       const backendUrl = process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080/api/v1";
@@ -382,7 +431,7 @@ export const WebSocketProvider: React.FC<{ children: ReactNode }> = ({ children
       const token = authService.getToken();
       const backendUrl = process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080/api/v1";
       const res = await fetch(
-        `${backendUrl}/chat/history/${recipientType}/${recipientId}?page=0&size=50`,
+        `${backendUrl}/chat/history/${recipientType}/${recipientId}?size=50`,
         {
           headers: { Authorization: `Bearer ${token}` },
         }
@@ -454,32 +503,22 @@ export const WebSocketProvider: React.FC<{ children: ReactNode }> = ({ children
     ) {
       const topic = `/topic/tenant.${currentUser.tenantId}.chat`;
       if (!chatSubscriptions.current.has(topic)) {
+        const userId = currentUser.id;
         const sub = clientRef.current.subscribe(topic, (message: IMessage) => {
-          const chatMsg = JSON.parse(message.body) as ChatMessage;
-          // Add with deduplication
-          setChatMessages((prev) => {
-            const exists = prev.some((m) => m.id === chatMsg.id);
-            if (exists) return prev;
-
-            // Update unread count for messages from others
-            if (currentUser && chatMsg.senderId !== currentUser.id) {
-              setUnreadMessageCount((count) => count + 1);
-              const trackingId =
-                chatMsg.recipientType === "GROUP" ? chatMsg.recipientId : chatMsg.senderId;
-              setUnreadMessageCounts((counts) => ({
-                ...counts,
-                [trackingId]: (counts[trackingId] || 0) + 1,
-              }));
-            }
-
-            return [...prev, chatMsg];
-          });
+          handleChatMessage(JSON.parse(message.body) as ChatMessage, userId);
         });
         chatSubscriptions.current.set(topic, sub);
       }
     }
   };
 
+  const subscribeToGroup = (groupId: string) => {
+    // Used for groups created after connecting; existing groups are subscribed onConnect
+    if (currentUser && clientRef.current && clientRef.current.connected) {
+      subscribeToGroupTopics(clientRef.current, groupId, currentUser.id);
+    }
+  };
+
   const markNotificationAsRead = async (notificationId: string) => {
     // Optimistic UI update
     setNotifications((prev) =>
@@ -528,6 +567,7 @@ export const WebSocketProvider: React.FC<{ children: ReactNode }> = ({ children
         sendMessage,
         sendTypingIndicator,
         subscribeToChat,
+        subscribeToGroup,
         fetchChatHistory,
         markNotificationAsRead,
         markAllNotificationsAsRead,
@@ -182,9 +182,25 @@ export interface DashboardStats {
   totalActivities: number;
 }
 
+export interface DailyGrowth {
+  day: string;
+  leads: number;
+  contacts: number;
+  opportunities: number;
+  activities: number;
+}
+
 export interface GrowthTrends {
   period: string;
+  // Records created in the period
   leadGrowth: number;
   contactGrowth: number;
   opportunityGrowth: number;
+  activityGrowth: number;
+  // Created minus deleted in the period
+  netLeadChange: number;
+  netContactChange: number;
+  netOpportunityChange: number;
+  netActivityChange: number;
+  daily: DailyGrowth[];
 }
@@ -6,7 +6,8 @@ export interface ProposalVersionResponse {
   version: number;
   action: string;
   comment: string;
-  snapshot: ProposalResponse;
+  snapshot?: ProposalResponse; // only returned for a single version
+  totalAmount?: number;
   createdAt: string;
   createdBy: string;
   createdByName: string;